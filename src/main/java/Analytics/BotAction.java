@@ -0,0 +1,13 @@
+package Analytics;
+
+/**
+ * Handling of clicks classified as bot traffic
+ */
+public enum BotAction {
+    /** Record bot clicks with click_stats.bot set */
+    TAG,
+    /** Do not record bot clicks */
+    DROP,
+    /** Do not classify clicks; every click is recorded as human */
+    OFF
+}
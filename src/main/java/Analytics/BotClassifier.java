@@ -0,0 +1,73 @@
+package Analytics;
+
+import java.util.Collection;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Classifies clicks as bot or human traffic by their User-Agent
+ *
+ * Link-preview bots, crawlers and uptime checkers announce themselves in the User-Agent;
+ * a User-Agent containing any configured signature is classified as a bot. Signatures are
+ * compiled into a {@link SignatureMatcher}, and the verdicts for recently seen User-Agent
+ * strings are kept in a bounded Caffeine cache, since most traffic comes from a small set
+ * of distinct strings.
+ *
+ * Key features:
+ * - One pass over the User-Agent for all signatures, no regular expressions
+ * - Bounded verdict cache (size 0 disables it); over-long User-Agents are not cached
+ * - Optional classification of requests without a User-Agent as bots
+ */
+public class BotClassifier {
+    /** User-Agents longer than this are matched every time instead of filling the cache */
+    static final int MAX_CACHED_LENGTH = 512;
+
+    private final BotAction action;
+    private final SignatureMatcher matcher;
+    private final Cache<String, Boolean> verdicts;
+    private final boolean missingUserAgentIsBot;
+
+    /**
+     * @param action What the caller does with bot clicks; with {@link BotAction#OFF} nothing is a bot
+     * @param signatures User-Agent substrings identifying bots, matched ignoring case
+     * @param cacheSize Maximum number of cached verdicts; 0 disables the cache
+     * @param missingUserAgentIsBot Whether a missing or blank User-Agent counts as a bot
+     */
+    public BotClassifier(BotAction action, Collection<String> signatures, int cacheSize,
+            boolean missingUserAgentIsBot) {
+        this.action = action;
+        this.matcher = new SignatureMatcher(signatures);
+        this.verdicts = cacheSize > 0 ? Caffeine.newBuilder().maximumSize(cacheSize).build() : null;
+        this.missingUserAgentIsBot = missingUserAgentIsBot;
+    }
+
+    /**
+     * @param userAgent The request's User-Agent header, may be null
+     * @return Whether the request comes from a bot
+     */
+    public boolean isBot(String userAgent) {
+        if (action == BotAction.OFF) {
+            return false;
+        }
+        if (userAgent == null || userAgent.isBlank()) {
+            return missingUserAgentIsBot;
+        }
+        if (verdicts == null || userAgent.length() > MAX_CACHED_LENGTH) {
+            return matcher.matches(userAgent);
+        }
+        Boolean verdict = verdicts.getIfPresent(userAgent);
+        if (verdict == null) {
+            verdict = matcher.matches(userAgent);
+            verdicts.put(userAgent, verdict);
+        }
+        return verdict;
+    }
+
+    /**
+     * @return What happens to clicks classified as bot traffic
+     */
+    public BotAction action() {
+        return action;
+    }
+}
@@ -0,0 +1,17 @@
+package Analytics;
+
+/**
+ * Browser family of a click, derived from its User-Agent by {@link UserAgentParser}
+ *
+ * Stored by ordinal: new constants must be appended, never inserted or reordered.
+ */
+public enum BrowserFamily {
+    OTHER,
+    CHROME,
+    SAFARI,
+    FIREFOX,
+    EDGE,
+    OPERA,
+    SAMSUNG_INTERNET,
+    INTERNET_EXPLORER
+}
@@ -0,0 +1,13 @@
+package Analytics;
+
+/**
+ * Device class of a click, derived from its User-Agent by {@link UserAgentParser}
+ *
+ * Stored by ordinal: new constants must be appended, never inserted or reordered.
+ */
+public enum DeviceClass {
+    OTHER,
+    DESKTOP,
+    MOBILE,
+    TABLET
+}
@@ -0,0 +1,241 @@
+package Analytics;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Suppresses repeated clicks of the same visitor on the same link within a time window
+ *
+ * A click is identified by a 64-bit fingerprint of its short code, IP address and User-Agent.
+ * Fingerprints are kept in a timing wheel: the window is cut into {@code ticks} equal ticks and
+ * every tick has its own open-addressing table of {@code long}s, so expiring a whole tick is
+ * clearing one array when the wheel comes round to it. Each entry keeps the upper 48 bits of
+ * the fingerprint and, in the lower 16 bits, when in its tick it was added, which makes the
+ * window boundary exact to 1/65536 of a tick rather than to a whole tick.
+ *
+ * The window runs from the first counted click: repeats inside it are suppressed without
+ * extending it, so a visitor clicking continuously is counted once per window.
+ *
+ * Memory is allocated up front and does not grow with the number of distinct visitors:
+ * roughly {@code maxKeys / ticks} entries per tick, 8 bytes each at a load factor of 0.75,
+ * see {@link #memoryBytes()}. When a tick's table is full, further clicks in that tick are
+ * counted and not remembered, so an overload lets duplicates through rather than dropping
+ * real clicks.
+ *
+ * Key features:
+ * - No allocation per click; one lock per stripe of fingerprints, 16 stripes
+ * - Exact window boundaries; expired ticks are cleared lazily
+ * - A disabled filter ({@link #disabled()}) suppresses nothing
+ */
+public class DuplicateClickFilter {
+    static final int STRIPES = 16;
+    static final int SUB_TICK_BITS = 16;
+    private static final long SUB_TICKS = 1L << SUB_TICK_BITS;
+    private static final long KEY_MASK = -1L << SUB_TICK_BITS;
+    private static final int STRIPE_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(STRIPES);
+
+    private final Stripe[] stripes;
+    private final long tickNanos;
+    private final int ticks;
+    private final LongSupplier clock;
+    private final long origin;
+    private final LongAdder suppressed = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+
+    /**
+     * @param window How long a repeat of a counted click is suppressed
+     * @param ticks Number of ticks the window is cut into; more ticks expire entries sooner
+     * @param maxKeys Number of fingerprints that fit in one window
+     */
+    public DuplicateClickFilter(Duration window, int ticks, int maxKeys) {
+        this(window, ticks, maxKeys, System::nanoTime);
+    }
+
+    DuplicateClickFilter(Duration window, int ticks, int maxKeys, LongSupplier clock) {
+        if (window.isNegative() || window.isZero() || ticks < 1 || maxKeys < 1) {
+            throw new IllegalArgumentException("Window, ticks and maxKeys must be positive");
+        }
+        this.ticks = ticks;
+        this.tickNanos = Math.max(1, window.toNanos() / ticks);
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+        int perTick = (int) Math.min(1 << 30, ((long) maxKeys + (long) ticks * STRIPES - 1) / ((long) ticks * STRIPES));
+        int tableSize = Integer.highestOneBit(Math.max(2, perTick * 4 / 3) - 1) << 1;
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(ticks + 1, tableSize);
+        }
+    }
+
+    private DuplicateClickFilter() {
+        this.stripes = null;
+        this.tickNanos = 1;
+        this.ticks = 0;
+        this.clock = null;
+        this.origin = 0;
+    }
+
+    /**
+     * @return A filter that suppresses nothing and holds no memory
+     */
+    public static DuplicateClickFilter disabled() {
+        return new DuplicateClickFilter();
+    }
+
+    /**
+     * Checks a click and remembers it if it is counted
+     *
+     * @param shortCode The clicked link
+     * @param ipAddress The visitor's IP address, may be null
+     * @param userAgent The visitor's User-Agent, may be null
+     * @return true if the same visitor clicked the link within the window, so this click is not counted
+     */
+    public boolean isDuplicate(String shortCode, String ipAddress, String userAgent) {
+        if (stripes == null) {
+            return false;
+        }
+        long key = fingerprint(shortCode, ipAddress, userAgent) & KEY_MASK;
+        if (key == 0) {
+            key = SUB_TICKS;
+        }
+        long elapsed = clock.getAsLong() - origin;
+        long tick = elapsed / tickNanos;
+        long offset = (elapsed - tick * tickNanos) * SUB_TICKS / tickNanos;
+        Stripe stripe = stripes[(int) (key >>> STRIPE_SHIFT)];
+        int result;
+        synchronized (stripe) {
+            result = stripe.checkAndAdd(key, tick, offset, ticks);
+        }
+        if (result == Stripe.DUPLICATE) {
+            suppressed.increment();
+            return true;
+        }
+        if (result == Stripe.FULL) {
+            overflowed.increment();
+        }
+        return false;
+    }
+
+    /**
+     * @return Bytes held by the fingerprint tables, fixed at construction
+     */
+    public long memoryBytes() {
+        if (stripes == null) {
+            return 0;
+        }
+        return (long) STRIPES * (ticks + 1) * stripes[0].tables[0].length * Long.BYTES;
+    }
+
+    /**
+     * @return Number of clicks suppressed as duplicates
+     */
+    public long suppressedCount() {
+        return suppressed.sum();
+    }
+
+    /**
+     * @return Number of counted clicks that could not be remembered because a tick was full
+     */
+    public long overflowCount() {
+        return overflowed.sum();
+    }
+
+    /**
+     * 64-bit FNV-1a over the three values, finished with the MurmurHash3 mixer
+     */
+    static long fingerprint(String shortCode, String ipAddress, String userAgent) {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, shortCode);
+        hash = mix(hash, ipAddress);
+        hash = mix(hash, userAgent);
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+            }
+        }
+        // separator, so ("ab", "c") and ("a", "bc") differ; null differs from ""
+        return (hash ^ (value == null ? 0x1ff : 0x100)) * 0x100000001b3L;
+    }
+
+    /**
+     * One wheel of per-tick fingerprint tables; guarded by its own monitor
+     */
+    private static final class Stripe {
+        static final int COUNTED = 0;
+        static final int DUPLICATE = 1;
+        static final int FULL = 2;
+
+        final long[][] tables;
+        final long[] tableTicks;
+        final int[] sizes;
+        final int mask;
+        final int maxSize;
+
+        Stripe(int slots, int tableSize) {
+            this.tables = new long[slots][tableSize];
+            this.tableTicks = new long[slots];
+            Arrays.fill(tableTicks, Long.MIN_VALUE);
+            this.sizes = new int[slots];
+            this.mask = tableSize - 1;
+            this.maxSize = tableSize * 3 / 4;
+        }
+
+        /**
+         * Ticks older than the window are skipped; in the oldest live tick the entry's offset
+         * decides whether the window has passed
+         */
+        int checkAndAdd(long key, long tick, long offset, int ticksPerWindow) {
+            long window = ticksPerWindow * SUB_TICKS;
+            for (int slot = 0; slot < tables.length; slot++) {
+                long age = tick - tableTicks[slot];
+                if (age < 0 || age > ticksPerWindow) {
+                    continue;
+                }
+                long entry = find(tables[slot], key);
+                if (entry != 0 && age * SUB_TICKS + offset - (entry & ~KEY_MASK) < window) {
+                    return DUPLICATE;
+                }
+            }
+            int slot = (int) (tick % tables.length);
+            long[] table = tables[slot];
+            if (tableTicks[slot] != tick) {
+                Arrays.fill(table, 0);
+                sizes[slot] = 0;
+                tableTicks[slot] = tick;
+            }
+            if (sizes[slot] >= maxSize) {
+                return FULL;
+            }
+            int index = (int) (key >>> SUB_TICK_BITS) & mask;
+            while (table[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            table[index] = key | offset;
+            sizes[slot]++;
+            return COUNTED;
+        }
+
+        private long find(long[] table, long key) {
+            int index = (int) (key >>> SUB_TICK_BITS) & mask;
+            long entry;
+            while ((entry = table[index]) != 0) {
+                if ((entry & KEY_MASK) == key) {
+                    return entry;
+                }
+                index = (index + 1) & mask;
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package Analytics;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Offline IPv4-to-country lookup
+ *
+ * Loads an IP range database (CSV lines "first_ip,last_ip,country_code", e.g. the DB-IP
+ * "IP to Country Lite" file, optionally gzipped) into sorted primitive arrays: range start
+ * addresses, range end addresses and an index into a table of country code strings. A
+ * lookup parses the dotted address without creating objects and binary-searches the starts,
+ * so it needs neither allocation nor network access.
+ *
+ * Key features:
+ * - About 12 bytes per range (a few MB for a full country database)
+ * - Addresses compared unsigned by flipping the sign bit before storing them as ints
+ * - IPv6 rows and addresses are skipped; they resolve to {@link #UNKNOWN}
+ *
+ * Instances are immutable and thread-safe.
+ */
+public final class GeoIpLookup {
+    /** Country code for addresses outside every range, unparseable addresses and IPv6 */
+    public static final String UNKNOWN = "ZZ";
+
+    private static final GeoIpLookup EMPTY = new GeoIpLookup(new int[0], new int[0], new short[0], new String[0]);
+
+    /** First address of each range, sign bit flipped, ascending */
+    private final int[] starts;
+
+    /** Last address of each range, sign bit flipped */
+    private final int[] ends;
+
+    /** Index into {@link #countries} per range */
+    private final short[] countryIndexes;
+
+    /** Distinct country codes */
+    private final String[] countries;
+
+    private GeoIpLookup(int[] starts, int[] ends, short[] countryIndexes, String[] countries) {
+        this.starts = starts;
+        this.ends = ends;
+        this.countryIndexes = countryIndexes;
+        this.countries = countries;
+    }
+
+    /**
+     * @return A lookup without ranges, resolving every address to {@link #UNKNOWN}
+     */
+    public static GeoIpLookup empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Loads a range database file; files ending in ".gz" are decompressed
+     *
+     * @param file CSV file with lines "first_ip,last_ip,country_code"
+     * @return The lookup
+     * @throws IOException If the file cannot be read
+     */
+    public static GeoIpLookup load(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return load(file.toString().endsWith(".gz") ? new GZIPInputStream(in) : in);
+        }
+    }
+
+    /**
+     * Loads a range database from a stream of CSV lines "first_ip,last_ip,country_code"
+     *
+     * Rows may come in any order but must not overlap. Quotes around fields, IPv6 rows
+     * and malformed rows are ignored.
+     *
+     * @param in The CSV data; not closed
+     * @return The lookup
+     * @throws IOException If the stream cannot be read
+     */
+    public static GeoIpLookup load(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII));
+        Map<String, Short> countryIndex = new HashMap<>();
+        int[] firsts = new int[1024];
+        int[] lasts = new int[1024];
+        short[] rowCountries = new short[1024];
+        int count = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] fields = line.replace("\"", "").split(",");
+            if (fields.length < 3) {
+                continue;
+            }
+            long first = parseIpv4(fields[0].trim());
+            long last = parseIpv4(fields[1].trim());
+            String country = fields[2].trim().toUpperCase(Locale.ROOT);
+            if (first < 0 || last < first || country.length() != 2) {
+                continue;
+            }
+            if (count == firsts.length) {
+                firsts = Arrays.copyOf(firsts, count * 2);
+                lasts = Arrays.copyOf(lasts, count * 2);
+                rowCountries = Arrays.copyOf(rowCountries, count * 2);
+            }
+            firsts[count] = (int) first ^ Integer.MIN_VALUE;
+            lasts[count] = (int) last ^ Integer.MIN_VALUE;
+            rowCountries[count] = countryIndex.computeIfAbsent(country, code -> (short) countryIndex.size());
+            count++;
+        }
+
+        // Sort rows by start: start in the high half of a long, row number in the low half
+        long[] order = new long[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = ((long) firsts[i] << 32) | i;
+        }
+        Arrays.sort(order);
+        int[] starts = new int[count];
+        int[] ends = new int[count];
+        short[] countryIndexes = new short[count];
+        for (int i = 0; i < count; i++) {
+            int row = (int) order[i];
+            starts[i] = firsts[row];
+            ends[i] = lasts[row];
+            countryIndexes[i] = rowCountries[row];
+        }
+        String[] countries = new String[countryIndex.size()];
+        countryIndex.forEach((code, index) -> countries[index] = code.intern());
+        return new GeoIpLookup(starts, ends, countryIndexes, countries);
+    }
+
+    /**
+     * @param ip IPv4 address in dotted notation, may be null
+     * @return Two-letter country code, or {@link #UNKNOWN}
+     */
+    public String country(String ip) {
+        long address = parseIpv4(ip);
+        return address < 0 ? UNKNOWN : country((int) address);
+    }
+
+    /**
+     * @param address IPv4 address as a 32-bit int (a.b.c.d = a << 24 | b << 16 | c << 8 | d)
+     * @return Two-letter country code, or {@link #UNKNOWN}
+     */
+    public String country(int address) {
+        int key = address ^ Integer.MIN_VALUE;
+        int low = 0;
+        int high = starts.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        // high is the last range starting at or before the address
+        if (high < 0 || ends[high] < key) {
+            return UNKNOWN;
+        }
+        return countries[countryIndexes[high]];
+    }
+
+    /**
+     * @return Number of ranges loaded
+     */
+    public int size() {
+        return starts.length;
+    }
+
+    /**
+     * Parses a dotted IPv4 address without allocating
+     *
+     * @param ip The address, may be null
+     * @return The address as an unsigned 32-bit value, or -1 if it is not a valid IPv4 address
+     */
+    static long parseIpv4(CharSequence ip) {
+        if (ip == null) {
+            return -1;
+        }
+        long address = 0;
+        int octet = 0;
+        int digits = 0;
+        int dots = 0;
+        for (int i = 0, length = ip.length(); i < length; i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = octet * 10 + (c - '0');
+                if (++digits > 3 || octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && digits > 0 && dots < 3) {
+                address = (address << 8) | octet;
+                octet = 0;
+                digits = 0;
+                dots++;
+            } else {
+                return -1;
+            }
+        }
+        if (dots != 3 || digits == 0) {
+            return -1;
+        }
+        return (address << 8) | octet;
+    }
+}
@@ -0,0 +1,183 @@
+package Analytics;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch for counting distinct visitors
+ *
+ * Keeps 2^{@value #PRECISION} one-byte registers, each holding the longest run of leading
+ * zeros seen among the 64-bit hashes routed to it, which estimates the number of distinct
+ * hashes with a standard error of about 2.3%. Sketches of disjoint periods or dimensions
+ * merge by taking the larger register, so an hourly sketch per rollup row answers unique
+ * visitor counts for any combination of rows.
+ *
+ * Key features:
+ * - Fixed 2 KB in memory; serialized sparsely (3 bytes per used register) while that is smaller
+ * - Merging from the serialized form without an intermediate sketch
+ * - Linear counting for small cardinalities, where the raw estimate is biased
+ *
+ * Instances are not thread-safe.
+ */
+public final class HyperLogLog {
+    /** Number of hash bits selecting the register */
+    public static final int PRECISION = 11;
+
+    static final int REGISTERS = 1 << PRECISION;
+
+    private static final byte SPARSE = 1;
+    private static final byte DENSE = 2;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers = new byte[REGISTERS];
+
+    /**
+     * Adds a hashed value; the hash must be uniformly distributed over all 64 bits
+     */
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        // the sentinel bit caps the rank when all remaining bits are zero
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Adds all values seen by another sketch
+     */
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * Adds all values seen by a serialized sketch
+     *
+     * @param bytes A sketch as returned by {@link #toBytes()}
+     * @throws IllegalArgumentException if the bytes are not a sketch of this precision
+     */
+    public void merge(byte[] bytes) {
+        if (bytes.length == REGISTERS + 1 && bytes[0] == DENSE) {
+            for (int i = 0; i < REGISTERS; i++) {
+                if (bytes[i + 1] > registers[i]) {
+                    registers[i] = bytes[i + 1];
+                }
+            }
+            return;
+        }
+        if (bytes.length < 3 || bytes[0] != SPARSE || bytes.length != 3 + 3 * count(bytes)) {
+            throw new IllegalArgumentException("Not a HyperLogLog sketch of precision " + PRECISION);
+        }
+        for (int offset = 3; offset < bytes.length; offset += 3) {
+            int index = ((bytes[offset] & 0xFF) << 8 | (bytes[offset + 1] & 0xFF)) & (REGISTERS - 1);
+            if (bytes[offset + 2] > registers[index]) {
+                registers[index] = bytes[offset + 2];
+            }
+        }
+    }
+
+    /**
+     * @return Estimated number of distinct hashes added
+     */
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * @return true if nothing has been added
+     */
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Forgets all added values, so the sketch can be reused
+     */
+    public void clear() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    /**
+     * Serializes the sketch: a format byte, then either the used registers as (2-byte index,
+     * rank) triples after a 2-byte count, or all registers
+     */
+    public byte[] toBytes() {
+        int used = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                used++;
+            }
+        }
+        if (3 + 3 * used > REGISTERS + 1) {
+            byte[] bytes = new byte[REGISTERS + 1];
+            bytes[0] = DENSE;
+            System.arraycopy(registers, 0, bytes, 1, REGISTERS);
+            return bytes;
+        }
+        byte[] bytes = new byte[3 + 3 * used];
+        bytes[0] = SPARSE;
+        bytes[1] = (byte) (used >>> 8);
+        bytes[2] = (byte) used;
+        int offset = 3;
+        for (int i = 0; i < REGISTERS; i++) {
+            if (registers[i] != 0) {
+                bytes[offset++] = (byte) (i >>> 8);
+                bytes[offset++] = (byte) i;
+                bytes[offset++] = registers[i];
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Hashes a visitor identity: 64-bit FNV-1a over both values, finished with the
+     * MurmurHash3 mixer so all bits are usable by the sketch
+     *
+     * @param ipAddress The visitor's IP address, may be null
+     * @param userAgent The visitor's User-Agent, may be null
+     */
+    public static long hash(String ipAddress, String userAgent) {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, ipAddress);
+        hash = mix(hash, userAgent);
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+            }
+        }
+        return (hash ^ (value == null ? 0x1ff : 0x100)) * 0x100000001b3L;
+    }
+
+    private static int count(byte[] bytes) {
+        return (bytes[1] & 0xFF) << 8 | (bytes[2] & 0xFF);
+    }
+}
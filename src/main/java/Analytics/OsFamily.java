@@ -0,0 +1,16 @@
+package Analytics;
+
+/**
+ * Operating system family of a click, derived from its User-Agent by {@link UserAgentParser}
+ *
+ * Stored by ordinal: new constants must be appended, never inserted or reordered.
+ */
+public enum OsFamily {
+    OTHER,
+    WINDOWS,
+    MACOS,
+    IOS,
+    ANDROID,
+    LINUX,
+    CHROME_OS
+}
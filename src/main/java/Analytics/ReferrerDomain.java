@@ -0,0 +1,50 @@
+package Analytics;
+
+import java.util.Locale;
+
+/**
+ * Reduces a Referer header to the domain it names, the referrer dimension of the click rollups
+ *
+ * "https://www.News.example.com:443/a?b" becomes "news.example.com". A missing or empty
+ * header is {@link #DIRECT}; a value without a scheme is read as starting with its host.
+ */
+public final class ReferrerDomain {
+    /** Domain of clicks without a referrer */
+    public static final String DIRECT = "";
+
+    /** Longest domain kept; longer hosts are cut */
+    static final int MAX_LENGTH = 255;
+
+    private ReferrerDomain() {
+    }
+
+    /**
+     * @param referrer The Referer header, may be null
+     * @return The lowercase host without a leading "www.", or {@link #DIRECT}
+     */
+    public static String of(String referrer) {
+        if (referrer == null || referrer.isBlank()) {
+            return DIRECT;
+        }
+        String value = referrer.trim();
+        int scheme = value.indexOf("://");
+        int start = scheme < 0 ? 0 : scheme + 3;
+        int at = value.indexOf('@', start);
+        int end = start;
+        while (end < value.length() && "/?#".indexOf(value.charAt(end)) < 0) {
+            end++;
+        }
+        if (at >= 0 && at < end) {
+            start = at + 1;
+        }
+        int port = value.lastIndexOf(':', end - 1);
+        if (port >= start && value.indexOf(']', start) < port) {
+            end = port;
+        }
+        String host = value.substring(start, end).toLowerCase(Locale.ROOT);
+        if (host.startsWith("www.")) {
+            host = host.substring(4);
+        }
+        return host.length() > MAX_LENGTH ? host.substring(0, MAX_LENGTH) : host;
+    }
+}
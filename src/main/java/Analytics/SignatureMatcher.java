@@ -0,0 +1,145 @@
+package Analytics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+
+/**
+ * Case-insensitive multi-pattern substring matcher (Aho-Corasick)
+ *
+ * All signatures are compiled once into a deterministic automaton, so a text is checked
+ * against every signature in a single pass over its characters, however many signatures
+ * there are. The automaton is stored as a flat transition table over a reduced alphabet:
+ * every character occurring in a signature gets its own class (upper and lower case share
+ * one), and all other characters fall into class 0. Failure links are resolved while the
+ * table is built, so matching is one array lookup per character and allocates nothing.
+ *
+ * Instances are immutable and thread-safe.
+ */
+public final class SignatureMatcher {
+    private static final int ROOT = 0;
+
+    /** Character class of each ASCII character; 0 for characters in no signature */
+    private final byte[] charClasses = new byte[128];
+
+    /** Number of character classes, i.e. the width of one row of the transition table */
+    private final int alphabetSize;
+
+    /** Next state for (state * alphabetSize + class) */
+    private final int[] transitions;
+
+    /** Whether reaching a state means that some signature has been matched */
+    private final boolean[] accepting;
+
+    /**
+     * @param signatures Substrings to look for; ASCII, matched ignoring case. Blank entries are ignored.
+     */
+    public SignatureMatcher(Collection<String> signatures) {
+        List<String> patterns = new ArrayList<>();
+        for (String signature : signatures) {
+            if (signature == null || signature.isBlank()) {
+                continue;
+            }
+            String pattern = signature.trim().toLowerCase(Locale.ROOT);
+            for (int i = 0; i < pattern.length(); i++) {
+                if (pattern.charAt(i) >= 128) {
+                    throw new IllegalArgumentException("Signature is not ASCII: " + signature);
+                }
+            }
+            patterns.add(pattern);
+        }
+
+        int classes = 1;
+        for (String pattern : patterns) {
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (charClasses[c] == 0) {
+                    if (classes > Byte.MAX_VALUE) {
+                        throw new IllegalArgumentException("Too many distinct characters in signatures");
+                    }
+                    charClasses[c] = (byte) classes++;
+                }
+            }
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            charClasses[c] = charClasses[Character.toLowerCase(c)];
+        }
+        this.alphabetSize = classes;
+
+        // Trie: 0 in a transition means "no edge" until failure links are resolved
+        int maxStates = 1 + patterns.stream().mapToInt(String::length).sum();
+        int[] table = new int[maxStates * alphabetSize];
+        boolean[] accept = new boolean[maxStates];
+        int states = 1;
+        for (String pattern : patterns) {
+            int state = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                int slot = state * alphabetSize + charClasses[pattern.charAt(i)];
+                if (table[slot] == 0) {
+                    table[slot] = states++;
+                }
+                state = table[slot];
+            }
+            accept[state] = true;
+        }
+
+        // Breadth-first: turn the trie into a DFA by following failure links
+        int[] failure = new int[states];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < alphabetSize; c++) {
+            int next = table[c];
+            if (next != 0) {
+                failure[next] = ROOT;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            accept[state] |= accept[failure[state]];
+            for (int c = 0; c < alphabetSize; c++) {
+                int slot = state * alphabetSize + c;
+                int next = table[slot];
+                int fallback = table[failure[state] * alphabetSize + c];
+                if (next == 0) {
+                    table[slot] = fallback;
+                } else {
+                    failure[next] = fallback;
+                    queue.add(next);
+                }
+            }
+        }
+
+        this.transitions = Arrays.copyOf(table, states * alphabetSize);
+        this.accepting = Arrays.copyOf(accept, states);
+    }
+
+    /**
+     * @param text Text to search, may be null
+     * @return Whether the text contains at least one of the signatures
+     */
+    public boolean matches(CharSequence text) {
+        if (text == null || accepting.length == 1) {
+            return false;
+        }
+        int state = ROOT;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            state = transitions[state * alphabetSize + (c < 128 ? charClasses[c] : 0)];
+            if (accepting[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Number of automaton states, for diagnostics
+     */
+    public int stateCount() {
+        return accepting.length;
+    }
+}
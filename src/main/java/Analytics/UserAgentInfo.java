@@ -0,0 +1,14 @@
+package Analytics;
+
+/**
+ * Dimensions parsed from a User-Agent
+ *
+ * @param browser Browser family
+ * @param os Operating system family
+ * @param device Device class
+ */
+public record UserAgentInfo(BrowserFamily browser, OsFamily os, DeviceClass device) {
+    /** Result for a missing or unrecognized User-Agent */
+    public static final UserAgentInfo UNKNOWN =
+            new UserAgentInfo(BrowserFamily.OTHER, OsFamily.OTHER, DeviceClass.OTHER);
+}
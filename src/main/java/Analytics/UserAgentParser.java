@@ -0,0 +1,117 @@
+package Analytics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Parses User-Agent strings into browser, operating system and device dimensions
+ *
+ * Parsing runs once per click when it is recorded, so analytics queries group by small
+ * enum codes instead of matching raw User-Agent strings. The rules look for the product
+ * tokens browsers put in their User-Agent, most specific first: Chromium-based browsers
+ * also claim to be Chrome and Safari, and iOS and Android also mention Mac OS X and Linux.
+ * Results for recently seen User-Agents are kept in a bounded Caffeine cache, since most
+ * traffic comes from a small set of distinct strings.
+ *
+ * Key features:
+ * - Browser family, OS family and device class as enums (see {@link UserAgentInfo})
+ * - Plain substring checks, no regular expressions
+ * - Bounded result cache (size 0 disables it); over-long User-Agents are not cached
+ */
+public class UserAgentParser {
+    /** User-Agents longer than this are parsed every time instead of filling the cache */
+    static final int MAX_CACHED_LENGTH = 512;
+
+    private final Cache<String, UserAgentInfo> results;
+
+    /**
+     * @param cacheSize Maximum number of cached results; 0 disables the cache
+     */
+    public UserAgentParser(int cacheSize) {
+        this.results = cacheSize > 0 ? Caffeine.newBuilder().maximumSize(cacheSize).build() : null;
+    }
+
+    /**
+     * @param userAgent The request's User-Agent header, may be null
+     * @return The parsed dimensions; {@link UserAgentInfo#UNKNOWN} for a missing User-Agent
+     */
+    public UserAgentInfo parse(String userAgent) {
+        if (userAgent == null || userAgent.isBlank()) {
+            return UserAgentInfo.UNKNOWN;
+        }
+        if (results == null || userAgent.length() > MAX_CACHED_LENGTH) {
+            return parseUncached(userAgent);
+        }
+        UserAgentInfo info = results.getIfPresent(userAgent);
+        if (info == null) {
+            info = parseUncached(userAgent);
+            results.put(userAgent, info);
+        }
+        return info;
+    }
+
+    static UserAgentInfo parseUncached(String userAgent) {
+        OsFamily os = os(userAgent);
+        return new UserAgentInfo(browser(userAgent), os, device(userAgent, os));
+    }
+
+    private static BrowserFamily browser(String ua) {
+        if (ua.contains("Edg/") || ua.contains("Edge/") || ua.contains("EdgA/") || ua.contains("EdgiOS/")) {
+            return BrowserFamily.EDGE;
+        }
+        if (ua.contains("OPR/") || ua.contains("Opera")) {
+            return BrowserFamily.OPERA;
+        }
+        if (ua.contains("SamsungBrowser/")) {
+            return BrowserFamily.SAMSUNG_INTERNET;
+        }
+        if (ua.contains("Firefox/") || ua.contains("FxiOS/")) {
+            return BrowserFamily.FIREFOX;
+        }
+        if (ua.contains("Chrome/") || ua.contains("CriOS/") || ua.contains("Chromium/")) {
+            return BrowserFamily.CHROME;
+        }
+        if (ua.contains("Safari/") && (ua.contains("Version/") || ua.contains("Mobile/"))) {
+            return BrowserFamily.SAFARI;
+        }
+        if (ua.contains("MSIE ") || ua.contains("Trident/")) {
+            return BrowserFamily.INTERNET_EXPLORER;
+        }
+        return BrowserFamily.OTHER;
+    }
+
+    private static OsFamily os(String ua) {
+        if (ua.contains("Windows")) {
+            return OsFamily.WINDOWS;
+        }
+        if (ua.contains("iPhone") || ua.contains("iPad") || ua.contains("iPod")) {
+            return OsFamily.IOS;
+        }
+        if (ua.contains("Android")) {
+            return OsFamily.ANDROID;
+        }
+        if (ua.contains("CrOS")) {
+            return OsFamily.CHROME_OS;
+        }
+        if (ua.contains("Macintosh") || ua.contains("Mac OS X")) {
+            return OsFamily.MACOS;
+        }
+        if (ua.contains("Linux") || ua.contains("X11")) {
+            return OsFamily.LINUX;
+        }
+        return OsFamily.OTHER;
+    }
+
+    private static DeviceClass device(String ua, OsFamily os) {
+        if (ua.contains("iPad") || ua.contains("Tablet") || (os == OsFamily.ANDROID && !ua.contains("Mobile"))) {
+            return DeviceClass.TABLET;
+        }
+        if (ua.contains("Mobi") || ua.contains("iPhone") || ua.contains("iPod")) {
+            return DeviceClass.MOBILE;
+        }
+        return switch (os) {
+            case WINDOWS, MACOS, LINUX, CHROME_OS -> DeviceClass.DESKTOP;
+            default -> DeviceClass.OTHER;
+        };
+    }
+}
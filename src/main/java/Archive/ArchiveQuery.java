@@ -0,0 +1,36 @@
+package Archive;
+
+import java.time.LocalDateTime;
+
+/**
+ * Selection of archived clicks
+ *
+ * @param shortCode Only clicks on this link; null for all links
+ * @param from Only clicks at or after this time; null for no lower bound
+ * @param to Only clicks before this time; null for no upper bound
+ */
+public record ArchiveQuery(String shortCode, LocalDateTime from, LocalDateTime to) {
+
+    /**
+     * @return A query selecting every archived click
+     */
+    public static ArchiveQuery all() {
+        return new ArchiveQuery(null, null, null);
+    }
+
+    /**
+     * Checks a segment's zone maps
+     *
+     * @return false if the segment cannot hold a matching click
+     */
+    boolean overlaps(SegmentHeader segment) {
+        if (shortCode != null && (shortCode.compareTo(segment.minShortCode()) < 0
+                || shortCode.compareTo(segment.maxShortCode()) > 0)) {
+            return false;
+        }
+        if (from != null && segment.maxClickedAt().isBefore(from)) {
+            return false;
+        }
+        return to == null || segment.minClickedAt().isBefore(to);
+    }
+}
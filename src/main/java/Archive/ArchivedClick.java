@@ -0,0 +1,31 @@
+package Archive;
+
+import java.time.LocalDateTime;
+
+import Analytics.BrowserFamily;
+import Analytics.DeviceClass;
+import Analytics.OsFamily;
+
+/**
+ * A click as kept in the archive tier
+ *
+ * The same values as a 'click_stats' row plus the short code of its link, so archived
+ * clicks can be read without the link table.
+ *
+ * @param id The click's id in 'click_stats'
+ * @param shortCode Short code of the clicked link; empty if the link no longer exists
+ * @param shortUrlId Id of the clicked link
+ * @param clickedAt When the click happened, to the microsecond
+ * @param ipAddress Visitor IP address, may be null
+ * @param referrer Referer header, may be null
+ * @param userAgent User-Agent header, may be null
+ * @param browser Browser family, may be null
+ * @param os Operating system family, may be null
+ * @param device Device class, may be null
+ * @param country ISO country code, may be null
+ * @param bot Whether the click was classified as bot traffic
+ */
+public record ArchivedClick(long id, String shortCode, long shortUrlId, LocalDateTime clickedAt, String ipAddress,
+        String referrer, String userAgent, BrowserFamily browser, OsFamily os, DeviceClass device, String country,
+        boolean bot) {
+}
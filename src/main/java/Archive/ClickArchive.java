@@ -0,0 +1,179 @@
+package Archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Cold tier of click events: a directory of compressed, column-oriented segment files
+ *
+ * Each shard has its own subdirectory; segments are named "seg-&lt;sequence&gt;.seg" and are
+ * never modified once written. The headers of all segments (row count, time range, short
+ * code range, id range) are kept in memory, so a scan skips every segment whose zone maps
+ * cannot match the query without opening it. Within a segment rows are sorted by short
+ * code, so a query for one link decodes only the columns' prefix up to that link's rows.
+ *
+ * Key features:
+ * - Delta-encoded timestamps and ids, dictionary-encoded strings, one byte per enum
+ *   dimension and one bit per bot flag, each column Deflate-compressed (see {@link ClickSegment})
+ * - Segment pruning by short code and time range
+ * - Segments are published atomically; leftover temporary files are removed on open
+ */
+public class ClickArchive {
+    private static final String PREFIX = "seg-";
+
+    private final Path directory;
+    private final int rowsPerSegment;
+    private final List<SegmentHeader> segments = new CopyOnWriteArrayList<>();
+
+    /**
+     * Opens an archive, reading the headers of its existing segments
+     *
+     * @param directory Root directory of the archive; created if missing
+     * @param rowsPerSegment Maximum number of clicks per segment
+     * @throws UncheckedIOException if the directory or a segment header cannot be read
+     */
+    public ClickArchive(Path directory, int rowsPerSegment) {
+        if (rowsPerSegment < 1) {
+            throw new IllegalArgumentException("rowsPerSegment must be positive");
+        }
+        this.directory = directory;
+        this.rowsPerSegment = rowsPerSegment;
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.walk(directory, 2)) {
+                for (Path file : files.filter(Files::isRegularFile).sorted().toList()) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(ClickSegment.SUFFIX + ".tmp")) {
+                        Files.delete(file);
+                    } else if (name.startsWith(PREFIX) && name.endsWith(ClickSegment.SUFFIX)) {
+                        segments.add(ClickSegment.readHeader(file));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open click archive " + directory, e);
+        }
+    }
+
+    /**
+     * Writes clicks into new segments of a shard
+     *
+     * The clicks are sorted by short code and click time and split into segments of at most
+     * rowsPerSegment rows. Every segment is on disk when this returns.
+     *
+     * @param shard The shard the clicks were taken from
+     * @param clicks The clicks to archive
+     * @return Headers of the written segments
+     */
+    public synchronized List<SegmentHeader> write(int shard, List<ArchivedClick> clicks) throws IOException {
+        List<ArchivedClick> sorted = new ArrayList<>(clicks);
+        sorted.sort(Comparator.comparing(ArchivedClick::shortCode)
+                .thenComparing(ArchivedClick::clickedAt)
+                .thenComparingLong(ArchivedClick::id));
+        Path shardDirectory = directory.resolve("shard-" + shard);
+        Files.createDirectories(shardDirectory);
+        List<SegmentHeader> written = new ArrayList<>();
+        for (int start = 0; start < sorted.size(); start += rowsPerSegment) {
+            List<ArchivedClick> rows = sorted.subList(start, Math.min(sorted.size(), start + rowsPerSegment));
+            Path file = shardDirectory.resolve(PREFIX + String.format("%012d", nextSequence(shardDirectory))
+                    + ClickSegment.SUFFIX);
+            SegmentHeader header = ClickSegment.write(file, rows);
+            segments.add(header);
+            written.add(header);
+        }
+        return written;
+    }
+
+    /**
+     * Passes every archived click matching a query to an action
+     *
+     * Segments are read in the order they were written; within a segment clicks are ordered
+     * by short code and click time.
+     *
+     * @return Number of segments considered and read, and of clicks passed
+     * @throws UncheckedIOException if a segment that could match is unreadable
+     */
+    public ScanResult scan(ArchiveQuery query, Consumer<ArchivedClick> action) {
+        int read = 0;
+        long rows = 0;
+        List<SegmentHeader> snapshot = List.copyOf(segments);
+        for (SegmentHeader segment : snapshot) {
+            if (!query.overlaps(segment)) {
+                continue;
+            }
+            try {
+                rows += ClickSegment.scan(segment, query, action);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read archive segment " + segment.file(), e);
+            }
+            read++;
+        }
+        return new ScanResult(snapshot.size(), read, rows);
+    }
+
+    /**
+     * @return Headers of all segments, in the order they were written per shard
+     */
+    public List<SegmentHeader> segments() {
+        return List.copyOf(segments);
+    }
+
+    /**
+     * @return Header of the segment of a shard that was written last, if any
+     */
+    public synchronized Optional<SegmentHeader> newestSegment(int shard) {
+        Path shardDirectory = directory.resolve("shard-" + shard);
+        SegmentHeader newest = null;
+        for (SegmentHeader segment : segments) {
+            if (segment.file().getParent().equals(shardDirectory)) {
+                newest = segment;
+            }
+        }
+        return Optional.ofNullable(newest);
+    }
+
+    /**
+     * @return Number of archived clicks
+     */
+    public long rowCount() {
+        return segments.stream().mapToLong(SegmentHeader::rows).sum();
+    }
+
+    /**
+     * @return Size of all segment files in bytes
+     */
+    public long sizeBytes() {
+        return segments.stream().mapToLong(SegmentHeader::bytes).sum();
+    }
+
+    private long nextSequence(Path shardDirectory) {
+        long last = -1;
+        for (SegmentHeader segment : segments) {
+            if (segment.file().getParent().equals(shardDirectory)) {
+                String name = segment.file().getFileName().toString();
+                last = Math.max(last, Long.parseLong(
+                        name.substring(PREFIX.length(), name.length() - ClickSegment.SUFFIX.length())));
+            }
+        }
+        return last + 1;
+    }
+
+    /**
+     * Outcome of a scan
+     *
+     * @param segments Number of segments in the archive
+     * @param segmentsRead Number of segments that were not pruned by their zone maps
+     * @param rows Number of clicks passed to the action
+     */
+    public record ScanResult(int segments, int segmentsRead, long rows) {
+    }
+}
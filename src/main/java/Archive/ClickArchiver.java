@@ -0,0 +1,190 @@
+package Archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import Analytics.BrowserFamily;
+import Analytics.DeviceClass;
+import Analytics.OsFamily;
+import Sharding.ShardContext;
+
+/**
+ * Moves aged click events from the 'click_stats' table into the {@link ClickArchive}
+ *
+ * Every interval, per shard, clicks older than the retention period are read in id order,
+ * one segment's worth at a time, written as a segment and then deleted from the table. The
+ * hourly aggregates in 'click_aggregate' are not touched, so click breakdowns keep covering
+ * the full history while the raw click table only holds the recent period.
+ *
+ * A segment is on disk before its rows are deleted. If the node stops in between, the rows
+ * of the shard's newest segment are deleted again before that shard is next archived, so no
+ * click is archived twice.
+ */
+public class ClickArchiver implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ClickArchiver.class);
+
+    static final String SELECT_SQL = "SELECT c.id, s.short_code, c.short_url_id, c.clicked_at, c.ip_address, "
+            + "c.referrer, c.user_agent, c.browser, c.os, c.device, c.country, c.bot "
+            + "FROM click_stats c LEFT JOIN short_url s ON s.id = c.short_url_id "
+            + "WHERE c.clicked_at < ? ORDER BY c.id LIMIT ?";
+
+    static final String DELETE_SQL = "DELETE FROM click_stats WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ClickArchive archive;
+    private final int shardCount;
+    private final Duration retention;
+    private final int rowsPerSegment;
+    private final Clock clock;
+    private final boolean[] consistent;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param jdbcTemplate Template over the application datasource
+     * @param archive The archive clicks are moved to
+     * @param shardCount Number of shards to archive
+     * @param retention Age after which a click is archived
+     * @param rowsPerSegment Number of clicks read and written per segment
+     * @param interval How often clicks are archived; zero disables the timer
+     * @param clock Clock the age of clicks is measured with
+     */
+    public ClickArchiver(JdbcTemplate jdbcTemplate, ClickArchive archive, int shardCount, Duration retention,
+            int rowsPerSegment, Duration interval, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.archive = archive;
+        this.shardCount = shardCount;
+        this.retention = retention;
+        this.rowsPerSegment = rowsPerSegment;
+        this.clock = clock;
+        this.consistent = new boolean[shardCount];
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "click-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!interval.isZero()) {
+            scheduler.scheduleWithFixedDelay(this::archiveSafely, interval.toMillis(), interval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Archives the clicks older than the retention period on every shard
+     *
+     * @return Number of clicks moved
+     */
+    public synchronized long archive() {
+        LocalDateTime cutoff = LocalDateTime.now(clock).minus(retention);
+        long moved = 0;
+        for (int shard = 0; shard < shardCount; shard++) {
+            int current = shard;
+            moved += ShardContext.callOn(shard, () -> archiveShard(current, cutoff));
+        }
+        return moved;
+    }
+
+    private long archiveShard(int shard, LocalDateTime cutoff) {
+        try {
+            if (!consistent[shard]) {
+                completeInterruptedMove(shard);
+                consistent[shard] = true;
+            }
+            long moved = 0;
+            while (true) {
+                List<ArchivedClick> clicks = jdbcTemplate.query(SELECT_SQL, (resultSet, row) -> map(resultSet),
+                        Timestamp.valueOf(cutoff), rowsPerSegment);
+                if (clicks.isEmpty()) {
+                    return moved;
+                }
+                consistent[shard] = false;
+                archive.write(shard, clicks);
+                delete(clicks);
+                consistent[shard] = true;
+                moved += clicks.size();
+                if (clicks.size() < rowsPerSegment) {
+                    return moved;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive clicks of shard " + shard, e);
+        }
+    }
+
+    /**
+     * Deletes the rows of the shard's newest segment that are still in the table
+     */
+    private void completeInterruptedMove(int shard) throws IOException {
+        SegmentHeader newest = archive.newestSegment(shard).orElse(null);
+        if (newest == null) {
+            return;
+        }
+        List<ArchivedClick> clicks = new ArrayList<>(newest.rows());
+        ClickSegment.scan(newest, ArchiveQuery.all(), clicks::add);
+        delete(clicks);
+    }
+
+    private void delete(List<ArchivedClick> clicks) {
+        List<Object[]> ids = new ArrayList<>(clicks.size());
+        for (ArchivedClick click : clicks) {
+            ids.add(new Object[] {click.id()});
+        }
+        jdbcTemplate.batchUpdate(DELETE_SQL, ids);
+    }
+
+    private void archiveSafely() {
+        try {
+            long moved = archive();
+            if (moved > 0) {
+                log.info("Archived {} clicks; the archive holds {} clicks in {} bytes", moved, archive.rowCount(),
+                        archive.sizeBytes());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to archive clicks", e);
+        }
+    }
+
+    private static ArchivedClick map(ResultSet resultSet) throws SQLException {
+        String shortCode = resultSet.getString(2);
+        return new ArchivedClick(resultSet.getLong(1), shortCode == null ? "" : shortCode, resultSet.getLong(3),
+                resultSet.getTimestamp(4).toLocalDateTime(), resultSet.getString(5), resultSet.getString(6),
+                resultSet.getString(7), value(BrowserFamily.values(), resultSet, 8),
+                value(OsFamily.values(), resultSet, 9), value(DeviceClass.values(), resultSet, 10),
+                resultSet.getString(11), resultSet.getBoolean(12));
+    }
+
+    /**
+     * Dimension enums are stored by ordinal, as mapped on {@link Model.ClickStats}
+     */
+    private static <E> E value(E[] values, ResultSet resultSet, int column) throws SQLException {
+        short ordinal = resultSet.getShort(column);
+        return resultSet.wasNull() ? null : values[ordinal];
+    }
+
+    /**
+     * Stops the timer; a run in progress finishes
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,528 @@
+package Archive;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import Analytics.BrowserFamily;
+import Analytics.DeviceClass;
+import Analytics.OsFamily;
+
+/**
+ * Column-oriented, compressed file of archived clicks
+ *
+ * Layout: magic, format version, the header (row count, earliest and latest click time in
+ * epoch microseconds, smallest and largest short code, smallest and largest click id) with
+ * its CRC32, then one block per column: column number, raw and compressed length, CRC32 of
+ * the compressed bytes and the Deflate-compressed column. The header alone is enough to
+ * prune a segment from a scan.
+ *
+ * Rows are sorted by short code, then click time. Columns:
+ * - LINK: the distinct short codes with their link id and number of rows (run lengths)
+ * - CLICKED_AT, ID: zig-zag varint difference of each row to the previous one
+ * - IP_ADDRESS, REFERRER, USER_AGENT, COUNTRY: dictionary of the distinct values, then one
+ *   varint dictionary index per row (0 = null)
+ * - DIMENSIONS: browser, OS and device ordinals, one byte per row each (0 = null)
+ * - BOT: one bit per row
+ *
+ * A segment is written to a temporary file, forced to disk and atomically renamed, so a
+ * segment file is always complete.
+ */
+final class ClickSegment {
+    static final String SUFFIX = ".seg";
+
+    private static final int MAGIC = 0x43534547; // "CSEG"
+    private static final int VERSION = 1;
+
+    private static final int LINK = 0;
+    private static final int CLICKED_AT = 1;
+    private static final int ID = 2;
+    private static final int IP_ADDRESS = 3;
+    private static final int REFERRER = 4;
+    private static final int USER_AGENT = 5;
+    private static final int COUNTRY = 6;
+    private static final int DIMENSIONS = 7;
+    private static final int BOT = 8;
+    private static final int COLUMNS = 9;
+
+    private ClickSegment() {
+    }
+
+    /**
+     * Writes and atomically publishes a segment
+     *
+     * @param file Path of the segment
+     * @param clicks The clicks, sorted by short code, then click time; not empty
+     * @return The header of the written segment
+     */
+    static SegmentHeader write(Path file, List<ArchivedClick> clicks) throws IOException {
+        int rows = clicks.size();
+        ByteSink[] columns = new ByteSink[COLUMNS];
+        for (int i = 0; i < COLUMNS; i++) {
+            columns[i] = new ByteSink();
+        }
+        writeLinks(columns[LINK], clicks);
+        long previousMicros = 0;
+        long previousId = 0;
+        long minMicros = Long.MAX_VALUE;
+        long maxMicros = Long.MIN_VALUE;
+        long minId = Long.MAX_VALUE;
+        long maxId = Long.MIN_VALUE;
+        byte[] bot = new byte[(rows + 7) / 8];
+        byte[] dimensions = new byte[rows * 3];
+        for (int row = 0; row < rows; row++) {
+            ArchivedClick click = clicks.get(row);
+            long micros = toMicros(click.clickedAt());
+            columns[CLICKED_AT].writeSignedVarLong(micros - previousMicros);
+            columns[ID].writeSignedVarLong(click.id() - previousId);
+            previousMicros = micros;
+            previousId = click.id();
+            minMicros = Math.min(minMicros, micros);
+            maxMicros = Math.max(maxMicros, micros);
+            minId = Math.min(minId, click.id());
+            maxId = Math.max(maxId, click.id());
+            dimensions[row] = ordinal(click.browser());
+            dimensions[rows + row] = ordinal(click.os());
+            dimensions[2 * rows + row] = ordinal(click.device());
+            if (click.bot()) {
+                bot[row >>> 3] |= (byte) (1 << (row & 7));
+            }
+        }
+        writeDictionary(columns[IP_ADDRESS], clicks, ArchivedClick::ipAddress);
+        writeDictionary(columns[REFERRER], clicks, ArchivedClick::referrer);
+        writeDictionary(columns[USER_AGENT], clicks, ArchivedClick::userAgent);
+        writeDictionary(columns[COUNTRY], clicks, ArchivedClick::country);
+        columns[DIMENSIONS].write(dimensions, dimensions.length);
+        columns[BOT].write(bot, bot.length);
+
+        String minCode = clicks.get(0).shortCode();
+        String maxCode = clicks.get(rows - 1).shortCode();
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        try (DataOutputStream header = new DataOutputStream(headerBytes)) {
+            header.writeInt(rows);
+            header.writeLong(minMicros);
+            header.writeLong(maxMicros);
+            header.writeUTF(minCode);
+            header.writeUTF(maxCode);
+            header.writeLong(minId);
+            header.writeLong(maxId);
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream stream = Files.newOutputStream(temporary);
+                DataOutputStream out = new DataOutputStream(stream)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.write(headerBytes.toByteArray());
+            out.writeInt(crc(headerBytes.toByteArray(), headerBytes.size()));
+            Deflater deflater = new Deflater();
+            try {
+                for (int column = 0; column < COLUMNS; column++) {
+                    byte[] compressed = deflate(deflater, columns[column]);
+                    out.writeByte(column);
+                    out.writeInt(columns[column].size());
+                    out.writeInt(compressed.length);
+                    out.writeInt(crc(compressed, compressed.length));
+                    out.write(compressed);
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return new SegmentHeader(file, rows, fromMicros(minMicros), fromMicros(maxMicros), minCode, maxCode,
+                minId, maxId, Files.size(file));
+    }
+
+    /**
+     * Reads the header of a segment without its columns
+     *
+     * @throws IOException if the file is not a segment or its header is corrupt
+     */
+    static SegmentHeader readHeader(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return readHeader(file, in, Files.size(file));
+        }
+    }
+
+    /**
+     * Passes the clicks of a segment that match a query to an action, in row order
+     *
+     * @return Number of clicks passed
+     * @throws IOException if the segment is unreadable or a column fails its checksum
+     */
+    static int scan(SegmentHeader header, ArchiveQuery query, Consumer<ArchivedClick> action) throws IOException {
+        byte[] file = Files.readAllBytes(header.file());
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(file));
+        readHeader(header.file(), in, file.length);
+        byte[][] columns = new byte[COLUMNS][];
+        Inflater inflater = new Inflater();
+        try {
+            for (int column = 0; column < COLUMNS; column++) {
+                if (in.readUnsignedByte() != column) {
+                    throw new IOException("Segment " + header.file() + " has columns out of order");
+                }
+                int rawLength = in.readInt();
+                byte[] compressed = new byte[in.readInt()];
+                int storedCrc = in.readInt();
+                in.readFully(compressed);
+                if (crc(compressed, compressed.length) != storedCrc) {
+                    throw new IOException("Segment " + header.file() + " column " + column + " failed its checksum");
+                }
+                columns[column] = inflate(inflater, compressed, rawLength);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Segment " + header.file() + " is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+        return decode(header.rows(), columns, query, action);
+    }
+
+    private static int decode(int rows, byte[][] columns, ArchiveQuery query, Consumer<ArchivedClick> action) {
+        // Row range of the requested link; rows are sorted by short code
+        ByteSource links = new ByteSource(columns[LINK]);
+        int linkCount = links.readVarInt();
+        String[] codes = new String[linkCount];
+        long[] linkIds = new long[linkCount];
+        int[] linkEnds = new int[linkCount];
+        int firstRow = 0;
+        int endRow = query.shortCode() == null ? rows : -1;
+        int end = 0;
+        for (int i = 0; i < linkCount; i++) {
+            codes[i] = links.readString();
+            linkIds[i] = links.readVarLong();
+            int start = end;
+            end += links.readVarInt();
+            linkEnds[i] = end;
+            if (codes[i].equals(query.shortCode())) {
+                firstRow = start;
+                endRow = end;
+            }
+        }
+        if (endRow < 0) {
+            return 0;
+        }
+
+        ByteSource times = new ByteSource(columns[CLICKED_AT]);
+        ByteSource ids = new ByteSource(columns[ID]);
+        StringColumn ipAddresses = new StringColumn(columns[IP_ADDRESS]);
+        StringColumn referrers = new StringColumn(columns[REFERRER]);
+        StringColumn userAgents = new StringColumn(columns[USER_AGENT]);
+        StringColumn countries = new StringColumn(columns[COUNTRY]);
+        byte[] dimensions = columns[DIMENSIONS];
+        byte[] bot = columns[BOT];
+        BrowserFamily[] browsers = BrowserFamily.values();
+        OsFamily[] systems = OsFamily.values();
+        DeviceClass[] devices = DeviceClass.values();
+
+        long fromMicros = query.from() == null ? Long.MIN_VALUE : toMicros(query.from());
+        long toMicros = query.to() == null ? Long.MAX_VALUE : toMicros(query.to());
+        long micros = 0;
+        long id = 0;
+        int link = 0;
+        int passed = 0;
+        for (int row = 0; row < endRow; row++) {
+            micros += times.readSignedVarLong();
+            id += ids.readSignedVarLong();
+            if (row < firstRow || micros < fromMicros || micros >= toMicros) {
+                ipAddresses.skip();
+                referrers.skip();
+                userAgents.skip();
+                countries.skip();
+                continue;
+            }
+            while (row >= linkEnds[link]) {
+                link++;
+            }
+            action.accept(new ArchivedClick(id, codes[link], linkIds[link], fromMicros(micros), ipAddresses.next(),
+                    referrers.next(), userAgents.next(), value(browsers, dimensions[row]),
+                    value(systems, dimensions[rows + row]), value(devices, dimensions[2 * rows + row]),
+                    countries.next(), (bot[row >>> 3] & (1 << (row & 7))) != 0));
+            passed++;
+        }
+        return passed;
+    }
+
+    private static SegmentHeader readHeader(Path file, DataInputStream in, long size) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Segment " + file + " has an unknown format");
+        }
+        CRC32 crc = new CRC32();
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        DataOutputStream echo = new DataOutputStream(copy);
+        int rows = in.readInt();
+        echo.writeInt(rows);
+        long minMicros = in.readLong();
+        echo.writeLong(minMicros);
+        long maxMicros = in.readLong();
+        echo.writeLong(maxMicros);
+        String minCode = in.readUTF();
+        echo.writeUTF(minCode);
+        String maxCode = in.readUTF();
+        echo.writeUTF(maxCode);
+        long minId = in.readLong();
+        echo.writeLong(minId);
+        long maxId = in.readLong();
+        echo.writeLong(maxId);
+        crc.update(copy.toByteArray());
+        if (in.readInt() != (int) crc.getValue()) {
+            throw new IOException("Segment " + file + " header failed its checksum");
+        }
+        return new SegmentHeader(file, rows, fromMicros(minMicros), fromMicros(maxMicros), minCode, maxCode,
+                minId, maxId, size);
+    }
+
+    private static void writeLinks(ByteSink out, List<ArchivedClick> clicks) {
+        ByteSink runs = new ByteSink();
+        int links = 0;
+        int run = 0;
+        for (int row = 0; row < clicks.size(); row++) {
+            ArchivedClick click = clicks.get(row);
+            if (row > 0 && !click.shortCode().equals(clicks.get(row - 1).shortCode())) {
+                runs.writeVarLong(run);
+                run = 0;
+            }
+            if (run == 0) {
+                runs.writeString(click.shortCode());
+                runs.writeVarLong(click.shortUrlId());
+                links++;
+            }
+            run++;
+        }
+        runs.writeVarLong(run);
+        out.writeVarLong(links);
+        out.write(runs.bytes, runs.size);
+    }
+
+    private static void writeDictionary(ByteSink out, List<ArchivedClick> clicks, Function<ArchivedClick, String> column) {
+        Map<String, Integer> dictionary = new HashMap<>();
+        ByteSink values = new ByteSink();
+        ByteSink indexes = new ByteSink();
+        for (ArchivedClick click : clicks) {
+            String value = column.apply(click);
+            if (value == null) {
+                indexes.writeVarLong(0);
+                continue;
+            }
+            Integer index = dictionary.get(value);
+            if (index == null) {
+                index = dictionary.size() + 1;
+                dictionary.put(value, index);
+                values.writeString(value);
+            }
+            indexes.writeVarLong(index);
+        }
+        out.writeVarLong(dictionary.size());
+        out.write(values.bytes, values.size);
+        out.write(indexes.bytes, indexes.size);
+    }
+
+    private static byte ordinal(Enum<?> value) {
+        return (byte) (value == null ? 0 : value.ordinal() + 1);
+    }
+
+    private static <E> E value(E[] values, byte ordinal) {
+        return ordinal == 0 ? null : values[ordinal - 1];
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static byte[] deflate(Deflater deflater, ByteSink column) {
+        deflater.reset();
+        deflater.setInput(column.bytes, 0, column.size);
+        deflater.finish();
+        ByteSink out = new ByteSink();
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            int length = deflater.deflate(chunk);
+            out.write(chunk, length);
+        }
+        return Arrays.copyOf(out.bytes, out.size);
+    }
+
+    private static byte[] inflate(Inflater inflater, byte[] compressed, int rawLength) throws DataFormatException {
+        inflater.reset();
+        inflater.setInput(compressed);
+        byte[] raw = new byte[rawLength];
+        int offset = 0;
+        while (offset < rawLength && !inflater.finished()) {
+            int length = inflater.inflate(raw, offset, rawLength - offset);
+            if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                throw new DataFormatException("Column ends early");
+            }
+            offset += length;
+        }
+        return raw;
+    }
+
+    private static int crc(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Growable byte buffer with varint encoding
+     */
+    private static final class ByteSink {
+        byte[] bytes = new byte[256];
+        int size;
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeSignedVarLong(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length);
+            write(utf8, utf8.length);
+        }
+
+        void write(byte[] source, int length) {
+            ensure(length);
+            System.arraycopy(source, 0, bytes, size, length);
+            size += length;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+
+    /**
+     * Sequential reader of a decompressed column
+     */
+    private static final class ByteSource {
+        private final byte[] bytes;
+        private int position;
+
+        ByteSource(byte[] bytes) {
+            this(bytes, 0);
+        }
+
+        ByteSource(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+        int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        long readSignedVarLong() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        /**
+         * @return Position of the skipped string
+         */
+        int skipString() {
+            int start = position;
+            int length = readVarInt();
+            position += length;
+            return start;
+        }
+
+        String readString() {
+            int length = readVarInt();
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+
+    /**
+     * Dictionary-encoded string column, read one row at a time; dictionary entries are
+     * decoded when a row first refers to them
+     */
+    private static final class StringColumn {
+        private final byte[] column;
+        private final ByteSource source;
+        private final int[] offsets;
+        private final String[] dictionary;
+
+        StringColumn(byte[] column) {
+            this.column = column;
+            this.source = new ByteSource(column);
+            int size = source.readVarInt();
+            this.offsets = new int[size + 1];
+            this.dictionary = new String[size + 1];
+            for (int i = 1; i <= size; i++) {
+                offsets[i] = source.skipString();
+            }
+        }
+
+        String next() {
+            int index = source.readVarInt();
+            if (index == 0 || dictionary[index] != null) {
+                return dictionary[index];
+            }
+            return dictionary[index] = new ByteSource(column, offsets[index]).readString();
+        }
+
+        void skip() {
+            source.readVarLong();
+        }
+    }
+}
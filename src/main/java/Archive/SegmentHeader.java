@@ -0,0 +1,21 @@
+package Archive;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * Zone maps and size of an archive segment, read without decoding its columns
+ *
+ * @param file The segment file
+ * @param rows Number of clicks in the segment
+ * @param minClickedAt Earliest click time
+ * @param maxClickedAt Latest click time
+ * @param minShortCode Smallest short code
+ * @param maxShortCode Largest short code
+ * @param minId Smallest click id
+ * @param maxId Largest click id
+ * @param bytes Size of the file
+ */
+public record SegmentHeader(Path file, int rows, LocalDateTime minClickedAt, LocalDateTime maxClickedAt,
+        String minShortCode, String maxShortCode, long minId, long maxId, long bytes) {
+}
@@ -0,0 +1,29 @@
+package Cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport for cache invalidation messages between application nodes
+ * 
+ * A bus delivers every published payload to every subscriber on every node,
+ * including the node that published it. Payloads are opaque strings; their
+ * format is owned by {@link ShortCodeInvalidator}.
+ */
+public interface InvalidationBus {
+    /** Payload broadcast when a node may have missed messages and must drop everything */
+    String INVALIDATE_ALL = "*";
+
+    /**
+     * Broadcasts a payload to all subscribers
+     * 
+     * @param payload The message to deliver
+     */
+    void publish(String payload);
+
+    /**
+     * Registers a subscriber for payloads published by any node
+     * 
+     * @param subscriber Callback invoked for every received payload
+     */
+    void subscribe(Consumer<String> subscriber);
+}
@@ -0,0 +1,229 @@
+package Cache;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory version stamps of link statistics and of the link listing, for strong ETags
+ *
+ * Every link id maps to one of a fixed number of stripe counters; a change to a link
+ * (new clicks written, link created, retargeted or deleted) increments its stripe and the
+ * listing counter. A tag is the node's epoch plus the counter, so it can be computed and
+ * compared without touching the database. Links sharing a stripe change their tags together,
+ * which costs an extra full response now and then but never a wrong 304.
+ *
+ * Changes are broadcast on an {@link InvalidationBus} of their own (the L2 cache is not
+ * evicted for new clicks), as comma-separated stripe numbers, and applied when received, also
+ * on the publishing node. Callers report a change only once it is visible on the primary, so
+ * a response read there is never older than the tag it is sent with. Replicas may still lag,
+ * so the time each stripe last changed is kept as well: while it is within the lag tolerance,
+ * reads behind a tag go to the primary (see {@link Replica.ReplicaLagGuard#readChanged}).
+ * Link invalidations from {@link ShortCodeInvalidator} are applied too; a missed-messages
+ * signal starts a new epoch, which changes every tag.
+ *
+ * Key features:
+ * - Fixed memory: {@value #DEFAULT_STRIPES} counters and change times (1 MB) whatever the number of links
+ * - Tag checks are two volatile reads
+ * - Tags from before a restart never match, as every node picks a random epoch at startup
+ */
+public class LinkVersions implements ShortCodeInvalidationHandler, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(LinkVersions.class);
+
+    /** Default number of stripe counters */
+    public static final int DEFAULT_STRIPES = 1 << 16;
+
+    /** Maximum number of stripes per broadcast (keeps NOTIFY payloads under 8000 bytes) */
+    static final int MAX_STRIPES_PER_PAYLOAD = 1000;
+
+    private final InvalidationBus bus;
+    private final AtomicLongArray stripes;
+    private final AtomicLongArray stripesChangedAt;
+    private final AtomicLong listing = new AtomicLong();
+    private volatile long listingChangedAt;
+    private volatile String epoch = newEpoch();
+    private volatile long epochChangedAt;
+
+    /**
+     * @param bus Bus the changes are broadcast on; not shared with the {@link ShortCodeInvalidator}
+     * @param stripes Number of stripe counters, a power of two
+     */
+    public LinkVersions(InvalidationBus bus, int stripes) {
+        if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("The number of stripes must be a power of two");
+        }
+        this.bus = bus;
+        this.stripes = new AtomicLongArray(stripes);
+        this.stripesChangedAt = new AtomicLongArray(stripes);
+        bus.subscribe(this::onPayload);
+    }
+
+    /**
+     * Reports that the statistics of links changed; call once the change is visible in the database
+     *
+     * @param linkIds Ids of the changed links
+     */
+    public void changed(Collection<Long> linkIds) {
+        if (linkIds.size() == 1) {
+            changed(linkIds.iterator().next().longValue());
+            return;
+        }
+        BitSet changed = new BitSet(stripes.length());
+        for (Long linkId : linkIds) {
+            changed.set(stripe(linkId));
+        }
+        List<String> batch = new ArrayList<>();
+        for (int stripe = changed.nextSetBit(0); stripe >= 0; stripe = changed.nextSetBit(stripe + 1)) {
+            batch.add(Integer.toString(stripe));
+            if (batch.size() == MAX_STRIPES_PER_PAYLOAD) {
+                publish(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            publish(batch);
+        }
+    }
+
+    /**
+     * Reports that a link was created or its statistics changed
+     *
+     * This is the path of every click in memory storage mode, so it publishes the link's
+     * stripe number directly, without the set of stripes {@link #changed(Collection)} builds.
+     *
+     * @param linkId Id of the link
+     */
+    public void changed(long linkId) {
+        publish(Integer.toString(stripe(linkId)), 1);
+    }
+
+    /**
+     * Reports that any number of links changed at once, as after a bulk import; every tag changes
+     */
+    public void changedAll() {
+        try {
+            bus.publish(InvalidationBus.INVALIDATE_ALL);
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish a change of all link versions", e);
+            invalidateAll();
+        }
+    }
+
+    /**
+     * @param linkId Id of a link
+     * @return Strong ETag of the link's statistics, quoted
+     */
+    public String linkTag(long linkId) {
+        return "\"" + epoch + "-" + Long.toHexString(linkId) + "-" + stripes.get(stripe(linkId)) + "\"";
+    }
+
+    /**
+     * @return Strong ETag of the listing of all links, quoted
+     */
+    public String listingTag() {
+        return "\"" + epoch + "-" + listing.get() + "\"";
+    }
+
+    /**
+     * @param linkId Id of a link
+     * @return Time the tag of the link's statistics last changed on this node, in epoch
+     *         milliseconds; 0 if it has not changed since startup
+     */
+    public long changedAt(long linkId) {
+        return Math.max(stripesChangedAt.get(stripe(linkId)), epochChangedAt);
+    }
+
+    /**
+     * @return Time the tag of the listing last changed on this node, in epoch milliseconds;
+     *         0 if it has not changed since startup
+     */
+    public long listingChangedAt() {
+        return Math.max(listingChangedAt, epochChangedAt);
+    }
+
+    @Override
+    public void invalidate(Collection<ShortCodeInvalidation> invalidations) {
+        long now = System.currentTimeMillis();
+        for (ShortCodeInvalidation invalidation : invalidations) {
+            increment(stripe(invalidation.id()), now);
+        }
+        incrementListing(now);
+    }
+
+    @Override
+    public void invalidateAll() {
+        epoch = newEpoch();
+        epochChangedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Closes the bus if it holds resources
+     */
+    @Override
+    public void close() throws Exception {
+        if (bus instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private void publish(List<String> batch) {
+        publish(String.join(",", batch), batch.size());
+    }
+
+    private void publish(String payload, int count) {
+        try {
+            bus.publish(payload);
+        } catch (RuntimeException e) {
+            // without the broadcast the tags would stay unchanged: change them all instead
+            log.warn("Failed to publish {} link version changes", count, e);
+            invalidateAll();
+        }
+    }
+
+    private void onPayload(String payload) {
+        if (InvalidationBus.INVALIDATE_ALL.equals(payload)) {
+            invalidateAll();
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int start = 0;
+        while (start <= payload.length()) {
+            int end = payload.indexOf(',', start);
+            if (end < 0) {
+                end = payload.length();
+            }
+            try {
+                increment(Integer.parseInt(payload, start, end, 10) & (stripes.length() - 1), now);
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring malformed link version token '{}'", payload.substring(start, end));
+            }
+            start = end + 1;
+        }
+        incrementListing(now);
+    }
+
+    private void increment(int stripe, long now) {
+        stripesChangedAt.set(stripe, now);
+        stripes.incrementAndGet(stripe);
+    }
+
+    private void incrementListing(long now) {
+        listingChangedAt = now;
+        listing.incrementAndGet();
+    }
+
+    private int stripe(long linkId) {
+        return Long.hashCode(linkId * 0x9E3779B97F4A7C15L) & (stripes.length() - 1);
+    }
+
+    private static String newEpoch() {
+        return Long.toHexString(ThreadLocalRandom.current().nextLong());
+    }
+}
@@ -0,0 +1,28 @@
+package Cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-JVM invalidation bus
+ * 
+ * Delivers payloads synchronously to subscribers in the same process. It is used
+ * for single-node deployments, for databases without LISTEN/NOTIFY (e.g. H2 in tests)
+ * and as a stand-in for the PostgreSQL bus in tests.
+ */
+public class LocalInvalidationBus implements InvalidationBus {
+    private final List<Consumer<String>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String payload) {
+        for (Consumer<String> subscriber : subscribers) {
+            subscriber.accept(payload);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<String> subscriber) {
+        subscribers.add(subscriber);
+    }
+}
@@ -0,0 +1,147 @@
+package Cache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Invalidation bus built on PostgreSQL LISTEN/NOTIFY
+ * 
+ * Payloads are published with pg_notify through the regular connection pool, so
+ * they are delivered only if the surrounding transaction commits. Notifications are
+ * received on dedicated connections (outside the pool), one per database the pool may
+ * route a NOTIFY to, each polled by a daemon thread. With sharding, a NOTIFY goes to the
+ * shard of the surrounding transaction, so the bus listens on every shard.
+ * 
+ * If a listening connection drops, messages sent while it was down are lost, so
+ * after every reconnect subscribers receive {@link #INVALIDATE_ALL}.
+ */
+public class PostgresInvalidationBus implements InvalidationBus, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(PostgresInvalidationBus.class);
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String channel;
+    private final long pollTimeoutMillis;
+    private final long reconnectDelayMillis;
+    private final List<Consumer<String>> subscribers = new CopyOnWriteArrayList<>();
+    private final List<Thread> listenerThreads = new ArrayList<>();
+    private volatile boolean running = true;
+
+    /**
+     * @param dataSource Pool the notifications are published through
+     * @param databases Every database the pool may send a NOTIFY to, e.g. one per shard
+     * @param channel LISTEN/NOTIFY channel name
+     * @param pollTimeoutMillis How long one poll for notifications waits
+     * @param reconnectDelayMillis Pause before reconnecting a dropped listening connection
+     */
+    public PostgresInvalidationBus(DataSource dataSource, List<Database> databases, String channel,
+            long pollTimeoutMillis, long reconnectDelayMillis) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid LISTEN/NOTIFY channel name: " + channel);
+        }
+        if (databases.isEmpty()) {
+            throw new IllegalArgumentException("No database to listen on for channel " + channel);
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.channel = channel;
+        this.pollTimeoutMillis = pollTimeoutMillis;
+        this.reconnectDelayMillis = reconnectDelayMillis;
+        for (int i = 0; i < databases.size(); i++) {
+            Database database = databases.get(i);
+            Thread thread = new Thread(() -> listenLoop(database), "pg-invalidation-listener-" + channel + "-" + i);
+            thread.setDaemon(true);
+            listenerThreads.add(thread);
+        }
+    }
+
+    /**
+     * Starts the background threads that listen for notifications
+     */
+    public void start() {
+        listenerThreads.forEach(Thread::start);
+    }
+
+    @Override
+    public void publish(String payload) {
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, channel, payload);
+    }
+
+    @Override
+    public void subscribe(Consumer<String> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        listenerThreads.forEach(Thread::interrupt);
+    }
+
+    private void listenLoop(Database database) {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(database.url(), database.username(),
+                    database.password())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (reconnecting) {
+                    deliver(INVALIDATE_ALL);
+                }
+                reconnecting = true;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeoutMillis);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            deliver(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Invalidation listener on channel '{}' lost its connection to {}, retrying in {} ms",
+                        channel, database.url(), reconnectDelayMillis, e);
+                try {
+                    Thread.sleep(reconnectDelayMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void deliver(String payload) {
+        for (Consumer<String> subscriber : subscribers) {
+            try {
+                subscriber.accept(payload);
+            } catch (RuntimeException e) {
+                log.warn("Invalidation subscriber failed for payload '{}'", payload, e);
+            }
+        }
+    }
+
+    /**
+     * Connection settings of a database to listen on
+     */
+    public record Database(String url, String username, String password) {
+    }
+}
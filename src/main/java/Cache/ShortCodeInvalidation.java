@@ -0,0 +1,37 @@
+package Cache;
+
+/**
+ * A single invalidated link, identified by its short code and primary key
+ * 
+ * Code-keyed caches use the short code, while the Hibernate entity region is keyed
+ * by id, so both are carried. The wire form is "id:shortCode".
+ * 
+ * @param id Primary key of the ShortUrl
+ * @param shortCode Short code of the ShortUrl
+ */
+public record ShortCodeInvalidation(Long id, String shortCode) {
+
+    /**
+     * Encodes this invalidation for transport
+     * 
+     * @return The "id:shortCode" token
+     */
+    public String encode() {
+        return id + ":" + shortCode;
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}
+     * 
+     * @param token The "id:shortCode" token
+     * @return The decoded invalidation
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static ShortCodeInvalidation decode(String token) {
+        int separator = token.indexOf(':');
+        if (separator <= 0 || separator == token.length() - 1) {
+            throw new IllegalArgumentException("Malformed invalidation token: " + token);
+        }
+        return new ShortCodeInvalidation(Long.valueOf(token.substring(0, separator)), token.substring(separator + 1));
+    }
+}
@@ -0,0 +1,23 @@
+package Cache;
+
+import java.util.Collection;
+
+/**
+ * Receiver of short code invalidations broadcast by any node
+ * 
+ * Every in-process cache that holds link data registers a handler bean;
+ * {@link ShortCodeInvalidator} calls all of them for each received batch.
+ */
+public interface ShortCodeInvalidationHandler {
+    /**
+     * Drops the given links from the cache
+     * 
+     * @param invalidations Links that were deleted, expired or retargeted
+     */
+    void invalidate(Collection<ShortCodeInvalidation> invalidations);
+
+    /**
+     * Drops every cached link, used when invalidations may have been missed
+     */
+    void invalidateAll();
+}
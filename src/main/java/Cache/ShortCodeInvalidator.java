@@ -0,0 +1,142 @@
+package Cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import Model.ShortUrl;
+
+/**
+ * Batches, debounces and broadcasts short code invalidations
+ * 
+ * Changed links are collected in a pending set; the first one starts a debounce window
+ * and everything collected within the window is published together, split into
+ * payloads of at most {@code maxBatchSize} tokens. Repeated changes to the same link
+ * within a window collapse into one token. Staleness on other nodes is therefore
+ * bounded by the debounce window plus transport latency.
+ * 
+ * Received payloads (from any node, including this one) are dispatched to all
+ * registered {@link ShortCodeInvalidationHandler}s.
+ */
+public class ShortCodeInvalidator implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ShortCodeInvalidator.class);
+
+    private final InvalidationBus bus;
+    private final List<ShortCodeInvalidationHandler> handlers;
+    private final long debounceMillis;
+    private final int maxBatchSize;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler;
+
+    public ShortCodeInvalidator(InvalidationBus bus, List<ShortCodeInvalidationHandler> handlers,
+            long debounceMillis, int maxBatchSize) {
+        this.bus = bus;
+        this.handlers = List.copyOf(handlers);
+        this.debounceMillis = debounceMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "short-code-invalidator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        bus.subscribe(this::onPayload);
+    }
+
+    /**
+     * Queues an invalidation for a changed link
+     * 
+     * When called inside a transaction the invalidation is queued only after commit,
+     * so other nodes never reload the link before the change is visible to them.
+     * 
+     * @param shortUrl The link that was deleted, expired or retargeted
+     */
+    public void invalidate(ShortUrl shortUrl) {
+        ShortCodeInvalidation invalidation = new ShortCodeInvalidation(shortUrl.getId(), shortUrl.getShortCode());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(invalidation);
+                }
+            });
+        } else {
+            enqueue(invalidation);
+        }
+    }
+
+    /**
+     * Queues an invalidation, publishing it when the current debounce window closes
+     * 
+     * @param invalidation The link to invalidate on all nodes
+     */
+    public void enqueue(ShortCodeInvalidation invalidation) {
+        pending.add(invalidation.encode());
+        if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::flush, debounceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Publishes everything queued so far
+     */
+    public void flush() {
+        flushScheduled.set(false);
+        List<String> batch = new ArrayList<>(maxBatchSize);
+        Iterator<String> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            batch.add(iterator.next());
+            iterator.remove();
+            if (batch.size() == maxBatchSize) {
+                publish(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            publish(batch);
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        scheduler.shutdown();
+    }
+
+    private void publish(List<String> batch) {
+        try {
+            bus.publish(String.join(",", batch));
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish {} short code invalidations", batch.size(), e);
+        }
+    }
+
+    private void onPayload(String payload) {
+        if (InvalidationBus.INVALIDATE_ALL.equals(payload)) {
+            handlers.forEach(ShortCodeInvalidationHandler::invalidateAll);
+            return;
+        }
+        List<ShortCodeInvalidation> invalidations = new ArrayList<>();
+        for (String token : payload.split(",")) {
+            try {
+                invalidations.add(ShortCodeInvalidation.decode(token));
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring malformed invalidation token '{}'", token);
+            }
+        }
+        for (ShortCodeInvalidationHandler handler : handlers) {
+            handler.invalidate(invalidations);
+        }
+    }
+}
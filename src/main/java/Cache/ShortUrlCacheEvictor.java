@@ -0,0 +1,66 @@
+package Cache;
+
+import java.util.Collection;
+
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.access.NaturalIdDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import Model.ShortUrl;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Evicts invalidated links from the Hibernate second-level cache
+ * 
+ * Both the entity and the short code's natural-id entry are evicted, so a code that
+ * is deleted and created again does not keep resolving to the id of the old link.
+ * Hibernate's Cache API only evicts whole natural-id regions, so single entries are
+ * evicted through the region's access strategy, with a short-lived session for the
+ * cache keys.
+ */
+@Component
+@ConditionalOnProperty(name = "urlshortener.storage.mode", havingValue = "jpa", matchIfMissing = true)
+public class ShortUrlCacheEvictor implements ShortCodeInvalidationHandler {
+    private final SessionFactory sessionFactory;
+    private final Cache cache;
+    private final EntityPersister persister;
+    private final NaturalIdDataAccess naturalIdAccess;
+
+    public ShortUrlCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.cache = sessionFactory.getCache();
+        this.persister = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel()
+                .getEntityDescriptor(ShortUrl.class);
+        this.naturalIdAccess = persister.getNaturalIdCacheAccessStrategy();
+    }
+
+    @Override
+    public void invalidate(Collection<ShortCodeInvalidation> invalidations) {
+        for (ShortCodeInvalidation invalidation : invalidations) {
+            cache.evictEntityData(ShortUrl.class, invalidation.id());
+        }
+        if (naturalIdAccess == null) {
+            return;
+        }
+        try (Session session = sessionFactory.openSession()) {
+            SharedSessionContractImplementor keys = session.unwrap(SharedSessionContractImplementor.class);
+            for (ShortCodeInvalidation invalidation : invalidations) {
+                if (invalidation.shortCode() != null) {
+                    naturalIdAccess.evict(naturalIdAccess.generateCacheKey(invalidation.shortCode(), persister, keys));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.evictEntityData(ShortUrl.class);
+        cache.evictNaturalIdData(ShortUrl.class);
+    }
+}
@@ -0,0 +1,29 @@
+package Cache;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import Model.ShortUrl;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that broadcasts invalidations for changed links
+ * 
+ * Registered on {@link ShortUrl} and instantiated through Spring's bean container,
+ * so every update or delete (retargeting, expiry, removal) is reported to
+ * {@link ShortCodeInvalidator} no matter which code path made it. When no
+ * invalidator is configured (e.g. in repository slice tests) the listener is a no-op.
+ */
+public class ShortUrlInvalidationListener {
+    private final ObjectProvider<ShortCodeInvalidator> invalidator;
+
+    public ShortUrlInvalidationListener(ObjectProvider<ShortCodeInvalidator> invalidator) {
+        this.invalidator = invalidator;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(ShortUrl shortUrl) {
+        invalidator.ifAvailable(it -> it.invalidate(shortUrl));
+    }
+}
@@ -0,0 +1,44 @@
+package Config;
+
+import java.nio.file.Path;
+import java.time.Clock;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import Archive.ClickArchive;
+import Archive.ClickArchiver;
+import Sharding.ShardRouter;
+
+/**
+ * Click Archive Configuration
+ *
+ * With "urlshortener.archive.enabled=true" clicks older than "urlshortener.archive.retention"
+ * are moved every "urlshortener.archive.interval" from the 'click_stats' table into the
+ * {@link ClickArchive} under "urlshortener.archive.directory" (JPA storage mode only). The
+ * archive is local to the node, so archiving must be enabled on one node only.
+ */
+@Configuration
+@EnableConfigurationProperties(ArchiveProperties.class)
+@ConditionalOnProperty(name = "urlshortener.archive.enabled", havingValue = "true")
+public class ArchiveConfig {
+
+    @Bean
+    public ClickArchive clickArchive(ArchiveProperties properties) {
+        return new ClickArchive(Path.of(properties.getDirectory()), properties.getRowsPerSegment());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "urlshortener.storage.mode", havingValue = "jpa", matchIfMissing = true)
+    public ClickArchiver clickArchiver(DataSource dataSource, ClickArchive archive, ShardRouter shardRouter,
+            ArchiveProperties properties) {
+        return new ClickArchiver(new JdbcTemplate(dataSource), archive, shardRouter.shardCount(),
+                properties.getRetention(), properties.getRowsPerSegment(), properties.getInterval(),
+                Clock.systemDefaultZone());
+    }
+}
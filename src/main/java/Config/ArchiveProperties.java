@@ -0,0 +1,31 @@
+package Config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the click archive tier
+ *
+ * Bound from the "urlshortener.archive" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "urlshortener.archive")
+public class ArchiveProperties {
+    /** Whether aged clicks are moved from the click table into the archive; enable on one node only */
+    private boolean enabled = false;
+
+    /** Directory holding the archive's segment files */
+    private String directory = "archive";
+
+    /** Age after which a click is moved to the archive */
+    private Duration retention = Duration.ofDays(30);
+
+    /** How often aged clicks are archived */
+    private Duration interval = Duration.ofHours(1);
+
+    /** Maximum number of clicks per segment file; also the number read from the table at a time */
+    private int rowsPerSegment = 100_000;
+}
@@ -0,0 +1,30 @@
+package Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import Analytics.BotClassifier;
+
+/**
+ * Bot Filter Configuration
+ *
+ * Builds the {@link BotClassifier} used on the redirect path from the signatures in
+ * "urlshortener.bots.signatures" plus "urlshortener.bots.extra-signatures".
+ * "urlshortener.bots.action" decides whether bot clicks are tagged or dropped.
+ */
+@Configuration
+@EnableConfigurationProperties(BotFilterProperties.class)
+public class BotFilterConfig {
+
+    @Bean
+    public BotClassifier botClassifier(BotFilterProperties properties) {
+        List<String> signatures = new ArrayList<>(properties.getSignatures());
+        signatures.addAll(properties.getExtraSignatures());
+        return new BotClassifier(properties.getAction(), signatures, properties.getCacheSize(),
+                properties.isMissingUserAgentIsBot());
+    }
+}
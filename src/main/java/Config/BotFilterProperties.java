@@ -0,0 +1,45 @@
+package Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import Analytics.BotAction;
+import lombok.Data;
+
+/**
+ * Configuration properties for bot click filtering
+ *
+ * Bound from the "urlshortener.bots" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "urlshortener.bots")
+public class BotFilterProperties {
+    /** What happens to clicks classified as bot traffic */
+    private BotAction action = BotAction.TAG;
+
+    /** User-Agent substrings identifying bots, matched ignoring case */
+    private List<String> signatures = new ArrayList<>(List.of(
+            // generic crawler markers
+            "bot", "crawler", "spider", "slurp", "archiver", "headlesschrome", "lighthouse",
+            // link previews
+            "facebookexternalhit", "facebot", "whatsapp", "skypeuripreview", "bingpreview",
+            "embedly", "vkshare", "w3c_validator", "googleother",
+            // uptime and health checkers
+            "uptimerobot", "pingdom", "statuscake", "site24x7", "kube-probe", "elb-healthchecker",
+            "googlehc", "newrelicpinger", "datadog",
+            // HTTP libraries and command-line clients
+            "curl/", "wget/", "python-requests", "python-urllib", "aiohttp", "go-http-client",
+            "okhttp", "apache-httpclient", "java-http-client", "java/", "node-fetch", "axios/",
+            "libwww-perl", "httpie"));
+
+    /** Additional signatures, appended to the defaults */
+    private List<String> extraSignatures = new ArrayList<>();
+
+    /** Number of distinct User-Agent verdicts kept in memory; 0 disables the cache */
+    private int cacheSize = 10_000;
+
+    /** Whether clicks without a User-Agent header count as bot traffic */
+    private boolean missingUserAgentIsBot = false;
+}
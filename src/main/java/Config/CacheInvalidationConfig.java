@@ -0,0 +1,101 @@
+package Config;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import Cache.InvalidationBus;
+import Cache.LinkVersions;
+import Cache.LocalInvalidationBus;
+import Cache.PostgresInvalidationBus;
+import Cache.ShortCodeInvalidationHandler;
+import Cache.ShortCodeInvalidator;
+
+/**
+ * Cache Invalidation Configuration
+ * 
+ * Wires the invalidation bus and the batching/debouncing invalidator that keep
+ * in-process link caches coherent across nodes, and the {@link LinkVersions} behind the
+ * ETags of link statistics, which are broadcast the same way on a second channel.
+ * 
+ * With PostgreSQL, invalidations travel over LISTEN/NOTIFY on the application
+ * database itself, so no extra infrastructure is needed. A NOTIFY is sent through the
+ * application DataSource, which with sharding routes it to the shard of the surrounding
+ * transaction, so the bus then listens on every shard rather than on spring.datasource.
+ * Other databases (H2) fall back to an in-JVM bus, which is only correct for a single node.
+ * 
+ * Only the JPA storage engine caches links in Hibernate, so this configuration is
+ * skipped in in-memory storage mode.
+ */
+@Configuration
+@ConditionalOnProperty(name = "urlshortener.storage.mode", havingValue = "jpa", matchIfMissing = true)
+@EnableConfigurationProperties(CacheInvalidationProperties.class)
+public class CacheInvalidationConfig {
+
+    @Bean
+    public InvalidationBus invalidationBus(CacheInvalidationProperties properties,
+            DataSourceProperties dataSourceProperties, ShardingProperties shardingProperties, DataSource dataSource) {
+        return bus(properties.getChannel(), properties, databases(dataSourceProperties, shardingProperties),
+                dataSource);
+    }
+
+    /**
+     * Versions behind the ETags of link statistics and the listing; they travel on a channel
+     * of their own, so new clicks do not evict the second-level cache
+     */
+    @Bean
+    public LinkVersions linkVersions(CacheInvalidationProperties properties,
+            DataSourceProperties dataSourceProperties, ShardingProperties shardingProperties, DataSource dataSource) {
+        return new LinkVersions(bus(properties.getVersionChannel(), properties,
+                databases(dataSourceProperties, shardingProperties), dataSource), LinkVersions.DEFAULT_STRIPES);
+    }
+
+    @Bean
+    public ShortCodeInvalidator shortCodeInvalidator(InvalidationBus invalidationBus,
+            List<ShortCodeInvalidationHandler> handlers, CacheInvalidationProperties properties) {
+        return new ShortCodeInvalidator(invalidationBus, handlers,
+                properties.getDebounceMillis(), properties.getMaxBatchSize());
+    }
+
+    private InvalidationBus bus(String channel, CacheInvalidationProperties properties,
+            List<PostgresInvalidationBus.Database> databases, DataSource dataSource) {
+        if (!usePostgres(properties, databases)) {
+            return new LocalInvalidationBus();
+        }
+        PostgresInvalidationBus bus = new PostgresInvalidationBus(dataSource, databases, channel,
+                properties.getPollTimeoutMillis(), properties.getReconnectDelayMillis());
+        bus.start();
+        return bus;
+    }
+
+    /**
+     * The databases the application DataSource sends a NOTIFY to: every shard, or spring.datasource
+     */
+    private static List<PostgresInvalidationBus.Database> databases(DataSourceProperties dataSourceProperties,
+            ShardingProperties shardingProperties) {
+        if (shardingProperties.isEnabled()) {
+            return shardingProperties.getShards().stream()
+                    .map(shard -> new PostgresInvalidationBus.Database(shard.getUrl(), shard.getUsername(),
+                            shard.getPassword()))
+                    .toList();
+        }
+        return List.of(new PostgresInvalidationBus.Database(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword()));
+    }
+
+    private boolean usePostgres(CacheInvalidationProperties properties,
+            List<PostgresInvalidationBus.Database> databases) {
+        return switch (properties.getTransport()) {
+            case POSTGRES -> true;
+            case LOCAL -> false;
+            case AUTO -> !databases.isEmpty() && databases.stream()
+                    .allMatch(database -> database.url() != null && database.url().startsWith("jdbc:postgresql:"));
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package Config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for multi-node cache invalidation
+ * 
+ * Bound from the "urlshortener.cache.invalidation" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "urlshortener.cache.invalidation")
+public class CacheInvalidationProperties {
+    /** Transport for invalidations: auto, postgres or local */
+    private Transport transport = Transport.AUTO;
+
+    /** PostgreSQL LISTEN/NOTIFY channel name */
+    private String channel = "short_url_invalidation";
+
+    /** PostgreSQL LISTEN/NOTIFY channel name for link version changes (ETags) */
+    private String versionChannel = "link_version";
+
+    /** How long invalidations are collected before being broadcast together */
+    private long debounceMillis = 200;
+
+    /** Maximum number of links per broadcast (keeps NOTIFY payloads under 8000 bytes) */
+    private int maxBatchSize = 200;
+
+    /** How long the listener blocks waiting for notifications per poll */
+    private long pollTimeoutMillis = 500;
+
+    /** Delay before the listener reconnects after losing its connection */
+    private long reconnectDelayMillis = 2000;
+
+    /**
+     * Invalidation transports
+     * 
+     * AUTO uses PostgreSQL when the datasource is PostgreSQL and the local bus otherwise.
+     */
+    public enum Transport {
+        AUTO, POSTGRES, LOCAL
+    }
+}
@@ -0,0 +1,48 @@
+package Config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import Analytics.GeoIpLookup;
+import Analytics.UserAgentParser;
+
+/**
+ * Click Analytics Configuration
+ *
+ * Provides the {@link UserAgentParser} that derives browser, OS and device dimensions from
+ * each click's User-Agent when the click is recorded, and the {@link GeoIpLookup} that
+ * resolves its country from "urlshortener.analytics.geo-ip-database". A configured database
+ * that cannot be read fails startup.
+ */
+@Configuration
+@EnableConfigurationProperties(ClickAnalyticsProperties.class)
+public class ClickAnalyticsConfig {
+    private static final Logger log = LoggerFactory.getLogger(ClickAnalyticsConfig.class);
+
+    @Bean
+    public UserAgentParser userAgentParser(ClickAnalyticsProperties properties) {
+        return new UserAgentParser(properties.getUserAgentCacheSize());
+    }
+
+    @Bean
+    public GeoIpLookup geoIpLookup(ClickAnalyticsProperties properties) {
+        String database = properties.getGeoIpDatabase();
+        if (database == null || database.isBlank()) {
+            return GeoIpLookup.empty();
+        }
+        try {
+            GeoIpLookup lookup = GeoIpLookup.load(Path.of(database));
+            log.info("Loaded {} IP ranges from {}", lookup.size(), database);
+            return lookup;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load GeoIP database " + database, e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package Config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for click analytics computed at ingestion
+ *
+ * Bound from the "urlshortener.analytics" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "urlshortener.analytics")
+public class ClickAnalyticsProperties {
+    /** Number of distinct User-Agents whose parse result is kept in memory; 0 disables the cache */
+    private int userAgentCacheSize = 10_000;
+
+    /**
+     * IP range database ("first_ip,last_ip,country_code" CSV, optionally gzipped) used to
+     * resolve click countries; without one every click's country is unknown ("ZZ")
+     */
+    private String geoIpDatabase;
+
+    /**
+     * Number of partitions of an analytics query read at the same time; each holds a database
+     * connection, so keep it below the connection pool size
+     */
+    private int queryParallelism = 4;
+
+    /** Length of the time slices an analytics query is split into (whole hours) */
+    private Duration querySliceSpan = Duration.ofDays(1);
+}
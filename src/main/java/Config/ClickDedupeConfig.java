@@ -0,0 +1,50 @@
+package Config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import Analytics.DuplicateClickFilter;
+
+/**
+ * Duplicate Click Configuration
+ *
+ * Provides the {@link DuplicateClickFilter} consulted on the redirect path. With
+ * "urlshortener.dedupe.enabled=false" (the default) the filter suppresses nothing and
+ * allocates nothing. Its counters are published under /actuator/metrics:
+ * - urlshortener.dedupe.suppressed: clicks not counted as repeats
+ * - urlshortener.dedupe.overflow: counted clicks that did not fit in the fingerprint tables
+ * - urlshortener.dedupe.memory: bytes held by the fingerprint tables
+ */
+@Configuration
+@EnableConfigurationProperties(ClickDedupeProperties.class)
+public class ClickDedupeConfig {
+
+    @Bean
+    public DuplicateClickFilter duplicateClickFilter(ClickDedupeProperties properties) {
+        if (!properties.isEnabled()) {
+            return DuplicateClickFilter.disabled();
+        }
+        return new DuplicateClickFilter(properties.getWindow(), properties.getTicks(), properties.getMaxKeys());
+    }
+
+    @Bean
+    public MeterBinder duplicateClickFilterMetrics(DuplicateClickFilter filter) {
+        return registry -> {
+            FunctionCounter.builder("urlshortener.dedupe.suppressed", filter, DuplicateClickFilter::suppressedCount)
+                    .description("Clicks not counted because the visitor clicked the link within the window")
+                    .register(registry);
+            FunctionCounter.builder("urlshortener.dedupe.overflow", filter, DuplicateClickFilter::overflowCount)
+                    .description("Counted clicks not remembered because the fingerprint tables were full")
+                    .register(registry);
+            Gauge.builder("urlshortener.dedupe.memory", filter, DuplicateClickFilter::memoryBytes)
+                    .description("Bytes held by the fingerprint tables")
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package Config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for duplicate click suppression
+ * 
+ * Bound from the "urlshortener.dedupe" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "urlshortener.dedupe")
+public class ClickDedupeProperties {
+    /** Whether repeated clicks of the same visitor on the same link are suppressed */
+    private boolean enabled = false;
+
+    /** How long after a counted click a repeat by the same IP address and User-Agent is not counted */
+    private Duration window = Duration.ofSeconds(5);
+
+    /** Number of ticks the window is cut into; entries expire one tick at a time */
+    private int ticks = 8;
+
+    /** Number of distinct visitor-link pairs that fit in one window; sizes the preallocated tables */
+    private int maxKeys = 1_000_000;
+}
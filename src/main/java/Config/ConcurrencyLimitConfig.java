@@ -0,0 +1,69 @@
+package Config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import Limiter.AdaptiveConcurrencyLimiter;
+import Limiter.ConcurrencyLimitFilter;
+import Limiter.EndpointClass;
+
+/**
+ * Load Shedding Configuration
+ *
+ * Registers the {@link ConcurrencyLimitFilter} ahead of all other filters except the per-client
+ * rate limit, so requests over the adaptive limit are refused before they take a session or
+ * a connection. The limiter's
+ * state is published under /actuator/metrics:
+ * - urlshortener.limiter.limit: current concurrency limit
+ * - urlshortener.limiter.inflight: requests being processed
+ * - urlshortener.limiter.rejected (tag "class"): refused requests per endpoint class
+ *
+ * Disabled with "urlshortener.limiter.enabled=false".
+ */
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(prefix = "urlshortener.limiter", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter concurrencyLimiter(ConcurrencyLimitProperties properties) {
+        return new AdaptiveConcurrencyLimiter(properties.getInitialLimit(), properties.getMinLimit(),
+                properties.getMaxLimit(), properties.getBackoffRatio(), properties.getLatencyThresholdMillis(),
+                properties.getShares());
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(limiter));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    @Bean
+    public MeterBinder concurrencyLimiterMetrics(AdaptiveConcurrencyLimiter limiter) {
+        return registry -> {
+            Gauge.builder("urlshortener.limiter.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                    .description("Current adaptive concurrency limit")
+                    .register(registry);
+            Gauge.builder("urlshortener.limiter.inflight", limiter, AdaptiveConcurrencyLimiter::inflight)
+                    .description("Requests being processed")
+                    .register(registry);
+            for (EndpointClass endpointClass : EndpointClass.values()) {
+                FunctionCounter.builder("urlshortener.limiter.rejected", limiter,
+                                l -> l.rejectedCount(endpointClass))
+                        .description("Requests refused by the concurrency limiter")
+                        .tag("class", endpointClass.name().toLowerCase())
+                        .register(registry);
+            }
+        };
+    }
+}
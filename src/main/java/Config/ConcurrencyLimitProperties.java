@@ -0,0 +1,39 @@
+package Config;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import Limiter.EndpointClass;
+import lombok.Data;
+
+/**
+ * Configuration properties for adaptive load shedding
+ *
+ * Bound from the "urlshortener.limiter" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "urlshortener.limiter")
+public class ConcurrencyLimitProperties {
+    /** Whether requests are limited at all */
+    private boolean enabled = true;
+
+    /** Concurrency limit at startup */
+    private int initialLimit = 100;
+
+    /** Lowest concurrency limit */
+    private int minLimit = 20;
+
+    /** Highest concurrency limit; keep at or below server.tomcat.threads.max */
+    private int maxLimit = 200;
+
+    /** Factor applied to the limit when a redirect or create is slower than the latency threshold */
+    private double backoffRatio = 0.9;
+
+    /** Redirect or create latency treated as a sign of overload */
+    private long latencyThresholdMillis = 100;
+
+    /** Share of the limit per endpoint class (redirect, create, analytics, bulk), overriding the defaults */
+    private Map<EndpointClass, Double> shares = new EnumMap<>(EndpointClass.class);
+}
@@ -0,0 +1,23 @@
+package Config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * JPA Configuration
+ * 
+ * Sets up Spring Data JPA repositories and entity scanning for the packages
+ * that live outside the main application package.
+ * 
+ * This lives in its own configuration class rather than on the main application
+ * class so that sliced tests (e.g. @WebMvcTest) can start without a JPA context.
+ * It is skipped when the in-memory storage engine is selected (see {@link StorageConfig}).
+ */
+@Configuration
+@ConditionalOnProperty(name = "urlshortener.storage.mode", havingValue = "jpa", matchIfMissing = true)
+@EnableJpaRepositories(basePackages = {"Repository"})
+@EntityScan(basePackages = {"Model"})
+public class JpaConfig {
+}
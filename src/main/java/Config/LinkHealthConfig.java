@@ -0,0 +1,64 @@
+package Config;
+
+import java.net.http.HttpClient;
+import java.time.Clock;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import Health.LinkHealthCrawler;
+import Sharding.ShardRouter;
+
+/**
+ * Link Health Configuration
+ *
+ * With "urlshortener.link-health.enabled=true" the {@link LinkHealthCrawler} probes every
+ * link's original URL every "urlshortener.link-health.interval" and records the result in
+ * 'link_health' (JPA storage mode only). Its counters are published under /actuator/metrics:
+ * - urlshortener.link-health.checked: links probed
+ * - urlshortener.link-health.broken: probes without a response or with a 4xx/5xx status
+ * - urlshortener.link-health.deferred: links left for the next crawl because their host was busy
+ */
+@Configuration
+@EnableConfigurationProperties(LinkHealthProperties.class)
+@ConditionalOnProperty(name = "urlshortener.link-health.enabled", havingValue = "true")
+public class LinkHealthConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "urlshortener.storage.mode", havingValue = "jpa", matchIfMissing = true)
+    public LinkHealthCrawler linkHealthCrawler(DataSource dataSource, ShardRouter shardRouter,
+            LinkHealthProperties properties) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(properties.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        return new LinkHealthCrawler(new JdbcTemplate(dataSource), httpClient, shardRouter.shardCount(),
+                properties.getPageSize(), properties.getMaxInFlight(), properties.getPerHostConcurrency(),
+                properties.getPolitenessDelay(), properties.getMaxQueuedPerHost(), properties.getRequestTimeout(),
+                properties.getInterval(), Clock.systemDefaultZone());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "urlshortener.storage.mode", havingValue = "jpa", matchIfMissing = true)
+    public MeterBinder linkHealthMetrics(LinkHealthCrawler crawler) {
+        return registry -> {
+            FunctionCounter.builder("urlshortener.link-health.checked", crawler, LinkHealthCrawler::checkedCount)
+                    .description("Links whose original URL was probed")
+                    .register(registry);
+            FunctionCounter.builder("urlshortener.link-health.broken", crawler, LinkHealthCrawler::brokenCount)
+                    .description("Probes that received no response or a 4xx/5xx status")
+                    .register(registry);
+            FunctionCounter.builder("urlshortener.link-health.deferred", crawler, LinkHealthCrawler::deferredCount)
+                    .description("Links left for the next crawl because their host's queue was full")
+                    .register(registry);
+        };
+    }
+}
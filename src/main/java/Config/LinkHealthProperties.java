@@ -0,0 +1,43 @@
+package Config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the target health crawler
+ *
+ * Bound from the "urlshortener.link-health" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "urlshortener.link-health")
+public class LinkHealthProperties {
+    /** Whether the original URLs are probed in the background; enable on one node only */
+    private boolean enabled = false;
+
+    /** How often the links are crawled; links checked more recently are skipped */
+    private Duration interval = Duration.ofHours(24);
+
+    /** Number of links read from the database at a time */
+    private int pageSize = 1000;
+
+    /** Maximum number of probes queued or running across all hosts */
+    private int maxInFlight = 200;
+
+    /** Maximum number of probes running against one host */
+    private int perHostConcurrency = 2;
+
+    /** Minimum time between two probes of the same host */
+    private Duration politenessDelay = Duration.ofMillis(500);
+
+    /** Maximum number of probes waiting for one host; further links of the host wait for the next crawl */
+    private int maxQueuedPerHost = 50;
+
+    /** Time allowed to open a connection */
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    /** Time allowed until the response headers */
+    private Duration requestTimeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,34 @@
+package Config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import Live.ClickEventHub;
+import Live.LiveClickStream;
+
+/**
+ * Live Click Stream Configuration
+ *
+ * Provides the {@link ClickEventHub} the redirect path publishes recorded clicks into and the
+ * {@link LiveClickStream} that fans them out to GET /api/stats/{code}/live subscribers.
+ */
+@Configuration
+@EnableConfigurationProperties(LiveStreamProperties.class)
+public class LiveStreamConfig {
+
+    @Bean
+    public ClickEventHub clickEventHub(LiveStreamProperties properties) {
+        return new ClickEventHub(properties.getRingCapacity());
+    }
+
+    @Bean
+    public LiveClickStream liveClickStream(ClickEventHub clickEventHub, ObjectMapper objectMapper,
+            LiveStreamProperties properties) {
+        return new LiveClickStream(clickEventHub, objectMapper, properties.getTickMillis(),
+                properties.getDeltaIntervalMillis(), properties.getSendTimeoutMillis(),
+                properties.getEmitterTimeoutMillis(), properties.getMaxSubscribers(), properties.getSenderThreads());
+    }
+}
@@ -0,0 +1,35 @@
+package Config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the live click stream
+ *
+ * Bound from the "urlshortener.live" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "urlshortener.live")
+public class LiveStreamProperties {
+    /** Number of recent clicks kept in the ring buffer (rounded up to a power of two) */
+    private int ringCapacity = 65_536;
+
+    /** How often new clicks are sent to subscribers */
+    private long tickMillis = 200;
+
+    /** How often each subscriber gets its link's click count; also keeps idle streams open */
+    private long deltaIntervalMillis = 5_000;
+
+    /** How long a send to one subscriber may take before the subscriber is dropped */
+    private long sendTimeoutMillis = 5_000;
+
+    /** Lifetime of a stream; EventSource clients reconnect automatically */
+    private long emitterTimeoutMillis = 1_800_000;
+
+    /** Maximum number of open streams; further subscribe requests get 503 */
+    private int maxSubscribers = 10_000;
+
+    /** Number of threads writing events to subscribers */
+    private int senderThreads = 4;
+}
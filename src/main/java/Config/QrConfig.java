@@ -0,0 +1,40 @@
+package Config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import Qr.QrCodeCache;
+
+/**
+ * QR Code Configuration
+ *
+ * Rendered images behind GET /api/{shortCode}/qr are kept in a {@link QrCodeCache} of at most
+ * "urlshortener.qr.cache-max-bytes". Its statistics are published under /actuator/metrics:
+ * - cache.gets, cache.evictions, ... tagged cache=qr-codes: hits, misses and evictions
+ * - urlshortener.qr.cache.bytes: current size of the cached images
+ */
+@Configuration
+@EnableConfigurationProperties(QrProperties.class)
+public class QrConfig {
+
+    @Bean
+    public QrCodeCache qrCodeCache(QrProperties properties) {
+        return new QrCodeCache(properties.getCacheMaxBytes());
+    }
+
+    @Bean
+    public MeterBinder qrCodeCacheMetrics(QrCodeCache qrCodeCache) {
+        return registry -> {
+            CaffeineCacheMetrics.monitor(registry, qrCodeCache.cache(), "qr-codes");
+            Gauge.builder("urlshortener.qr.cache.bytes", qrCodeCache, QrCodeCache::weightedSize)
+                    .description("Total size of the cached QR code images")
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package Config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for QR code images
+ *
+ * Bound from the "urlshortener.qr" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "urlshortener.qr")
+public class QrProperties {
+    /** Maximum total size of the cached images in bytes */
+    private long cacheMaxBytes = 64L * 1024 * 1024;
+
+    /** Image size in pixels when the request does not give one */
+    private int defaultSize = 300;
+
+    /** Smallest image size a request may ask for */
+    private int minSize = 64;
+
+    /** Largest image size a request may ask for */
+    private int maxSize = 2048;
+
+    /**
+     * Public base URL of the short links, e.g. "https://sho.rt/api"; blank uses the request's context path,
+     * and the images may then only be cached privately
+     */
+    private String baseUrl = "";
+}
@@ -0,0 +1,55 @@
+package Config;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import Limiter.ClientRateLimiter;
+import Limiter.EndpointClass;
+import Limiter.RateLimitFilter;
+
+/**
+ * Rate Limit Configuration
+ *
+ * Registers the {@link RateLimitFilter} as the first filter, so a client over its limit is
+ * refused before it takes part in the concurrency limit. Shorten, redirect and statistics
+ * calls have separate limits; analytics and bulk calls both use the statistics limit, with
+ * separate buckets.
+ *
+ * Disabled with "urlshortener.rate-limit.enabled=false".
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(prefix = "urlshortener.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    public ClientRateLimiter clientRateLimiter(RateLimitProperties properties) {
+        Map<EndpointClass, ClientRateLimiter.Limit> limits = new EnumMap<>(EndpointClass.class);
+        limits.put(EndpointClass.CREATE, limit(properties.getShorten()));
+        limits.put(EndpointClass.REDIRECT, limit(properties.getRedirect()));
+        limits.put(EndpointClass.ANALYTICS, limit(properties.getStats()));
+        limits.put(EndpointClass.BULK, limit(properties.getStats()));
+        return new ClientRateLimiter(limits, properties.getMaxClients());
+    }
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(ClientRateLimiter limiter,
+            RateLimitProperties properties) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(
+                new RateLimitFilter(limiter, properties.getApiKeyHeader(), Set.copyOf(properties.getApiKeys())));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    private static ClientRateLimiter.Limit limit(RateLimitProperties.Limit limit) {
+        return new ClientRateLimiter.Limit(limit.getPermitsPerSecond(), limit.getBurst());
+    }
+}
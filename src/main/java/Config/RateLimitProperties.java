@@ -0,0 +1,61 @@
+package Config;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for per-client rate limiting
+ *
+ * Bound from the "urlshortener.rate-limit" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "urlshortener.rate-limit")
+public class RateLimitProperties {
+    /** Whether clients are rate limited at all */
+    private boolean enabled = true;
+
+    /** Limit of POST /shorten per client */
+    private Limit shorten = new Limit(10, 50);
+
+    /** Limit of GET /{shortCode} per client */
+    private Limit redirect = new Limit(200, 400);
+
+    /** Limit of the statistics endpoints (/stats/..., /urls) per client */
+    private Limit stats = new Limit(20, 40);
+
+    /**
+     * Maximum number of clients tracked per endpoint class; clients whose bucket has refilled are
+     * dropped every second, and beyond the maximum new clients share one bucket
+     */
+    private long maxClients = 100_000;
+
+    /** Request header carrying an API key */
+    private String apiKeyHeader = "X-API-Key";
+
+    /** API keys limited per key instead of per IP address */
+    private Set<String> apiKeys = new LinkedHashSet<>();
+
+    /**
+     * Token bucket size and refill rate
+     */
+    @Data
+    public static class Limit {
+        /** Sustained requests per second; 0 disables the limit */
+        private double permitsPerSecond;
+
+        /** Requests allowed at once after being idle */
+        private int burst;
+
+        public Limit() {
+        }
+
+        public Limit(double permitsPerSecond, int burst) {
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+        }
+    }
+}
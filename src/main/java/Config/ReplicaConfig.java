@@ -0,0 +1,69 @@
+package Config;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import Replica.ReadWriteRoutingDataSource;
+import Replica.ReplicaLagGuard;
+import Replica.ReplicaPoolDataSource;
+
+/**
+ * Read-Replica Configuration
+ * 
+ * With "urlshortener.replicas.enabled=true" the application datasource becomes a
+ * {@link ReadWriteRoutingDataSource}: writes use the primary from spring.datasource.*,
+ * read-only transactions use a health-checked pool of the configured replicas.
+ * Replica routing applies to the unsharded setup and cannot be combined with
+ * "urlshortener.sharding.enabled".
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaConfig {
+
+    @Bean
+    public ReplicaLagGuard replicaLagGuard(ReplicaProperties properties) {
+        return new ReplicaLagGuard(properties.isEnabled(), properties.getLagTolerance(),
+                properties.getMaxTrackedWrites());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "urlshortener.replicas.enabled", havingValue = "true")
+    public DataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "urlshortener.replicas.enabled", havingValue = "true")
+    public ReplicaPoolDataSource replicaPoolDataSource(ReplicaProperties properties,
+            DataSourceProperties dataSourceProperties, @Qualifier("primaryDataSource") DataSource primary) {
+        List<DataSource> replicas = properties.getNodes().stream()
+                .map(replica -> (DataSource) DataSourceBuilder.create()
+                        .url(replica.getUrl())
+                        .username(replica.getUsername() != null
+                                ? replica.getUsername() : dataSourceProperties.determineUsername())
+                        .password(replica.getPassword() != null
+                                ? replica.getPassword() : dataSourceProperties.determinePassword())
+                        .build())
+                .toList();
+        return new ReplicaPoolDataSource(primary, replicas, properties.getHealthCheckIntervalMillis(),
+                properties.getValidationTimeoutSeconds());
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "urlshortener.replicas.enabled", havingValue = "true")
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+            ReplicaPoolDataSource replicaPool) {
+        return new ReadWriteRoutingDataSource(primary, replicaPool);
+    }
+}
@@ -0,0 +1,46 @@
+package Config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for read-replica routing
+ * 
+ * Bound from the "urlshortener.replicas" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "urlshortener.replicas")
+public class ReplicaProperties {
+    /** Whether read-only transactions are routed to the replicas below */
+    private boolean enabled = false;
+
+    /** Replica datasources; credentials default to the primary's */
+    private List<Replica> nodes = new ArrayList<>();
+
+    /** How long a code written by this node is read from the primary */
+    private Duration lagTolerance = Duration.ofSeconds(5);
+
+    /** Upper bound on the number of recently written codes tracked for lag tolerance */
+    private long maxTrackedWrites = 100_000;
+
+    /** Interval between replica health checks */
+    private long healthCheckIntervalMillis = 5000;
+
+    /** Timeout for a single replica validation query, in seconds */
+    private int validationTimeoutSeconds = 2;
+
+    /**
+     * Connection settings of one replica
+     */
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,116 @@
+package Config;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import Repository.CodeRangeCounterRepository;
+import Repository.CodeRangeLeaseRepository;
+import Service.RandomShortCodeGenerator;
+import Service.ShortCodeGenerator;
+import Sharding.CodeRangeAllocator;
+import Sharding.ShardContext;
+import Sharding.ShardIdRanges;
+import Sharding.LeasedRangeShortCodeGenerator;
+import Sharding.ShardRouter;
+import Sharding.ShardRoutingDataSource;
+
+/**
+ * Sharding Configuration
+ * 
+ * With "urlshortener.sharding.enabled=false" (the default) there is a single shard,
+ * the regular datasource is used and codes are generated randomly.
+ * 
+ * When enabled, the application datasource is replaced by a {@link ShardRoutingDataSource}
+ * over the configured shards, and each node generates codes locally from ranges of its
+ * home shard leased through the coordination tables on shard 0. The Flyway migrations
+ * are applied to every shard on startup, and each shard then claims or checks its own
+ * 'short_url' id range (see {@link ShardIdRanges}), because the second-level cache and
+ * invalidations key links by id.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardRouter shardRouter(ShardingProperties properties) {
+        return new ShardRouter(properties.isEnabled() ? properties.getShards().size() : 1);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "urlshortener.sharding.enabled", havingValue = "true")
+    public DataSource dataSource(ShardingProperties properties) {
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalStateException("urlshortener.sharding.shards must list at least one shard");
+        }
+        List<DataSource> shards = properties.getShards().stream()
+                .map(shard -> (DataSource) DataSourceBuilder.create()
+                        .url(shard.getUrl())
+                        .username(shard.getUsername())
+                        .password(shard.getPassword())
+                        .build())
+                .toList();
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "urlshortener.sharding.enabled", havingValue = "true")
+    public CodeRangeAllocator codeRangeAllocator(CodeRangeCounterRepository counterRepo,
+            CodeRangeLeaseRepository leaseRepo) {
+        return new CodeRangeAllocator(counterRepo, leaseRepo);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "urlshortener.sharding.enabled", havingValue = "true")
+    public ShortCodeGenerator leasedRangeShortCodeGenerator(CodeRangeAllocator allocator, ShardRouter router,
+            ShardingProperties properties) {
+        String nodeId = properties.getNodeId() != null
+                ? properties.getNodeId()
+                : ManagementFactory.getRuntimeMXBean().getName();
+        int homeShard = properties.getHomeShard() != null
+                ? properties.getHomeShard()
+                : Math.floorMod(nodeId.hashCode(), router.shardCount());
+        return new LeasedRangeShortCodeGenerator(allocator, router, homeShard, nodeId,
+                properties.getLeaseBlockSize());
+    }
+
+    /**
+     * Migrates each shard in turn and claims its id range; Flyway's connections follow the shard context
+     */
+    @Bean
+    @ConditionalOnClass(Flyway.class)
+    @ConditionalOnProperty(name = "urlshortener.sharding.enabled", havingValue = "true")
+    public FlywayMigrationStrategy shardedFlywayMigrationStrategy(ShardRouter router, ShardingProperties properties) {
+        ShardIdRanges idRanges = new ShardIdRanges(properties.getShortUrlIdRange());
+        return flyway -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(flyway.getConfiguration().getDataSource());
+            for (int shard = 0; shard < router.shardCount(); shard++) {
+                int current = shard;
+                ShardContext.callOn(shard, () -> {
+                    flyway.migrate();
+                    idRanges.claim(current, jdbcTemplate);
+                    return null;
+                });
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "urlshortener.sharding.enabled", havingValue = "false", matchIfMissing = true)
+    public ShortCodeGenerator randomShortCodeGenerator() {
+        return new RandomShortCodeGenerator();
+    }
+}
@@ -0,0 +1,45 @@
+package Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the sharded short code keyspace
+ * 
+ * Bound from the "urlshortener.sharding" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "urlshortener.sharding")
+public class ShardingProperties {
+    /** Whether short_url is split across the shard datasources below */
+    private boolean enabled = false;
+
+    /** Identifier of this node in code range leases (defaults to host name and process id) */
+    private String nodeId;
+
+    /** Shard this node creates new links on (defaults to a hash of the node id) */
+    private Integer homeShard;
+
+    /** Number of sequence values leased per round trip to the coordination table */
+    private int leaseBlockSize = 1000;
+
+    /** Number of short_url ids per shard; shard n hands out ids n * range + 1 to (n + 1) * range */
+    private long shortUrlIdRange = 1_000_000_000_000L;
+
+    /** Shard datasources, in shard order; shard 0 also hosts the coordination tables */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * Connection settings of one shard
+     */
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
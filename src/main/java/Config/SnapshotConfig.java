@@ -0,0 +1,50 @@
+package Config;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import Cache.LinkVersions;
+import Sharding.ShardRouter;
+import Snapshot.LinkSnapshotExporter;
+import Snapshot.LinkSnapshotImporter;
+import Snapshot.SnapshotCommand;
+
+/**
+ * Link Snapshot Configuration
+ *
+ * Exports the 'short_url' table of a shard into a compact, checksummed snapshot and imports
+ * one, to bootstrap the database of a new instance without replaying inserts link by link
+ * (JPA storage mode only). Snapshots are taken and loaded through the command line (see
+ * {@link SnapshotCommand}) or, with "urlshortener.snapshot.admin-enabled=true", through
+ * GET and POST /api/admin/snapshots/links.
+ */
+@Configuration
+@EnableConfigurationProperties(SnapshotProperties.class)
+@ConditionalOnProperty(name = "urlshortener.storage.mode", havingValue = "jpa", matchIfMissing = true)
+public class SnapshotConfig {
+
+    @Bean
+    public LinkSnapshotExporter linkSnapshotExporter(DataSource dataSource, ShardRouter shardRouter,
+            SnapshotProperties properties) {
+        return new LinkSnapshotExporter(new JdbcTemplate(dataSource), shardRouter.shardCount(),
+                properties.getPageSize());
+    }
+
+    @Bean
+    public LinkSnapshotImporter linkSnapshotImporter(DataSource dataSource, DataSourceProperties dataSourceProperties,
+            ShardRouter shardRouter, LinkVersions linkVersions, SnapshotProperties properties) {
+        return new LinkSnapshotImporter(new JdbcTemplate(dataSource), StorageConfig.isH2(dataSourceProperties),
+                shardRouter.shardCount(), properties.getBatchSize(), linkVersions);
+    }
+
+    @Bean
+    public SnapshotCommand snapshotCommand(LinkSnapshotExporter exporter, LinkSnapshotImporter importer) {
+        return new SnapshotCommand(exporter, importer);
+    }
+}
@@ -0,0 +1,23 @@
+package Config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for link-table snapshots
+ *
+ * Bound from the "urlshortener.snapshot" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "urlshortener.snapshot")
+public class SnapshotProperties {
+    /** Whether the export and import endpoints under /api/admin/snapshots are served */
+    private boolean adminEnabled = false;
+
+    /** Number of links read per query when exporting */
+    private int pageSize = 10_000;
+
+    /** Number of links per insert batch when importing into H2 (PostgreSQL imports with COPY) */
+    private int batchSize = 5_000;
+}
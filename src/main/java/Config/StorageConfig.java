@@ -0,0 +1,162 @@
+package Config;
+
+import java.nio.file.Path;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.H2SequenceMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.PostgresSequenceMaxValueIncrementer;
+
+import Archive.ClickArchive;
+import Cache.LinkVersions;
+import Cache.LocalInvalidationBus;
+import Model.ClickStats;
+
+import Replica.ReplicaLagGuard;
+import Repository.ShortUrlRepository;
+import Sharding.ShardRouter;
+import Storage.ClickAggregator;
+import Storage.ClickBatchWriter;
+import Storage.ClickBuffer;
+import Storage.ClickExportReader;
+import Storage.ClickRollupReader;
+import Storage.InMemoryLinkStore;
+import Storage.JpaLinkStore;
+import Storage.LinkPreloader;
+import Storage.LinkStore;
+import Storage.TargetHostIndex;
+import Storage.TargetHostSummary;
+
+/**
+ * Storage Configuration
+ * 
+ * Selects the {@link LinkStore} behind UrlService through "urlshortener.storage.mode".
+ * With "jpa" (the default) links are stored in PostgreSQL. With "memory" they are kept
+ * in-process and persisted under "urlshortener.storage.data-dir"; the JPA configuration
+ * and the database-backed cache invalidation are switched off. Use the "memory" profile,
+ * which also excludes the datasource auto-configuration, to run without a database.
+ * 
+ * In JPA mode clicks are buffered and inserted with batched JDBC; their ids are drawn
+ * from click_stats_seq with the database's sequence syntax (PostgreSQL, or H2 in tests).
+ * Written clicks are rolled up into hourly aggregates for the click breakdown, and into
+ * hourly rollups with visitor sketches for analytics queries ({@link ClickRollupReader}).
+ * Both stores report new clicks to the {@link LinkVersions} behind the statistics ETags
+ * once the clicks can be read. Click exports include the clicks of the node's
+ * {@link ClickArchive}, if archiving is enabled. Links are indexed by target host for lookups by domain
+ * ({@link TargetHostIndex}).
+ * 
+ * On startup the most-clicked links are loaded into the second-level cache before the node
+ * reports ready (see {@link LinkPreloader}).
+ */
+@Configuration
+@EnableConfigurationProperties(StorageProperties.class)
+public class StorageConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "urlshortener.storage.mode", havingValue = "jpa", matchIfMissing = true)
+    public LinkStore jpaLinkStore(ShortUrlRepository shortUrlRepo, ClickBuffer clickBuffer,
+            ShardRouter shardRouter, ReplicaLagGuard replicaLagGuard, ClickAggregator clickAggregator,
+            ClickRollupReader clickRollupReader, ClickExportReader clickExportReader,
+            TargetHostIndex targetHostIndex, LinkVersions linkVersions) {
+        return JpaLinkStore.builder()
+                .shortUrlRepo(shortUrlRepo)
+                .clickBuffer(clickBuffer)
+                .shardRouter(shardRouter)
+                .replicaLagGuard(replicaLagGuard)
+                .clickAggregator(clickAggregator)
+                .clickRollupReader(clickRollupReader)
+                .clickExportReader(clickExportReader)
+                .targetHostIndex(targetHostIndex)
+                .linkVersions(linkVersions)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "urlshortener.storage.mode", havingValue = "jpa", matchIfMissing = true)
+    public TargetHostIndex targetHostIndex(DataSource dataSource, ShardRouter shardRouter,
+            StorageProperties properties) {
+        return new TargetHostIndex(new JdbcTemplate(dataSource), shardRouter.shardCount(),
+                properties.getTargetHostBatchSize(), new TargetHostSummary(), properties.getTargetHostRefreshInterval());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "urlshortener.storage.mode", havingValue = "jpa", matchIfMissing = true)
+    public ClickBatchWriter clickBatchWriter(DataSource dataSource, DataSourceProperties dataSourceProperties) {
+        DataFieldMaxValueIncrementer idSequence = isH2(dataSourceProperties)
+                ? new H2SequenceMaxValueIncrementer(dataSource, ClickStats.ID_SEQUENCE)
+                : new PostgresSequenceMaxValueIncrementer(dataSource, ClickStats.ID_SEQUENCE);
+        return new ClickBatchWriter(new JdbcTemplate(dataSource), idSequence);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "urlshortener.storage.mode", havingValue = "jpa", matchIfMissing = true)
+    public ClickAggregator clickAggregator(DataSource dataSource, DataSourceProperties dataSourceProperties,
+            StorageProperties properties) {
+        return new ClickAggregator(new JdbcTemplate(dataSource), isH2(dataSourceProperties),
+                properties.getAggregateFlushIntervalMillis());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "urlshortener.storage.mode", havingValue = "jpa", matchIfMissing = true)
+    public ClickRollupReader clickRollupReader(DataSource dataSource, ShardRouter shardRouter,
+            ClickAnalyticsProperties analyticsProperties) {
+        return new ClickRollupReader(new JdbcTemplate(dataSource), shardRouter.shardCount(),
+                analyticsProperties.getQueryParallelism(), analyticsProperties.getQuerySliceSpan());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "urlshortener.storage.mode", havingValue = "jpa", matchIfMissing = true)
+    public ClickExportReader clickExportReader(DataSource dataSource, StorageProperties properties,
+            ObjectProvider<ClickArchive> clickArchive) {
+        return new ClickExportReader(new JdbcTemplate(dataSource), properties.getClickExportPageSize(),
+                clickArchive.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "urlshortener.storage.mode", havingValue = "jpa", matchIfMissing = true)
+    public ClickBuffer clickBuffer(ClickBatchWriter clickBatchWriter, ClickAggregator clickAggregator,
+            LinkVersions linkVersions, StorageProperties properties) {
+        return ClickBuffer.builder()
+                .writer(clickBatchWriter)
+                .aggregator(clickAggregator)
+                .versions(linkVersions)
+                .flushIntervalMillis(properties.getClickFlushIntervalMillis())
+                .batchSize(properties.getClickBatchSize())
+                .maxPending(properties.getMaxPendingClicks())
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "urlshortener.storage.mode", havingValue = "memory")
+    public InMemoryLinkStore inMemoryLinkStore(StorageProperties properties, LinkVersions linkVersions) {
+        return new InMemoryLinkStore(Path.of(properties.getDataDir()),
+                properties.getFlushInterval(), properties.getSnapshotInterval(), linkVersions);
+    }
+
+    /**
+     * Versions behind the ETags of link statistics; a single in-memory node has nobody to tell
+     */
+    @Bean
+    @ConditionalOnProperty(name = "urlshortener.storage.mode", havingValue = "memory")
+    public LinkVersions memoryLinkVersions() {
+        return new LinkVersions(new LocalInvalidationBus(), LinkVersions.DEFAULT_STRIPES);
+    }
+
+    @Bean
+    public LinkPreloader linkPreloader(LinkStore linkStore, StorageProperties properties) {
+        return new LinkPreloader(linkStore, properties.getPreloadTopLinks(), properties.getPreloadWindow());
+    }
+
+    static boolean isH2(DataSourceProperties dataSourceProperties) {
+        String url = dataSourceProperties.determineUrl();
+        return url != null && url.startsWith("jdbc:h2:");
+    }
+}
@@ -0,0 +1,65 @@
+package Config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the link storage engine
+ * 
+ * Bound from the "urlshortener.storage" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "urlshortener.storage")
+public class StorageProperties {
+    /** Storage engine behind UrlService */
+    private Mode mode = Mode.JPA;
+
+    /** Maximum time a recorded click waits before it is written (JPA mode) */
+    private long clickFlushIntervalMillis = 200;
+
+    /** Number of clicks per JDBC insert batch (JPA mode) */
+    private int clickBatchSize = 50;
+
+    /** How often hourly click aggregates are written (JPA mode); breakdowns lag by up to this */
+    private long aggregateFlushIntervalMillis = 5_000;
+
+    /** Upper bound on clicks waiting to be written; further clicks are dropped (JPA mode) */
+    private int maxPendingClicks = 100_000;
+
+    /** Number of clicks read per query when a link's clicks are exported (JPA mode) */
+    private int clickExportPageSize = 1_000;
+
+    /** How often missing target hosts are filled in and the per-host link counts reread (JPA mode); zero disables it */
+    private Duration targetHostRefreshInterval = Duration.ofMinutes(10);
+
+    /** Number of links whose target host is filled in per query (JPA mode) */
+    private int targetHostBatchSize = 1_000;
+
+    /** Number of most-clicked links loaded into the cache before the node reports ready; 0 disables it */
+    private int preloadTopLinks = 1_000;
+
+    /** Period over which clicks are counted to pick the links to preload */
+    private Duration preloadWindow = Duration.ofDays(7);
+
+    /** Directory of the in-memory store's snapshot and journal files */
+    private String dataDir = "data";
+
+    /** How often buffered clicks of the in-memory store are synced to disk */
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /** How often the in-memory store writes a full snapshot and truncates its journal */
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+
+    /**
+     * Available storage engines
+     */
+    public enum Mode {
+        /** PostgreSQL through JPA, with sharding and read replicas */
+        JPA,
+        /** In-process maps persisted by snapshots plus a journal; no database needed */
+        MEMORY
+    }
+}
@@ -0,0 +1,46 @@
+package Config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import Controller.WireFormats;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Wire Format Configuration
+ *
+ * Lets clients ask for CBOR ("application/cbor") or Smile ("application/x-jackson-smile")
+ * instead of JSON through the Accept header, and send request bodies in either format.
+ * Spring MVC registers converters for both on its own once the Jackson modules are present,
+ * but with mappers of their own; they are replaced by converters over the mappers of
+ * {@link WireFormats}, which copy the application's JSON mapper. JSON stays first, so it is
+ * what clients without a preference get.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WireFormatConfig implements WebMvcConfigurer {
+    private final ObjectMapper objectMapper;
+
+    @Bean
+    public WireFormats wireFormats() {
+        return new WireFormats(objectMapper);
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        WireFormats formats = wireFormats();
+        converters.add(new MappingJackson2CborHttpMessageConverter(formats.mapper(MediaType.APPLICATION_CBOR)));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(formats.mapper(WireFormats.APPLICATION_SMILE)));
+    }
+}
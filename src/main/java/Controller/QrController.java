@@ -0,0 +1,106 @@
+package Controller;
+
+import java.time.Duration;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import Config.QrProperties;
+import Qr.QrCodeCache;
+import Qr.QrFormat;
+import Service.UrlService;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST Controller for QR codes of short URLs
+ *
+ * The QR code encodes the short URL itself (not the original URL), so scans are counted
+ * like any other click. Images are rendered once per size and format and then served from
+ * the {@link QrCodeCache}.
+ *
+ * Without a configured base URL the short URL is built from the request's Host header, which
+ * the client controls. Such images vary by Host and may only be cached privately, so a shared
+ * cache or CDN never serves a QR code built from one client's Host to another.
+ */
+@Controller
+@RequiredArgsConstructor
+public class QrController {
+    /** How long clients and CDNs may keep an image; a short URL's QR code never changes */
+    private static final CacheControl IMAGE_CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(1)).cachePublic();
+
+    /** Images built from the request's Host header, which a shared cache must not reuse across clients */
+    private static final CacheControl REQUEST_HOST_CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(1)).cachePrivate();
+
+    private final UrlService urlService;
+    private final QrCodeCache qrCodeCache;
+    private final QrProperties properties;
+
+    /**
+     * Returns the QR code of a short URL as an image
+     *
+     * @param shortCode The short code
+     * @param size Width and height in pixels; the configured default if omitted
+     * @param format "png" (default) or "svg"
+     * @return ResponseEntity with the image, 404 if the code does not exist,
+     *         or 400 if the size or format is invalid or the short URL does not fit in a QR code
+     *
+     * Endpoint: GET /api/{shortCode}/qr
+     * Example: GET /api/abc123/qr?size=512&format=svg
+     */
+    @GetMapping("/{shortCode}/qr")
+    public ResponseEntity<?> qrCode(@PathVariable String shortCode, @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "png") String format) {
+        int pixels = size == null ? properties.getDefaultSize() : size;
+        if (pixels < properties.getMinSize() || pixels > properties.getMaxSize()) {
+            return ResponseEntity.badRequest().body("The size must be between " + properties.getMinSize()
+                    + " and " + properties.getMaxSize() + " pixels");
+        }
+        QrFormat qrFormat;
+        try {
+            qrFormat = QrFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        if (!urlService.exists(shortCode)) {
+            return ResponseEntity.notFound().build();
+        }
+        boolean fromRequestHost = fromRequestHost();
+        byte[] image;
+        try {
+            image = qrCodeCache.get(shortUrl(shortCode, fromRequestHost), pixels, qrFormat);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("The short URL is too long for a QR code");
+        }
+        if (fromRequestHost) {
+            return ResponseEntity.ok()
+                    .contentType(qrFormat.mediaType())
+                    .cacheControl(REQUEST_HOST_CACHE_CONTROL)
+                    .varyBy(HttpHeaders.HOST)
+                    .body(image);
+        }
+        return ResponseEntity.ok()
+                .contentType(qrFormat.mediaType())
+                .cacheControl(IMAGE_CACHE_CONTROL)
+                .body(image);
+    }
+
+    private boolean fromRequestHost() {
+        String baseUrl = properties.getBaseUrl();
+        return baseUrl == null || baseUrl.isBlank();
+    }
+
+    private String shortUrl(String shortCode, boolean fromRequestHost) {
+        if (fromRequestHost) {
+            return ServletUriComponentsBuilder.fromCurrentContextPath().path("/{code}").buildAndExpand(shortCode)
+                    .toUriString();
+        }
+        String baseUrl = properties.getBaseUrl();
+        return (baseUrl.endsWith("/") ? baseUrl : baseUrl + "/") + shortCode;
+    }
+}
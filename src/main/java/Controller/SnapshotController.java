@@ -0,0 +1,76 @@
+package Controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import Snapshot.CorruptSnapshotException;
+import Snapshot.LinkSnapshotExporter;
+import Snapshot.LinkSnapshotImporter;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST Controller for link-table snapshots
+ *
+ * Lets an operator pull the links of a shard from a running node and push them into a new
+ * one. Only served with "urlshortener.snapshot.admin-enabled=true" and JPA storage; the
+ * endpoints are not authenticated, so they must only be reachable from the operator's network.
+ */
+@Controller
+@RequiredArgsConstructor
+@ConditionalOnExpression("${urlshortener.snapshot.admin-enabled:false} and '${urlshortener.storage.mode:jpa}' == 'jpa'")
+public class SnapshotController {
+    private final LinkSnapshotExporter exporter;
+    private final LinkSnapshotImporter importer;
+
+    /**
+     * Streams a snapshot of the links of a shard
+     *
+     * @param shard The shard to export
+     * @param afterId Id watermark: only links with a higher id are exported, for incremental snapshots
+     * @return ResponseEntity with the snapshot, or 400 if the shard or watermark is invalid
+     *
+     * Endpoint: GET /api/admin/snapshots/links?shard=0&afterId=0
+     */
+    @GetMapping(value = "/admin/snapshots/links", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "0") int shard,
+            @RequestParam(defaultValue = "0") long afterId) {
+        if (shard < 0 || shard >= exporter.shardCount() || afterId < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> exporter.export(shard, afterId, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"links-" + shard + "-" + afterId + ".snap\"")
+                .body(body);
+    }
+
+    /**
+     * Imports a snapshot sent as the request body into the shard it was exported from
+     *
+     * @param request The request whose body is the snapshot
+     * @return ResponseEntity with the SnapshotImport, or 400 if the snapshot is damaged or of
+     *         an unknown shard; nothing is imported then
+     *
+     * Endpoint: POST /api/admin/snapshots/links
+     * Request Body: a snapshot as returned by GET /api/admin/snapshots/links
+     */
+    @PostMapping(value = "/admin/snapshots/links", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> importSnapshot(HttpServletRequest request) throws IOException {
+        try (InputStream in = request.getInputStream()) {
+            return ResponseEntity.ok(importer.importFrom(in));
+        } catch (CorruptSnapshotException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -1,19 +1,46 @@
 package Controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import DTO.AnalyticsQuery;
+import DTO.BatchStatsRequest;
+import DTO.BulkShortenRequest;
+import DTO.ClickBreakdown;
+import DTO.LinkSummary;
 import DTO.UrlRequest;
+import Limiter.EndpointClass;
+import Limiter.RateLimitFilter;
+import Live.LiveClickStream;
+import Model.ClickStats;
 import Model.ShortUrl;
 import Service.UrlService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -24,12 +51,15 @@ import lombok.RequiredArgsConstructor;
  * retrieving all URLs, and getting click statistics.
  * 
  * All endpoints are prefixed with /api due to server.servlet.context-path configuration.
+ * Responses are JSON unless the client asks for CBOR or Smile (see {@link WireFormats}).
  */
 
 @Controller
 @RequiredArgsConstructor
 public class UrlController {
     private final UrlService urlService;
+    private final LiveClickStream liveClickStream;
+    private final WireFormats wireFormats;
 
     /**
      * Creates a shortened URL from the provided original URL
@@ -41,9 +71,7 @@ public class UrlController {
      * Request Body: {"originalUrl": "https://www.example.com"}
      */
     @PostMapping("/shorten")
-    public ResponseEntity<ShortUrl> shorten(@RequestBody UrlRequest request) {
-
-        System.out.println(request.getOriginalUrl());
+    public ResponseEntity<ShortUrl> shorten(@Valid @RequestBody UrlRequest request) {
         return ResponseEntity.ok(urlService.createShortUrl(request.getOriginalUrl()));
     }
 
@@ -78,28 +106,242 @@ public ResponseEntity<Void> redirect(@PathVariable String shortCode, HttpServlet
     /**
      * Retrieves all shortened URLs in the system
      * 
-     * @return ResponseEntity with list of all ShortUrl objects
+     * The response carries a strong ETag. A request whose If-None-Match header holds the
+     * current tag gets 304 Not Modified without the listing being loaded.
+     * 
+     * @param webRequest Request used for the conditional GET check
+     * @param accept The Accept header; each format has its own ETag
+     * @return ResponseEntity with list of all ShortUrl objects, or null when 304 was sent
      * 
      * Endpoint: GET /api/urls
      */
     @GetMapping("/urls")
-    public ResponseEntity<List<ShortUrl>> getAll() {
+    public ResponseEntity<List<ShortUrl>> getAll(WebRequest webRequest,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (webRequest.checkNotModified(wireFormats.etag(urlService.listingETag(), wireFormats.negotiate(accept)))) {
+            return null;
+        }
         return ResponseEntity.ok(urlService.getAllUrls());
     }
 
+    /**
+     * Retrieves the shortened URLs pointing at a domain, one page at a time
+     * 
+     * The links are read from an index of their normalized target hosts in id order; the
+     * response's "next" cursor, passed as "after", continues with the following page.
+     * 
+     * @param host The domain, e.g. "example.com"; case, "www." and a port are ignored
+     * @param after Cursor returned with the previous page; omitted for the first page
+     * @param limit Maximum number of links, at most {@value UrlService#MAX_DOMAIN_PAGE_SIZE}
+     * @return ResponseEntity with the DomainLinks, or 400 if the limit or cursor is invalid
+     * 
+     * Endpoint: GET /api/urls/by-domain/{host}
+     * Example: GET /api/urls/by-domain/example.com?limit=100&after=0:4711
+     */
+    @GetMapping("/urls/by-domain/{host}")
+    public ResponseEntity<?> getByDomain(@PathVariable String host, @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(urlService.findByDomain(host, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     /**
      * Retrieves statistics for a specific short URL
      * 
+     * The response carries a strong ETag that changes once new clicks of the link are
+     * written. A request whose If-None-Match header holds the current tag gets 304 Not
+     * Modified without the click statistics being loaded.
+     * 
      * @param code The short code to get statistics for
-     * @return ResponseEntity with ShortUrl object including click statistics, or 404 if not found
+     * @param webRequest Request used for the conditional GET check
+     * @param accept The Accept header; each format has its own ETag
+     * @return ResponseEntity with ShortUrl object including click statistics, 404 if not found,
+     *         or null when 304 was sent
      * 
      * Endpoint: GET /api/stats/{code}
      * Example: GET /api/stats/abc123
      */
     @GetMapping("/stats/{code}")
-    public ResponseEntity<ShortUrl> getStats(@PathVariable String code) {
+    public ResponseEntity<ShortUrl> getStats(@PathVariable String code, WebRequest webRequest,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Optional<String> etag = urlService.statsETag(code)
+                .map(tag -> wireFormats.etag(tag, wireFormats.negotiate(accept)));
+        if (etag.isPresent() && webRequest.checkNotModified(etag.get())) {
+            return null;
+        }
         return urlService.getStats(code)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    /**
+     * Creates many shortened URLs in one request
+     * 
+     * The response is an array of the created ShortUrl objects in request order, written as
+     * each link is stored, in JSON, CBOR or Smile as negotiated through the Accept header. The
+     * request body may be sent in any of these formats as well. Each URL costs the client one
+     * token of its shorten rate limit.
+     * 
+     * @param request Contains the original URLs, at most {@value BulkShortenRequest#MAX_URLS}
+     * @param accept The Accept header
+     * @param httpRequest The servlet request, carrying the client's rate limit
+     * @return ResponseEntity streaming the created links, or 429 if the client is over its shorten limit
+     * 
+     * Endpoint: POST /api/shorten/bulk
+     * Request Body: {"originalUrls": ["https://www.example.com", "https://www.example.org"]}
+     */
+    @PostMapping(value = "/shorten/bulk", produces = {MediaType.APPLICATION_JSON_VALUE,
+        MediaType.APPLICATION_CBOR_VALUE, WireFormats.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<StreamingResponseBody> shortenBulk(@Valid @RequestBody BulkShortenRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            HttpServletRequest httpRequest) {
+        long waitNanos = RateLimitFilter.charge(httpRequest, EndpointClass.CREATE, request.getOriginalUrls().size());
+        if (waitNanos > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, RateLimitFilter.retryAfter(waitNanos))
+                    .build();
+        }
+        return streamArray(wireFormats.negotiate(accept), ShortUrl.class, action -> {
+            for (String originalUrl : request.getOriginalUrls()) {
+                action.accept(urlService.createShortUrl(originalUrl));
+            }
+        });
+    }
+
+    /**
+     * Retrieves summary statistics for many short URLs in one request
+     * 
+     * The response is an array of LinkSummary objects in request order, written while the
+     * codes are looked up chunk by chunk, in JSON, CBOR or Smile as negotiated through the
+     * Accept header. Unknown codes are left out.
+     * 
+     * @param request Contains the short codes, at most {@value BatchStatsRequest#MAX_SHORT_CODES}
+     * @param accept The Accept header
+     * @return ResponseEntity streaming the summaries
+     * 
+     * Endpoint: POST /api/stats/batch
+     * Request Body: {"shortCodes": ["abc123", "def456"]}
+     */
+    @PostMapping(value = "/stats/batch", produces = {MediaType.APPLICATION_JSON_VALUE,
+        MediaType.APPLICATION_CBOR_VALUE, WireFormats.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<StreamingResponseBody> getBatchStats(@Valid @RequestBody BatchStatsRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return streamArray(wireFormats.negotiate(accept), LinkSummary.class,
+                action -> urlService.forEachLinkSummary(request.getShortCodes(), action));
+    }
+
+    /**
+     * Exports every click on a short URL, oldest first
+     * 
+     * The clicks are read page by page and written as they are read, in JSON, CBOR or Smile
+     * as negotiated through the Accept header, so exports of any size run in constant memory.
+     * Archived clicks are included, first, on the node that holds the click archive.
+     * 
+     * @param code The short code to export the clicks of
+     * @param accept The Accept header
+     * @return ResponseEntity streaming the ClickStats objects, or 404 if not found
+     * 
+     * Endpoint: GET /api/stats/{code}/clicks
+     * Example: GET /api/stats/abc123/clicks
+     */
+    @GetMapping(value = "/stats/{code}/clicks", produces = {MediaType.APPLICATION_JSON_VALUE,
+        MediaType.APPLICATION_CBOR_VALUE, WireFormats.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportClicks(@PathVariable String code,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (!urlService.exists(code)) {
+            return ResponseEntity.notFound().build();
+        }
+        return streamArray(wireFormats.negotiate(accept), ClickStats.class,
+                action -> urlService.forEachClick(code, action));
+    }
+
+    /**
+     * Retrieves click counts per browser family, operating system, device class and country
+     * 
+     * @param code The short code to get the breakdown for
+     * @return ResponseEntity with the ClickBreakdown, or 404 if not found
+     * 
+     * Endpoint: GET /api/stats/{code}/breakdown
+     * Example: GET /api/stats/abc123/breakdown
+     */
+    @GetMapping("/stats/{code}/breakdown")
+    public ResponseEntity<ClickBreakdown> getBreakdown(@PathVariable String code) {
+        return urlService.getClickBreakdown(code)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Groups human clicks by time, referrer domain, country and device class
+     * 
+     * Answered from hourly rollups, never from individual clicks. Unknown short codes are
+     * ignored; dimensions not grouped by and metrics not requested are left out of the rows.
+     * 
+     * @param query The links (all if omitted), period, dimensions and metrics
+     * @return ResponseEntity with the AnalyticsResult, or 400 if the period is invalid or the
+     *         query produces too many groups
+     * 
+     * Endpoint: POST /api/analytics/query
+     * Request Body: {"shortCodes": ["abc123"], "from": "2025-06-01T00:00:00", "to": "2025-07-01T00:00:00",
+     *                "groupBy": ["TIME", "COUNTRY"], "bucket": "DAY", "metrics": ["CLICKS", "UNIQUE_VISITORS"]}
+     */
+    @PostMapping("/analytics/query")
+    public ResponseEntity<?> queryAnalytics(@Valid @RequestBody AnalyticsQuery query) {
+        try {
+            return ResponseEntity.ok(urlService.queryAnalytics(query));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Streams the clicks on a short URL as Server-Sent Events
+     * 
+     * Sends a "clicks" event with the new clicks every tick and a "delta" event with the
+     * click count every few seconds. Subscribers that cannot keep up receive counts only.
+     * 
+     * @param code The short code to watch
+     * @return ResponseEntity with the event stream, 404 if not found, or 503 if the
+     *         subscriber limit is reached
+     * 
+     * Endpoint: GET /api/stats/{code}/live
+     * Example: GET /api/stats/abc123/live
+     */
+    @GetMapping(value = "/stats/{code}/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> live(@PathVariable String code) {
+        if (!urlService.exists(code)) {
+            return ResponseEntity.notFound().build();
+        }
+        return liveClickStream.subscribe(code)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+
+    /**
+     * Streams the elements a producer hands over as one array, encoding each element straight
+     * into the response with the format's generator
+     */
+    private <T> ResponseEntity<StreamingResponseBody> streamArray(MediaType format, Class<T> elementType,
+            Consumer<Consumer<T>> producer) {
+        ObjectMapper mapper = wireFormats.mapper(format);
+        // flushed when the generator's buffer fills rather than after every element
+        ObjectWriter writer = mapper.writerFor(elementType).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = mapper.createGenerator(out)) {
+                generator.writeStartArray();
+                producer.accept(element -> {
+                    try {
+                        writer.writeValue(generator, element);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(format).body(body);
+    }
 }
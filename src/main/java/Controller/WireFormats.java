@@ -0,0 +1,110 @@
+package Controller;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+/**
+ * Jackson encodings the API speaks, chosen per request from the Accept header
+ *
+ * Besides JSON (the default) every response can be sent as CBOR (RFC 8949) or Smile,
+ * Jackson's binary JSON. Both carry the same fields as the JSON, with numbers in binary and
+ * strings length-prefixed instead of escaped. Smile also refers back to field names and
+ * short string values (referrers, countries) it has already written, which pays off in
+ * long arrays of records.
+ *
+ * The binary mappers are copies of the application's JSON mapper, so modules, date handling
+ * and inclusion rules are the same in every format. They back the message converters (see
+ * {@link Config.WireFormatConfig}) and the streaming endpoints, which write element by element
+ * with the negotiated format's generator.
+ */
+public class WireFormats {
+    /** Media type of Smile */
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    /** Media type of Smile */
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    private final Map<MediaType, ObjectMapper> mappers = new LinkedHashMap<>();
+
+    /**
+     * @param json The application's JSON mapper
+     */
+    public WireFormats(ObjectMapper json) {
+        mappers.put(MediaType.APPLICATION_JSON, json);
+        mappers.put(MediaType.APPLICATION_CBOR, json.copyWith(new CBORFactory()));
+        mappers.put(APPLICATION_SMILE, json.copyWith(SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build()));
+    }
+
+    /**
+     * Picks the supported format the client prefers
+     *
+     * @param accept The Accept header; null or empty for no preference
+     * @return The accepted format with the highest quality, JSON if no preference is given or
+     *         none of the accepted types is supported
+     */
+    public MediaType negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType best = MediaType.APPLICATION_JSON;
+        double bestQuality = 0;
+        for (MediaType accepted : MediaType.parseMediaTypes(accept)) {
+            double quality = accepted.getQualityValue();
+            if (quality <= bestQuality) {
+                continue;
+            }
+            for (MediaType supported : mappers.keySet()) {
+                if (accepted.isCompatibleWith(supported)) {
+                    best = supported;
+                    bestQuality = quality;
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param format A format returned by {@link #negotiate}
+     * @return The mapper encoding that format
+     */
+    public ObjectMapper mapper(MediaType format) {
+        ObjectMapper mapper = mappers.get(format);
+        if (mapper == null) {
+            throw new IllegalArgumentException("Unsupported format " + format);
+        }
+        return mapper;
+    }
+
+    /**
+     * Gives each format its own strong ETag, as the representations differ byte for byte
+     *
+     * @param etag The quoted ETag of the JSON representation
+     * @param format The negotiated format
+     * @return The ETag unchanged for JSON, with the format appended inside the quotes otherwise
+     */
+    public String etag(String etag, MediaType format) {
+        if (MediaType.APPLICATION_JSON.equals(format)) {
+            return etag;
+        }
+        String suffix = MediaType.APPLICATION_CBOR.equals(format) ? "-cbor" : "-smile";
+        return etag.substring(0, etag.length() - 1) + suffix + "\"";
+    }
+
+    /**
+     * @return The supported formats, JSON first
+     */
+    public List<MediaType> mediaTypes() {
+        return List.copyOf(mappers.keySet());
+    }
+}
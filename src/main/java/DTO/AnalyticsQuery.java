@@ -0,0 +1,77 @@
+package DTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * Data Transfer Object for an analytics query over the hourly click rollups
+ *
+ * The request body of POST /api/analytics/query: which links and period to read, which
+ * dimensions to group by and which metrics to compute. Only human clicks are rolled up.
+ */
+@Data
+public class AnalyticsQuery {
+    /** Largest number of short codes accepted in one query */
+    public static final int MAX_SHORT_CODES = 1_000;
+
+    /** Only these links; null or empty for all links */
+    @Size(max = MAX_SHORT_CODES)
+    private List<String> shortCodes;
+
+    /** Start of the period, inclusive; rounded down to the hour */
+    @NotNull
+    private LocalDateTime from;
+
+    /** End of the period, exclusive; rounded up to the hour */
+    @NotNull
+    private LocalDateTime to;
+
+    /** Dimensions to group by; empty for one total row */
+    @NotNull
+    private List<Dimension> groupBy = List.of();
+
+    /** Size of the time buckets when grouping by TIME */
+    @NotNull
+    private TimeBucket bucket = TimeBucket.DAY;
+
+    /** Metrics to compute per group */
+    @NotNull
+    @Size(min = 1)
+    private List<Metric> metrics = List.of(Metric.CLICKS);
+
+    /**
+     * Dimensions of the click rollups
+     */
+    public enum Dimension {
+        /** Start of the hour or day, see {@link AnalyticsQuery#getBucket()} */
+        TIME,
+        /** Host of the Referer header without "www."; empty for direct clicks */
+        REFERRER_DOMAIN,
+        /** Two-letter country code ("ZZ" if unknown) */
+        COUNTRY,
+        /** Device class parsed from the User-Agent */
+        DEVICE
+    }
+
+    /**
+     * Sizes of time buckets
+     */
+    public enum TimeBucket {
+        HOUR,
+        DAY
+    }
+
+    /**
+     * Values computed per group
+     */
+    public enum Metric {
+        /** Number of human clicks */
+        CLICKS,
+        /** Estimated number of distinct visitors (IP address and User-Agent), about 2% standard error */
+        UNIQUE_VISITORS
+    }
+}
@@ -0,0 +1,58 @@
+package DTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import Analytics.DeviceClass;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the result of an analytics query
+ *
+ * One row per group, ordered by time, referrer domain, country and device. Dimensions that
+ * were not grouped by and metrics that were not requested are left out of each row.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsResult {
+    /** The groups with their metrics */
+    private List<Row> rows;
+
+    /** Number of rollup rows read to answer the query */
+    private long rollupRowsRead;
+
+    /** Number of partitions (shard and time slice) the query was split into */
+    private int partitions;
+
+    /**
+     * One group of an analytics query
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Row {
+        /** Start of the time bucket */
+        private LocalDateTime time;
+
+        /** Referrer domain; empty for direct clicks */
+        private String referrerDomain;
+
+        /** Two-letter country code */
+        private String country;
+
+        /** Device class */
+        private DeviceClass device;
+
+        /** Number of human clicks */
+        private Long clicks;
+
+        /** Estimated number of distinct visitors */
+        private Long uniqueVisitors;
+    }
+}
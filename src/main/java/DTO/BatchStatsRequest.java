@@ -0,0 +1,23 @@
+package DTO;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * Data Transfer Object for batch statistics requests
+ *
+ * Lists the short codes whose summaries POST /api/stats/batch should return.
+ */
+@Data
+public class BatchStatsRequest {
+    /** Largest number of short codes accepted in one request */
+    public static final int MAX_SHORT_CODES = 10_000;
+
+    /** The short codes to look up; unknown and duplicate codes are ignored */
+    @NotEmpty
+    @Size(max = MAX_SHORT_CODES)
+    private List<String> shortCodes;
+}
@@ -0,0 +1,24 @@
+package DTO;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * Data Transfer Object for bulk shorten requests
+ *
+ * Lists the original URLs POST /api/shorten/bulk should create short links for.
+ */
+@Data
+public class BulkShortenRequest {
+    /** Largest number of URLs accepted in one request */
+    public static final int MAX_URLS = 10_000;
+
+    /** The URLs to shorten; each gets a new short code, duplicates included */
+    @NotEmpty
+    @Size(max = MAX_URLS)
+    private List<@NotBlank String> originalUrls;
+}
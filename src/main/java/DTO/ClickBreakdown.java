@@ -0,0 +1,59 @@
+package DTO;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import Analytics.BrowserFamily;
+import Analytics.DeviceClass;
+import Analytics.OsFamily;
+import lombok.Data;
+
+/**
+ * Data Transfer Object for the click breakdown of a short URL
+ *
+ * Click counts per browser family, operating system family, device class and country, as served by
+ * GET /api/stats/{code}/breakdown. Dimensions without clicks are left out of the maps.
+ */
+@Data
+public class ClickBreakdown {
+    /** The short code the breakdown is for */
+    private String shortCode;
+
+    /** All recorded clicks, bot clicks included */
+    private long totalClicks;
+
+    /** Clicks classified as bot traffic */
+    private long botClicks;
+
+    /** Clicks per browser family */
+    private Map<BrowserFamily, Long> browsers = new EnumMap<>(BrowserFamily.class);
+
+    /** Clicks per operating system family */
+    private Map<OsFamily, Long> operatingSystems = new EnumMap<>(OsFamily.class);
+
+    /** Clicks per device class */
+    private Map<DeviceClass, Long> devices = new EnumMap<>(DeviceClass.class);
+
+    /** Clicks per two-letter country code ("ZZ" if unknown) */
+    private Map<String, Long> countries = new TreeMap<>();
+
+    public ClickBreakdown(String shortCode) {
+        this.shortCode = shortCode;
+    }
+
+    /**
+     * Adds clicks for one combination of dimensions
+     */
+    public void add(BrowserFamily browser, OsFamily os, DeviceClass device, String country, boolean bot,
+            long clicks) {
+        totalClicks += clicks;
+        if (bot) {
+            botClicks += clicks;
+        }
+        browsers.merge(browser, clicks, Long::sum);
+        operatingSystems.merge(os, clicks, Long::sum);
+        devices.merge(device, clicks, Long::sum);
+        countries.merge(country, clicks, Long::sum);
+    }
+}
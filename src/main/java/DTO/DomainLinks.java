@@ -0,0 +1,33 @@
+package DTO;
+
+import java.util.List;
+
+import Model.ShortUrl;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for one page of the links pointing at a host
+ *
+ * The response of GET /api/urls/by-domain/{host}. Links are ordered by id; pass {@link #next}
+ * as the "after" parameter to read the following page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DomainLinks {
+    /** The normalized host */
+    private String host;
+
+    /** Number of links pointing at the host, from the in-memory host summary (may lag on multi-node setups) */
+    private long linkCount;
+
+    /** The links of this page, without click statistics */
+    private List<ShortUrl> links;
+
+    /** Cursor of the next page; null if this is the last one */
+    private String next;
+}
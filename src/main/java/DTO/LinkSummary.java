@@ -0,0 +1,38 @@
+package DTO;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the summary statistics of one short URL
+ *
+ * One element of the POST /api/stats/batch response: the link itself and its click totals,
+ * without the individual clicks.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LinkSummary {
+    /** The short code */
+    private String shortCode;
+
+    /** The original long URL */
+    private String originalUrl;
+
+    /** Timestamp when the URL was created */
+    private LocalDateTime createdAt;
+
+    /** All recorded clicks, bot clicks included */
+    private long totalClicks;
+
+    /** Clicks classified as bot traffic */
+    private long botClicks;
+
+    /** Timestamp of the latest recorded click; null if the link has none (or the store does not keep it) */
+    private LocalDateTime lastClickedAt;
+}
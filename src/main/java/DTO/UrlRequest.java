@@ -1,5 +1,6 @@
 package DTO;
 
+import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 
 /**
@@ -14,5 +15,6 @@ import lombok.Data;
 @Data
 public class UrlRequest {
     /** The original URL that needs to be shortened */
+    @NotBlank
     private String originalUrl;
 }
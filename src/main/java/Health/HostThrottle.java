@@ -0,0 +1,175 @@
+package Health;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Per-host concurrency limit and politeness delay for outgoing requests
+ *
+ * Tasks are queued per host. A host runs at most {@code perHost} tasks at a time, and two
+ * task starts on the same host are at least {@code delay} apart; a task that has to wait
+ * for the delay is started by a timer. A task counts as running until the future it
+ * returns completes.
+ *
+ * A host is tracked while it has running or queued tasks and until its delay has passed,
+ * so the map only holds hosts that are being crawled. Each host's queue is capped: a task
+ * for a host with {@code maxQueued} waiting tasks is refused, so one slow host cannot
+ * hold every probe slot of the crawler.
+ */
+final class HostThrottle implements AutoCloseable {
+    private final int perHost;
+    private final long delayNanos;
+    private final int maxQueued;
+    private final Map<String, Host> hosts = new HashMap<>();
+    private final ScheduledExecutorService timer;
+
+    /**
+     * @param perHost Maximum number of running tasks per host
+     * @param delayNanos Minimum time between two task starts on a host
+     * @param maxQueued Maximum number of waiting tasks per host
+     */
+    HostThrottle(int perHost, long delayNanos, int maxQueued) {
+        if (perHost < 1 || maxQueued < 1 || delayNanos < 0) {
+            throw new IllegalArgumentException("perHost and maxQueued must be positive and the delay not negative");
+        }
+        this.perHost = perHost;
+        this.delayNanos = delayNanos;
+        this.maxQueued = maxQueued;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "link-health-throttle");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a task for a host, starting it right away if the host's limit and delay allow
+     *
+     * @param host The host the task sends requests to
+     * @param task Starts the task; the returned future completes when the task is done
+     * @return false if the host's queue is full and the task was not queued
+     */
+    boolean submit(String host, Supplier<CompletableFuture<?>> task) {
+        List<Supplier<CompletableFuture<?>>> ready;
+        synchronized (this) {
+            Host state = hosts.computeIfAbsent(host, key -> new Host());
+            if (state.queue.size() >= maxQueued) {
+                return false;
+            }
+            state.queue.add(task);
+            ready = takeReady(host, state);
+        }
+        start(host, ready);
+        return true;
+    }
+
+    /**
+     * @return Number of hosts currently tracked
+     */
+    synchronized int hostCount() {
+        return hosts.size();
+    }
+
+    /**
+     * Stops the timer; queued tasks waiting for their delay are not started
+     */
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Takes the tasks that may start now and sets the timer for the next one; holds the lock
+     */
+    private List<Supplier<CompletableFuture<?>>> takeReady(String host, Host state) {
+        List<Supplier<CompletableFuture<?>>> ready = new ArrayList<>(1);
+        long now = System.nanoTime();
+        while (state.running < perHost && !state.queue.isEmpty()) {
+            if (now - state.nextStart < 0) {
+                wakeAt(host, state, now);
+                break;
+            }
+            state.running++;
+            state.nextStart = now + delayNanos;
+            ready.add(state.queue.poll());
+        }
+        return ready;
+    }
+
+    private void wakeAt(String host, Host state, long now) {
+        if (!state.timerSet) {
+            state.timerSet = true;
+            timer.schedule(() -> wake(host), state.nextStart - now, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void wake(String host) {
+        List<Supplier<CompletableFuture<?>>> ready;
+        synchronized (this) {
+            Host state = hosts.get(host);
+            if (state == null) {
+                return;
+            }
+            state.timerSet = false;
+            ready = takeReady(host, state);
+            release(host, state);
+        }
+        start(host, ready);
+    }
+
+    private void finished(String host) {
+        List<Supplier<CompletableFuture<?>>> ready;
+        synchronized (this) {
+            Host state = hosts.get(host);
+            state.running--;
+            ready = takeReady(host, state);
+            release(host, state);
+        }
+        start(host, ready);
+    }
+
+    /**
+     * Stops tracking an idle host once its delay has passed; holds the lock
+     */
+    private void release(String host, Host state) {
+        if (state.running > 0 || !state.queue.isEmpty() || state.timerSet) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now - state.nextStart >= 0) {
+            hosts.remove(host);
+        } else {
+            wakeAt(host, state, now);
+        }
+    }
+
+    private void start(String host, List<Supplier<CompletableFuture<?>>> ready) {
+        for (Supplier<CompletableFuture<?>> task : ready) {
+            CompletableFuture<?> future;
+            try {
+                future = task.get();
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            future.whenComplete((result, failure) -> finished(host));
+        }
+    }
+
+    /**
+     * Tasks of one host
+     */
+    private static final class Host {
+        final ArrayDeque<Supplier<CompletableFuture<?>>> queue = new ArrayDeque<>();
+        int running;
+        long nextStart = System.nanoTime();
+        boolean timerSet;
+    }
+}
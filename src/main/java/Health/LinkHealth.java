@@ -0,0 +1,22 @@
+package Health;
+
+import java.time.LocalDateTime;
+
+/**
+ * Result of one probe of a link's original URL, as stored in 'link_health'
+ *
+ * @param shortUrlId Id of the link
+ * @param statusCode Final HTTP status after redirects; 0 if no response was received
+ * @param latencyMillis Time until the response headers (or the failure)
+ * @param checkedAt When the probe started
+ * @param error Why no response was received; null if one was
+ */
+public record LinkHealth(long shortUrlId, int statusCode, int latencyMillis, LocalDateTime checkedAt, String error) {
+
+    /**
+     * @return Whether the target looks dead: no response, or a 4xx or 5xx status
+     */
+    public boolean broken() {
+        return statusCode == 0 || statusCode >= 400;
+    }
+}
@@ -0,0 +1,353 @@
+package Health;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import Sharding.ShardContext;
+
+/**
+ * Probes the original URL of every link and records the result in 'link_health'
+ *
+ * Every interval, per shard, links are read in id order one keyset page at a time
+ * ({@code id > last id}), so memory holds one page and the probes in flight whatever the
+ * number of links. Links checked less than one interval ago are skipped, so a restart
+ * resumes rather than starts over. Each URL gets a HEAD request (a GET whose body is not
+ * read if HEAD is not allowed), following redirects; the final status, the time to the
+ * response headers and the check time are written after each page.
+ *
+ * Probes are asynchronous ({@link HttpClient#sendAsync}), so no thread waits on a slow
+ * target. At most {@code maxInFlight} probes are queued or running, which also makes the
+ * page reader wait for slow targets; per host, the {@link HostThrottle} limits concurrency
+ * and spaces requests by the politeness delay. Links of a host whose queue is full are
+ * left for the next crawl.
+ *
+ * Key features:
+ * - Keyset paging; never more than one page of links in memory
+ * - Global and per-host concurrency limits, politeness delay, connect and request timeouts
+ * - Counters of checked, broken and deferred links
+ *
+ * The results are written with an update, then an insert for links without a row, so the
+ * crawler must run on one node only.
+ */
+public class LinkHealthCrawler implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(LinkHealthCrawler.class);
+
+    static final String PAGE_SQL = "SELECT s.id, s.original_url FROM short_url s "
+            + "LEFT JOIN link_health h ON h.short_url_id = s.id "
+            + "WHERE s.id > ? AND (h.checked_at IS NULL OR h.checked_at < ?) ORDER BY s.id LIMIT ?";
+
+    static final String UPDATE_SQL = "UPDATE link_health SET status_code = ?, latency_millis = ?, checked_at = ?, "
+            + "error = ? WHERE short_url_id = ?";
+
+    static final String INSERT_SQL = "INSERT INTO link_health "
+            + "(status_code, latency_millis, checked_at, error, short_url_id) VALUES (?, ?, ?, ?, ?)";
+
+    /** User-Agent of the probes, so target owners can recognize them */
+    static final String USER_AGENT = "urlshortener-link-checker/1.0";
+
+    /** Delay of the first crawl after startup */
+    static final Duration START_DELAY = Duration.ofMinutes(1);
+
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HttpClient httpClient;
+    private final HostThrottle throttle;
+    private final int shardCount;
+    private final int pageSize;
+    private final int maxInFlight;
+    private final Duration requestTimeout;
+    private final Duration interval;
+    private final Clock clock;
+    private final Semaphore inFlight;
+    private final ConcurrentLinkedQueue<LinkHealth> completed = new ConcurrentLinkedQueue<>();
+    private final AtomicLong checked = new AtomicLong();
+    private final AtomicLong broken = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param jdbcTemplate Template over the application datasource
+     * @param httpClient Client the probes are sent with; its connect timeout and redirect policy apply
+     * @param shardCount Number of shards to crawl
+     * @param pageSize Number of links read per page
+     * @param maxInFlight Maximum number of probes queued or running
+     * @param perHost Maximum number of running probes per host
+     * @param politenessDelay Minimum time between two probes of the same host
+     * @param maxQueuedPerHost Maximum number of probes waiting per host
+     * @param requestTimeout Time a probe may take until the response headers
+     * @param interval How often links are crawled, and how old a check must be to be repeated;
+     *        zero disables the timer
+     * @param clock Clock the check times are taken from
+     */
+    public LinkHealthCrawler(JdbcTemplate jdbcTemplate, HttpClient httpClient, int shardCount, int pageSize,
+            int maxInFlight, int perHost, Duration politenessDelay, int maxQueuedPerHost, Duration requestTimeout,
+            Duration interval, Clock clock) {
+        if (pageSize < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("pageSize and maxInFlight must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.httpClient = httpClient;
+        this.throttle = new HostThrottle(perHost, politenessDelay.toNanos(), maxQueuedPerHost);
+        this.shardCount = shardCount;
+        this.pageSize = pageSize;
+        this.maxInFlight = maxInFlight;
+        this.requestTimeout = requestTimeout;
+        this.interval = interval;
+        this.clock = clock;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "link-health-crawler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!interval.isZero()) {
+            scheduler.scheduleWithFixedDelay(this::crawlSafely, START_DELAY.toMillis(), interval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Probes every link not checked within the last interval, on every shard
+     *
+     * @return Number of links probed
+     */
+    public synchronized long crawl() {
+        LocalDateTime cutoff = LocalDateTime.now(clock).minus(interval);
+        long probed = 0;
+        for (int shard = 0; shard < shardCount && !Thread.currentThread().isInterrupted(); shard++) {
+            probed += ShardContext.callOn(shard, () -> crawlShard(cutoff));
+        }
+        return probed;
+    }
+
+    /**
+     * @return Number of links probed since startup
+     */
+    public long checkedCount() {
+        return checked.get();
+    }
+
+    /**
+     * @return Number of probes since startup that found no response or a 4xx/5xx status
+     */
+    public long brokenCount() {
+        return broken.get();
+    }
+
+    /**
+     * @return Number of links left for a later crawl because their host's queue was full
+     */
+    public long deferredCount() {
+        return deferred.get();
+    }
+
+    private long crawlShard(LocalDateTime cutoff) {
+        long probed = 0;
+        long lastId = 0;
+        try {
+            while (true) {
+                List<Link> page = jdbcTemplate.query(PAGE_SQL,
+                        (resultSet, row) -> new Link(resultSet.getLong(1), resultSet.getString(2)),
+                        lastId, Timestamp.valueOf(cutoff), pageSize);
+                for (Link link : page) {
+                    lastId = link.id();
+                    if (submit(link)) {
+                        probed++;
+                    }
+                }
+                write();
+                if (page.size() < pageSize) {
+                    break;
+                }
+            }
+            // wait for the last probes of the shard
+            inFlight.acquire(maxInFlight);
+            inFlight.release(maxInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        write();
+        return probed;
+    }
+
+    /**
+     * Starts or queues the probe of a link
+     *
+     * @return false if the link was deferred to the next crawl
+     */
+    private boolean submit(Link link) throws InterruptedException {
+        LocalDateTime checkedAt = LocalDateTime.now(clock);
+        URI uri = parse(link.originalUrl());
+        if (uri == null) {
+            record(new LinkHealth(link.id(), 0, 0, checkedAt, "Invalid URL"));
+            return true;
+        }
+        inFlight.acquire();
+        boolean queued = throttle.submit(uri.getHost().toLowerCase(Locale.ROOT), () -> probe(link.id(), uri, checkedAt)
+                .whenComplete((health, failure) -> {
+                    record(health);
+                    inFlight.release();
+                }));
+        if (!queued) {
+            inFlight.release();
+            deferred.incrementAndGet();
+        }
+        return queued;
+    }
+
+    private CompletableFuture<LinkHealth> probe(long shortUrlId, URI uri, LocalDateTime checkedAt) {
+        long start = System.nanoTime();
+        CompletableFuture<Integer> status;
+        try {
+            status = send(uri, "HEAD", HttpResponse.BodyHandlers.discarding())
+                    .thenCompose(response -> response.statusCode() == 405 || response.statusCode() == 501
+                            ? send(uri, "GET", HttpResponse.BodyHandlers.ofInputStream())
+                                    .thenApply(LinkHealthCrawler::close)
+                            : CompletableFuture.completedFuture(response.statusCode()));
+        } catch (RuntimeException e) {
+            status = CompletableFuture.failedFuture(e);
+        }
+        return status.handle((code, failure) -> {
+            int latency = (int) TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return failure == null
+                    ? new LinkHealth(shortUrlId, code, latency, checkedAt, null)
+                    : new LinkHealth(shortUrlId, 0, latency, checkedAt, describe(failure));
+        });
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> send(URI uri, String method, HttpResponse.BodyHandler<T> handler) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .timeout(requestTimeout)
+                .header("User-Agent", USER_AGENT)
+                .build();
+        return httpClient.sendAsync(request, handler);
+    }
+
+    /**
+     * Closes a GET response's body unread, so only the headers are downloaded
+     */
+    private static int close(HttpResponse<InputStream> response) {
+        try {
+            response.body().close();
+        } catch (IOException e) {
+            // the status is all we need
+        }
+        return response.statusCode();
+    }
+
+    private void record(LinkHealth health) {
+        completed.add(health);
+        checked.incrementAndGet();
+        if (health.broken()) {
+            broken.incrementAndGet();
+        }
+    }
+
+    /**
+     * Writes the completed probes; must be called in the shard context of their links
+     */
+    private void write() {
+        List<Object[]> rows = new ArrayList<>();
+        for (LinkHealth health = completed.poll(); health != null; health = completed.poll()) {
+            rows.add(new Object[] {health.statusCode(), health.latencyMillis(), Timestamp.valueOf(health.checkedAt()),
+                health.error(), health.shortUrlId()});
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, rows);
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                inserts.add(rows.get(i));
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        }
+    }
+
+    private void crawlSafely() {
+        try {
+            long brokenBefore = broken.get();
+            long deferredBefore = deferred.get();
+            long probed = crawl();
+            log.info("Checked {} links: {} broken, {} deferred to the next crawl", probed,
+                    broken.get() - brokenBefore, deferred.get() - deferredBefore);
+        } catch (RuntimeException e) {
+            log.warn("Failed to check links", e);
+        }
+    }
+
+    /**
+     * @return The URL if it is an absolute http(s) URL with a host, otherwise null
+     */
+    private static URI parse(String originalUrl) {
+        try {
+            URI uri = new URI(originalUrl);
+            String scheme = uri.getScheme();
+            if (uri.getHost() == null || scheme == null
+                    || !(scheme.equalsIgnoreCase("http") || scheme.equalsIgnoreCase("https"))) {
+                return null;
+            }
+            return uri;
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private static String describe(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        String message = cause.getMessage() == null
+                ? cause.getClass().getSimpleName()
+                : cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    /**
+     * Stops the timer and interrupts a crawl in progress; probes already sent finish unrecorded
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throttle.close();
+    }
+
+    /**
+     * A link as read from a page
+     */
+    private record Link(long id, String originalUrl) {
+    }
+}
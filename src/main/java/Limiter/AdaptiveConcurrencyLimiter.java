@@ -0,0 +1,148 @@
+package Limiter;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Adaptive limit on the number of requests processed concurrently
+ *
+ * The limit follows the AIMD rule (additive increase, multiplicative decrease) on the latency
+ * of latency-sensitive requests (see {@link EndpointClass#latencySensitive()}): a request slower
+ * than the latency threshold multiplies the limit by the backoff ratio, while a fast request
+ * completing with at least half of the limit in use raises it by one. The limit thus settles
+ * just below the concurrency at which redirects start to queue for threads and connections.
+ * Like TCP, the limit is cut at most once per round trip: a slow request that was admitted
+ * before the last decrease saw the same congestion that decrease answered, so a burst of N
+ * slow responses cuts the limit once rather than N times.
+ *
+ * Each endpoint class may occupy only its share of the limit, counted against the total number
+ * of requests in flight: by default bulk calls are refused once a quarter of the limit is in
+ * use and analytics calls at half, which leaves the rest for redirects and creates.
+ *
+ * Key features:
+ * - Lock-free admission (one CAS on the in-flight counter)
+ * - Refused requests do not wait and do not affect the limit
+ * - Counters per endpoint class for metrics
+ */
+public class AdaptiveConcurrencyLimiter {
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final Map<EndpointClass, Double> shares;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final Map<EndpointClass, LongAdder> rejected = new EnumMap<>(EndpointClass.class);
+    private final LongSupplier nanoClock;
+    private double estimate;
+    private long lastDecreaseNanos;
+    private volatile int limit;
+
+    /**
+     * @param initialLimit Limit before any latency has been measured
+     * @param minLimit Lowest limit
+     * @param maxLimit Highest limit; no more than the request threads
+     * @param backoffRatio Factor applied to the limit on a slow request, below 1
+     * @param latencyThresholdMillis Latency above which a latency-sensitive request counts as slow
+     * @param shares Share of the limit per endpoint class; classes left out use their default share
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+            long latencyThresholdMillis, Map<EndpointClass, Double> shares) {
+        this(initialLimit, minLimit, maxLimit, backoffRatio, latencyThresholdMillis, shares, System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock Source of {@link System#nanoTime()}-like timestamps
+     */
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+            long latencyThresholdMillis, Map<EndpointClass, Double> shares, LongSupplier nanoClock) {
+        if (minLimit < 1 || maxLimit < minLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Invalid concurrency limits: min " + minLimit + ", max " + maxLimit
+                    + ", backoff ratio " + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+        this.shares = new EnumMap<>(EndpointClass.class);
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            this.shares.put(endpointClass, shares.getOrDefault(endpointClass, endpointClass.defaultShare()));
+            this.rejected.put(endpointClass, new LongAdder());
+        }
+        this.nanoClock = nanoClock;
+        this.estimate = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimate;
+        this.lastDecreaseNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Admits a request if its class is below its share of the limit
+     *
+     * @param endpointClass The class of the request
+     * @return true if the request may proceed; it must then be {@link #release released}
+     */
+    public boolean tryAcquire(EndpointClass endpointClass) {
+        int allowed = Math.max(1, (int) (limit * shares.get(endpointClass)));
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                rejected.get(endpointClass).increment();
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ends an admitted request and feeds its latency into the limit
+     *
+     * @param endpointClass The class of the request
+     * @param latencyNanos Time the request took
+     */
+    public void release(EndpointClass endpointClass, long latencyNanos) {
+        int inUse = inflight.getAndDecrement();
+        if (endpointClass.latencySensitive()) {
+            update(latencyNanos > latencyThresholdNanos, inUse, nanoClock.getAsLong(), latencyNanos);
+        }
+    }
+
+    private synchronized void update(boolean slow, int inUse, long now, long latencyNanos) {
+        if (slow) {
+            if (now - latencyNanos - lastDecreaseNanos < 0) {
+                // admitted before the last decrease, which already answered this congestion
+                return;
+            }
+            estimate = Math.max(minLimit, estimate * backoffRatio);
+            lastDecreaseNanos = now;
+        } else if (inUse * 2 >= estimate) {
+            estimate = Math.min(maxLimit, estimate + 1);
+        }
+        limit = (int) estimate;
+    }
+
+    /**
+     * @return Current concurrency limit
+     */
+    public int limit() {
+        return limit;
+    }
+
+    /**
+     * @return Number of requests in flight
+     */
+    public int inflight() {
+        return inflight.get();
+    }
+
+    /**
+     * @return Number of requests of a class refused so far
+     */
+    public long rejectedCount(EndpointClass endpointClass) {
+        return rejected.get(endpointClass).sum();
+    }
+}
@@ -0,0 +1,155 @@
+package Limiter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Per-client token buckets for each endpoint class
+ *
+ * Each bucket is a single {@link AtomicLong} holding the "theoretical arrival time" of the
+ * generic cell rate algorithm, which behaves exactly like a token bucket refilled at
+ * {@code permitsPerSecond} with room for {@code burst} tokens: taking a token moves the time
+ * forward by one emission interval, and a request is refused when that would put it more
+ * than {@code burst} intervals ahead of now. Refill is implicit in the clock, so a check is
+ * one map lookup and one compare-and-set, with no lock.
+ *
+ * A bucket whose arrival time has passed is full, which is the same as having no bucket, so
+ * a sweeper drops such buckets every second; the map only holds clients that used part of
+ * their burst within the last few seconds. It is also capped: beyond {@code maxClients}
+ * tracked clients, new clients share one overflow bucket until the next sweep.
+ *
+ * A request may take several tokens at once (a bulk shorten takes one per URL). It is admitted
+ * as soon as one token is available and borrows the rest, moving the arrival time forward by
+ * all of them, so the client is refused until the borrowed tokens have refilled.
+ *
+ * Key features:
+ * - Lock-free checks on a ConcurrentHashMap per endpoint class
+ * - A refused check reports how long until the next token, for Retry-After
+ * - Endpoint classes without a limit are not checked
+ */
+public class ClientRateLimiter implements AutoCloseable {
+    private static final Function<String, AtomicLong> NEW_BUCKET = client -> new AtomicLong(System.nanoTime());
+    private static final long SWEEP_INTERVAL_MILLIS = 1000;
+
+    private final Buckets[] buckets = new Buckets[EndpointClass.values().length];
+    private final long maxClients;
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * @param limits Limit per endpoint class; classes left out are not limited
+     * @param maxClients Maximum number of clients tracked per endpoint class
+     */
+    public ClientRateLimiter(Map<EndpointClass, Limit> limits, long maxClients) {
+        this.maxClients = maxClients;
+        limits.forEach((endpointClass, limit) -> {
+            if (limit.permitsPerSecond() > 0) {
+                buckets[endpointClass.ordinal()] = new Buckets(limit);
+            }
+        });
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Takes a token from a client's bucket
+     *
+     * @param endpointClass The class of the request
+     * @param client The client's identity (IP address or API key)
+     * @return 0 if the request may proceed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(EndpointClass endpointClass, String client) {
+        return tryAcquire(endpointClass, client, 1);
+    }
+
+    /**
+     * Takes several tokens from a client's bucket
+     *
+     * @param endpointClass The class of the request
+     * @param client The client's identity (IP address or API key)
+     * @param permits Number of tokens the request costs; all but the first may be borrowed
+     * @return 0 if the request may proceed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(EndpointClass endpointClass, String client, int permits) {
+        Buckets classBuckets = buckets[endpointClass.ordinal()];
+        if (classBuckets == null) {
+            return 0;
+        }
+        AtomicLong arrival = classBuckets.clients.get(client);
+        if (arrival == null) {
+            arrival = classBuckets.clients.mappingCount() < maxClients
+                    ? classBuckets.clients.computeIfAbsent(client, NEW_BUCKET)
+                    : classBuckets.overflow;
+        }
+        long now = System.nanoTime();
+        while (true) {
+            long current = arrival.get();
+            long start = Math.max(current, now);
+            long excess = start + classBuckets.intervalNanos - now - classBuckets.capacityNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (arrival.compareAndSet(current, start + classBuckets.intervalNanos * permits)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return Number of clients currently tracked for an endpoint class
+     */
+    public long trackedClients(EndpointClass endpointClass) {
+        Buckets classBuckets = buckets[endpointClass.ordinal()];
+        return classBuckets == null ? 0 : classBuckets.clients.mappingCount();
+    }
+
+    /**
+     * Drops the buckets that have refilled completely
+     */
+    void sweep() {
+        long now = System.nanoTime();
+        for (Buckets classBuckets : buckets) {
+            if (classBuckets != null) {
+                classBuckets.clients.values().removeIf(arrival -> arrival.get() - now <= 0);
+            }
+        }
+    }
+
+    /**
+     * Stops the sweeper
+     */
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Rate limit of one endpoint class
+     *
+     * @param permitsPerSecond Sustained requests per second per client; 0 disables the limit
+     * @param burst Requests a client may make at once after being idle
+     */
+    public record Limit(double permitsPerSecond, int burst) {
+    }
+
+    private static final class Buckets {
+        final long intervalNanos;
+        final long capacityNanos;
+        final ConcurrentHashMap<String, AtomicLong> clients = new ConcurrentHashMap<>();
+        final AtomicLong overflow = new AtomicLong(System.nanoTime());
+
+        Buckets(Limit limit) {
+            this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / limit.permitsPerSecond()));
+            this.capacityNanos = intervalNanos * Math.max(1, limit.burst());
+        }
+    }
+}
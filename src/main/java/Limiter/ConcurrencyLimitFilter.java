@@ -0,0 +1,95 @@
+package Limiter;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Servlet filter applying the {@link AdaptiveConcurrencyLimiter} to every API request
+ *
+ * Refused requests are answered immediately with 503 Service Unavailable and
+ * "Retry-After: 1", before any controller, session or connection is involved. Requests that
+ * continue asynchronously (streamed responses) hold their permit until the response completes.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = EndpointClass.of(request.getMethod(),
+                request.getRequestURI().substring(request.getContextPath().length()));
+        if (endpointClass == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!limiter.tryAcquire(endpointClass)) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(endpointClass, start));
+            } else {
+                limiter.release(endpointClass, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Releases the permit of an asynchronous request once, when it completes, fails or times out
+     */
+    private final class ReleasingListener implements AsyncListener {
+        private final EndpointClass endpointClass;
+        private final long start;
+        private boolean released;
+
+        ReleasingListener(EndpointClass endpointClass, long start) {
+            this.endpointClass = endpointClass;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private synchronized void release() {
+            if (!released) {
+                released = true;
+                limiter.release(endpointClass, System.nanoTime() - start);
+            }
+        }
+    }
+}
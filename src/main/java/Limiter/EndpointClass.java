@@ -0,0 +1,69 @@
+package Limiter;
+
+/**
+ * Priority classes of the API's endpoints for load shedding
+ *
+ * Each class may use a share of the current concurrency limit; when the limit is reached,
+ * the classes with the smallest share are refused first, so redirects keep their capacity
+ * while analytics and bulk calls are shed.
+ *
+ * Key features:
+ * - Classification by HTTP method and path (within the context path) only
+ * - Long-lived and operational endpoints (live stream, actuator, admin) are not limited
+ */
+public enum EndpointClass {
+    /** GET /{shortCode} */
+    REDIRECT(1.0, true),
+    /** POST /shorten */
+    CREATE(0.9, true),
+    /** GET /stats/{code}, GET /stats/{code}/breakdown, GET /urls/by-domain/{host}, GET /{shortCode}/qr and anything unrecognized */
+    ANALYTICS(0.5, false),
+    /** GET /urls, POST /shorten/bulk, POST /stats/batch, GET /stats/{code}/clicks */
+    BULK(0.25, false);
+
+    private final double defaultShare;
+    private final boolean latencySensitive;
+
+    EndpointClass(double defaultShare, boolean latencySensitive) {
+        this.defaultShare = defaultShare;
+        this.latencySensitive = latencySensitive;
+    }
+
+    /**
+     * @return Fraction of the concurrency limit requests of this class may occupy
+     */
+    public double defaultShare() {
+        return defaultShare;
+    }
+
+    /**
+     * @return Whether the latency of this class is a congestion signal for the limiter;
+     *         analytics and bulk calls are slow by nature and are not
+     */
+    public boolean latencySensitive() {
+        return latencySensitive;
+    }
+
+    /**
+     * Classifies a request
+     *
+     * @param method The HTTP method
+     * @param path The request path within the context path, e.g. "/stats/abc123"
+     * @return The endpoint class, or null if the request is not limited
+     */
+    public static EndpointClass of(String method, String path) {
+        if (path.startsWith("/actuator/") || path.startsWith("/admin/") || path.startsWith("/stats/") && path.endsWith("/live")) {
+            return null;
+        }
+        if (path.equals("/shorten")) {
+            return CREATE;
+        }
+        if (path.equals("/urls") || path.equals("/shorten/bulk") || path.equals("/stats/batch") || path.startsWith("/stats/") && path.endsWith("/clicks")) {
+            return BULK;
+        }
+        if ("GET".equals(method) && path.length() > 1 && path.indexOf('/', 1) < 0) {
+            return REDIRECT;
+        }
+        return ANALYTICS;
+    }
+}
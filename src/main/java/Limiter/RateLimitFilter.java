@@ -0,0 +1,107 @@
+package Limiter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Servlet filter applying the {@link ClientRateLimiter} to every API request
+ *
+ * Clients are identified by their API key if they send one of the configured keys, otherwise
+ * by their IP address (behind a proxy, set server.forward-headers-strategy so the address is
+ * the client's). Unknown keys are ignored, so inventing keys does not escape the per-IP limit.
+ * Requests over the limit are answered with 429 Too Many Requests and a Retry-After header.
+ *
+ * Requests that cost more than one token, such as a bulk shorten charged per URL, are only
+ * known once their body is read; the filter leaves a {@link Charge} for the request's
+ * client in the {@value #CHARGE_ATTRIBUTE} request attribute, through which the controller
+ * takes the remaining tokens (see {@link #charge}).
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    /** Request attribute holding the {@link Charge} of the request's client */
+    public static final String CHARGE_ATTRIBUTE = "Limiter.RateLimitFilter.charge";
+
+
+    private final ClientRateLimiter limiter;
+    private final String apiKeyHeader;
+    private final Set<String> apiKeys;
+
+    /**
+     * @param limiter The per-client buckets
+     * @param apiKeyHeader Request header carrying the API key
+     * @param apiKeys Keys that get their own buckets
+     */
+    public RateLimitFilter(ClientRateLimiter limiter, String apiKeyHeader, Set<String> apiKeys) {
+        this.limiter = limiter;
+        this.apiKeyHeader = apiKeyHeader;
+        this.apiKeys = apiKeys;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = EndpointClass.of(request.getMethod(),
+                request.getRequestURI().substring(request.getContextPath().length()));
+        if (endpointClass != null) {
+            long waitNanos = limiter.tryAcquire(endpointClass, clientOf(request));
+            if (waitNanos > 0) {
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader("Retry-After", retryAfter(waitNanos));
+                return;
+            }
+        }
+        request.setAttribute(CHARGE_ATTRIBUTE, new Charge(limiter, clientOf(request)));
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Charges a request's client for tokens beyond the one the filter took
+     *
+     * @param request The request, passed through this filter or not
+     * @param endpointClass The class whose bucket to charge
+     * @param permits Number of tokens
+     * @return 0 if the request may proceed (always, if rate limiting is disabled), otherwise
+     *         the nanoseconds until a token is available
+     */
+    public static long charge(HttpServletRequest request, EndpointClass endpointClass, int permits) {
+        Object charge = request.getAttribute(CHARGE_ATTRIBUTE);
+        return charge instanceof Charge clientCharge
+                ? clientCharge.limiter().tryAcquire(endpointClass, clientCharge.client(), permits)
+                : 0;
+    }
+
+    /**
+     * @param waitNanos Time until the next token
+     * @return Value of the Retry-After header, in whole seconds rounded up
+     */
+    public static String retryAfter(long waitNanos) {
+        return Long.toString(TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        if (!apiKeys.isEmpty()) {
+            String apiKey = request.getHeader(apiKeyHeader);
+            if (apiKey != null && apiKeys.contains(apiKey)) {
+                return apiKey;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    /**
+     * The buckets of one client, for charging a request after the filter
+     *
+     * @param limiter The per-client buckets
+     * @param client The client's identity
+     */
+    public record Charge(ClientRateLimiter limiter, String client) {
+    }
+}
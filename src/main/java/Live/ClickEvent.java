@@ -0,0 +1,23 @@
+package Live;
+
+import java.time.LocalDateTime;
+
+import Analytics.BrowserFamily;
+import Analytics.DeviceClass;
+
+/**
+ * A recorded click as published to live stream subscribers
+ *
+ * Immutable, so one instance is shared by the ring buffer and every subscriber it is sent to.
+ *
+ * @param sequence Position in the {@link ClickEventHub}
+ * @param shortCode The clicked link
+ * @param clickedAt Time of the click
+ * @param country Country of the visitor ("ZZ" if unknown)
+ * @param browser Browser family of the visitor
+ * @param device Device class of the visitor
+ * @param bot Whether the click was classified as bot traffic
+ */
+public record ClickEvent(long sequence, String shortCode, LocalDateTime clickedAt, String country,
+        BrowserFamily browser, DeviceClass device, boolean bot) {
+}
@@ -0,0 +1,73 @@
+package Live;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import Model.ClickStats;
+
+/**
+ * Fixed-size ring buffer of recent click events
+ *
+ * The redirect path publishes every recorded click here; publishing claims the next sequence
+ * number with one atomic increment and stores the event in its slot, so it never blocks and
+ * costs the same whether zero or thousands of clients are watching. Readers keep their own
+ * position and read slots without locking. When a reader falls more than the capacity behind,
+ * the oldest events are overwritten; {@link #get} tells the reader so, and it skips ahead.
+ *
+ * Key features:
+ * - Multi-producer, lock-free publishing
+ * - Capacity rounded up to a power of two, so a slot is {@code sequence & mask}
+ * - Events are immutable and shared by all readers
+ */
+public class ClickEventHub {
+    private final AtomicReferenceArray<ClickEvent> slots;
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+
+    /**
+     * @param capacity Number of events kept; rounded up to a power of two
+     */
+    public ClickEventHub(int capacity) {
+        int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Publishes a recorded click
+     *
+     * @param shortCode The clicked link
+     * @param click The click as recorded
+     */
+    public void publish(String shortCode, ClickStats click) {
+        long sequence = next.getAndIncrement();
+        slots.set((int) (sequence & mask), new ClickEvent(sequence, shortCode, click.getClickedAt(),
+                click.getCountry(), click.getBrowser(), click.getDevice(), click.isBot()));
+    }
+
+    /**
+     * @return The sequence number the next published event will get
+     */
+    public long head() {
+        return next.get();
+    }
+
+    /**
+     * @return Number of events kept
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Reads the event at a sequence number
+     *
+     * @param sequence The sequence number, below {@link #head()}
+     * @return The event; null if it has been claimed but not stored yet; an event with a higher
+     *         sequence number if it has already been overwritten
+     */
+    public ClickEvent get(long sequence) {
+        ClickEvent event = slots.get((int) (sequence & mask));
+        return event == null || event.sequence() < sequence ? null : event;
+    }
+}
@@ -0,0 +1,310 @@
+package Live;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Server-Sent Events stream of the clicks on a link
+ *
+ * A single dispatcher thread reads the {@link ClickEventHub} every tick, groups the new events
+ * by short code and, for each watched code, serializes the batch once; the same payload is
+ * then sent to every subscriber of that code by a small pool of sender threads. Every delta
+ * interval each subscriber also gets the number of clicks on its link since the previous
+ * delta, which doubles as a keep-alive.
+ *
+ * Slow consumers never hold up the redirect path or other subscribers:
+ * - While a send to a subscriber is still in flight, further batches for it are skipped and
+ *   only counted; the count is reported in its next delta ("skipped")
+ * - A subscriber whose send has been in flight longer than the send timeout is dropped
+ * - Batches larger than {@link #MAX_EVENTS_PER_MESSAGE} are not sent as events at all;
+ *   subscribers see them in the next delta
+ *
+ * Events:
+ * - "clicks": JSON array of {@link ClickEvent}
+ * - "delta": JSON {@link CounterDelta}
+ */
+public class LiveClickStream implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(LiveClickStream.class);
+
+    /** Largest batch sent as individual events; larger batches are coalesced into the delta */
+    static final int MAX_EVENTS_PER_MESSAGE = 100;
+
+    private final ClickEventHub hub;
+    private final ObjectMapper objectMapper;
+    private final long deltaIntervalNanos;
+    private final long sendTimeoutNanos;
+    private final long emitterTimeoutMillis;
+    private final int maxSubscribers;
+    private final ConcurrentHashMap<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ScheduledExecutorService dispatcher;
+    private final ExecutorService senders;
+
+    // Written by the dispatcher thread only
+    private long cursor;
+    private volatile long lostEvents;
+    private long lastDeltaNanos = System.nanoTime();
+    private final Map<String, Long> windowCounts = new HashMap<>();
+
+    /**
+     * @param hub The buffer the redirect path publishes clicks into
+     * @param objectMapper Serializes event payloads
+     * @param tickMillis How often new events are sent
+     * @param deltaIntervalMillis How often click counts are sent
+     * @param sendTimeoutMillis How long a send may take before the subscriber is dropped
+     * @param emitterTimeoutMillis Lifetime of a stream; clients reconnect afterwards
+     * @param maxSubscribers Maximum number of open streams
+     * @param senderThreads Number of threads writing to subscribers
+     */
+    public LiveClickStream(ClickEventHub hub, ObjectMapper objectMapper, long tickMillis, long deltaIntervalMillis,
+            long sendTimeoutMillis, long emitterTimeoutMillis, int maxSubscribers, int senderThreads) {
+        this.hub = hub;
+        this.objectMapper = objectMapper;
+        this.deltaIntervalNanos = TimeUnit.MILLISECONDS.toNanos(deltaIntervalMillis);
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.maxSubscribers = maxSubscribers;
+        this.cursor = hub.head();
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "live-dispatcher"));
+        AtomicInteger senderNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads,
+                runnable -> daemon(runnable, "live-sender-" + senderNumber.incrementAndGet()));
+        dispatcher.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a stream of the clicks on a link
+     *
+     * @param shortCode The link to watch; must exist
+     * @return The emitter to return from the controller, or empty if the subscriber limit is reached
+     */
+    public Optional<SseEmitter> subscribe(String shortCode) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(shortCode, emitter);
+        subscribers.compute(shortCode, (code, watchers) -> {
+            Set<Subscriber> set = watchers != null ? watchers : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        return Optional.of(emitter);
+    }
+
+    /**
+     * @return Number of open streams
+     */
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /**
+     * @return Number of events overwritten in the hub before the dispatcher read them
+     */
+    public long lostEventCount() {
+        return lostEvents;
+    }
+
+    /**
+     * Closes all streams and stops the dispatcher
+     */
+    @Override
+    public void close() {
+        dispatcher.shutdownNow();
+        subscribers.values().forEach(watchers -> watchers.forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdownNow();
+    }
+
+    void tick() {
+        try {
+            drain().forEach(this::sendEvents);
+            long now = System.nanoTime();
+            if (now - lastDeltaNanos >= deltaIntervalNanos) {
+                lastDeltaNanos = now;
+                sendDeltas();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Live click dispatch failed", e);
+        }
+    }
+
+    /**
+     * Reads the events published since the last tick, grouped by watched short code
+     */
+    private Map<String, List<ClickEvent>> drain() {
+        long head = hub.head();
+        if (head - cursor > hub.capacity()) {
+            lostEvents += head - cursor - hub.capacity();
+            cursor = head - hub.capacity();
+        }
+        Map<String, List<ClickEvent>> batches = new HashMap<>();
+        while (cursor < head) {
+            ClickEvent event = hub.get(cursor);
+            if (event == null) {
+                // claimed but not stored yet; read on the next tick
+                break;
+            }
+            if (event.sequence() != cursor) {
+                lostEvents++;
+                cursor++;
+                continue;
+            }
+            cursor++;
+            if (subscribers.containsKey(event.shortCode())) {
+                batches.computeIfAbsent(event.shortCode(), code -> new ArrayList<>()).add(event);
+                windowCounts.merge(event.shortCode(), 1L, Long::sum);
+            }
+        }
+        return batches;
+    }
+
+    private void sendEvents(String shortCode, List<ClickEvent> batch) {
+        Set<Subscriber> watchers = subscribers.get(shortCode);
+        if (watchers == null) {
+            return;
+        }
+        if (batch.size() > MAX_EVENTS_PER_MESSAGE) {
+            watchers.forEach(subscriber -> subscriber.skipped += batch.size());
+            return;
+        }
+        String payload = toJson(batch);
+        String lastId = Long.toString(batch.get(batch.size() - 1).sequence());
+        for (Subscriber subscriber : watchers) {
+            offer(subscriber, batch.size(), () -> SseEmitter.event().name("clicks").id(lastId).data(payload));
+        }
+    }
+
+    private void sendDeltas() {
+        subscribers.forEach((shortCode, watchers) -> {
+            long clicks = windowCounts.getOrDefault(shortCode, 0L);
+            String shared = toJson(new CounterDelta(clicks, 0));
+            for (Subscriber subscriber : watchers) {
+                long skipped = subscriber.skipped;
+                String payload = skipped == 0 ? shared : toJson(new CounterDelta(clicks, skipped));
+                if (offer(subscriber, 0, () -> SseEmitter.event().name("delta").data(payload))) {
+                    subscriber.skipped -= skipped;
+                }
+            }
+        });
+        windowCounts.clear();
+    }
+
+    /**
+     * Hands a send to the sender pool unless the previous send to this subscriber is still running
+     *
+     * @return Whether the send was started
+     */
+    private boolean offer(Subscriber subscriber, int events, Supplier<SseEmitter.SseEventBuilder> event) {
+        if (!subscriber.sending.compareAndSet(false, true)) {
+            if (System.nanoTime() - subscriber.sendStartedNanos > sendTimeoutNanos) {
+                log.debug("Dropping slow live stream subscriber of {}", subscriber.shortCode);
+                drop(subscriber);
+            } else {
+                subscriber.skipped += events;
+            }
+            return false;
+        }
+        subscriber.sendStartedNanos = System.nanoTime();
+        try {
+            senders.execute(() -> {
+                try {
+                    subscriber.emitter.send(event.get());
+                } catch (IOException | IllegalStateException e) {
+                    remove(subscriber);
+                } finally {
+                    subscriber.sending.set(false);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException shuttingDown) {
+            subscriber.sending.set(false);
+            return false;
+        }
+    }
+
+    private void drop(Subscriber subscriber) {
+        if (remove(subscriber)) {
+            try {
+                senders.execute(subscriber.emitter::complete);
+            } catch (RejectedExecutionException shuttingDown) {
+                // close() completes every emitter
+            }
+        }
+    }
+
+    private boolean remove(Subscriber subscriber) {
+        if (!subscriber.removed.compareAndSet(false, true)) {
+            return false;
+        }
+        subscribers.computeIfPresent(subscriber.shortCode, (code, watchers) -> {
+            watchers.remove(subscriber);
+            return watchers.isEmpty() ? null : watchers;
+        });
+        subscriberCount.decrementAndGet();
+        return true;
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize live stream payload", e);
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Periodic click count of a watched link
+     *
+     * @param clicks Clicks on the link since the previous delta
+     * @param skipped Click events this subscriber did not receive individually since its previous delta
+     */
+    public record CounterDelta(long clicks, long skipped) {
+    }
+
+    private static final class Subscriber {
+        final String shortCode;
+        final SseEmitter emitter;
+        final AtomicBoolean sending = new AtomicBoolean();
+        final AtomicBoolean removed = new AtomicBoolean();
+        volatile long sendStartedNanos;
+        /** Dispatcher thread only */
+        long skipped;
+
+        Subscriber(String shortCode, SseEmitter emitter) {
+            this.shortCode = shortCode;
+            this.emitter = emitter;
+        }
+    }
+}
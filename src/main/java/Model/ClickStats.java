@@ -2,13 +2,28 @@ package Model;
 
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import Analytics.BrowserFamily;
+import Analytics.DeviceClass;
+import Analytics.OsFamily;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import Model.ShortUrl;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -23,10 +38,19 @@ import lombok.Setter;
  * 
  * Key features:
  * - Click timestamp
- * - Visitor IP address
+ * - Visitor IP address, and the country resolved from it at ingestion
  * - Referrer information
- * - User agent (browser/device info)
- * - Many-to-one relationship with ShortUrl
+ * - User agent (browser/device info), plus the browser, OS and device class parsed from it
+ *   once at ingestion, stored as small integer codes
+ * - Bot flag for clicks from crawlers, link previews and health checkers
+ * - Reference to its ShortUrl by id; the association is lazy and read-only
+ * - Sequence-generated IDs allocated in blocks, so inserts can be JDBC-batched
+ *   (Hibernate disables insert batching for IDENTITY columns)
+ * 
+ * Clicks are written through the short_url_id column only, so recording a click needs
+ * neither a managed ShortUrl nor any entity state (see {@link Storage.ClickBatchWriter}).
+ * IDs use the pooled-lo optimizer: a sequence value v covers ids v to v + 49, which lets
+ * the JDBC writer and Hibernate draw blocks from the same sequence.
  */
 
 @Entity
@@ -36,12 +60,20 @@ import lombok.Setter;
 @AllArgsConstructor
 @Builder
 public class ClickStats {
-    /** Primary key - auto-generated unique identifier */
+    /** Name of the sequence click ids are drawn from */
+    public static final String ID_SEQUENCE = "click_stats_seq";
+
+    /** Number of ids covered by one sequence value */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /** Primary key - drawn from click_stats_seq, 50 values per database round trip */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     /** Timestamp when the click occurred */
+    @Builder.Default
     private LocalDateTime clickedAt = LocalDateTime.now();
     
     /** IP address of the visitor */
@@ -53,9 +85,47 @@ public class ClickStats {
     /** User agent string (browser/device information) */
     private String userAgent;
 
-    /** Reference to the shortened URL this click belongs to */
-    @ManyToOne
-    @JoinColumn(name = "short_url_id")
+    /** Browser family parsed from the user agent (null for clicks recorded before parsing existed) */
+    @Enumerated(EnumType.ORDINAL)
+    @JdbcTypeCode(SqlTypes.SMALLINT)
+    private BrowserFamily browser;
+
+    /** Operating system family parsed from the user agent */
+    @Enumerated(EnumType.ORDINAL)
+    @JdbcTypeCode(SqlTypes.SMALLINT)
+    private OsFamily os;
+
+    /** Device class parsed from the user agent */
+    @Enumerated(EnumType.ORDINAL)
+    @JdbcTypeCode(SqlTypes.SMALLINT)
+    private DeviceClass device;
+
+    /** Two-letter country code resolved from the IP address ("ZZ" if unknown) */
+    @Column(length = 2)
+    private String country;
+
+    /** Whether the click was classified as bot traffic (see {@link Analytics.BotClassifier}) */
+    @Column(nullable = false)
+    private boolean bot;
+
+    /** ID of the shortened URL this click belongs to */
+    @Column(name = "short_url_id")
+    private Long shortUrlId;
+
+    /** The shortened URL this click belongs to; read-only view of short_url_id, loaded on access */
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "short_url_id", insertable = false, updatable = false)
     private ShortUrl shortUrl;
+
+    /**
+     * Fills short_url_id from the association when a click is persisted through JPA
+     */
+    @PrePersist
+    void copyShortUrlId() {
+        if (shortUrlId == null && shortUrl != null) {
+            shortUrlId = shortUrl.getId();
+        }
+    }
 }
 
@@ -0,0 +1,31 @@
+package Model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Entity holding the next unleased sequence value of a shard's short code keyspace
+ * 
+ * This class maps to the 'code_range_counter' table, a small coordination table with
+ * one row per shard. Nodes lock a row only for the instant needed to lease a block of
+ * sequence values; code generation itself then happens locally without database access.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CodeRangeCounter {
+    /** Shard number - primary key */
+    @Id
+    private Integer shard;
+
+    /** First sequence value that has not been leased to any node yet */
+    private long nextValue;
+}
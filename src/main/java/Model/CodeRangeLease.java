@@ -0,0 +1,50 @@
+package Model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Entity recording a block of short code sequence values leased by a node
+ * 
+ * This class maps to the 'code_range_lease' table. Leases are an audit trail of
+ * which node owns which half-open range [rangeStart, rangeEnd) of a shard's keyspace.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CodeRangeLease {
+    /** Primary key - auto-generated unique identifier */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Shard the range belongs to */
+    @Column(nullable = false)
+    private Integer shard;
+
+    /** Identifier of the node holding the lease */
+    @Column(nullable = false)
+    private String nodeId;
+
+    /** First sequence value of the range (inclusive) */
+    private long rangeStart;
+
+    /** End of the range (exclusive) */
+    private long rangeEnd;
+
+    /** Timestamp when the range was leased */
+    private LocalDateTime leasedAt;
+}
@@ -4,13 +4,24 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
+import Cache.ShortUrlInvalidationListener;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Transient;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -27,10 +38,23 @@ import lombok.Setter;
  * - Unique short code for URL identification
  * - Original URL storage
  * - Creation timestamp
+ * - Normalized target host, indexed for lookups by domain
  * - One-to-many relationship with ClickStats
+ * 
+ * The short code and creation timestamp never change once a URL is created, so the
+ * short code is mapped as an immutable natural id. Entities are kept in the Hibernate
+ * second-level cache together with a natural-id cache, which lets redirects resolve
+ * a short code without touching the database after the first lookup. The natural-id region
+ * is named explicitly because Hibernate's default, "Model.ShortUrl##NaturalId", is not a valid
+ * path in the Caffeine configuration (application.conf). Updates and
+ * deletes are broadcast to other nodes by {@link ShortUrlInvalidationListener}.
  */
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache(region = "Model.ShortUrl-natural-id")
+@EntityListeners(ShortUrlInvalidationListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -43,17 +67,32 @@ public class ShortUrl {
     private Long id;
 
     /** Unique short code used for URL redirection (e.g., "abc123") */
-    @Column(unique = true, nullable = false)
+    @NaturalId
+    @Column(unique = true, nullable = false, updatable = false)
     private String shortCode;
 
     /** The original long URL that was shortened */
     @Column(nullable = false)
     private String originalUrl;
 
+    /**
+     * Host of the original URL as normalized by {@link Analytics.ReferrerDomain#of} (lowercase,
+     * without "www.", port or user info); set on creation, not part of the API responses
+     */
+    @JsonIgnore
+    @Column(updatable = false)
+    private String targetHost;
+
     /** Timestamp when the URL was created */
+    @Column(updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
     /** Collection of click statistics for this URL */
     @OneToMany(mappedBy = "shortUrl", cascade = CascadeType.ALL)
     private List<ClickStats> clickStats = new ArrayList<>();
+
+    /** Total number of clicks, set by storage engines that keep click aggregates instead of click rows */
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long clickCount;
 } 
\ No newline at end of file
@@ -0,0 +1,75 @@
+package Qr;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Cache of rendered QR code images, bounded by their total size in bytes
+ *
+ * A QR code of a short URL never changes, so an image is rendered once per content, size
+ * and format and then served from memory until it is evicted.
+ *
+ * Key features:
+ * - Weighted by the image bytes plus a fixed per-entry overhead, so a few large PNGs cannot
+ *   push the cache past its byte budget
+ * - Concurrent requests for an image that is not cached wait for one render and receive the
+ *   same array
+ * - Hits return the cached array itself: nothing is encoded, compressed or copied
+ */
+public class QrCodeCache {
+    /** Estimated bytes of a cache entry besides the image and the content string */
+    static final int ENTRY_OVERHEAD = 96;
+
+    private final Cache<QrKey, byte[]> images;
+    private final LongAdder renders = new LongAdder();
+
+    /**
+     * @param maxBytes Maximum total weight of the cached images
+     */
+    public QrCodeCache(long maxBytes) {
+        this.images = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((QrKey key, byte[] image) -> image.length + 2 * key.content().length() + ENTRY_OVERHEAD)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the image of a QR code, rendering it if it is not cached
+     *
+     * @param content The text to encode
+     * @param size Width and height in pixels
+     * @param format The image format
+     * @return The image; shared between callers and must not be modified
+     * @throws IllegalArgumentException if the content does not fit in a QR code
+     */
+    public byte[] get(String content, int size, QrFormat format) {
+        return images.get(new QrKey(content, size, format), key -> {
+            renders.increment();
+            return QrRenderer.render(key.content(), key.size(), key.format());
+        });
+    }
+
+    /**
+     * @return The underlying cache, for metrics
+     */
+    public Cache<QrKey, byte[]> cache() {
+        return images;
+    }
+
+    /**
+     * @return Number of images rendered since startup
+     */
+    public long renderCount() {
+        return renders.sum();
+    }
+
+    /**
+     * @return Current total weight of the cached images in bytes
+     */
+    public long weightedSize() {
+        return images.policy().eviction().orElseThrow().weightedSize().orElse(0);
+    }
+}
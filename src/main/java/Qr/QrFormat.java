@@ -0,0 +1,41 @@
+package Qr;
+
+import java.util.Locale;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Image formats a QR code is rendered in
+ */
+public enum QrFormat {
+    /** 1-bit grayscale PNG, for print and chat apps */
+    PNG(MediaType.IMAGE_PNG),
+    /** One SVG path in module units, scalable without loss */
+    SVG(MediaType.valueOf("image/svg+xml"));
+
+    private final MediaType mediaType;
+
+    QrFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * @return The Content-Type of images in this format
+     */
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @param name "png" or "svg", in any case
+     * @return The format
+     * @throws IllegalArgumentException if the name is not a supported format
+     */
+    public static QrFormat of(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported QR code format: " + name);
+        }
+    }
+}
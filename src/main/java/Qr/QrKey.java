@@ -0,0 +1,11 @@
+package Qr;
+
+/**
+ * Identity of a rendered QR code image
+ *
+ * @param content The encoded text
+ * @param size Width and height in pixels
+ * @param format The image format
+ */
+public record QrKey(String content, int size, QrFormat format) {
+}
@@ -0,0 +1,169 @@
+package Qr;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+
+/**
+ * Renders QR codes into PNG and SVG bytes
+ *
+ * ZXing only computes the module matrix; the images are written here directly from it, so
+ * no BufferedImage or ImageIO writer is involved.
+ *
+ * Key features:
+ * - Error correction level M and a quiet zone of {@value #QUIET_ZONE} modules
+ * - PNG: 1-bit grayscale, each module an integer number of pixels, centered in a square of
+ *   the requested size (larger only if the code needs more than one pixel per module)
+ * - SVG: one path of the dark module runs in module units, scaled to the requested size
+ */
+public final class QrRenderer {
+    /** Light modules around the code required by the QR specification */
+    static final int QUIET_ZONE = 4;
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private static final Map<EncodeHintType, Object> HINTS = Map.of(EncodeHintType.CHARACTER_SET, "UTF-8");
+
+    private QrRenderer() {
+    }
+
+    /**
+     * @param content The text to encode, e.g. a short URL
+     * @param size Width and height of the image in pixels
+     * @param format The image format
+     * @return The encoded image
+     * @throws IllegalArgumentException if the content does not fit in a QR code
+     */
+    public static byte[] render(String content, int size, QrFormat format) {
+        ByteMatrix modules = encode(content);
+        return switch (format) {
+            case PNG -> png(modules, size);
+            case SVG -> svg(modules, size);
+        };
+    }
+
+    private static ByteMatrix encode(String content) {
+        try {
+            return Encoder.encode(content, ErrorCorrectionLevel.M, HINTS).getMatrix();
+        } catch (WriterException e) {
+            throw new IllegalArgumentException("Cannot encode a QR code: " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] png(ByteMatrix modules, int size) {
+        int width = modules.getWidth() + 2 * QUIET_ZONE;
+        int scale = Math.max(1, size / width);
+        int dimension = Math.max(size, width * scale);
+        int offset = (dimension - modules.getWidth() * scale) / 2;
+        int rowBytes = (dimension + 7) / 8;
+
+        // Filter byte 0 (none) per row, then one bit per pixel, 1 = white
+        byte[] pixels = new byte[(rowBytes + 1) * dimension];
+        byte[] row = new byte[rowBytes];
+        byte[] lightRow = new byte[rowBytes];
+        fillWhite(lightRow, dimension);
+        for (int y = 0; y < dimension; y++) {
+            int moduleY = Math.floorDiv(y - offset, scale);
+            byte[] source = lightRow;
+            if (y >= offset && moduleY < modules.getHeight()) {
+                System.arraycopy(lightRow, 0, row, 0, rowBytes);
+                for (int moduleX = 0; moduleX < modules.getWidth(); moduleX++) {
+                    if (modules.get(moduleX, moduleY) == 1) {
+                        int x = offset + moduleX * scale;
+                        for (int i = 0; i < scale; i++, x++) {
+                            row[x >>> 3] &= (byte) ~(0x80 >>> (x & 7));
+                        }
+                    }
+                }
+                source = row;
+            }
+            System.arraycopy(source, 0, pixels, y * (rowBytes + 1) + 1, rowBytes);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 + pixels.length / 16);
+        try {
+            out.write(PNG_SIGNATURE);
+            byte[] header = new byte[13];
+            putInt(header, 0, dimension);
+            putInt(header, 4, dimension);
+            header[8] = 1;  // bit depth
+            header[9] = 0;  // grayscale
+            writeChunk(out, "IHDR", header, header.length);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(pixels.length / 16);
+            Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+            try (DeflaterOutputStream deflate = new DeflaterOutputStream(compressed, deflater)) {
+                deflate.write(pixels);
+            } finally {
+                deflater.end();
+            }
+            writeChunk(out, "IDAT", compressed.toByteArray(), compressed.size());
+            writeChunk(out, "IEND", new byte[0], 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void fillWhite(byte[] row, int pixels) {
+        for (int x = 0; x < pixels; x++) {
+            row[x >>> 3] |= (byte) (0x80 >>> (x & 7));
+        }
+    }
+
+    private static void writeChunk(ByteArrayOutputStream out, String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        DataOutputStream chunk = new DataOutputStream(out);
+        chunk.writeInt(length);
+        chunk.write(typeBytes);
+        chunk.write(data, 0, length);
+        chunk.writeInt((int) crc.getValue());
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static byte[] svg(ByteMatrix modules, int size) {
+        int width = modules.getWidth() + 2 * QUIET_ZONE;
+        StringBuilder svg = new StringBuilder(64 * modules.getHeight() + 256)
+                .append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(size)
+                .append("\" height=\"").append(size)
+                .append("\" viewBox=\"0 0 ").append(width).append(' ').append(width)
+                .append("\" shape-rendering=\"crispEdges\"><rect width=\"100%\" height=\"100%\" fill=\"#fff\"/><path d=\"");
+        for (int y = 0; y < modules.getHeight(); y++) {
+            int x = 0;
+            while (x < modules.getWidth()) {
+                if (modules.get(x, y) != 1) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < modules.getWidth() && modules.get(x, y) == 1) {
+                    x++;
+                }
+                svg.append('M').append(start + QUIET_ZONE).append(' ').append(y + QUIET_ZONE)
+                        .append('h').append(x - start).append("v1h-").append(x - start).append('z');
+            }
+        }
+        svg.append("\"/></svg>\n");
+        return svg.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
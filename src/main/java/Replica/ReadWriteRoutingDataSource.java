@@ -0,0 +1,21 @@
+package Replica;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Application DataSource that sends read-only transactions to replicas
+ * 
+ * Connections are acquired lazily, on the first statement, after the transaction
+ * manager has marked the connection read-only. Read-only connections
+ * ({@code @Transactional(readOnly = true)}: short code lookups, stats, listing)
+ * come from the {@link ReplicaPoolDataSource}; everything else goes to the primary.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy {
+
+    public ReadWriteRoutingDataSource(DataSource primary, ReplicaPoolDataSource replicaPool) {
+        super(primary);
+        setReadOnlyDataSource(replicaPool);
+    }
+}
@@ -0,0 +1,42 @@
+package Replica;
+
+import java.util.function.Supplier;
+
+/**
+ * Pins the current thread's read-only work to the primary database
+ * 
+ * Read-only transactions normally go to a replica. Code that must see its own
+ * recent writes wraps the read in {@link #callOnPrimary}; the pin must be set
+ * before the transaction's first statement runs.
+ */
+public final class ReplicaContext {
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    private ReplicaContext() {
+    }
+
+    /**
+     * @return true if reads on this thread must go to the primary
+     */
+    public static boolean isPrimaryPinned() {
+        return Boolean.TRUE.equals(PRIMARY_PINNED.get());
+    }
+
+    /**
+     * Runs an operation with all reads routed to the primary
+     * 
+     * @param operation The operation to run
+     * @return The operation's result
+     */
+    public static <T> T callOnPrimary(Supplier<T> operation) {
+        if (isPrimaryPinned()) {
+            return operation.get();
+        }
+        PRIMARY_PINNED.set(Boolean.TRUE);
+        try {
+            return operation.get();
+        } finally {
+            PRIMARY_PINNED.remove();
+        }
+    }
+}
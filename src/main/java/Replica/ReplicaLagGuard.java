@@ -0,0 +1,139 @@
+package Replica;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Keeps short code reads consistent while replicas lag behind the primary
+ * 
+ * Two rules apply to reads of a short code when replicas are enabled:
+ * - A code written by this node within the lag tolerance is read from the primary.
+ * - A code not found on a replica is looked up again on the primary, so a link
+ *   created on another node resolves immediately even if replicas have not caught up.
+ * 
+ * Reads whose result is sent under a version tag (see {@link Cache.LinkVersions}) also go to
+ * the primary while the tag changed within the lag tolerance, as the tag may already count
+ * changes a replica does not have yet.
+ * 
+ * When replicas are disabled these rules are skipped.
+ */
+public class ReplicaLagGuard {
+    private final boolean enabled;
+    private final long lagToleranceMillis;
+    private final Cache<String, Boolean> recentWrites;
+
+    public ReplicaLagGuard(boolean enabled, Duration lagTolerance, long maxTrackedWrites) {
+        this.enabled = enabled;
+        this.lagToleranceMillis = lagTolerance.toMillis();
+        this.recentWrites = Caffeine.newBuilder()
+                .expireAfterWrite(lagTolerance)
+                .maximumSize(maxTrackedWrites)
+                .build();
+    }
+
+    /**
+     * Records that a short code was just written on the primary
+     * 
+     * @param shortCode The written short code
+     */
+    public void markWritten(String shortCode) {
+        if (enabled) {
+            recentWrites.put(shortCode, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Reads a short code, applying the lag tolerance rules
+     * 
+     * @param shortCode The short code being read
+     * @param lookup The read to run
+     * @return The result of the read
+     */
+    public <T> Optional<T> read(String shortCode, Supplier<Optional<T>> lookup) {
+        if (!enabled) {
+            return lookup.get();
+        }
+        if (recentWrites.getIfPresent(shortCode) != null) {
+            return ReplicaContext.callOnPrimary(lookup);
+        }
+        Optional<T> result = lookup.get();
+        return result.isPresent() ? result : ReplicaContext.callOnPrimary(lookup);
+    }
+
+    /**
+     * Reads a short code whose data is versioned, applying the lag tolerance rules
+     * 
+     * @param shortCode The short code being read
+     * @param changedAt Supplies the time the code's version last changed, in epoch milliseconds;
+     *        only called when replicas are enabled
+     * @param lookup The read to run
+     * @return The result of the read, from the primary if the version changed within the lag tolerance
+     */
+    public <T> Optional<T> readChanged(String shortCode, LongSupplier changedAt, Supplier<Optional<T>> lookup) {
+        if (enabled && changedRecently(changedAt)) {
+            return ReplicaContext.callOnPrimary(lookup);
+        }
+        return read(shortCode, lookup);
+    }
+
+    /**
+     * Runs a read of versioned data, on the primary if its version changed within the lag tolerance
+     * 
+     * @param changedAt Supplies the time the version last changed, in epoch milliseconds;
+     *        only called when replicas are enabled
+     * @param operation The read to run
+     * @return The read's result
+     */
+    public <T> T readChanged(LongSupplier changedAt, Supplier<T> operation) {
+        return enabled && changedRecently(changedAt) ? ReplicaContext.callOnPrimary(operation) : operation.get();
+    }
+
+    /**
+     * Reads many short codes at once
+     * 
+     * Codes the first read did not return are looked up again on the primary, so links created
+     * on any node are found even if replicas have not caught up.
+     * 
+     * @param shortCodes The short codes being read
+     * @param lookup Reads the rows of a set of short codes
+     * @param shortCodeOf The short code of a row
+     * @return The rows of all codes found
+     */
+    public <T> List<T> readAll(Collection<String> shortCodes, Function<Collection<String>, List<T>> lookup,
+            Function<T, String> shortCodeOf) {
+        List<T> rows = lookup.apply(shortCodes);
+        if (!enabled || rows.size() >= shortCodes.size()) {
+            return rows;
+        }
+        Set<String> found = rows.stream().map(shortCodeOf).collect(Collectors.toSet());
+        List<String> missing = shortCodes.stream().filter(code -> !found.contains(code)).toList();
+        List<T> all = new ArrayList<>(rows);
+        all.addAll(ReplicaContext.callOnPrimary(() -> lookup.apply(missing)));
+        return all;
+    }
+
+    /**
+     * Runs a read that must see the primary's current state
+     * 
+     * @param operation The operation to run
+     * @return The operation's result
+     */
+    public <T> T onPrimary(Supplier<T> operation) {
+        return enabled ? ReplicaContext.callOnPrimary(operation) : operation.get();
+    }
+
+    private boolean changedRecently(LongSupplier changedAt) {
+        return System.currentTimeMillis() - changedAt.getAsLong() < lagToleranceMillis;
+    }
+}
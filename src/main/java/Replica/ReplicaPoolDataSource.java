@@ -0,0 +1,119 @@
+package Replica;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * DataSource that spreads read-only connections over a pool of replicas
+ * 
+ * Connections are handed out round-robin from replicas that passed their last
+ * health check. A replica that fails a check, or fails to hand out a connection,
+ * is skipped until a later check succeeds. With no healthy replica, or when the
+ * thread is pinned through {@link ReplicaContext}, connections come from the primary.
+ */
+public class ReplicaPoolDataSource extends AbstractDataSource implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaPoolDataSource.class);
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final AtomicBoolean[] healthy;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final int validationTimeoutSeconds;
+    private final ScheduledExecutorService healthChecker;
+
+    public ReplicaPoolDataSource(DataSource primary, List<DataSource> replicas,
+            long healthCheckIntervalMillis, int validationTimeoutSeconds) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.healthy = new AtomicBoolean[this.replicas.size()];
+        for (int i = 0; i < healthy.length; i++) {
+            healthy[i] = new AtomicBoolean(true);
+        }
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (healthCheckIntervalMillis > 0) {
+            healthChecker.scheduleWithFixedDelay(this::checkHealth, healthCheckIntervalMillis,
+                    healthCheckIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!ReplicaContext.isPrimaryPinned()) {
+            int start = Math.floorMod(cursor.getAndIncrement(), Math.max(replicas.size(), 1));
+            for (int i = 0; i < replicas.size(); i++) {
+                int index = (start + i) % replicas.size();
+                if (healthy[index].get()) {
+                    try {
+                        return replicas.get(index).getConnection();
+                    } catch (SQLException e) {
+                        markUnhealthy(index, e);
+                    }
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * The replicas' pools are bound to their configured credentials, so connections for
+     * other credentials come from the primary
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Validates every replica and updates its health flag
+     */
+    public void checkHealth() {
+        for (int i = 0; i < replicas.size(); i++) {
+            try (Connection connection = replicas.get(i).getConnection()) {
+                boolean valid = connection.isValid(validationTimeoutSeconds);
+                if (valid && !healthy[i].getAndSet(true)) {
+                    log.info("Replica {} is healthy again", i);
+                } else if (!valid) {
+                    markUnhealthy(i, null);
+                }
+            } catch (SQLException e) {
+                markUnhealthy(i, e);
+            }
+        }
+    }
+
+    /**
+     * @param index Position of the replica in the pool
+     * @return true if the replica passed its last health check
+     */
+    public boolean isHealthy(int index) {
+        return healthy[index].get();
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+    }
+
+    private void markUnhealthy(int index, SQLException cause) {
+        if (healthy[index].getAndSet(false)) {
+            log.warn("Replica {} marked unhealthy, reads fall back to other replicas or the primary", index, cause);
+        }
+    }
+}
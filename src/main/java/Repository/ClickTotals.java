@@ -0,0 +1,16 @@
+package Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Click counts of one link, as computed by a grouped query over click_stats
+ */
+public interface ClickTotals {
+    Long getShortUrlId();
+
+    long getClicks();
+
+    long getBotClicks();
+
+    LocalDateTime getLastClickedAt();
+}
@@ -0,0 +1,28 @@
+package Repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import Model.CodeRangeCounter;
+import jakarta.persistence.LockModeType;
+
+/**
+ * Repository interface for CodeRangeCounter entity
+ * 
+ * Provides row-locked access to the per-shard keyspace counters used when
+ * nodes lease blocks of short code sequence values.
+ */
+@Repository
+public interface CodeRangeCounterRepository extends JpaRepository<CodeRangeCounter, Integer> {
+    /**
+     * Finds the counter of a shard and locks its row until the transaction ends
+     * 
+     * @param shard The shard number
+     * @return Optional containing the locked counter if the shard has one
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<CodeRangeCounter> findWithLockByShard(Integer shard);
+}
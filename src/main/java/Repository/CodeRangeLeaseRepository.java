@@ -0,0 +1,24 @@
+package Repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import Model.CodeRangeLease;
+
+/**
+ * Repository interface for CodeRangeLease entity
+ * 
+ * Stores the audit trail of short code ranges leased by each node.
+ */
+@Repository
+public interface CodeRangeLeaseRepository extends JpaRepository<CodeRangeLease, Long> {
+    /**
+     * Finds all leases taken by a node
+     * 
+     * @param nodeId The node identifier
+     * @return List of the node's leases
+     */
+    List<CodeRangeLease> findByNodeId(String nodeId);
+}
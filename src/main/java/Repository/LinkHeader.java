@@ -0,0 +1,18 @@
+package Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a ShortUrl without its click statistics
+ *
+ * Selects only the link's own columns, for queries that read many links at once.
+ */
+public interface LinkHeader {
+    Long getId();
+
+    String getShortCode();
+
+    String getOriginalUrl();
+
+    LocalDateTime getCreatedAt();
+}
@@ -1,8 +1,13 @@
 package Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import Model.ShortUrl;
@@ -12,18 +17,60 @@ import Model.ShortUrl;
  * 
  * This interface extends JpaRepository to provide basic CRUD operations
  * for the ShortUrl entity. It also includes a custom finder method
- * to locate URLs by their short codes.
+ * to locate URLs by their short codes, which is implemented in
+ * {@link ShortUrlRepositoryImpl} on top of the second-level cache.
+ * 
+ * Methods whose results are serialized together with their click statistics fetch
+ * the collection eagerly, so they work with {@code spring.jpa.open-in-view=false}.
  * 
  * Spring Data JPA automatically implements this interface at runtime.
  */
 
 @Repository
-public interface ShortUrlRepository extends JpaRepository<ShortUrl, Long> {
+public interface ShortUrlRepository extends JpaRepository<ShortUrl, Long>, ShortUrlRepositoryCustom {
     /**
      * Finds a ShortUrl by its unique short code
      * 
      * @param shortCode The short code to search for
      * @return Optional containing the ShortUrl if found, empty otherwise
      */
+    @Override
     Optional<ShortUrl> findByShortCode(String shortCode);
+
+    /**
+     * Finds a ShortUrl by its short code together with its click statistics
+     * 
+     * @param shortCode The short code to search for
+     * @return Optional containing the ShortUrl with initialized click statistics
+     */
+    @EntityGraph(attributePaths = "clickStats")
+    Optional<ShortUrl> findWithClickStatsByShortCode(String shortCode);
+
+    /**
+     * Returns all ShortUrls with their click statistics fetched in the same query
+     * 
+     * @return List of all ShortUrl objects
+     */
+    @Override
+    @EntityGraph(attributePaths = "clickStats")
+    List<ShortUrl> findAll();
+
+    /**
+     * Finds many ShortUrls by short code in one query, without their click statistics
+     * 
+     * @param shortCodes The short codes to search for
+     * @return The links found, in no particular order; unknown codes are left out
+     */
+    List<LinkHeader> findByShortCodeIn(Collection<String> shortCodes);
+
+    /**
+     * Counts the clicks of many ShortUrls in one grouped query
+     * 
+     * @param shortUrlIds The ids of the links
+     * @return One row per link that has clicks
+     */
+    @Query("SELECT c.shortUrlId AS shortUrlId, COUNT(c) AS clicks, "
+            + "SUM(CASE WHEN c.bot = true THEN 1 ELSE 0 END) AS botClicks, MAX(c.clickedAt) AS lastClickedAt "
+            + "FROM ClickStats c WHERE c.shortUrlId IN :shortUrlIds GROUP BY c.shortUrlId")
+    List<ClickTotals> countClicksByShortUrlIdIn(@Param("shortUrlIds") Collection<Long> shortUrlIds);
 } 
\ No newline at end of file
@@ -0,0 +1,21 @@
+package Repository;
+
+import java.util.Optional;
+
+import Model.ShortUrl;
+
+/**
+ * Custom repository fragment for ShortUrl lookups
+ * 
+ * Declares lookups that are implemented by hand in {@link ShortUrlRepositoryImpl}
+ * instead of being derived by Spring Data, so they can use Hibernate-specific APIs.
+ */
+public interface ShortUrlRepositoryCustom {
+    /**
+     * Finds a ShortUrl by its unique short code
+     * 
+     * @param shortCode The short code to search for
+     * @return Optional containing the ShortUrl if found, empty otherwise
+     */
+    Optional<ShortUrl> findByShortCode(String shortCode);
+}
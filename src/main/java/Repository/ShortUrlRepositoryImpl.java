@@ -0,0 +1,33 @@
+package Repository;
+
+import java.util.Optional;
+
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import Model.ShortUrl;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Hibernate-backed implementation of {@link ShortUrlRepositoryCustom}
+ * 
+ * Short codes are resolved through Hibernate's natural-id API rather than a derived
+ * JPQL query. A derived query always runs SQL, while a natural-id load is answered
+ * from the natural-id and entity regions of the second-level cache when both are warm.
+ */
+public class ShortUrlRepositoryImpl implements ShortUrlRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ShortUrl> findByShortCode(String shortCode) {
+        if (shortCode == null) {
+            return Optional.empty();
+        }
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(ShortUrl.class)
+                .loadOptional(shortCode);
+    }
+}
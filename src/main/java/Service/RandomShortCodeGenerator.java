@@ -0,0 +1,29 @@
+package Service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates random 6-character short codes
+ * 
+ * Creates a unique identifier using alphanumeric characters (a-z, A-Z, 0-9).
+ * This is the default strategy for single-database deployments.
+ */
+public class RandomShortCodeGenerator implements ShortCodeGenerator {
+    private static final String CHARS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    private static final int LENGTH = 6;
+
+    /**
+     * Generates a random 6-character short code
+     * 
+     * @return 6-character random string
+     */
+    @Override
+    public String nextCode() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder sb = new StringBuilder(LENGTH);
+        // Generate 6 random characters
+        for (int i = 0; i < LENGTH; i++)
+            sb.append(CHARS.charAt(random.nextInt(CHARS.length())));
+        return sb.toString();
+    }
+}
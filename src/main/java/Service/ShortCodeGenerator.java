@@ -0,0 +1,16 @@
+package Service;
+
+/**
+ * Strategy for generating new short codes
+ * 
+ * Implementations only need to make collisions unlikely; {@link UrlService}
+ * still checks a generated code against existing links before using it.
+ */
+public interface ShortCodeGenerator {
+    /**
+     * Generates the next candidate short code
+     * 
+     * @return A new short code
+     */
+    String nextCode();
+}
@@ -1,17 +1,35 @@
 package Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
+import java.util.function.Consumer;
 
 import org.springframework.stereotype.Service;
 
+import Analytics.BotAction;
+import Analytics.BotClassifier;
+import Analytics.DuplicateClickFilter;
+import Analytics.GeoIpLookup;
+import Analytics.ReferrerDomain;
+import Analytics.UserAgentInfo;
+import Analytics.UserAgentParser;
+import Cache.LinkVersions;
+import DTO.AnalyticsQuery;
+import DTO.AnalyticsResult;
+import DTO.ClickBreakdown;
+import DTO.DomainLinks;
+import DTO.LinkSummary;
+import Live.ClickEventHub;
 import Model.ClickStats;
 import Model.ShortUrl;
-import Repository.ClickStatsRepository;
-import Repository.ShortUrlRepository;
+import Storage.LinkStore;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 
@@ -20,45 +38,77 @@ import lombok.RequiredArgsConstructor;
  * 
  * This service contains all the business logic for URL shortening operations.
  * It handles URL creation, redirection, click tracking, and statistics retrieval.
- * The service layer acts as an intermediary between the controller and repository layers.
+ * The service layer acts as an intermediary between the controller and the storage layer.
+ * 
+ * Links and clicks are kept in the configured {@link LinkStore} (JPA by default, or the
+ * in-memory store for nodes running without a database). Clicks from bots are tagged or
+ * dropped by the {@link BotClassifier} before they reach the store, and every recorded click
+ * carries the browser, OS and device class parsed from its User-Agent and the country of
+ * its IP address. Repeats of a click by the same visitor within a few seconds can be left
+ * out by the {@link DuplicateClickFilter}. Recorded clicks are also published to the
+ * {@link ClickEventHub} that feeds the live click stream. Statistics and the listing are
+ * versioned by {@link LinkVersions}, so their ETags are computed without a database query.
  */
 
 @Service
 @RequiredArgsConstructor
 public class UrlService {
-    private final ShortUrlRepository shortUrlRepo;
-    private final ClickStatsRepository clickStatsRepo;
+    /** Number of short codes looked up per batch query */
+    static final int SUMMARY_CHUNK_SIZE = 500;
+
+    /** Longest period an analytics query may span */
+    static final int MAX_ANALYTICS_DAYS = 366;
+
+    /** Most links returned per page of a lookup by domain */
+    public static final int MAX_DOMAIN_PAGE_SIZE = 1_000;
+
+    private final LinkStore linkStore;
+    private final ShortCodeGenerator codeGenerator;
+    private final BotClassifier botClassifier;
+    private final UserAgentParser userAgentParser;
+    private final GeoIpLookup geoIpLookup;
+    private final DuplicateClickFilter duplicateClickFilter;
+    private final ClickEventHub clickEventHub;
+    private final LinkVersions linkVersions;
 
     /**
      * Creates a shortened URL from the provided original URL
      * 
-     * This method generates a unique 6-character short code and creates a new ShortUrl entity.
-     * It ensures the generated code is unique by checking against existing codes.
+     * This method obtains a short code from the configured {@link ShortCodeGenerator} and stores
+     * a new ShortUrl. It ensures the generated code is unique by checking against existing codes.
+     * The host of the original URL is stored normalized with the link, for lookups by domain.
      * 
      * @param originalUrl The original URL to be shortened
      * @return ShortUrl object with generated short code and metadata
      */
     public ShortUrl createShortUrl(String originalUrl) {
         // Generate a unique short code
-        String shortCode = generateCode();
+        String shortCode = codeGenerator.nextCode();
         // Ensure uniqueness by regenerating if code already exists
-        while (shortUrlRepo.findByShortCode(shortCode).isPresent()) {
-            shortCode = generateCode();
+        while (linkStore.exists(shortCode)) {
+            shortCode = codeGenerator.nextCode();
         }
         // Create and save the new ShortUrl with current timestamp and empty click stats
-        return shortUrlRepo.save(ShortUrl.builder()
+        ShortUrl shortUrl = ShortUrl.builder()
                 .originalUrl(originalUrl)
                 .shortCode(shortCode)
+                .targetHost(ReferrerDomain.of(originalUrl))
                 .createdAt(LocalDateTime.now())
                 .clickStats(new ArrayList<>())
-                .build());
+                .build();
+        ShortUrl saved = linkStore.save(shortUrl);
+        linkVersions.changed(saved.getId());
+        return saved;
     }
 
     /**
      * Retrieves the original URL for a given short code and tracks the click
      * 
-     * This method finds the original URL and automatically creates a click statistics record
+     * This method finds the original URL and automatically records a click
      * with information about the visitor (IP address, referrer, user agent).
+     * Clicks classified as bot traffic are recorded with the bot flag set, or not
+     * recorded at all, depending on the configured {@link BotAction}. A repeat of a click by
+     * the same IP address and User-Agent within the dedupe window is not recorded either.
      * 
      * @param shortCode The short code to look up
      * @param request HTTP request object to extract visitor information
@@ -66,52 +116,184 @@ public class UrlService {
      */
     public Optional<ShortUrl> getOriginalUrl(String shortCode, HttpServletRequest request) {
         // Find the short URL by code
-        Optional<ShortUrl> shortUrl = shortUrlRepo.findByShortCode(shortCode);
-        // If found, create click statistics record
-        shortUrl.ifPresent(url -> clickStatsRepo.save(
-                ClickStats.builder()
-                        .ipAddress(request.getRemoteAddr())
-                        .referrer(request.getHeader("Referer"))
-                        .userAgent(request.getHeader("User-Agent"))
-                        .shortUrl(url)
-                        .build()));
+        Optional<ShortUrl> shortUrl = linkStore.findByShortCode(shortCode);
+        if (shortUrl.isEmpty()) {
+            return shortUrl;
+        }
+        // Classify the visitor, then record the click unless bot clicks are dropped or it is a repeat
+        String userAgent = request.getHeader("User-Agent");
+        String ipAddress = request.getRemoteAddr();
+        boolean bot = botClassifier.isBot(userAgent);
+        if ((!bot || botClassifier.action() != BotAction.DROP)
+                && !duplicateClickFilter.isDuplicate(shortCode, ipAddress, userAgent)) {
+            UserAgentInfo agent = userAgentParser.parse(userAgent);
+            ClickStats click = ClickStats.builder()
+                    .ipAddress(ipAddress)
+                    .referrer(request.getHeader("Referer"))
+                    .userAgent(userAgent)
+                    .browser(agent.browser())
+                    .os(agent.os())
+                    .device(agent.device())
+                    .country(geoIpLookup.country(ipAddress))
+                    .bot(bot)
+                    .build();
+            linkStore.recordClick(shortUrl.get(), click);
+            clickEventHub.publish(shortCode, click);
+        }
         return shortUrl;
     }
 
+    /**
+     * Checks whether a short code exists
+     * 
+     * @param shortCode The short code to look up
+     * @return true if a ShortUrl with this code exists
+     */
+    public boolean exists(String shortCode) {
+        return linkStore.exists(shortCode);
+    }
+
     /**
      * Retrieves all shortened URLs in the system
      * 
      * @return List of all ShortUrl objects
      */
     public List<ShortUrl> getAllUrls() {
-        return shortUrlRepo.findAll();
+        return linkStore.findAll();
+    }
+
+    /**
+     * Retrieves the short URLs pointing at a domain, one page at a time
+     * 
+     * The domain is normalized like stored target hosts ("WWW.Example.com" finds the links
+     * to "https://example.com/..."); subdomains are separate hosts. Pages are read from the
+     * host index in id order, never by scanning the original URLs.
+     * 
+     * @param domain The host to look up
+     * @param after Cursor returned with the previous page, or null for the first page
+     * @param limit Maximum number of links, 1 to {@value #MAX_DOMAIN_PAGE_SIZE}
+     * @return The page of links with the number of links pointing at the host
+     * @throws IllegalArgumentException if the domain is empty, the limit is out of range or
+     *         the cursor is invalid
+     */
+    public DomainLinks findByDomain(String domain, String after, int limit) {
+        String host = ReferrerDomain.of(domain);
+        if (host.isEmpty()) {
+            throw new IllegalArgumentException("The domain must not be empty");
+        }
+        if (limit < 1 || limit > MAX_DOMAIN_PAGE_SIZE) {
+            throw new IllegalArgumentException("The limit must be between 1 and " + MAX_DOMAIN_PAGE_SIZE);
+        }
+        return linkStore.findByTargetHost(host, after, limit);
     }
 
     /**
      * Retrieves statistics for a specific short URL
      * 
+     * The click statistics are fetched together with the URL, so the result can be
+     * serialized after the persistence context has closed.
+     * 
      * @param shortCode The short code to get statistics for
      * @return Optional containing the ShortUrl with click statistics if found
      */
     public Optional<ShortUrl> getStats(String shortCode) {
-        return shortUrlRepo.findByShortCode(shortCode);
+        return linkStore.findWithClickStatsByShortCode(shortCode);
+    }
+
+    /**
+     * Computes the ETag of a short URL's statistics without loading them
+     * 
+     * The tag changes whenever clicks of the link are written. Read it before the
+     * statistics, so the statistics sent with it are never older than the tag: while the
+     * tag changed within the replica lag tolerance, {@link #getStats} reads from the primary.
+     * 
+     * @param shortCode The short code to get the ETag for
+     * @return Optional containing the quoted ETag if the short code exists
+     */
+    public Optional<String> statsETag(String shortCode) {
+        return linkStore.findByShortCode(shortCode).map(link -> linkVersions.linkTag(link.getId()));
     }
 
     /**
-     * Generates a random 6-character short code
+     * Computes the ETag of the listing of all short URLs without loading it
      * 
-     * Creates a unique identifier using alphanumeric characters (a-z, A-Z, 0-9).
-     * This method is used to generate short codes for URL shortening.
+     * The tag changes whenever a link is created or any link gets new clicks.
      * 
-     * @return 6-character random string
+     * @return The quoted ETag
      */
-    private String generateCode() {
-        String chars = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-        StringBuilder sb = new StringBuilder();
-        Random r = new Random();
-        // Generate 6 random characters
-        for (int i = 0; i < 6; i++)
-            sb.append(chars.charAt(r.nextInt(chars.length())));
-        return sb.toString();
+    public String listingETag() {
+        return linkVersions.listingTag();
+    }
+
+    /**
+     * Hands every click on a short URL to an action, oldest first, page by page
+     * 
+     * @param shortCode The short code to export the clicks of
+     * @param action Receives the clicks
+     * @return false if the short code does not exist
+     */
+    public boolean forEachClick(String shortCode, Consumer<ClickStats> action) {
+        return linkStore.forEachClick(shortCode, action);
+    }
+
+    /**
+     * Retrieves click counts per browser family, operating system, device class and country
+     * 
+     * The counts come from hourly aggregates, so clicks of the last few seconds may
+     * not be included yet.
+     * 
+     * @param shortCode The short code to get the breakdown for
+     * @return Optional containing the breakdown if the short code exists
+     */
+    public Optional<ClickBreakdown> getClickBreakdown(String shortCode) {
+        return linkStore.findClickBreakdown(shortCode);
+    }
+
+    /**
+     * Groups human clicks by time, referrer domain, country and device class
+     * 
+     * The groups are computed from hourly rollups that are written every few seconds, so
+     * clicks of the last few seconds may not be included yet.
+     * 
+     * @param query The links, period, dimensions and metrics
+     * @return The groups of the query
+     * @throws IllegalArgumentException if the period is empty or longer than {@value #MAX_ANALYTICS_DAYS} days,
+     *         or the query produces too many groups
+     */
+    public AnalyticsResult queryAnalytics(AnalyticsQuery query) {
+        if (!query.getTo().isAfter(query.getFrom())) {
+            throw new IllegalArgumentException("'to' must be after 'from'");
+        }
+        if (Duration.between(query.getFrom(), query.getTo()).toDays() >= MAX_ANALYTICS_DAYS) {
+            throw new IllegalArgumentException("The period may span at most " + MAX_ANALYTICS_DAYS + " days");
+        }
+        return linkStore.queryAnalytics(query);
+    }
+
+    /**
+     * Summarizes many short URLs without loading their individual clicks
+     * 
+     * The codes are looked up in chunks of {@value #SUMMARY_CHUNK_SIZE}, each with one query
+     * for the links and one grouped query for their click totals, and every chunk is handed
+     * to the consumer before the next is read, so the caller can stream the results.
+     * 
+     * @param shortCodes The short codes to summarize
+     * @param action Receives the summaries in request order; unknown and duplicate codes are skipped
+     */
+    public void forEachLinkSummary(Collection<String> shortCodes, Consumer<LinkSummary> action) {
+        List<String> codes = new ArrayList<>(new LinkedHashSet<>(shortCodes));
+        for (int from = 0; from < codes.size(); from += SUMMARY_CHUNK_SIZE) {
+            List<String> chunk = codes.subList(from, Math.min(from + SUMMARY_CHUNK_SIZE, codes.size()));
+            Map<String, LinkSummary> found = new HashMap<>();
+            for (LinkSummary summary : linkStore.findLinkSummaries(chunk)) {
+                found.put(summary.getShortCode(), summary);
+            }
+            for (String shortCode : chunk) {
+                LinkSummary summary = found.get(shortCode);
+                if (summary != null) {
+                    action.accept(summary);
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,50 @@
+package Sharding;
+
+import java.time.LocalDateTime;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import Model.CodeRangeCounter;
+import Model.CodeRangeLease;
+import Repository.CodeRangeCounterRepository;
+import Repository.CodeRangeLeaseRepository;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Leases disjoint blocks of a shard's short code keyspace to nodes
+ * 
+ * A lease locks the shard's counter row, advances it by the block size and records
+ * the lease, all in one short transaction. Because every block is handed out once,
+ * nodes can turn leased values into codes locally without further coordination.
+ */
+@RequiredArgsConstructor
+public class CodeRangeAllocator {
+    private final CodeRangeCounterRepository counterRepo;
+    private final CodeRangeLeaseRepository leaseRepo;
+
+    /**
+     * Leases the next block of sequence values of a shard
+     * 
+     * @param shard The shard to lease from
+     * @param nodeId Identifier of the leasing node
+     * @param blockSize Number of sequence values to lease
+     * @return The leased range
+     */
+    @Transactional
+    public CodeRangeLease lease(int shard, String nodeId, int blockSize) {
+        CodeRangeCounter counter = counterRepo.findWithLockByShard(shard)
+                .orElseGet(() -> counterRepo.saveAndFlush(CodeRangeCounter.builder()
+                        .shard(shard)
+                        .nextValue(0)
+                        .build()));
+        long start = counter.getNextValue();
+        counter.setNextValue(start + blockSize);
+        return leaseRepo.save(CodeRangeLease.builder()
+                .shard(shard)
+                .nodeId(nodeId)
+                .rangeStart(start)
+                .rangeEnd(start + blockSize)
+                .leasedAt(LocalDateTime.now())
+                .build());
+    }
+}
@@ -0,0 +1,64 @@
+package Sharding;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import Model.CodeRangeLease;
+import Service.ShortCodeGenerator;
+
+/**
+ * Generates short codes from ranges leased to this node
+ * 
+ * Codes are handed out from the current leased block with a single atomic increment;
+ * the coordination table is only touched when a block runs out. Every code carries
+ * the node's home shard as its prefix, so {@link ShardRouter#shardOf} stores and
+ * finds it on that shard.
+ */
+public class LeasedRangeShortCodeGenerator implements ShortCodeGenerator {
+    private final CodeRangeAllocator allocator;
+    private final ShardRouter router;
+    private final int shard;
+    private final String nodeId;
+    private final int blockSize;
+    private volatile Block current;
+
+    public LeasedRangeShortCodeGenerator(CodeRangeAllocator allocator, ShardRouter router,
+            int shard, String nodeId, int blockSize) {
+        this.allocator = allocator;
+        this.router = router;
+        this.shard = shard;
+        this.nodeId = nodeId;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public String nextCode() {
+        while (true) {
+            Block block = current;
+            if (block != null) {
+                long value = block.next.getAndIncrement();
+                if (value < block.end) {
+                    return router.encode(shard, value);
+                }
+            }
+            renew(block);
+        }
+    }
+
+    private synchronized void renew(Block exhausted) {
+        // Another thread may have renewed the block while this one waited
+        if (current == exhausted) {
+            CodeRangeLease lease = allocator.lease(shard, nodeId, blockSize);
+            current = new Block(lease.getRangeStart(), lease.getRangeEnd());
+        }
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
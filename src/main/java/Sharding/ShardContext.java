@@ -0,0 +1,45 @@
+package Sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the shard the current thread's database work is routed to
+ * 
+ * {@link ShardRoutingDataSource} reads this when a connection is obtained, so the
+ * shard must be set before a transaction starts. Outside {@link #callOn} the
+ * default shard (0) is used, which also hosts the coordination tables.
+ */
+public final class ShardContext {
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * @return The shard selected for the current thread, or null for the default shard
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs an operation with all database access routed to one shard
+     * 
+     * @param shard The shard to route to
+     * @param operation The operation to run
+     * @return The operation's result
+     */
+    public static <T> T callOn(int shard, Supplier<T> operation) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return operation.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package Sharding;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Disjoint short_url id ranges of the shards
+ *
+ * The second-level cache, the natural-id cache, invalidations and link versions key links
+ * by id alone, so two shards must never hand out the same id. Shard n owns the ids
+ * n * size + 1 to (n + 1) * size. On the first startup with sharding enabled, each shard
+ * database claims its range. The claim restarts the id column inside the range, adds the
+ * check constraint ck_short_url_id_range that rejects any other id, and records the range
+ * in short_url_id_range. Every later startup checks the recorded range, so a shard list
+ * that is reordered or resized fails on startup instead of mixing up links.
+ */
+public class ShardIdRanges {
+    private final long size;
+
+    /**
+     * @param size Number of ids per shard
+     */
+    public ShardIdRanges(long size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("The id range of a shard must be positive");
+        }
+        this.size = size;
+    }
+
+    /**
+     * @return Lowest id of a shard
+     */
+    public long min(int shard) {
+        return Math.multiplyExact(shard, size) + 1;
+    }
+
+    /**
+     * @return Highest id of a shard
+     */
+    public long max(int shard) {
+        return Math.multiplyExact(shard + 1L, size);
+    }
+
+    /**
+     * Claims a shard's range on first use, or checks the range it claimed before
+     *
+     * @param shard The shard
+     * @param jdbcTemplate Connected to the shard's database, after the migrations have run
+     * @throws IllegalStateException if the database holds ids outside the range, or claimed
+     *         a different range before
+     */
+    public void claim(int shard, JdbcTemplate jdbcTemplate) {
+        long min = min(shard);
+        long max = max(shard);
+        List<long[]> recorded = jdbcTemplate.query("SELECT min_id, max_id FROM short_url_id_range",
+                (rs, row) -> new long[] {rs.getLong(1), rs.getLong(2)});
+        if (!recorded.isEmpty()) {
+            long[] range = recorded.get(0);
+            if (range[0] != min || range[1] != max) {
+                throw new IllegalStateException("Shard " + shard + " owns short_url ids " + min + " to " + max
+                        + ", but its database claimed " + range[0] + " to " + range[1]
+                        + "; the shards must keep their order and id range");
+            }
+            return;
+        }
+        Long outside = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM short_url WHERE id < ? OR id > ?",
+                Long.class, min, max);
+        if (outside != null && outside > 0) {
+            throw new IllegalStateException("Shard " + shard + " holds " + outside + " short_url ids outside its range "
+                    + min + " to " + max);
+        }
+        Long highest = jdbcTemplate.queryForObject("SELECT MAX(id) FROM short_url", Long.class);
+        jdbcTemplate.execute("ALTER TABLE short_url ALTER COLUMN id RESTART WITH " + (highest == null ? min : highest + 1));
+        jdbcTemplate.execute("ALTER TABLE short_url ADD CONSTRAINT ck_short_url_id_range CHECK (id BETWEEN "
+                + min + " AND " + max + ")");
+        jdbcTemplate.update("INSERT INTO short_url_id_range (min_id, max_id) VALUES (?, ?)", min, max);
+    }
+}
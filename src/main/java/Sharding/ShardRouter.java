@@ -0,0 +1,74 @@
+package Sharding;
+
+/**
+ * Maps short codes to shards and encodes shard-local sequence values as codes
+ * 
+ * A code's shard is the position of its first character in the base62 alphabet,
+ * modulo the shard count. Codes generated for shard {@code s} start with the
+ * {@code s}-th alphabet character followed by the base62 sequence value, so they
+ * always route back to {@code s}. Legacy random codes route by the same rule.
+ */
+public class ShardRouter {
+    /** Base62 alphabet, in the same order used by the random generator */
+    public static final String ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    /** Minimum number of sequence characters after the shard prefix */
+    private static final int SEQUENCE_WIDTH = 5;
+
+    private final int shardCount;
+
+    public ShardRouter(int shardCount) {
+        if (shardCount < 1 || shardCount > ALPHABET.length()) {
+            throw new IllegalArgumentException("Shard count must be between 1 and " + ALPHABET.length());
+        }
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * @return Number of shards the keyspace is split into
+     */
+    public int shardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Determines which shard stores a short code
+     * 
+     * @param shortCode The short code to route
+     * @return Shard number in [0, shardCount)
+     */
+    public int shardOf(String shortCode) {
+        if (shardCount == 1 || shortCode == null || shortCode.isEmpty()) {
+            return 0;
+        }
+        int index = ALPHABET.indexOf(shortCode.charAt(0));
+        return index < 0 ? 0 : index % shardCount;
+    }
+
+    /**
+     * Encodes a shard-local sequence value as a short code routed to that shard
+     * 
+     * @param shard The shard the code belongs to
+     * @param sequence A non-negative sequence value leased for the shard
+     * @return Shard prefix followed by at least 5 base62 characters
+     */
+    public String encode(int shard, long sequence) {
+        if (shard < 0 || shard >= shardCount) {
+            throw new IllegalArgumentException("Unknown shard " + shard);
+        }
+        if (sequence < 0) {
+            throw new IllegalArgumentException("Sequence must not be negative");
+        }
+        char[] digits = new char[13];
+        int position = digits.length;
+        long value = sequence;
+        do {
+            digits[--position] = ALPHABET.charAt((int) (value % ALPHABET.length()));
+            value /= ALPHABET.length();
+        } while (value > 0);
+        while (digits.length - position < SEQUENCE_WIDTH) {
+            digits[--position] = ALPHABET.charAt(0);
+        }
+        return ALPHABET.charAt(shard) + new String(digits, position, digits.length - position);
+    }
+}
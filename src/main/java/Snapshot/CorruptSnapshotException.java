@@ -0,0 +1,13 @@
+package Snapshot;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a link-table snapshot is truncated, fails its checksum or is not a snapshot at all
+ */
+public class CorruptSnapshotException extends IOException {
+
+    public CorruptSnapshotException(String message) {
+        super(message);
+    }
+}
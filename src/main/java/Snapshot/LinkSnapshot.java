@@ -0,0 +1,42 @@
+package Snapshot;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Binary format of link-table snapshots, shared by {@link LinkSnapshotWriter} and {@link LinkSnapshotReader}
+ *
+ * Layout:
+ * - Header: magic, format version, shard, id watermark (the snapshot holds the links with a
+ *   higher id), as big-endian ints and longs
+ * - One record per link in ascending id order: varint of (id delta &lt;&lt; 1 | created_at is null),
+ *   the short code and the original URL as varint length plus UTF-8, and unless null the
+ *   zig-zag varint delta of created_at in epoch microseconds
+ * - A zero varint ending the records
+ * - Trailer: link count and last id as longs, then a CRC32 of everything before it
+ *
+ * Ids, creation times and string lengths of consecutive links are close together, so most
+ * records are their two strings plus four or five bytes.
+ */
+final class LinkSnapshot {
+    static final int MAGIC = 0x4C4E4B54; // "LNKT"
+    static final int VERSION = 1;
+
+    /** Longest short code or original URL accepted, in UTF-8 bytes */
+    static final int MAX_STRING_BYTES = 1 << 15;
+
+    /** Longest encoding of a varint */
+    static final int MAX_VARINT_BYTES = 10;
+
+    private LinkSnapshot() {
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,94 @@
+package Snapshot;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import Sharding.ShardContext;
+
+/**
+ * Exports the links of one shard into a link-table snapshot
+ *
+ * The 'short_url' table is read in id order, in keyset pages of its primary key, and every
+ * row is encoded straight into the snapshot, so an export holds one page at a time and no
+ * connection between pages.
+ *
+ * Incremental snapshots start after the last id of the previous one. An insert that
+ * committed after a later id was already exported would be missed that way; as importing
+ * skips links that are already there, a watermark somewhat below the last id is safe.
+ */
+public class LinkSnapshotExporter {
+    static final String PAGE_SQL = "SELECT id, short_code, original_url, created_at FROM short_url "
+            + "WHERE id > ? ORDER BY id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int shardCount;
+    private final int pageSize;
+
+    /**
+     * @param jdbcTemplate Template over the application datasource
+     * @param shardCount Number of shards
+     * @param pageSize Number of links read per query
+     */
+    public LinkSnapshotExporter(JdbcTemplate jdbcTemplate, int shardCount, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("The page size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardCount = shardCount;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * @return Number of shards, each exported into a snapshot of its own
+     */
+    public int shardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Writes the links of a shard with an id above the watermark
+     *
+     * @param shard Shard to export
+     * @param afterId Id watermark, 0 for all links
+     * @param out Stream the snapshot is written to; flushed, not closed
+     * @return What the snapshot holds
+     */
+    public SnapshotSummary export(int shard, long afterId, OutputStream out) throws IOException {
+        if (shard < 0 || shard >= shardCount) {
+            throw new IllegalArgumentException("Unknown shard " + shard);
+        }
+        LinkSnapshotWriter writer = new LinkSnapshotWriter(out, shard, afterId);
+        long watermark = afterId;
+        while (true) {
+            long before = watermark;
+            long[] last = {watermark};
+            int[] rows = {0};
+            try {
+                ShardContext.callOn(shard, () -> {
+                    jdbcTemplate.query(PAGE_SQL, resultSet -> {
+                        long id = resultSet.getLong(1);
+                        try {
+                            writer.write(id, resultSet.getString(2), resultSet.getString(3),
+                                    resultSet.getObject(4, LocalDateTime.class));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        last[0] = id;
+                        rows[0]++;
+                    }, before, pageSize);
+                    return null;
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            watermark = last[0];
+            if (rows[0] < pageSize) {
+                return writer.finish();
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package Snapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import Analytics.ReferrerDomain;
+import Cache.LinkVersions;
+import Sharding.ShardContext;
+
+/**
+ * Loads a link-table snapshot into the shard it was exported from
+ *
+ * The snapshot is streamed once, in a single transaction that commits only after the
+ * checksum at its end was verified, so a damaged snapshot leaves the table untouched. The
+ * links are staged in a temporary table without indexes, with COPY on PostgreSQL and batched
+ * inserts on H2, and then inserted in one statement that skips links whose id or short code
+ * already exist.
+ *
+ * Importing the same snapshot twice, or overlapping incremental snapshots, therefore inserts
+ * each link once. The target host of each link is computed while it is staged, as the
+ * snapshot does not carry it. Afterwards the identity of 'short_url' is moved past the highest id, so links
+ * created later do not collide with imported ones, and every link tag and the listing tag of
+ * {@link LinkVersions} change. The L2 cache needs no eviction: existing links are never changed.
+ */
+public class LinkSnapshotImporter {
+    static final String POSTGRES_STAGE_SQL = "CREATE TEMPORARY TABLE short_url_import "
+            + "(id BIGINT, short_code VARCHAR(255), original_url VARCHAR(255), created_at TIMESTAMP(6), "
+            + "target_host VARCHAR(255)) ON COMMIT DROP";
+    static final String COPY_SQL = "COPY short_url_import (id, short_code, original_url, created_at, target_host) "
+            + "FROM STDIN";
+    static final String POSTGRES_MERGE_SQL = "INSERT INTO short_url (id, short_code, original_url, created_at, "
+            + "target_host) SELECT id, short_code, original_url, created_at, target_host FROM short_url_import "
+            + "ON CONFLICT DO NOTHING";
+    static final String POSTGRES_IDENTITY_SQL = "SELECT setval(pg_get_serial_sequence('short_url', 'id'), "
+            + "GREATEST((SELECT MAX(id) FROM short_url), nextval(pg_get_serial_sequence('short_url', 'id')) - 1))";
+
+    static final String H2_DROP_STAGE_SQL = "DROP TABLE IF EXISTS short_url_import";
+    static final String H2_STAGE_SQL = "CREATE LOCAL TEMPORARY TABLE short_url_import "
+            + "(id BIGINT, short_code VARCHAR(255), original_url VARCHAR(255), created_at TIMESTAMP(6), "
+            + "target_host VARCHAR(255)) ON COMMIT DROP TRANSACTIONAL";
+    static final String H2_STAGE_INSERT_SQL = "INSERT INTO short_url_import "
+            + "(id, short_code, original_url, created_at, target_host) VALUES (?, ?, ?, ?, ?)";
+    static final String H2_MERGE_SQL = "INSERT INTO short_url (id, short_code, original_url, created_at, target_host) "
+            + "SELECT i.id, i.short_code, i.original_url, i.created_at, i.target_host FROM short_url_import i "
+            + "WHERE NOT EXISTS (SELECT 1 FROM short_url s WHERE s.id = i.id) "
+            + "AND NOT EXISTS (SELECT 1 FROM short_url s WHERE s.short_code = i.short_code)";
+    static final String H2_IDENTITY_SQL = "ALTER TABLE short_url ALTER COLUMN id RESTART WITH ";
+
+    private static final DateTimeFormatter COPY_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+    private static final int COPY_CHUNK_BYTES = 1 << 16;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean h2;
+    private final int shardCount;
+    private final int batchSize;
+    private final LinkVersions linkVersions;
+
+    /**
+     * @param jdbcTemplate Template over the application datasource
+     * @param h2 Whether the database is H2 rather than PostgreSQL
+     * @param shardCount Number of shards
+     * @param batchSize Number of links per staging batch on H2
+     * @param linkVersions Link tags to change once links were imported
+     */
+    public LinkSnapshotImporter(JdbcTemplate jdbcTemplate, boolean h2, int shardCount, int batchSize,
+            LinkVersions linkVersions) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.h2 = h2;
+        this.shardCount = shardCount;
+        this.batchSize = batchSize;
+        this.linkVersions = linkVersions;
+    }
+
+    /**
+     * Imports a snapshot
+     *
+     * @param in Stream the snapshot is read from; not closed
+     * @return What the snapshot held and how many of its links were inserted
+     * @throws CorruptSnapshotException if the snapshot is damaged; nothing is imported then
+     * @throws IllegalArgumentException if the snapshot is of a shard this node does not have
+     */
+    public SnapshotImport importFrom(InputStream in) throws IOException {
+        LinkSnapshotReader reader = new LinkSnapshotReader(in);
+        if (reader.shard() >= shardCount) {
+            throw new IllegalArgumentException("Snapshot of unknown shard " + reader.shard());
+        }
+        long imported;
+        try {
+            imported = ShardContext.callOn(reader.shard(), () -> jdbcTemplate.execute(
+                    (ConnectionCallback<Long>) connection -> inTransaction(connection, reader)));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (imported > 0) {
+            linkVersions.changedAll();
+        }
+        return new SnapshotImport(reader.summary(), imported);
+    }
+
+    private long inTransaction(Connection connection, LinkSnapshotReader reader) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            try (Statement statement = connection.createStatement()) {
+                if (h2) {
+                    // left over if an earlier import on this connection was rolled back
+                    statement.execute(H2_DROP_STAGE_SQL);
+                }
+                statement.execute(h2 ? H2_STAGE_SQL : POSTGRES_STAGE_SQL);
+            }
+            if (h2) {
+                stageBatched(connection, reader);
+            } else {
+                stageCopy(connection, reader);
+            }
+            long imported;
+            try (Statement statement = connection.createStatement()) {
+                imported = statement.executeUpdate(h2 ? H2_MERGE_SQL : POSTGRES_MERGE_SQL);
+            }
+            if (reader.summary().links() > 0) {
+                advanceIdentity(connection);
+            }
+            connection.commit();
+            return imported;
+        } catch (IOException e) {
+            connection.rollback();
+            throw new UncheckedIOException(e);
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void stageCopy(Connection connection, LinkSnapshotReader reader) throws SQLException, IOException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+        try {
+            ByteArrayOutputStream rows = new ByteArrayOutputStream(COPY_CHUNK_BYTES + 1024);
+            StringBuilder row = new StringBuilder(256);
+            while (reader.next()) {
+                row.setLength(0);
+                row.append(reader.id()).append('\t');
+                appendCopyText(row, reader.shortCode()).append('\t');
+                appendCopyText(row, reader.originalUrl()).append('\t');
+                row.append(reader.createdAt() == null ? "\\N" : COPY_TIMESTAMP.format(reader.createdAt()))
+                        .append('\t');
+                appendCopyText(row, ReferrerDomain.of(reader.originalUrl())).append('\n');
+                rows.writeBytes(row.toString().getBytes(StandardCharsets.UTF_8));
+                if (rows.size() >= COPY_CHUNK_BYTES) {
+                    copyIn.writeToCopy(rows.toByteArray(), 0, rows.size());
+                    rows.reset();
+                }
+            }
+            copyIn.writeToCopy(rows.toByteArray(), 0, rows.size());
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private void stageBatched(Connection connection, LinkSnapshotReader reader) throws SQLException, IOException {
+        long staged = 0;
+        try (PreparedStatement insert = connection.prepareStatement(H2_STAGE_INSERT_SQL)) {
+            while (reader.next()) {
+                insert.setLong(1, reader.id());
+                insert.setString(2, reader.shortCode());
+                insert.setString(3, reader.originalUrl());
+                insert.setTimestamp(4, reader.createdAt() == null ? null : Timestamp.valueOf(reader.createdAt()));
+                insert.setString(5, ReferrerDomain.of(reader.originalUrl()));
+                insert.addBatch();
+                if (++staged % batchSize == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private void advanceIdentity(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (h2) {
+                // H2 cannot take the restart value as a parameter or from a query
+                long maxId;
+                try (ResultSet resultSet = statement.executeQuery("SELECT MAX(id) FROM short_url")) {
+                    resultSet.next();
+                    maxId = resultSet.getLong(1);
+                }
+                statement.execute(H2_IDENTITY_SQL + (maxId + 1));
+            } else {
+                statement.execute(POSTGRES_IDENTITY_SQL);
+            }
+        }
+    }
+
+    private static StringBuilder appendCopyText(StringBuilder row, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> row.append("\\\\");
+                case '\t' -> row.append("\\t");
+                case '\n' -> row.append("\\n");
+                case '\r' -> row.append("\\r");
+                default -> row.append(c);
+            }
+        }
+        return row;
+    }
+}
@@ -0,0 +1,230 @@
+package Snapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.CRC32;
+
+/**
+ * Streams the links out of a link-table snapshot (see {@link LinkSnapshot} for the layout)
+ *
+ * A cursor: {@link #next()} decodes the following link into the accessors, without
+ * allocating more than its two strings. The checksum is computed while reading and compared
+ * once the last link is read, so callers must not let anything they did with the links
+ * become visible before {@link #next()} returned false. Any damage, including a stream that
+ * ends early or carries data after the trailer, is reported as a {@link CorruptSnapshotException}.
+ */
+public class LinkSnapshotReader {
+    private static final int BUFFER_BYTES = 1 << 17;
+
+    private final InputStream in;
+    private final CRC32 crc = new CRC32();
+    private final byte[] buffer = new byte[BUFFER_BYTES];
+    private int position;
+    private int limit;
+    private int checked;
+    private final int shard;
+    private final long afterId;
+    private long id;
+    private String shortCode;
+    private String originalUrl;
+    private LocalDateTime createdAt;
+    private long previousMicros;
+    private long links;
+    private boolean done;
+
+    /**
+     * Reads the header
+     *
+     * @param in Stream the snapshot is read from; not closed
+     */
+    public LinkSnapshotReader(InputStream in) throws IOException {
+        this.in = in;
+        ensure(3 * Integer.BYTES + Long.BYTES);
+        if (readInt() != LinkSnapshot.MAGIC) {
+            throw new CorruptSnapshotException("Not a link snapshot");
+        }
+        int version = readInt();
+        if (version != LinkSnapshot.VERSION) {
+            throw new CorruptSnapshotException("Unsupported link snapshot version " + version);
+        }
+        shard = readInt();
+        afterId = readLong();
+        if (shard < 0 || afterId < 0) {
+            throw new CorruptSnapshotException("Link snapshot header is damaged");
+        }
+        id = afterId;
+    }
+
+    /**
+     * @return Shard the links were exported from
+     */
+    public int shard() {
+        return shard;
+    }
+
+    /**
+     * @return Id watermark: the snapshot holds the links with a higher id
+     */
+    public long afterId() {
+        return afterId;
+    }
+
+    /**
+     * Moves to the next link
+     *
+     * @return True if a link was read, false once the snapshot is read to the end and its checksum verified
+     * @throws CorruptSnapshotException if the snapshot is damaged
+     */
+    public boolean next() throws IOException {
+        if (done) {
+            return false;
+        }
+        ensure(LinkSnapshot.MAX_VARINT_BYTES);
+        long head = readVarLong();
+        if (head == 0) {
+            readTrailer();
+            done = true;
+            return false;
+        }
+        long nextId = id + (head >>> 1);
+        if (head == 1 || nextId <= id) {
+            throw new CorruptSnapshotException("Link snapshot is damaged after id " + id);
+        }
+        id = nextId;
+        shortCode = readString();
+        originalUrl = readString();
+        if ((head & 1) == 0) {
+            ensure(LinkSnapshot.MAX_VARINT_BYTES);
+            long delta = readVarLong();
+            previousMicros += delta >>> 1 ^ -(delta & 1);
+            createdAt = LinkSnapshot.fromMicros(previousMicros);
+        } else {
+            createdAt = null;
+        }
+        links++;
+        return true;
+    }
+
+    /**
+     * @return Id of the current link
+     */
+    public long id() {
+        return id;
+    }
+
+    /**
+     * @return Short code of the current link
+     */
+    public String shortCode() {
+        return shortCode;
+    }
+
+    /**
+     * @return Original URL of the current link
+     */
+    public String originalUrl() {
+        return originalUrl;
+    }
+
+    /**
+     * @return Creation time of the current link, or null if unknown
+     */
+    public LocalDateTime createdAt() {
+        return createdAt;
+    }
+
+    /**
+     * @return What the snapshot holds; only once {@link #next()} returned false
+     */
+    public SnapshotSummary summary() {
+        if (!done) {
+            throw new IllegalStateException("The snapshot is not read to the end yet");
+        }
+        return new SnapshotSummary(shard, afterId, links, id);
+    }
+
+    private void readTrailer() throws IOException {
+        ensure(2 * Long.BYTES + Integer.BYTES);
+        long count = readLong();
+        long lastId = readLong();
+        crc.update(buffer, checked, position - checked);
+        checked = position;
+        int storedCrc = readInt();
+        if (storedCrc != (int) crc.getValue() || count != links || lastId != id) {
+            throw new CorruptSnapshotException("Link snapshot failed its checksum");
+        }
+        if (position < limit || in.read() != -1) {
+            throw new CorruptSnapshotException("Link snapshot has data after its trailer");
+        }
+    }
+
+    private String readString() throws IOException {
+        ensure(LinkSnapshot.MAX_VARINT_BYTES);
+        long length = readVarLong();
+        if (length > LinkSnapshot.MAX_STRING_BYTES) {
+            throw new CorruptSnapshotException("Link snapshot is damaged after id " + id);
+        }
+        ensure((int) length);
+        if (limit - position < length) {
+            throw new CorruptSnapshotException("Link snapshot is truncated");
+        }
+        String value = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+        position += (int) length;
+        return value;
+    }
+
+    /**
+     * Makes at least the given number of bytes available unless the stream ends first,
+     * checksumming the consumed bytes before they are dropped from the buffer
+     */
+    private void ensure(int bytes) throws IOException {
+        if (limit - position >= bytes) {
+            return;
+        }
+        crc.update(buffer, checked, position - checked);
+        System.arraycopy(buffer, position, buffer, 0, limit - position);
+        limit -= position;
+        position = 0;
+        checked = 0;
+        while (limit < bytes) {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                return;
+            }
+            limit += read;
+        }
+    }
+
+    private byte readByte() throws IOException {
+        if (position == limit) {
+            throw new CorruptSnapshotException("Link snapshot is truncated");
+        }
+        return buffer[position++];
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new CorruptSnapshotException("Link snapshot is damaged after id " + id);
+    }
+
+    private int readInt() throws IOException {
+        int value = 0;
+        for (int i = 0; i < Integer.BYTES; i++) {
+            value = value << 8 | readByte() & 0xFF;
+        }
+        return value;
+    }
+
+    private long readLong() throws IOException {
+        return (long) readInt() << 32 | readInt() & 0xFFFFFFFFL;
+    }
+}
@@ -0,0 +1,140 @@
+package Snapshot;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.CRC32;
+
+/**
+ * Streams links into a link-table snapshot (see {@link LinkSnapshot} for the layout)
+ *
+ * Records are encoded into a buffer of its own that is checksummed and written a block at
+ * a time, so a snapshot of millions of links costs one CRC update and one write per 128 KB.
+ * The stream is not closed; {@link #finish()} writes the trailer and flushes it.
+ */
+public class LinkSnapshotWriter {
+    private static final int BUFFER_BYTES = 1 << 17;
+
+    private final OutputStream out;
+    private final int shard;
+    private final long afterId;
+    private final CRC32 crc = new CRC32();
+    private final byte[] buffer = new byte[BUFFER_BYTES];
+    private int position;
+    private long previousId;
+    private long previousMicros;
+    private long links;
+    private boolean finished;
+
+    /**
+     * Writes the header
+     *
+     * @param out Stream the snapshot is written to
+     * @param shard Shard the links are exported from
+     * @param afterId Id watermark; only links with a higher id may be written
+     */
+    public LinkSnapshotWriter(OutputStream out, int shard, long afterId) throws IOException {
+        if (shard < 0 || afterId < 0) {
+            throw new IllegalArgumentException("The shard and id watermark must not be negative");
+        }
+        this.out = out;
+        this.shard = shard;
+        this.afterId = afterId;
+        this.previousId = afterId;
+        writeInt(LinkSnapshot.MAGIC);
+        writeInt(LinkSnapshot.VERSION);
+        writeInt(shard);
+        writeLong(afterId);
+    }
+
+    /**
+     * Appends a link
+     *
+     * @param id Id of the link, higher than that of the previous link and than the watermark
+     * @param shortCode Short code
+     * @param originalUrl Original URL
+     * @param createdAt Creation time, or null if unknown
+     */
+    public void write(long id, String shortCode, String originalUrl, LocalDateTime createdAt) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("The snapshot is already finished");
+        }
+        if (id <= previousId) {
+            throw new IllegalArgumentException("Link " + id + " is not above " + previousId
+                    + "; links must be written in ascending id order");
+        }
+        byte[] code = shortCode.getBytes(StandardCharsets.UTF_8);
+        byte[] url = originalUrl.getBytes(StandardCharsets.UTF_8);
+        if (code.length > LinkSnapshot.MAX_STRING_BYTES || url.length > LinkSnapshot.MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Link " + id + " is too long for a snapshot");
+        }
+        ensure(3 * LinkSnapshot.MAX_VARINT_BYTES + code.length + url.length);
+        writeVarLong((id - previousId) << 1 | (createdAt == null ? 1 : 0));
+        writeBytes(code);
+        writeBytes(url);
+        if (createdAt != null) {
+            long micros = LinkSnapshot.toMicros(createdAt);
+            long delta = micros - previousMicros;
+            writeVarLong(delta << 1 ^ delta >> 63);
+            previousMicros = micros;
+        }
+        previousId = id;
+        links++;
+    }
+
+    /**
+     * Ends the records, writes the trailer and flushes the stream
+     *
+     * @return What the snapshot holds
+     */
+    public SnapshotSummary finish() throws IOException {
+        if (!finished) {
+            finished = true;
+            ensure(1 + 2 * Long.BYTES + Integer.BYTES);
+            writeVarLong(0);
+            writeLong(links);
+            writeLong(previousId);
+            crc.update(buffer, 0, position);
+            // the checksum does not cover itself
+            writeInt((int) crc.getValue());
+            out.write(buffer, 0, position);
+            position = 0;
+            out.flush();
+        }
+        return new SnapshotSummary(shard, afterId, links, previousId);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (position + bytes > buffer.length) {
+            crc.update(buffer, 0, position);
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private void writeBytes(byte[] bytes) {
+        writeVarLong(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeInt(int value) {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+}
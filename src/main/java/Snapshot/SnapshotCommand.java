@@ -0,0 +1,110 @@
+package Snapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+
+/**
+ * Command-line mode exporting or importing a link-table snapshot file
+ *
+ * Started through the application's main method with one of:
+ * - --snapshot.export=FILE [--snapshot.shard=N] [--snapshot.after-id=ID]: writes the links of
+ *   a shard (default 0) with an id above the watermark (default 0, all links) to FILE
+ * - --snapshot.import=FILE: loads FILE into the shard it was exported from
+ *
+ * The application then runs without a web server and exits once the command is done, with a
+ * non-zero status if it failed. An export is written next to FILE and renamed over it once
+ * complete, so FILE is never a partial snapshot.
+ */
+public class SnapshotCommand implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(SnapshotCommand.class);
+
+    static final String EXPORT = "snapshot.export";
+    static final String IMPORT = "snapshot.import";
+    static final String SHARD = "snapshot.shard";
+    static final String AFTER_ID = "snapshot.after-id";
+
+    private final LinkSnapshotExporter exporter;
+    private final LinkSnapshotImporter importer;
+
+    /**
+     * @param exporter Exports the links of a shard
+     * @param importer Imports snapshots
+     */
+    public SnapshotCommand(LinkSnapshotExporter exporter, LinkSnapshotImporter importer) {
+        this.exporter = exporter;
+        this.importer = importer;
+    }
+
+    /**
+     * @param args Command-line arguments of the application
+     * @return Whether they ask for a snapshot export or import
+     */
+    public static boolean isRequested(String... args) {
+        return Arrays.stream(args).anyMatch(arg -> arg.startsWith("--" + EXPORT + "=")
+                || arg.startsWith("--" + IMPORT + "="));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        long start = System.nanoTime();
+        if (args.containsOption(EXPORT)) {
+            Path file = Path.of(single(args, EXPORT));
+            int shard = Integer.parseInt(optional(args, SHARD, "0"));
+            long afterId = Long.parseLong(optional(args, AFTER_ID, "0"));
+            SnapshotSummary summary = export(file, shard, afterId);
+            log.info("Exported {} links of shard {} after id {} to {} in {} ms; next watermark {}",
+                    summary.links(), shard, afterId, file, elapsedMillis(start), summary.lastId());
+        } else if (args.containsOption(IMPORT)) {
+            Path file = Path.of(single(args, IMPORT));
+            SnapshotImport result;
+            try (InputStream in = Files.newInputStream(file)) {
+                result = importer.importFrom(in);
+            }
+            log.info("Imported {} of {} links into shard {} from {} in {} ms", result.imported(),
+                    result.snapshot().links(), result.snapshot().shard(), file, elapsedMillis(start));
+        }
+    }
+
+    private SnapshotSummary export(Path file, int shard, long afterId) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        SnapshotSummary summary;
+        try (OutputStream out = Files.newOutputStream(temporary)) {
+            summary = exporter.export(shard, afterId, out);
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return summary;
+    }
+
+    private static String single(ApplicationArguments args, String name) {
+        List<String> values = args.getOptionValues(name);
+        if (values == null || values.size() != 1 || values.get(0).isBlank()) {
+            throw new IllegalArgumentException("--" + name + " takes exactly one value");
+        }
+        return values.get(0);
+    }
+
+    private static String optional(ApplicationArguments args, String name, String defaultValue) {
+        return args.containsOption(name) ? single(args, name) : defaultValue;
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,10 @@
+package Snapshot;
+
+/**
+ * Outcome of importing a link-table snapshot
+ *
+ * @param snapshot What the snapshot held
+ * @param imported Number of links inserted; links whose id or short code already existed were skipped
+ */
+public record SnapshotImport(SnapshotSummary snapshot, long imported) {
+}
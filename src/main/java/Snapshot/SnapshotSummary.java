@@ -0,0 +1,12 @@
+package Snapshot;
+
+/**
+ * What a link-table snapshot holds, from its header and trailer
+ *
+ * @param shard Shard the links were exported from
+ * @param afterId Id watermark: the snapshot holds the links with a higher id
+ * @param links Number of links in the snapshot
+ * @param lastId Highest id in the snapshot, or afterId if it is empty; the watermark of the next incremental snapshot
+ */
+public record SnapshotSummary(int shard, long afterId, long links, long lastId) {
+}
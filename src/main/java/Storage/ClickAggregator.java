@@ -0,0 +1,351 @@
+package Storage;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import Analytics.BrowserFamily;
+import Analytics.DeviceClass;
+import Analytics.GeoIpLookup;
+import Analytics.HyperLogLog;
+import Analytics.OsFamily;
+import Analytics.ReferrerDomain;
+import DTO.ClickBreakdown;
+import Model.ClickStats;
+import Sharding.ShardContext;
+
+/**
+ * Maintains hourly click counts per link and click dimension
+ *
+ * Written clicks are counted in memory per (link, hour, browser, OS, device, country, bot) and the
+ * counts are added to the 'click_aggregate' table every flush interval with one batched
+ * upsert per shard, so a link's breakdown is read from a handful of aggregate rows instead
+ * of its raw clicks. Breakdowns therefore lag the click tables by up to one flush interval,
+ * and counts not yet flushed are lost if the node crashes.
+ *
+ * The upsert uses INSERT ... ON CONFLICT on PostgreSQL and MERGE on H2.
+ *
+ * Human clicks are also rolled up per (hour, link, referrer domain, country, device) into
+ * 'click_rollup', together with a {@link HyperLogLog} sketch of their visitors, for the
+ * analytics queries of {@link ClickRollupReader}. Sketches cannot be merged in SQL, so each
+ * flush locks the existing rows of its hours and links (SELECT ... FOR UPDATE), merges them
+ * in memory and writes them back in one transaction per shard, retried if another node
+ * inserted the same row first.
+ */
+public class ClickAggregator implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ClickAggregator.class);
+
+    static final String POSTGRES_UPSERT_SQL = "INSERT INTO click_aggregate "
+            + "(short_url_id, bucket_start, browser, os, device, country, bot, clicks) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (short_url_id, bucket_start, browser, os, device, country, bot) "
+            + "DO UPDATE SET clicks = click_aggregate.clicks + EXCLUDED.clicks";
+
+    static final String H2_UPSERT_SQL = "MERGE INTO click_aggregate t USING (VALUES (CAST(? AS BIGINT), "
+            + "CAST(? AS TIMESTAMP(6)), CAST(? AS SMALLINT), CAST(? AS SMALLINT), CAST(? AS SMALLINT), "
+            + "CAST(? AS VARCHAR(2)), CAST(? AS BOOLEAN), CAST(? AS BIGINT))) "
+            + "s (short_url_id, bucket_start, browser, os, device, country, bot, clicks) "
+            + "ON t.short_url_id = s.short_url_id AND t.bucket_start = s.bucket_start AND t.browser = s.browser "
+            + "AND t.os = s.os AND t.device = s.device AND t.country = s.country AND t.bot = s.bot "
+            + "WHEN MATCHED THEN UPDATE SET t.clicks = t.clicks + s.clicks "
+            + "WHEN NOT MATCHED THEN INSERT (short_url_id, bucket_start, browser, os, device, country, bot, clicks) "
+            + "VALUES (s.short_url_id, s.bucket_start, s.browser, s.os, s.device, s.country, s.bot, s.clicks)";
+
+    static final String BREAKDOWN_SQL = "SELECT browser, os, device, country, bot, SUM(clicks) "
+            + "FROM click_aggregate WHERE short_url_id = ? GROUP BY browser, os, device, country, bot";
+
+    static final String MOST_CLICKED_SQL = "SELECT short_url_id FROM click_aggregate "
+            + "WHERE bucket_start >= ? AND bot = FALSE GROUP BY short_url_id ORDER BY SUM(clicks) DESC LIMIT ?";
+
+    static final String ROLLUP_LOCK_SQL = "SELECT short_url_id, referrer_domain, country, device, clicks, visitors "
+            + "FROM click_rollup WHERE bucket_start = ? AND short_url_id IN (%s) "
+            + "ORDER BY short_url_id, referrer_domain, country, device FOR UPDATE";
+
+    static final String ROLLUP_UPDATE_SQL = "UPDATE click_rollup SET clicks = ?, visitors = ? WHERE bucket_start = ? "
+            + "AND short_url_id = ? AND referrer_domain = ? AND country = ? AND device = ?";
+
+    static final String ROLLUP_INSERT_SQL = "INSERT INTO click_rollup "
+            + "(clicks, visitors, bucket_start, short_url_id, referrer_domain, country, device) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    /** Number of links whose rollup rows are locked with one query */
+    static final int ROLLUP_LOCK_CHUNK = 500;
+
+    private static final int ROLLUP_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String upsertSql;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService scheduler;
+    private Map<Bucket, Long> counts = new HashMap<>();
+    private Map<RollupKey, RollupCounts> rollups = new HashMap<>();
+
+    /**
+     * @param jdbcTemplate Template over the application datasource
+     * @param h2 Whether the database is H2 rather than PostgreSQL
+     * @param flushIntervalMillis How often counts are written; 0 disables the timer
+     */
+    public ClickAggregator(JdbcTemplate jdbcTemplate, boolean h2, long flushIntervalMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.upsertSql = h2 ? H2_UPSERT_SQL : POSTGRES_UPSERT_SQL;
+        this.transactionTemplate = new TransactionTemplate(
+                new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "click-aggregator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (flushIntervalMillis > 0) {
+            scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Counts clicks that have been written to the click table
+     *
+     * @param shard The shard owning the clicks' links
+     * @param clicks Clicks with shortUrlId set
+     */
+    public synchronized void add(int shard, List<ClickStats> clicks) {
+        for (ClickStats click : clicks) {
+            counts.merge(Bucket.of(shard, click), 1L, Long::sum);
+            if (!click.isBot()) {
+                rollups.computeIfAbsent(RollupKey.of(shard, click), key -> new RollupCounts())
+                        .add(HyperLogLog.hash(click.getIpAddress(), click.getUserAgent()));
+            }
+        }
+    }
+
+    /**
+     * Adds the counts collected since the last flush to the aggregate and rollup tables
+     */
+    public void flush() {
+        Map<Bucket, Long> pending;
+        Map<RollupKey, RollupCounts> pendingRollups;
+        synchronized (this) {
+            if (counts.isEmpty()) {
+                return;
+            }
+            pending = counts;
+            counts = new HashMap<>();
+            pendingRollups = rollups;
+            rollups = new HashMap<>();
+        }
+        Map<Integer, List<Object[]>> rowsByShard = new HashMap<>();
+        pending.forEach((bucket, clicks) -> rowsByShard.computeIfAbsent(bucket.shard(), shard -> new ArrayList<>())
+                .add(new Object[] {bucket.shortUrlId(), Timestamp.valueOf(bucket.start()), bucket.browser(),
+                    bucket.os(), bucket.device(), bucket.country(), bucket.bot(), clicks}));
+        rowsByShard.forEach((shard, rows) -> {
+            try {
+                ShardContext.callOn(shard, () -> jdbcTemplate.batchUpdate(upsertSql, rows));
+            } catch (RuntimeException e) {
+                log.warn("Failed to write {} click aggregates to shard {}", rows.size(), shard, e);
+            }
+        });
+        Map<Integer, Map<RollupKey, RollupCounts>> rollupsByShard = new HashMap<>();
+        pendingRollups.forEach((key, rollup) -> rollupsByShard
+                .computeIfAbsent(key.shard(), shard -> new HashMap<>()).put(key, rollup));
+        rollupsByShard.forEach((shard, shardRollups) -> {
+            try {
+                ShardContext.callOn(shard, () -> writeRollups(shardRollups));
+            } catch (RuntimeException e) {
+                log.warn("Failed to write {} click rollups to shard {}", shardRollups.size(), shard, e);
+            }
+        });
+    }
+
+    /**
+     * Reads a link's click counts per dimension from the aggregate table
+     *
+     * Must be called in the shard context of the link.
+     *
+     * @param shortCode The link's short code, copied into the result
+     * @param shortUrlId The link's id
+     * @return The breakdown; empty if the link has no flushed clicks
+     */
+    public ClickBreakdown breakdown(String shortCode, long shortUrlId) {
+        ClickBreakdown breakdown = new ClickBreakdown(shortCode);
+        jdbcTemplate.query(BREAKDOWN_SQL, resultSet -> {
+            breakdown.add(BrowserFamily.values()[resultSet.getShort(1)], OsFamily.values()[resultSet.getShort(2)],
+                    DeviceClass.values()[resultSet.getShort(3)], resultSet.getString(4), resultSet.getBoolean(5),
+                    resultSet.getLong(6));
+        }, shortUrlId);
+        return breakdown;
+    }
+
+    /**
+     * Finds the links with the most human clicks in the flushed aggregates
+     *
+     * Must be called in the shard context to read.
+     *
+     * @param count Maximum number of links
+     * @param since Start of the counted period; earlier hours are ignored
+     * @return Ids of the links, most clicked first
+     */
+    public List<Long> mostClickedLinkIds(int count, LocalDateTime since) {
+        return jdbcTemplate.queryForList(MOST_CLICKED_SQL, Long.class, Timestamp.valueOf(since), count);
+    }
+
+    /**
+     * Stops the timer and writes the remaining counts
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Merges rollups into 'click_rollup' on the current shard, retrying when another node
+     * inserted one of the rows first or the row locks deadlocked
+     */
+    private Void writeRollups(Map<RollupKey, RollupCounts> pending) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> mergeRollups(pending));
+                return null;
+            } catch (DuplicateKeyException | ConcurrencyFailureException e) {
+                if (attempt == ROLLUP_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void mergeRollups(Map<RollupKey, RollupCounts> pending) {
+        // rows are locked in a fixed order (hour, then link) so concurrent flushes do not deadlock
+        TreeMap<LocalDateTime, TreeMap<Long, List<RollupKey>>> keysByHour = new TreeMap<>();
+        for (RollupKey key : pending.keySet()) {
+            keysByHour.computeIfAbsent(key.bucketStart(), hour -> new TreeMap<>())
+                    .computeIfAbsent(key.shortUrlId(), id -> new ArrayList<>()).add(key);
+        }
+        HyperLogLog sketch = new HyperLogLog();
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        keysByHour.forEach((hour, keysByLink) -> {
+            List<Long> linkIds = new ArrayList<>(keysByLink.keySet());
+            for (int from = 0; from < linkIds.size(); from += ROLLUP_LOCK_CHUNK) {
+                List<Long> chunk = linkIds.subList(from, Math.min(linkIds.size(), from + ROLLUP_LOCK_CHUNK));
+                Map<RollupKey, RollupRow> existing = lockRollups(hour, chunk);
+                for (Long linkId : chunk) {
+                    for (RollupKey key : keysByLink.get(linkId)) {
+                        RollupCounts rollup = pending.get(key);
+                        RollupRow row = existing.get(key.onShard(0));
+                        long clicks = rollup.clicks;
+                        sketch.clear();
+                        if (row != null) {
+                            clicks += row.clicks();
+                            sketch.merge(row.visitors());
+                        }
+                        for (int i = 0; i < rollup.size; i++) {
+                            sketch.addHash(rollup.visitors[i]);
+                        }
+                        (row == null ? inserts : updates).add(new Object[] {clicks, sketch.toBytes(),
+                            Timestamp.valueOf(hour), key.shortUrlId(), key.referrerDomain(), key.country(),
+                            key.device()});
+                    }
+                }
+            }
+        });
+        jdbcTemplate.batchUpdate(ROLLUP_UPDATE_SQL, updates);
+        jdbcTemplate.batchUpdate(ROLLUP_INSERT_SQL, inserts);
+    }
+
+    /**
+     * Reads and locks the rollup rows of some links in one hour
+     */
+    private Map<RollupKey, RollupRow> lockRollups(LocalDateTime hour, List<Long> linkIds) {
+        List<Object> arguments = new ArrayList<>(linkIds.size() + 1);
+        arguments.add(Timestamp.valueOf(hour));
+        arguments.addAll(linkIds);
+        String sql = String.format(ROLLUP_LOCK_SQL, String.join(", ", Collections.nCopies(linkIds.size(), "?")));
+        Map<RollupKey, RollupRow> rows = new HashMap<>();
+        jdbcTemplate.query(sql, resultSet -> {
+            rows.put(new RollupKey(0, hour, resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3),
+                    resultSet.getShort(4)), new RollupRow(resultSet.getLong(5), resultSet.getBytes(6)));
+        }, arguments.toArray());
+        return rows;
+    }
+
+    /**
+     * One rollup row: an hour, a link, a referrer domain, a country and a device class (as ordinal)
+     */
+    private record RollupKey(int shard, LocalDateTime bucketStart, long shortUrlId, String referrerDomain,
+            String country, short device) {
+
+        static RollupKey of(int shard, ClickStats click) {
+            return new RollupKey(shard, click.getClickedAt().truncatedTo(ChronoUnit.HOURS), click.getShortUrlId(),
+                    ReferrerDomain.of(click.getReferrer()),
+                    click.getCountry() == null ? GeoIpLookup.UNKNOWN : click.getCountry(),
+                    Bucket.ordinal(click.getDevice()));
+        }
+
+        RollupKey onShard(int other) {
+            return other == shard ? this : new RollupKey(other, bucketStart, shortUrlId, referrerDomain, country, device);
+        }
+    }
+
+    /**
+     * Stored values of a rollup row
+     */
+    private record RollupRow(long clicks, byte[] visitors) {
+    }
+
+    /**
+     * Clicks of one rollup row since the last flush and the hashes of their visitors
+     */
+    private static final class RollupCounts {
+        long clicks;
+        long[] visitors = new long[4];
+        int size;
+
+        void add(long visitor) {
+            clicks++;
+            if (size == visitors.length) {
+                visitors = Arrays.copyOf(visitors, size * 2);
+            }
+            visitors[size++] = visitor;
+        }
+    }
+
+    /**
+     * One aggregate row: a link, an hour and a combination of dimensions (enums as ordinals)
+     */
+    private record Bucket(int shard, long shortUrlId, LocalDateTime start, short browser, short os,
+            short device, String country, boolean bot) {
+
+        static Bucket of(int shard, ClickStats click) {
+            return new Bucket(shard, click.getShortUrlId(), click.getClickedAt().truncatedTo(ChronoUnit.HOURS),
+                    ordinal(click.getBrowser()), ordinal(click.getOs()), ordinal(click.getDevice()),
+                    click.getCountry() == null ? GeoIpLookup.UNKNOWN : click.getCountry(), click.isBot());
+        }
+
+        private static short ordinal(Enum<?> value) {
+            return (short) (value == null ? 0 : value.ordinal());
+        }
+    }
+}
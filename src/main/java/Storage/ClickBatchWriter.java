@@ -0,0 +1,121 @@
+package Storage;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
+
+import Model.ClickStats;
+import Sharding.ShardContext;
+
+/**
+ * Inserts clicks with plain batched JDBC
+ *
+ * No entity is loaded, persisted or kept in a persistence context: each click carries its
+ * link's id and is bound straight into a batched INSERT. Ids come from click_stats_seq in
+ * blocks of {@link ClickStats#ID_ALLOCATION_SIZE}, with the same pooled-lo interpretation
+ * Hibernate uses, so one sequence call covers a full batch. Blocks are kept per shard,
+ * since every shard has its own sequence.
+ *
+ * Referrer and User-Agent headers are cut to the width of their columns: a single click
+ * with a longer header would otherwise fail the whole batch, and every click in it.
+ */
+public class ClickBatchWriter {
+    static final String INSERT_SQL = "INSERT INTO click_stats "
+            + "(id, clicked_at, ip_address, referrer, user_agent, browser, os, device, country, bot, short_url_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /** Width of the click_stats.referrer and click_stats.user_agent columns */
+    static final int MAX_HEADER_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataFieldMaxValueIncrementer idSequence;
+    private final Map<Integer, IdBlock> idBlocks = new HashMap<>();
+
+    public ClickBatchWriter(JdbcTemplate jdbcTemplate, DataFieldMaxValueIncrementer idSequence) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idSequence = idSequence;
+    }
+
+    /**
+     * Inserts clicks on one shard as a single JDBC batch
+     *
+     * @param shard The shard owning the clicks' links
+     * @param clicks Clicks with shortUrlId set; their ids are assigned here
+     */
+    public void insert(int shard, List<ClickStats> clicks) {
+        if (clicks.isEmpty()) {
+            return;
+        }
+        ShardContext.callOn(shard, () -> {
+            for (ClickStats click : clicks) {
+                click.setId(nextId(shard));
+            }
+            return jdbcTemplate.batchUpdate(INSERT_SQL, clicks, clicks.size(), ClickBatchWriter::bind);
+        });
+    }
+
+    private synchronized long nextId(int shard) {
+        IdBlock block = idBlocks.computeIfAbsent(shard, key -> new IdBlock());
+        if (block.next >= block.limit) {
+            block.next = idSequence.nextLongValue();
+            block.limit = block.next + ClickStats.ID_ALLOCATION_SIZE;
+        }
+        return block.next++;
+    }
+
+    private static void bind(PreparedStatement statement, ClickStats click) throws SQLException {
+        statement.setLong(1, click.getId());
+        statement.setTimestamp(2, Timestamp.valueOf(click.getClickedAt()));
+        statement.setString(3, click.getIpAddress());
+        statement.setString(4, truncate(click.getReferrer()));
+        statement.setString(5, truncate(click.getUserAgent()));
+        setOrdinal(statement, 6, click.getBrowser());
+        setOrdinal(statement, 7, click.getOs());
+        setOrdinal(statement, 8, click.getDevice());
+        statement.setString(9, click.getCountry());
+        statement.setBoolean(10, click.isBot());
+        if (click.getShortUrlId() == null) {
+            statement.setNull(11, Types.BIGINT);
+        } else {
+            statement.setLong(11, click.getShortUrlId());
+        }
+    }
+
+    /**
+     * Cuts a header value to {@value #MAX_HEADER_LENGTH} characters, without splitting a surrogate pair
+     */
+    static String truncate(String value) {
+        if (value == null || value.length() <= MAX_HEADER_LENGTH) {
+            return value;
+        }
+        int end = Character.isHighSurrogate(value.charAt(MAX_HEADER_LENGTH - 1)) ? MAX_HEADER_LENGTH - 1
+                : MAX_HEADER_LENGTH;
+        return value.substring(0, end);
+    }
+
+    /**
+     * Dimension enums are stored by ordinal, as mapped on {@link ClickStats}
+     */
+    private static void setOrdinal(PreparedStatement statement, int index, Enum<?> value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.SMALLINT);
+        } else {
+            statement.setShort(index, (short) value.ordinal());
+        }
+    }
+
+    /**
+     * Range of ids [next, limit) drawn from one sequence value
+     */
+    private static final class IdBlock {
+        long next;
+        long limit;
+    }
+}
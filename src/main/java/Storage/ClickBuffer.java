@@ -0,0 +1,227 @@
+package Storage;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import Cache.LinkVersions;
+import Model.ClickStats;
+import lombok.Builder;
+
+/**
+ * Collects recorded clicks and writes them in JDBC batches
+ *
+ * Redirects only enqueue their click; a background thread writes every full batch as soon
+ * as it is waiting, and whatever is left every flush interval, handing the clicks to the
+ * {@link ClickBatchWriter} grouped by shard. Click statistics therefore lag redirects by
+ * at most one flush interval. Written clicks are then counted by the {@link ClickAggregator},
+ * if one is configured, and their links reported to {@link LinkVersions}, so ETags change
+ * only once the clicks are readable. If the database falls behind, the queue is capped at
+ * {@code maxPending} clicks and further clicks are dropped (and counted) rather than
+ * exhausting the heap.
+ *
+ * A batch that fails to write goes back to the queue, as far as the cap allows, and is retried
+ * by the next timed flush; until a write succeeds again, full batches no longer trigger writes
+ * of their own, so a failing database is tried once per flush interval rather than per batch.
+ */
+public class ClickBuffer implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ClickBuffer.class);
+
+    private final ClickBatchWriter writer;
+    private final ClickAggregator aggregator;
+    private final LinkVersions versions;
+    private final int batchSize;
+    private final int maxPending;
+    private final ConcurrentLinkedQueue<PendingClick> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean writeFailed;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Created through {@link #builder()}; aggregator and versions may be left unset
+     *
+     * @param writer Writes the batches
+     * @param aggregator Counts the written clicks; null for no aggregation
+     * @param versions Told which links got new clicks once they are written; null for none
+     * @param flushIntervalMillis Maximum time a click waits in the buffer; 0 disables the timer
+     * @param batchSize Number of clicks per JDBC batch
+     * @param maxPending Maximum number of buffered clicks
+     */
+    @Builder
+    private ClickBuffer(ClickBatchWriter writer, ClickAggregator aggregator, LinkVersions versions,
+            long flushIntervalMillis, int batchSize, int maxPending) {
+        if (batchSize <= 0 || maxPending <= 0) {
+            throw new IllegalArgumentException("Batch size and maximum pending clicks must be positive");
+        }
+        this.writer = writer;
+        this.aggregator = aggregator;
+        this.versions = versions;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "click-buffer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (flushIntervalMillis > 0) {
+            scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Queues a click for writing
+     *
+     * @param shard The shard owning the click's link
+     * @param click The click, with shortUrlId set
+     */
+    public void add(int shard, ClickStats click) {
+        if (pendingCount.incrementAndGet() > maxPending) {
+            pendingCount.decrementAndGet();
+            if (dropped.incrementAndGet() % 10_000 == 1) {
+                log.warn("Click buffer full, {} clicks dropped so far", dropped.get());
+            }
+            return;
+        }
+        pending.add(new PendingClick(shard, click));
+        if (pendingCount.get() >= batchSize && !writeFailed && flushRequested.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(() -> drain(false));
+            } catch (RejectedExecutionException shuttingDown) {
+                // close() writes whatever is still queued
+            }
+        }
+    }
+
+    /**
+     * Writes all buffered clicks
+     *
+     * Runs on the buffer's thread for timed flushes; callers may also invoke it directly,
+     * e.g. on shutdown.
+     */
+    public void flush() {
+        drain(true);
+    }
+
+    /**
+     * Writes buffered clicks in batches of {@code batchSize}
+     *
+     * Only the clicks queued when the drain starts are taken, so clicks put back after a failed
+     * write wait for the next flush. Once a shard's write fails, its remaining clicks are put back
+     * without trying again.
+     *
+     * @param includePartial Whether an incomplete last batch per shard is written too; if not,
+     *        its clicks go back to the queue for the next flush
+     */
+    private synchronized void drain(boolean includePartial) {
+        flushRequested.set(false);
+        Map<Integer, List<ClickStats>> batches = new LinkedHashMap<>();
+        Set<Integer> failedShards = new HashSet<>();
+        int remaining = pendingCount.get();
+        PendingClick next;
+        while (remaining-- > 0 && (next = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            if (failedShards.contains(next.shard())) {
+                requeue(next.shard(), List.of(next.click()));
+                continue;
+            }
+            List<ClickStats> batch = batches.computeIfAbsent(next.shard(), shard -> new ArrayList<>(batchSize));
+            batch.add(next.click());
+            if (batch.size() == batchSize) {
+                batches.remove(next.shard());
+                if (!write(next.shard(), batch)) {
+                    failedShards.add(next.shard());
+                    requeue(next.shard(), batch);
+                }
+            }
+        }
+        batches.forEach((shard, batch) -> {
+            if (!includePartial || failedShards.contains(shard) || !write(shard, batch)) {
+                requeue(shard, batch);
+            }
+        });
+    }
+
+    /**
+     * @return Number of clicks dropped because the buffer was full
+     */
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Stops the timer and writes what is still buffered
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Puts clicks back into the queue, dropping (and counting) those beyond {@code maxPending}
+     */
+    private void requeue(int shard, List<ClickStats> clicks) {
+        int lost = 0;
+        for (ClickStats click : clicks) {
+            if (pendingCount.incrementAndGet() > maxPending) {
+                pendingCount.decrementAndGet();
+                lost++;
+            } else {
+                pending.add(new PendingClick(shard, click));
+            }
+        }
+        if (lost > 0) {
+            log.warn("Click buffer full, {} clicks of a failed batch dropped, {} so far", lost, dropped.addAndGet(lost));
+        }
+    }
+
+    /**
+     * @return Whether the batch was written
+     */
+    private boolean write(int shard, List<ClickStats> batch) {
+        try {
+            writer.insert(shard, batch);
+        } catch (RuntimeException e) {
+            writeFailed = true;
+            log.warn("Failed to write {} clicks to shard {}, retrying on the next flush", batch.size(), shard, e);
+            return false;
+        }
+        writeFailed = false;
+        if (aggregator != null) {
+            aggregator.add(shard, batch);
+        }
+        if (versions != null) {
+            Set<Long> linkIds = new HashSet<>();
+            for (ClickStats click : batch) {
+                linkIds.add(click.getShortUrlId());
+            }
+            versions.changed(linkIds);
+        }
+        return true;
+    }
+
+    private record PendingClick(int shard, ClickStats click) {
+    }
+}
@@ -0,0 +1,127 @@
+package Storage;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import Analytics.BrowserFamily;
+import Analytics.DeviceClass;
+import Analytics.OsFamily;
+import Archive.ArchiveQuery;
+import Archive.ArchivedClick;
+import Archive.ClickArchive;
+import Model.ClickStats;
+
+/**
+ * Reads all clicks of a link, oldest first, in keyset pages for streaming exports
+ *
+ * Each page is one query over the (short_url_id, clicked_at) index that continues after
+ * the last click of the previous page, so an export of millions of clicks holds one page
+ * in memory and never a connection between pages (PostgreSQL ignores the fetch size
+ * outside of a transaction and would otherwise buffer the whole result). Clicks are
+ * mapped straight from the rows, without entities or a persistence context.
+ *
+ * With a {@link ClickArchive}, the link's archived clicks are read first, from the segments
+ * whose zone maps can hold its short code; they are all older than the clicks still in the
+ * table. The archive is local to the node that archives, so exports on other nodes only
+ * contain the clicks in the table.
+ */
+public class ClickExportReader {
+    static final String PAGE_SQL = "SELECT id, clicked_at, ip_address, referrer, user_agent, browser, os, device, "
+            + "country, bot FROM click_stats WHERE short_url_id = ? AND (clicked_at, id) > (?, ?) "
+            + "ORDER BY clicked_at, id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int pageSize;
+    private final ClickArchive archive;
+
+    /**
+     * @param jdbcTemplate Template over the application datasource
+     * @param pageSize Number of clicks read per query
+     * @param archive Archive of aged clicks; null if clicks are not archived on this node
+     */
+    public ClickExportReader(JdbcTemplate jdbcTemplate, int pageSize, ClickArchive archive) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("The page size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.pageSize = pageSize;
+        this.archive = archive;
+    }
+
+    /**
+     * Hands every click of a link to an action, archived clicks first, then the table's on
+     * the caller's shard
+     *
+     * @param shortCode Short code of the link, by which archived clicks are found
+     * @param shortUrlId Id of the link
+     * @param action Receives the clicks, oldest first; shortUrlId is set, the link is not
+     * @return Number of clicks read
+     */
+    public long forEach(String shortCode, long shortUrlId, Consumer<ClickStats> action) {
+        long count = 0;
+        if (archive != null) {
+            count += archive.scan(new ArchiveQuery(shortCode, null, null), row -> action.accept(click(row))).rows();
+        }
+        Timestamp afterTime = new Timestamp(0);
+        long afterId = Long.MIN_VALUE;
+        while (true) {
+            List<ClickStats> page = jdbcTemplate.query(PAGE_SQL, (resultSet, row) -> click(resultSet, shortUrlId),
+                    shortUrlId, afterTime, afterId, pageSize);
+            for (ClickStats click : page) {
+                action.accept(click);
+            }
+            count += page.size();
+            if (page.size() < pageSize) {
+                return count;
+            }
+            ClickStats last = page.get(page.size() - 1);
+            afterTime = Timestamp.valueOf(last.getClickedAt());
+            afterId = last.getId();
+        }
+    }
+
+    private static ClickStats click(ArchivedClick archived) {
+        return ClickStats.builder()
+                .id(archived.id())
+                .clickedAt(archived.clickedAt())
+                .ipAddress(archived.ipAddress())
+                .referrer(archived.referrer())
+                .userAgent(archived.userAgent())
+                .browser(archived.browser())
+                .os(archived.os())
+                .device(archived.device())
+                .country(archived.country())
+                .bot(archived.bot())
+                .shortUrlId(archived.shortUrlId())
+                .build();
+    }
+
+    private static ClickStats click(ResultSet resultSet, long shortUrlId) throws SQLException {
+        return ClickStats.builder()
+                .id(resultSet.getLong(1))
+                .clickedAt(resultSet.getTimestamp(2).toLocalDateTime())
+                .ipAddress(resultSet.getString(3))
+                .referrer(resultSet.getString(4))
+                .userAgent(resultSet.getString(5))
+                .browser(ordinal(resultSet, 6, BrowserFamily.values()))
+                .os(ordinal(resultSet, 7, OsFamily.values()))
+                .device(ordinal(resultSet, 8, DeviceClass.values()))
+                .country(resultSet.getString(9))
+                .bot(resultSet.getBoolean(10))
+                .shortUrlId(shortUrlId)
+                .build();
+    }
+
+    /**
+     * Dimension enums are stored by ordinal, as mapped on {@link ClickStats}
+     */
+    private static <E extends Enum<E>> E ordinal(ResultSet resultSet, int column, E[] values) throws SQLException {
+        short value = resultSet.getShort(column);
+        return resultSet.wasNull() ? null : values[value];
+    }
+}
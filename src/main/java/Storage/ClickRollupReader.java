@@ -0,0 +1,280 @@
+package Storage;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import Analytics.DeviceClass;
+import Analytics.HyperLogLog;
+import DTO.AnalyticsQuery;
+import DTO.AnalyticsQuery.Dimension;
+import DTO.AnalyticsQuery.Metric;
+import DTO.AnalyticsQuery.TimeBucket;
+import DTO.AnalyticsResult;
+import Sharding.ShardContext;
+
+/**
+ * Answers analytics queries from the hourly 'click_rollup' rows maintained by {@link ClickAggregator}
+ *
+ * A query is split into partitions, one per shard and time slice, which run in parallel on a
+ * dedicated fork-join pool; each partition reads one index range of the rollup table and
+ * groups it, and the partial groups are merged. Raw clicks are never read.
+ *
+ * Key features:
+ * - Click counts only: grouped and summed by the database
+ * - Unique visitors: the rows' {@link HyperLogLog} sketches are merged per group in memory,
+ *   so visitors are counted once across hours, links and partitions
+ * - At most {@value #MAX_GROUPS} groups per query, which bounds the memory of the sketches
+ *
+ * Every partition holds a database connection while it runs, so the parallelism should stay
+ * below the size of the connection pool.
+ */
+public class ClickRollupReader implements AutoCloseable {
+    /** Largest number of groups a query may produce */
+    public static final int MAX_GROUPS = 20_000;
+
+    private static final Comparator<GroupKey> GROUP_ORDER = Comparator
+            .comparing(GroupKey::time, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(GroupKey::referrerDomain, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(GroupKey::country, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(GroupKey::device, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int shardCount;
+    private final Duration sliceSpan;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param jdbcTemplate Template over the application datasource
+     * @param shardCount Number of shards holding rollups
+     * @param parallelism Number of partitions read at the same time
+     * @param sliceSpan Length of the time slices a query is split into; whole hours
+     */
+    public ClickRollupReader(JdbcTemplate jdbcTemplate, int shardCount, int parallelism, Duration sliceSpan) {
+        if (parallelism < 1 || sliceSpan.toHours() < 1) {
+            throw new IllegalArgumentException("Parallelism and slice span (in hours) must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardCount = shardCount;
+        this.sliceSpan = Duration.ofHours(sliceSpan.toHours());
+        this.pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("analytics-query-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Runs a query
+     *
+     * @param query The query; its period is widened to whole hours
+     * @param linkIdsByShard Ids of the links to read per shard; null to read all links
+     * @return The groups, ordered by time, referrer domain, country and device
+     * @throws IllegalArgumentException if the query produces more than {@value #MAX_GROUPS} groups
+     */
+    public AnalyticsResult query(AnalyticsQuery query, Map<Integer, List<Long>> linkIdsByShard) {
+        LocalDateTime from = query.getFrom().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime to = query.getTo().truncatedTo(ChronoUnit.HOURS);
+        if (to.isBefore(query.getTo())) {
+            to = to.plusHours(1);
+        }
+        List<Partition> partitions = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            List<Long> linkIds = linkIdsByShard == null ? null : linkIdsByShard.get(shard);
+            if (linkIdsByShard != null && (linkIds == null || linkIds.isEmpty())) {
+                continue;
+            }
+            for (LocalDateTime start = from; start.isBefore(to); start = start.plus(sliceSpan)) {
+                LocalDateTime end = start.plus(sliceSpan);
+                partitions.add(new Partition(shard, linkIds, start, end.isAfter(to) ? to : end));
+            }
+        }
+        Partial result;
+        try {
+            result = pool.submit(() -> partitions.parallelStream()
+                    .map(partition -> scan(partition, query))
+                    .reduce(Partial::merge)
+                    .orElseGet(Partial::new)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running an analytics query", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return toResult(result, query, partitions.size());
+    }
+
+    /**
+     * Stops the pool's threads
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private Partial scan(Partition partition, AnalyticsQuery query) {
+        boolean uniques = query.getMetrics().contains(Metric.UNIQUE_VISITORS);
+        List<String> columns = groupColumns(query);
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (String column : columns) {
+            sql.append(column).append(", ");
+        }
+        sql.append(uniques ? "clicks, visitors, 1" : "SUM(clicks), COUNT(*)");
+        sql.append(" FROM click_rollup WHERE bucket_start >= ? AND bucket_start < ?");
+        List<Object> arguments = new ArrayList<>();
+        arguments.add(Timestamp.valueOf(partition.from()));
+        arguments.add(Timestamp.valueOf(partition.to()));
+        if (partition.linkIds() != null) {
+            sql.append(" AND short_url_id IN (")
+                    .append(String.join(", ", Collections.nCopies(partition.linkIds().size(), "?")))
+                    .append(')');
+            arguments.addAll(partition.linkIds());
+        }
+        if (!uniques && !columns.isEmpty()) {
+            sql.append(" GROUP BY ").append(String.join(", ", columns));
+        }
+        Partial partial = new Partial();
+        ShardContext.callOn(partition.shard(), () -> {
+            jdbcTemplate.query(sql.toString(), resultSet -> {
+                long rows = resultSet.getLong(columns.size() + (uniques ? 3 : 2));
+                if (rows == 0) {
+                    return;
+                }
+                Group group = partial.group(groupKey(resultSet, query), uniques);
+                group.clicks += resultSet.getLong(columns.size() + 1);
+                if (uniques) {
+                    group.visitors.merge(resultSet.getBytes(columns.size() + 2));
+                }
+                partial.rowsRead += rows;
+            }, arguments.toArray());
+            return null;
+        });
+        return partial;
+    }
+
+    private static List<String> groupColumns(AnalyticsQuery query) {
+        List<String> columns = new ArrayList<>();
+        for (Dimension dimension : Dimension.values()) {
+            if (query.getGroupBy().contains(dimension)) {
+                columns.add(switch (dimension) {
+                    case TIME -> query.getBucket() == TimeBucket.HOUR ? "bucket_start" : "CAST(bucket_start AS DATE)";
+                    case REFERRER_DOMAIN -> "referrer_domain";
+                    case COUNTRY -> "country";
+                    case DEVICE -> "device";
+                });
+            }
+        }
+        return columns;
+    }
+
+    private static GroupKey groupKey(ResultSet resultSet, AnalyticsQuery query) throws SQLException {
+        int column = 1;
+        LocalDateTime time = null;
+        String referrerDomain = null;
+        String country = null;
+        Short device = null;
+        if (query.getGroupBy().contains(Dimension.TIME)) {
+            time = query.getBucket() == TimeBucket.HOUR
+                    ? resultSet.getTimestamp(column++).toLocalDateTime()
+                    : resultSet.getDate(column++).toLocalDate().atStartOfDay();
+        }
+        if (query.getGroupBy().contains(Dimension.REFERRER_DOMAIN)) {
+            referrerDomain = resultSet.getString(column++);
+        }
+        if (query.getGroupBy().contains(Dimension.COUNTRY)) {
+            country = resultSet.getString(column++);
+        }
+        if (query.getGroupBy().contains(Dimension.DEVICE)) {
+            device = resultSet.getShort(column);
+        }
+        return new GroupKey(time, referrerDomain, country, device);
+    }
+
+    private static AnalyticsResult toResult(Partial partial, AnalyticsQuery query, int partitions) {
+        boolean clicks = query.getMetrics().contains(Metric.CLICKS);
+        boolean uniques = query.getMetrics().contains(Metric.UNIQUE_VISITORS);
+        List<GroupKey> keys = new ArrayList<>(partial.groups.keySet());
+        keys.sort(GROUP_ORDER);
+        List<AnalyticsResult.Row> rows = new ArrayList<>(keys.size());
+        for (GroupKey key : keys) {
+            Group group = partial.groups.get(key);
+            rows.add(new AnalyticsResult.Row(key.time(), key.referrerDomain(), key.country(),
+                    key.device() == null ? null : DeviceClass.values()[key.device()],
+                    clicks ? group.clicks : null, uniques ? group.visitors.estimate() : null));
+        }
+        return new AnalyticsResult(rows, partial.rowsRead, partitions);
+    }
+
+    /**
+     * The rollups of one shard in one time slice
+     *
+     * @param linkIds Links to read; null for all
+     */
+    private record Partition(int shard, List<Long> linkIds, LocalDateTime from, LocalDateTime to) {
+    }
+
+    /**
+     * Values of the grouped dimensions; null for dimensions not grouped by
+     */
+    private record GroupKey(LocalDateTime time, String referrerDomain, String country, Short device) {
+    }
+
+    /**
+     * Metrics of one group
+     */
+    private static final class Group {
+        long clicks;
+        HyperLogLog visitors;
+    }
+
+    /**
+     * Groups of one or more partitions
+     */
+    private static final class Partial {
+        final Map<GroupKey, Group> groups = new HashMap<>();
+        long rowsRead;
+
+        Group group(GroupKey key, boolean uniques) {
+            Group group = groups.get(key);
+            if (group == null) {
+                if (groups.size() == MAX_GROUPS) {
+                    throw new IllegalArgumentException("The query produces more than " + MAX_GROUPS
+                            + " groups; shorten the period or group by fewer dimensions");
+                }
+                group = new Group();
+                group.visitors = uniques ? new HyperLogLog() : null;
+                groups.put(key, group);
+            }
+            return group;
+        }
+
+        Partial merge(Partial other) {
+            other.groups.forEach((key, theirs) -> {
+                Group ours = group(key, theirs.visitors != null);
+                ours.clicks += theirs.clicks;
+                if (theirs.visitors != null) {
+                    ours.visitors.merge(theirs.visitors);
+                }
+            });
+            rowsRead += other.rowsRead;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package Storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import Cache.LinkVersions;
+import DTO.AnalyticsQuery;
+import DTO.AnalyticsResult;
+import DTO.ClickBreakdown;
+import DTO.DomainLinks;
+import DTO.LinkSummary;
+import Model.ClickStats;
+import Model.ShortUrl;
+
+/**
+ * In-memory {@link LinkStore} persisted by snapshots and a journal
+ *
+ * Links live in a concurrent hash map keyed by short code, so resolving a redirect is a
+ * single lock-free map read. Instead of click rows the store keeps a click count per link,
+ * returned as {@link ShortUrl#getClickCount()}; visitor details of individual clicks are
+ * not retained. Clicks tagged as bot traffic are not counted, as the count has nowhere to
+ * keep the tag. A second map indexes the links by target host, in id order, and a
+ * {@link TargetHostSummary} counts them per host.
+ *
+ * Durability:
+ * - New links are appended to the {@link StoreJournal} and synced to disk before
+ *   {@link #save} returns
+ * - Clicks are group-committed: a click only increments its link's counter and, for the
+ *   first click since the last flush, queues the link; every flush interval the persistence
+ *   thread appends one record per queued link with its new clicks and syncs, so a crash
+ *   loses at most the clicks of the last interval
+ * - Every snapshot interval (and on close) the whole store is written as a
+ *   {@link StoreSnapshot} and journals covered by it are deleted
+ *
+ * On startup the latest snapshot is loaded, newer journals are replayed up to the first
+ * torn record, and a fresh snapshot compacts the result.
+ */
+public class InMemoryLinkStore implements LinkStore, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(InMemoryLinkStore.class);
+    private static final int JOURNAL_BUFFER_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final ConcurrentHashMap<String, StoredLink> links = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConcurrentNavigableMap<Long, StoredLink>> linksByHost =
+            new ConcurrentHashMap<>();
+    private final TargetHostSummary hostSummary = new TargetHostSummary();
+    private final AtomicLong lastId = new AtomicLong();
+    private final StoreJournal journal;
+    /** Links with clicks not yet journaled; a link is queued at most once */
+    private final ConcurrentLinkedQueue<StoredLink> unjournaledClicks = new ConcurrentLinkedQueue<>();
+    /** Guards the journal, the encode buffer and link creation */
+    private final Object writeLock = new Object();
+    private final EncodeBuffer encodeBuffer = new EncodeBuffer();
+    private final ScheduledExecutorService scheduler;
+    private final LinkVersions versions;
+
+    /**
+     * Opens the store, recovering its state from the directory
+     *
+     * @param directory Directory holding the snapshot and journal files; created if missing
+     * @param flushInterval How often buffered clicks are synced to disk; zero disables the timer
+     * @param snapshotInterval How often a snapshot is taken; zero disables the timer
+     */
+    public InMemoryLinkStore(Path directory, Duration flushInterval, Duration snapshotInterval) {
+        this(directory, flushInterval, snapshotInterval, null);
+    }
+
+    /**
+     * Opens the store, recovering its state from the directory
+     *
+     * @param directory Directory holding the snapshot and journal files; created if missing
+     * @param flushInterval How often buffered clicks are synced to disk; zero disables the timer
+     * @param snapshotInterval How often a snapshot is taken; zero disables the timer
+     * @param versions Told about every counted click; null for none
+     */
+    public InMemoryLinkStore(Path directory, Duration flushInterval, Duration snapshotInterval,
+            LinkVersions versions) {
+        this.directory = directory;
+        this.versions = versions;
+        this.journal = new StoreJournal(directory, JOURNAL_BUFFER_BYTES);
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover link store from " + directory, e);
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "link-store-persistence");
+            thread.setDaemon(true);
+            return thread;
+        });
+        schedule(this::flush, flushInterval);
+        schedule(this::snapshot, snapshotInterval);
+    }
+
+    @Override
+    public boolean exists(String shortCode) {
+        return links.containsKey(shortCode);
+    }
+
+    @Override
+    public ShortUrl save(ShortUrl shortUrl) {
+        synchronized (writeLock) {
+            StoredLink link = new StoredLink(lastId.get() + 1, shortUrl.getShortCode(),
+                    shortUrl.getOriginalUrl(), shortUrl.getCreatedAt(), 0);
+            if (links.containsKey(link.shortCode)) {
+                throw new IllegalStateException("Short code already exists: " + link.shortCode);
+            }
+            try {
+                appendRecord(StoreJournal.LINK, link, 0);
+                journal.sync();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to journal link " + link.shortCode, e);
+            }
+            lastId.set(link.id);
+            links.put(link.shortCode, link);
+            indexHost(link);
+            shortUrl.setId(link.id);
+            shortUrl.setTargetHost(link.targetHost);
+            return shortUrl;
+        }
+    }
+
+    @Override
+    public Optional<ShortUrl> findByShortCode(String shortCode) {
+        StoredLink link = links.get(shortCode);
+        return link == null ? Optional.empty() : Optional.of(link.toShortUrl());
+    }
+
+    /**
+     * Same as {@link #findByShortCode}; the click count is always included
+     */
+    @Override
+    public Optional<ShortUrl> findWithClickStatsByShortCode(String shortCode) {
+        return findByShortCode(shortCode);
+    }
+
+    /**
+     * Only the total is known, since the store keeps a count per link rather than click details
+     */
+    @Override
+    public Optional<ClickBreakdown> findClickBreakdown(String shortCode) {
+        return Optional.ofNullable(links.get(shortCode)).map(link -> {
+            ClickBreakdown breakdown = new ClickBreakdown(shortCode);
+            breakdown.setTotalClicks(link.clicks.get());
+            return breakdown;
+        });
+    }
+
+    /**
+     * Bot clicks are never stored and click times are not kept, so botClicks is 0 and
+     * lastClickedAt is null
+     */
+    @Override
+    public List<LinkSummary> findLinkSummaries(Collection<String> shortCodes) {
+        List<LinkSummary> summaries = new ArrayList<>(shortCodes.size());
+        for (String shortCode : shortCodes) {
+            StoredLink link = links.get(shortCode);
+            if (link != null) {
+                summaries.add(LinkSummary.builder()
+                        .shortCode(link.shortCode)
+                        .originalUrl(link.originalUrl)
+                        .createdAt(link.createdAt)
+                        .totalClicks(link.clicks.get())
+                        .build());
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Click times and dimensions are not kept, so there is nothing to group
+     */
+    @Override
+    public AnalyticsResult queryAnalytics(AnalyticsQuery query) {
+        return new AnalyticsResult(List.of(), 0, 0);
+    }
+
+    /**
+     * Individual clicks are not retained, so there is nothing to export
+     */
+    @Override
+    public boolean forEachClick(String shortCode, Consumer<ClickStats> action) {
+        return links.containsKey(shortCode);
+    }
+
+    /**
+     * The cursor is the id of the last link of the previous page
+     */
+    @Override
+    public DomainLinks findByTargetHost(String host, String after, int limit) {
+        long afterId;
+        try {
+            afterId = after == null ? 0 : Long.parseLong(after);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + after);
+        }
+        ConcurrentNavigableMap<Long, StoredLink> hostLinks = linksByHost.get(host);
+        if (hostLinks == null) {
+            return new DomainLinks(host, 0, List.of(), null);
+        }
+        List<ShortUrl> page = hostLinks.tailMap(afterId, false).values().stream()
+                .limit(limit)
+                .map(StoredLink::toShortUrl)
+                .toList();
+        String next = page.size() == limit ? Long.toString(page.get(page.size() - 1).getId()) : null;
+        return new DomainLinks(host, hostSummary.count(host), page, next);
+    }
+
+    /**
+     * @return All links ordered by id, i.e. in creation order
+     */
+    @Override
+    public List<ShortUrl> findAll() {
+        return links.values().stream()
+                .sorted(Comparator.comparingLong(link -> link.id))
+                .map(StoredLink::toShortUrl)
+                .toList();
+    }
+
+    /**
+     * Every link is already in memory; nothing to load
+     */
+    @Override
+    public List<String> preloadMostClicked(int count, LocalDateTime since) {
+        return List.of();
+    }
+
+    @Override
+    public void recordClick(ShortUrl shortUrl, ClickStats click) {
+        StoredLink link = links.get(shortUrl.getShortCode());
+        if (link == null || click.isBot()) {
+            return;
+        }
+        link.clicks.incrementAndGet();
+        if (link.journalPending.compareAndSet(false, true)) {
+            unjournaledClicks.add(link);
+        }
+        if (versions != null) {
+            versions.changed(link.id);
+        }
+    }
+
+    /**
+     * Journals the clicks counted since the last flush and syncs the journal to disk
+     */
+    public void flush() {
+        synchronized (writeLock) {
+            try {
+                journalClicks();
+                journal.sync();
+            } catch (IOException e) {
+                log.warn("Failed to sync link store journal", e);
+            }
+        }
+    }
+
+    /**
+     * Writes a snapshot of the whole store and deletes the journals it covers
+     *
+     * Only copying the links and switching to a new journal generation happen under the
+     * write lock; the snapshot file is written while redirects and clicks carry on.
+     */
+    public synchronized void snapshot() {
+        try {
+            StoreSnapshot snapshot;
+            synchronized (writeLock) {
+                // clicks journaled after this point go to the new generation, on top of the snapshot
+                journalClicks();
+                List<StoredLink> copy = new ArrayList<>(links.size());
+                for (StoredLink link : links.values()) {
+                    copy.add(link.copy());
+                }
+                journal.rotate(journal.generation() + 1);
+                snapshot = new StoreSnapshot(journal.generation(), lastId.get(), copy);
+            }
+            snapshot.write(directory);
+            for (long generation : StoreJournal.generations(directory)) {
+                if (generation < snapshot.journalGeneration) {
+                    Files.deleteIfExists(StoreJournal.file(directory, generation));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to snapshot link store in {}", directory, e);
+        }
+    }
+
+    /**
+     * @return Number of links in the store
+     */
+    public int size() {
+        return links.size();
+    }
+
+    /**
+     * Stops the timers, takes a final snapshot and closes the journal
+     */
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        snapshot();
+        synchronized (writeLock) {
+            journal.close();
+        }
+    }
+
+    private void recover() throws IOException {
+        StoreSnapshot snapshot = StoreSnapshot.read(directory);
+        long firstGeneration = 0;
+        if (snapshot != null) {
+            for (StoredLink link : snapshot.links) {
+                links.put(link.shortCode, link);
+                indexHost(link);
+            }
+            lastId.set(snapshot.lastId);
+            firstGeneration = snapshot.journalGeneration;
+        }
+        List<Long> generations = StoreJournal.generations(directory);
+        long replayed = 0;
+        for (long generation : generations) {
+            if (generation >= firstGeneration) {
+                replayed += StoreJournal.replay(StoreJournal.file(directory, generation), this::apply);
+            }
+        }
+        long latest = firstGeneration;
+        if (!generations.isEmpty()) {
+            latest = Math.max(latest, generations.get(generations.size() - 1));
+        }
+        for (StoredLink link : links.values()) {
+            link.journaledClicks = link.clicks.get();
+        }
+        journal.rotate(latest + 1);
+        log.info("Recovered {} links from {} ({} journal records replayed)", links.size(), directory, replayed);
+        snapshot();
+    }
+
+    private void apply(DataInputStream record) throws IOException {
+        byte type = record.readByte();
+        if (type == StoreJournal.LINK) {
+            StoredLink link = StoredLink.readFrom(record, 0);
+            if (links.putIfAbsent(link.shortCode, link) == null) {
+                indexHost(link);
+            }
+            lastId.accumulateAndGet(link.id, Math::max);
+        } else if (type == StoreJournal.CLICK) {
+            StoredLink link = links.get(StoredLink.readString(record));
+            if (link != null) {
+                link.clicks.incrementAndGet();
+            }
+        } else if (type == StoreJournal.CLICKS) {
+            StoredLink link = links.get(StoredLink.readString(record));
+            long clicks = record.readLong();
+            if (link != null) {
+                link.clicks.addAndGet(clicks);
+            }
+        } else {
+            throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    private void indexHost(StoredLink link) {
+        linksByHost.computeIfAbsent(link.targetHost, host -> new ConcurrentSkipListMap<>()).put(link.id, link);
+        hostSummary.add(link.targetHost);
+    }
+
+    /**
+     * Appends one record per queued link with the clicks counted since it was last journaled
+     *
+     * Called under the write lock. A link is taken off the queue before its count is read,
+     * so a click counted after the read queues it again.
+     */
+    private void journalClicks() throws IOException {
+        StoredLink link;
+        while ((link = unjournaledClicks.poll()) != null) {
+            link.journalPending.set(false);
+            long clicks = link.clicks.get();
+            if (clicks > link.journaledClicks) {
+                appendRecord(StoreJournal.CLICKS, link, clicks - link.journaledClicks);
+                link.journaledClicks = clicks;
+            }
+        }
+    }
+
+    /**
+     * Encodes a record into the reused buffer and appends it; called under the write lock
+     */
+    private void appendRecord(byte type, StoredLink link, long clicks) throws IOException {
+        encodeBuffer.reset();
+        DataOutputStream out = encodeBuffer.out;
+        out.writeByte(type);
+        if (type == StoreJournal.LINK) {
+            link.writeTo(out);
+        } else {
+            StoredLink.writeString(out, link.shortCode);
+            out.writeLong(clicks);
+        }
+        journal.append(encodeBuffer.array(), encodeBuffer.size());
+    }
+
+    private void schedule(Runnable task, Duration interval) {
+        if (interval != null && !interval.isZero()) {
+            scheduler.scheduleWithFixedDelay(task, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Record encoding buffer whose array is appended directly instead of copied
+     */
+    private static final class EncodeBuffer extends ByteArrayOutputStream {
+        final DataOutputStream out = new DataOutputStream(this);
+
+        EncodeBuffer() {
+            super(256);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package Storage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import Cache.LinkVersions;
+import DTO.AnalyticsQuery;
+import DTO.AnalyticsResult;
+import DTO.ClickBreakdown;
+import DTO.DomainLinks;
+import DTO.LinkSummary;
+import Model.ClickStats;
+import Model.ShortUrl;
+import Replica.ReplicaLagGuard;
+import Repository.ClickTotals;
+import Repository.LinkHeader;
+import Repository.ShortUrlRepository;
+import Sharding.ShardContext;
+import Sharding.ShardRouter;
+import lombok.Builder;
+
+/**
+ * JPA-backed {@link LinkStore}
+ *
+ * Repository calls are routed to the shard that owns the short code (see {@link ShardRouter});
+ * with sharding disabled there is a single shard and routing has no effect. Read-only lookups
+ * may be served by a replica; {@link ReplicaLagGuard} keeps freshly created links resolvable.
+ * Clicks bypass JPA entirely and are written in batches by the {@link ClickBuffer}; click
+ * breakdowns are read from the hourly aggregates of the {@link ClickAggregator}, and analytics
+ * queries from its hourly rollups through the {@link ClickRollupReader}. Click exports read
+ * the raw clicks page by page through the {@link ClickExportReader}. Links are looked up by
+ * target host through the {@link TargetHostIndex}. Statistics and the listing are read from
+ * the primary while their {@link LinkVersions} tag changed within the replica lag tolerance.
+ */
+public class JpaLinkStore implements LinkStore {
+    private final ShortUrlRepository shortUrlRepo;
+    private final ClickBuffer clickBuffer;
+    private final ShardRouter shardRouter;
+    private final ReplicaLagGuard replicaLagGuard;
+    private final ClickAggregator clickAggregator;
+    private final ClickRollupReader clickRollupReader;
+    private final ClickExportReader clickExportReader;
+    private final TargetHostIndex targetHostIndex;
+    private final LinkVersions linkVersions;
+
+    /**
+     * Created through {@link #builder()}; the optional collaborators may be left unset
+     *
+     * @param shortUrlRepo Reads and writes the links
+     * @param clickBuffer Writes the recorded clicks; required for recording clicks
+     * @param shardRouter Maps short codes to shards
+     * @param replicaLagGuard Decides whether a read may go to a replica
+     * @param clickAggregator Source of click breakdowns; null if clicks are not aggregated
+     * @param clickRollupReader Answers analytics queries; null if they are not supported
+     * @param clickExportReader Reads clicks for exports; null if exports are not supported
+     * @param targetHostIndex Looks links up by target host; null if lookups by host are not supported
+     * @param linkVersions Version tags of the statistics and the listing; null if they are not sent
+     */
+    @Builder
+    private JpaLinkStore(ShortUrlRepository shortUrlRepo, ClickBuffer clickBuffer, ShardRouter shardRouter,
+            ReplicaLagGuard replicaLagGuard, ClickAggregator clickAggregator, ClickRollupReader clickRollupReader,
+            ClickExportReader clickExportReader, TargetHostIndex targetHostIndex, LinkVersions linkVersions) {
+        this.shortUrlRepo = shortUrlRepo;
+        this.clickBuffer = clickBuffer;
+        this.shardRouter = shardRouter;
+        this.replicaLagGuard = replicaLagGuard;
+        this.clickAggregator = clickAggregator;
+        this.clickRollupReader = clickRollupReader;
+        this.clickExportReader = clickExportReader;
+        this.targetHostIndex = targetHostIndex;
+        this.linkVersions = linkVersions;
+    }
+
+    /**
+     * Checked on the primary, so a code just taken on another node is not handed out twice
+     */
+    @Override
+    public boolean exists(String shortCode) {
+        return replicaLagGuard.onPrimary(() -> findOnShard(shortCode)).isPresent();
+    }
+
+    @Override
+    public ShortUrl save(ShortUrl shortUrl) {
+        String shortCode = shortUrl.getShortCode();
+        ShortUrl saved = ShardContext.callOn(shardRouter.shardOf(shortCode), () -> shortUrlRepo.save(shortUrl));
+        replicaLagGuard.markWritten(shortCode);
+        if (targetHostIndex != null && saved.getTargetHost() != null) {
+            targetHostIndex.summary().add(saved.getTargetHost());
+        }
+        return saved;
+    }
+
+    @Override
+    public Optional<ShortUrl> findByShortCode(String shortCode) {
+        return replicaLagGuard.read(shortCode, () -> findOnShard(shortCode));
+    }
+
+    /**
+     * Read from the primary while the link's version tag changed within the replica lag tolerance,
+     * so the statistics are never older than the ETag sent with them
+     */
+    @Override
+    public Optional<ShortUrl> findWithClickStatsByShortCode(String shortCode) {
+        Supplier<Optional<ShortUrl>> lookup = () -> ShardContext.callOn(shardRouter.shardOf(shortCode),
+                () -> shortUrlRepo.findWithClickStatsByShortCode(shortCode));
+        if (linkVersions == null) {
+            return replicaLagGuard.read(shortCode, lookup);
+        }
+        return replicaLagGuard.readChanged(shortCode, () -> findOnShard(shortCode)
+                .map(link -> linkVersions.changedAt(link.getId()))
+                .orElse(0L), lookup);
+    }
+
+    /**
+     * Read from the aggregates on the link's shard; without an aggregator the breakdown is empty
+     */
+    @Override
+    public Optional<ClickBreakdown> findClickBreakdown(String shortCode) {
+        return findByShortCode(shortCode).map(link -> clickAggregator == null
+                ? new ClickBreakdown(shortCode)
+                : ShardContext.callOn(shardRouter.shardOf(shortCode),
+                        () -> clickAggregator.breakdown(shortCode, link.getId())));
+    }
+
+    /**
+     * Codes are grouped by shard; each shard answers with one IN query over its codes and one
+     * grouped count over the clicks of the links found
+     */
+    @Override
+    public List<LinkSummary> findLinkSummaries(Collection<String> shortCodes) {
+        Map<Integer, List<String>> codesByShard = new HashMap<>();
+        for (String shortCode : shortCodes) {
+            codesByShard.computeIfAbsent(shardRouter.shardOf(shortCode), shard -> new ArrayList<>()).add(shortCode);
+        }
+        List<LinkSummary> summaries = new ArrayList<>(shortCodes.size());
+        codesByShard.forEach((shard, codes) -> summaries.addAll(
+                ShardContext.callOn(shard, () -> summariesOnShard(codes))));
+        return summaries;
+    }
+
+    private List<LinkSummary> summariesOnShard(List<String> shortCodes) {
+        List<LinkHeader> links = replicaLagGuard.readAll(shortCodes, shortUrlRepo::findByShortCodeIn,
+                LinkHeader::getShortCode);
+        if (links.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ClickTotals> totals = new HashMap<>();
+        for (ClickTotals row : shortUrlRepo.countClicksByShortUrlIdIn(links.stream().map(LinkHeader::getId).toList())) {
+            totals.put(row.getShortUrlId(), row);
+        }
+        List<LinkSummary> summaries = new ArrayList<>(links.size());
+        for (LinkHeader link : links) {
+            ClickTotals clicks = totals.get(link.getId());
+            summaries.add(LinkSummary.builder()
+                    .shortCode(link.getShortCode())
+                    .originalUrl(link.getOriginalUrl())
+                    .createdAt(link.getCreatedAt())
+                    .totalClicks(clicks == null ? 0 : clicks.getClicks())
+                    .botClicks(clicks == null ? 0 : clicks.getBotClicks())
+                    .lastClickedAt(clicks == null ? null : clicks.getLastClickedAt())
+                    .build());
+        }
+        return summaries;
+    }
+
+    /**
+     * Short codes are resolved to link ids with one IN query per shard; without a rollup
+     * reader the result is empty
+     */
+    @Override
+    public AnalyticsResult queryAnalytics(AnalyticsQuery query) {
+        if (clickRollupReader == null) {
+            return new AnalyticsResult(List.of(), 0, 0);
+        }
+        if (query.getShortCodes() == null || query.getShortCodes().isEmpty()) {
+            return clickRollupReader.query(query, null);
+        }
+        Map<Integer, List<String>> codesByShard = new HashMap<>();
+        for (String shortCode : new LinkedHashSet<>(query.getShortCodes())) {
+            codesByShard.computeIfAbsent(shardRouter.shardOf(shortCode), shard -> new ArrayList<>()).add(shortCode);
+        }
+        Map<Integer, List<Long>> linkIdsByShard = new HashMap<>();
+        codesByShard.forEach((shard, codes) -> linkIdsByShard.put(shard, ShardContext.callOn(shard,
+                () -> shortUrlRepo.findByShortCodeIn(codes).stream().map(LinkHeader::getId).toList())));
+        return clickRollupReader.query(query, linkIdsByShard);
+    }
+
+    /**
+     * Read in keyset pages on the link's shard; without an export reader no clicks are exported
+     */
+    @Override
+    public boolean forEachClick(String shortCode, Consumer<ClickStats> action) {
+        Optional<ShortUrl> link = findByShortCode(shortCode);
+        if (link.isEmpty()) {
+            return false;
+        }
+        if (clickExportReader != null) {
+            ShardContext.callOn(shardRouter.shardOf(shortCode),
+                    () -> clickExportReader.forEach(shortCode, link.get().getId(), action));
+        }
+        return true;
+    }
+
+    /**
+     * The shards are read one after the other, so a page may end on one shard and the next
+     * continue on the following one. The cursor is "shard:lastId"; without a target host
+     * index the page is empty
+     */
+    @Override
+    public DomainLinks findByTargetHost(String host, String after, int limit) {
+        if (targetHostIndex == null) {
+            return new DomainLinks(host, 0, List.of(), null);
+        }
+        int shard = 0;
+        long afterId = 0;
+        if (after != null) {
+            int colon = after.indexOf(':');
+            try {
+                shard = Integer.parseInt(after.substring(0, Math.max(colon, 0)));
+                afterId = Long.parseLong(after.substring(colon + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + after);
+            }
+            if (shard < 0 || shard >= shardRouter.shardCount()) {
+                throw new IllegalArgumentException("Invalid cursor: " + after);
+            }
+        }
+        List<ShortUrl> links = new ArrayList<>(Math.min(limit, 1_000));
+        String next = null;
+        for (; shard < shardRouter.shardCount(); shard++, afterId = 0) {
+            long from = afterId;
+            List<ShortUrl> page = ShardContext.callOn(shard,
+                    () -> targetHostIndex.page(host, from, limit - links.size()));
+            links.addAll(page);
+            if (links.size() == limit) {
+                next = shard + ":" + page.get(page.size() - 1).getId();
+                break;
+            }
+        }
+        return new DomainLinks(host, targetHostIndex.summary().count(host), links, next);
+    }
+
+    /**
+     * With several shards the URLs of every shard are collected, in shard order
+     */
+    @Override
+    public List<ShortUrl> findAll() {
+        if (linkVersions == null) {
+            return findAllOnShards();
+        }
+        return replicaLagGuard.readChanged(linkVersions::listingChangedAt, this::findAllOnShards);
+    }
+
+    private List<ShortUrl> findAllOnShards() {
+        if (shardRouter.shardCount() == 1) {
+            return shortUrlRepo.findAll();
+        }
+        List<ShortUrl> urls = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            urls.addAll(ShardContext.callOn(shard, shortUrlRepo::findAll));
+        }
+        return urls;
+    }
+
+    /**
+     * The most-clicked ids of each shard are read from the hourly aggregates and their links
+     * loaded with one query, which puts them in the entity and natural-id regions of the
+     * second-level cache; without an aggregator nothing is loaded
+     */
+    @Override
+    public List<String> preloadMostClicked(int count, LocalDateTime since) {
+        if (clickAggregator == null) {
+            return List.of();
+        }
+        List<String> shortCodes = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            List<ShortUrl> links = ShardContext.callOn(shard, () -> {
+                List<Long> ids = clickAggregator.mostClickedLinkIds(count, since);
+                return ids.isEmpty() ? List.<ShortUrl>of() : shortUrlRepo.findAllById(ids);
+            });
+            links.forEach(link -> shortCodes.add(link.getShortCode()));
+        }
+        return shortCodes;
+    }
+
+    /**
+     * The click references its link by id only and is queued for a batched JDBC insert
+     * on the shard of its link; the ShortUrl entity is not attached to it
+     */
+    @Override
+    public void recordClick(ShortUrl shortUrl, ClickStats click) {
+        click.setShortUrlId(shortUrl.getId());
+        clickBuffer.add(shardRouter.shardOf(shortUrl.getShortCode()), click);
+    }
+
+    private Optional<ShortUrl> findOnShard(String shortCode) {
+        return ShardContext.callOn(shardRouter.shardOf(shortCode), () -> shortUrlRepo.findByShortCode(shortCode));
+    }
+}
@@ -0,0 +1,60 @@
+package Storage;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+
+/**
+ * Warms the redirect path of a freshly started node
+ *
+ * Runs once the context has started, before Spring Boot reports the readiness state
+ * ACCEPTING_TRAFFIC (/actuator/health/readiness), so a load balancer that waits for
+ * readiness only sends traffic once the most-clicked links are cached. The first few preloaded
+ * codes are then resolved through the store, which runs the same code path a redirect takes;
+ * on a cold JVM this warm-up, not the cached links, is most of what the first redirect saves.
+ *
+ * A failing preload is logged and does not stop the node; it then starts cold.
+ */
+public class LinkPreloader implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(LinkPreloader.class);
+
+    /** Preloaded codes resolved through the store to warm the redirect path */
+    static final int WARM_UP_LOOKUPS = 20;
+
+    private final LinkStore linkStore;
+    private final int count;
+    private final Duration window;
+
+    /**
+     * @param linkStore The store serving redirects
+     * @param count Number of most-clicked links to load; 0 disables the preload
+     * @param window Period over which clicks are counted
+     */
+    public LinkPreloader(LinkStore linkStore, int count, Duration window) {
+        this.linkStore = linkStore;
+        this.count = count;
+        this.window = window;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (count <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            List<String> shortCodes = linkStore.preloadMostClicked(count, LocalDateTime.now().minus(window));
+            shortCodes.stream().limit(WARM_UP_LOOKUPS).forEach(linkStore::findByShortCode);
+            log.info("Preloaded {} most-clicked links in {} ms", shortCodes.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            log.warn("Failed to preload the most-clicked links; starting with a cold cache", e);
+        }
+    }
+}
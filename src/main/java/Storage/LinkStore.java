@@ -0,0 +1,130 @@
+package Storage;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import DTO.AnalyticsQuery;
+import DTO.AnalyticsResult;
+import DTO.ClickBreakdown;
+import DTO.DomainLinks;
+import DTO.LinkSummary;
+import Model.ClickStats;
+import Model.ShortUrl;
+
+/**
+ * Storage backend for links and their clicks
+ *
+ * {@link Service.UrlService} talks to this interface only, so the storage engine can be
+ * swapped through "urlshortener.storage.mode" without touching the business logic.
+ *
+ * Implementations:
+ * - {@link JpaLinkStore}: PostgreSQL through JPA (default), with sharding and read replicas
+ * - {@link InMemoryLinkStore}: in-process maps persisted by snapshots plus a journal
+ */
+public interface LinkStore {
+    /**
+     * Checks whether a short code is already taken
+     *
+     * @param shortCode The candidate short code
+     * @return true if a link with this code exists
+     */
+    boolean exists(String shortCode);
+
+    /**
+     * Stores a new link
+     *
+     * @param shortUrl The link to store, without an id
+     * @return The stored link with its id assigned
+     */
+    ShortUrl save(ShortUrl shortUrl);
+
+    /**
+     * Resolves a short code for a redirect
+     *
+     * @param shortCode The short code to look up
+     * @return Optional containing the link if found; click statistics are not loaded
+     */
+    Optional<ShortUrl> findByShortCode(String shortCode);
+
+    /**
+     * Resolves a short code together with its click statistics
+     *
+     * @param shortCode The short code to look up
+     * @return Optional containing the link with its click statistics if found
+     */
+    Optional<ShortUrl> findWithClickStatsByShortCode(String shortCode);
+
+    /**
+     * Counts a link's clicks per browser family, operating system, device class and country
+     *
+     * @param shortCode The short code to look up
+     * @return Optional containing the breakdown if the link exists
+     */
+    Optional<ClickBreakdown> findClickBreakdown(String shortCode);
+
+    /**
+     * Summarizes many links at once: the links are read with one query over their codes and
+     * their click totals with one grouped query (per shard)
+     *
+     * @param shortCodes The short codes to look up, without duplicates
+     * @return The summaries of the links found, in no particular order; unknown codes are left out
+     */
+    List<LinkSummary> findLinkSummaries(Collection<String> shortCodes);
+
+    /**
+     * Groups the human clicks of some or all links by time, referrer domain, country and device
+     * class, from hourly rollups rather than individual clicks
+     *
+     * @param query The links, period, dimensions and metrics
+     * @return The groups; empty if none of the query's short codes exist
+     */
+    AnalyticsResult queryAnalytics(AnalyticsQuery query);
+
+    /**
+     * Hands every click of a link to an action, oldest first, without loading them all at once
+     *
+     * @param shortCode The short code to look up
+     * @param action Receives the clicks
+     * @return false if the link does not exist
+     */
+    boolean forEachClick(String shortCode, Consumer<ClickStats> action);
+
+    /**
+     * Reads the links pointing at a host in keyset pages, without scanning original URLs
+     *
+     * @param host A target host as normalized by {@link Analytics.ReferrerDomain#of}
+     * @param after The cursor returned with the previous page, or null for the first page
+     * @param limit Maximum number of links in the page
+     * @return The page with the host's link count; links are ordered by id (per shard)
+     * @throws IllegalArgumentException if the cursor was not issued by this store
+     */
+    DomainLinks findByTargetHost(String host, String after, int limit);
+
+    /**
+     * Returns all links with their click statistics
+     *
+     * @return List of all links
+     */
+    List<ShortUrl> findAll();
+
+    /**
+     * Loads the most-clicked links into whatever serves redirects, so a node that has just
+     * started resolves its hottest links without a database round trip
+     *
+     * @param count Maximum number of links (per shard)
+     * @param since Start of the period over which clicks are counted
+     * @return Short codes of the links loaded, in no particular order
+     */
+    List<String> preloadMostClicked(int count, LocalDateTime since);
+
+    /**
+     * Records a click on a link
+     *
+     * @param shortUrl The link that was clicked, as returned by {@link #findByShortCode}
+     * @param click Visitor information of the click
+     */
+    void recordClick(ShortUrl shortUrl, ClickStats click);
+}
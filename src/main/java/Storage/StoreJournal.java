@@ -0,0 +1,201 @@
+package Storage;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of {@link InMemoryLinkStore} mutations
+ *
+ * Each record is framed as [payload length][payload][CRC32 of payload]. Appends collect in
+ * a buffer and reach the file when it fills up, on {@link #flush()} or on {@link #sync()};
+ * only {@link #sync()} also forces the file to disk. A crash can therefore leave a torn
+ * record at the end of the file, which {@link #replay} detects by length and checksum and
+ * stops at.
+ *
+ * Journal files are numbered by generation ("journal-&lt;generation&gt;.log"). A snapshot
+ * records the generation that was started when it was taken, so recovery replays only
+ * that generation and later ones.
+ *
+ * Not thread-safe; {@link InMemoryLinkStore} serializes access.
+ */
+final class StoreJournal implements AutoCloseable {
+    /** Record type: a new link */
+    static final byte LINK = 1;
+    /** Record type: one click on a link */
+    static final byte CLICK = 2;
+    /** Record type: a number of clicks on a link */
+    static final byte CLICKS = 3;
+
+    private static final int HEADER_BYTES = Integer.BYTES;
+    private static final int TRAILER_BYTES = Integer.BYTES;
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+    private static final Pattern FILE_NAME = Pattern.compile("journal-(\\d+)\\.log");
+
+    /**
+     * Callback for replayed records
+     */
+    interface RecordHandler {
+        void apply(DataInputStream record) throws IOException;
+    }
+
+    private final Path directory;
+    private final ByteBuffer buffer;
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+    private long generation;
+
+    StoreJournal(Path directory, int bufferBytes) {
+        this.directory = directory;
+        this.buffer = ByteBuffer.allocate(bufferBytes);
+    }
+
+    /**
+     * Starts appending to the file of the given generation, closing the current one
+     *
+     * @param newGeneration Generation number, greater than any existing journal file
+     */
+    void rotate(long newGeneration) throws IOException {
+        if (channel != null) {
+            sync();
+            channel.close();
+        }
+        channel = FileChannel.open(file(directory, newGeneration),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        generation = newGeneration;
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    /**
+     * Appends one record
+     *
+     * @param payload Record type followed by its fields, at the start of a possibly reused array
+     * @param length Number of bytes of the record
+     */
+    void append(byte[] payload, int length) throws IOException {
+        int framed = HEADER_BYTES + length + TRAILER_BYTES;
+        if (framed > buffer.remaining()) {
+            flush();
+        }
+        crc.reset();
+        crc.update(payload, 0, length);
+        if (framed > buffer.capacity()) {
+            ByteBuffer record = ByteBuffer.allocate(framed);
+            record.putInt(length).put(payload, 0, length).putInt((int) crc.getValue()).flip();
+            write(record);
+            return;
+        }
+        buffer.putInt(length).put(payload, 0, length).putInt((int) crc.getValue());
+    }
+
+    /**
+     * Hands buffered records to the operating system; they survive a process crash
+     */
+    void flush() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Flushes and forces buffered records to disk; they survive a machine crash
+     */
+    void sync() throws IOException {
+        flush();
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            sync();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void write(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+
+    static Path file(Path directory, long generation) {
+        return directory.resolve("journal-" + generation + ".log");
+    }
+
+    /**
+     * @return Generations of the journal files in the directory, ascending
+     */
+    static List<Long> generations(Path directory) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(path -> {
+                Matcher matcher = FILE_NAME.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    generations.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        }
+        generations.sort(null);
+        return generations;
+    }
+
+    /**
+     * Replays the intact records of a journal file
+     *
+     * Reading stops at the first incomplete or corrupt record; everything after it is
+     * ignored, as it was never acknowledged as durable.
+     *
+     * @param file The journal file
+     * @param handler Receives each intact record, positioned at its type byte
+     * @return Number of records replayed
+     */
+    static long replay(Path file, RecordHandler handler) throws IOException {
+        long records = 0;
+        CRC32 checksum = new CRC32();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file));
+                DataInputStream data = new DataInputStream(in)) {
+            while (true) {
+                byte[] payload;
+                try {
+                    int length = data.readInt();
+                    if (length <= 0 || length > MAX_RECORD_BYTES) {
+                        return records;
+                    }
+                    payload = new byte[length];
+                    data.readFully(payload);
+                    checksum.reset();
+                    checksum.update(payload);
+                    if (data.readInt() != (int) checksum.getValue()) {
+                        return records;
+                    }
+                } catch (EOFException tornRecord) {
+                    return records;
+                }
+                handler.apply(new DataInputStream(new ByteArrayInputStream(payload)));
+                records++;
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package Storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact binary snapshot of an {@link InMemoryLinkStore}
+ *
+ * Layout: magic, format version, journal generation, last assigned id, link count,
+ * the links with their click counts, and a CRC32 over everything before it.
+ *
+ * A snapshot is written to a temporary file, forced to disk and atomically renamed over
+ * the previous one, so "snapshot.bin" is always either the old or the new complete
+ * snapshot. A checksum mismatch therefore means media corruption and is reported
+ * instead of silently starting from an empty store.
+ */
+final class StoreSnapshot {
+    static final String FILE_NAME = "snapshot.bin";
+
+    private static final int MAGIC = 0x4C4E4B53; // "LNKS"
+    private static final int VERSION = 1;
+
+    /** Generation of the first journal not covered by this snapshot */
+    final long journalGeneration;
+    /** Highest link id assigned when the snapshot was taken */
+    final long lastId;
+    final List<StoredLink> links;
+
+    StoreSnapshot(long journalGeneration, long lastId, List<StoredLink> links) {
+        this.journalGeneration = journalGeneration;
+        this.lastId = lastId;
+        this.links = links;
+    }
+
+    /**
+     * Writes and atomically publishes the snapshot
+     *
+     * @param directory Store directory
+     */
+    void write(Path directory) throws IOException {
+        Path temporary = directory.resolve(FILE_NAME + ".tmp");
+        CRC32 crc = new CRC32();
+        try (OutputStream file = Files.newOutputStream(temporary);
+                DataOutputStream out = new DataOutputStream(
+                        new CheckedOutputStream(new BufferedOutputStream(file), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(journalGeneration);
+            out.writeLong(lastId);
+            writeLinks(out, links);
+            out.flush();
+            // The trailer itself is not part of the checksum
+            new DataOutputStream(file).writeInt((int) crc.getValue());
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(FILE_NAME),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads the snapshot of a store directory
+     *
+     * @param directory Store directory
+     * @return The snapshot, or null if none has been written yet
+     * @throws IOException if the snapshot is corrupt or unreadable
+     */
+    static StoreSnapshot read(Path directory) throws IOException {
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        // Verify the checksum before trusting any length field
+        long size = Files.size(file);
+        if (size < Integer.BYTES * 4 + Long.BYTES * 2) {
+            throw new IOException("Snapshot " + file + " is truncated");
+        }
+        CRC32 crc = new CRC32();
+        int storedCrc;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            byte[] chunk = new byte[8192];
+            long remaining = size - Integer.BYTES;
+            while (remaining > 0) {
+                int read = in.read(chunk, 0, (int) Math.min(chunk.length, remaining));
+                crc.update(chunk, 0, read);
+                remaining -= read;
+            }
+            storedCrc = in.readInt();
+        }
+        if (storedCrc != (int) crc.getValue()) {
+            throw new IOException("Snapshot " + file + " failed its checksum");
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Snapshot " + file + " has an unknown format");
+            }
+            long journalGeneration = in.readLong();
+            long lastId = in.readLong();
+            int count = in.readInt();
+            List<StoredLink> links = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long clicks = in.readLong();
+                links.add(StoredLink.readFrom(in, clicks));
+            }
+            return new StoreSnapshot(journalGeneration, lastId, links);
+        }
+    }
+
+    private static void writeLinks(DataOutputStream out, Collection<StoredLink> links) throws IOException {
+        out.writeInt(links.size());
+        for (StoredLink link : links) {
+            out.writeLong(link.clicks.get());
+            link.writeTo(out);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package Storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import Analytics.ReferrerDomain;
+import Model.ShortUrl;
+
+/**
+ * A link as held by {@link InMemoryLinkStore}
+ *
+ * Everything but the click counters is immutable, so redirects can read a link from the
+ * map without locking. The binary form is shared by journal records and snapshots; the
+ * target host is derived from the URL and not stored.
+ *
+ * {@link #clicks} is the live count; {@link #journaledClicks} is the part of it already
+ * written to the journal, and {@link #journalPending} is set while the link waits in the
+ * store's queue of links with clicks still to journal.
+ */
+final class StoredLink {
+    final long id;
+    final String shortCode;
+    final String originalUrl;
+    final LocalDateTime createdAt;
+    final String targetHost;
+    final AtomicLong clicks;
+    final AtomicBoolean journalPending = new AtomicBoolean();
+    /** Guarded by the store's write lock */
+    long journaledClicks;
+
+    StoredLink(long id, String shortCode, String originalUrl, LocalDateTime createdAt, long clicks) {
+        this.id = id;
+        this.shortCode = shortCode;
+        this.originalUrl = originalUrl;
+        this.createdAt = createdAt;
+        this.targetHost = ReferrerDomain.of(originalUrl);
+        this.clicks = new AtomicLong(clicks);
+        this.journaledClicks = clicks;
+    }
+
+    /**
+     * @return A copy with the click count frozen at its journaled value, so that clicks
+     *         journaled later are not counted twice when the copy is restored
+     */
+    StoredLink copy() {
+        return new StoredLink(id, shortCode, originalUrl, createdAt, journaledClicks);
+    }
+
+    ShortUrl toShortUrl() {
+        return ShortUrl.builder()
+                .id(id)
+                .shortCode(shortCode)
+                .originalUrl(originalUrl)
+                .createdAt(createdAt)
+                .targetHost(targetHost)
+                .clickStats(new ArrayList<>())
+                .clickCount(clicks.get())
+                .build();
+    }
+
+    /**
+     * Writes id, code, URL and creation time (not the click count)
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(id);
+        writeString(out, shortCode);
+        writeString(out, originalUrl);
+        out.writeLong(createdAt.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(createdAt.getNano());
+    }
+
+    static StoredLink readFrom(DataInput in, long clicks) throws IOException {
+        long id = in.readLong();
+        String shortCode = readString(in);
+        String originalUrl = readString(in);
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        return new StoredLink(id, shortCode, originalUrl, createdAt, clicks);
+    }
+
+    /**
+     * Length-prefixed UTF-8; unlike writeUTF this is not limited to 64 KB
+     */
+    static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,170 @@
+package Storage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import Analytics.ReferrerDomain;
+import Model.ShortUrl;
+import Sharding.ShardContext;
+
+/**
+ * Reverse index from target host to links over the 'target_host' column of 'short_url'
+ *
+ * New links get their host when they are created. Links stored without one (created before
+ * the column existed, or by an older node) are filled in by {@link #refresh}, which then
+ * resets the {@link TargetHostSummary} to the counts in the database.
+ *
+ * Key features:
+ * - Lookups by host are keyset pages over the (target_host, id) index, never a scan of
+ *   original_url
+ * - The backfill finds missing hosts through the same index (NULL sorts as one key), so
+ *   once every link has a host it costs one index probe per shard
+ * - Refreshed on a background thread right away and then every refresh interval
+ */
+public class TargetHostIndex implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(TargetHostIndex.class);
+
+    static final String PAGE_SQL = "SELECT id, short_code, original_url, created_at FROM short_url "
+            + "WHERE target_host = ? AND id > ? ORDER BY id LIMIT ?";
+
+    static final String MISSING_SQL = "SELECT id, original_url FROM short_url "
+            + "WHERE target_host IS NULL AND id > ? ORDER BY id LIMIT ?";
+
+    static final String UPDATE_SQL = "UPDATE short_url SET target_host = ? WHERE id = ?";
+
+    static final String COUNT_SQL = "SELECT target_host, COUNT(*) FROM short_url "
+            + "WHERE target_host IS NOT NULL GROUP BY target_host";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int shardCount;
+    private final int batchSize;
+    private final TargetHostSummary summary;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param jdbcTemplate Template over the application datasource
+     * @param shardCount Number of shards to index
+     * @param batchSize Number of links filled in per query by the backfill
+     * @param summary The summary reset by every refresh
+     * @param refreshInterval How often the backfill and the summary refresh run; zero disables the timer
+     */
+    public TargetHostIndex(JdbcTemplate jdbcTemplate, int shardCount, int batchSize, TargetHostSummary summary,
+            Duration refreshInterval) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardCount = shardCount;
+        this.batchSize = batchSize;
+        this.summary = summary;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "target-host-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!refreshInterval.isZero()) {
+            scheduler.scheduleWithFixedDelay(this::refreshSafely, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return The per-host link counts
+     */
+    public TargetHostSummary summary() {
+        return summary;
+    }
+
+    /**
+     * Reads the links pointing at a host on the caller's shard
+     *
+     * @param host The normalized host
+     * @param afterId Only links with a higher id are read
+     * @param limit Maximum number of links
+     * @return The links in id order, without click statistics
+     */
+    public List<ShortUrl> page(String host, long afterId, int limit) {
+        return jdbcTemplate.query(PAGE_SQL, (resultSet, row) -> ShortUrl.builder()
+                .id(resultSet.getLong(1))
+                .shortCode(resultSet.getString(2))
+                .originalUrl(resultSet.getString(3))
+                .createdAt(resultSet.getTimestamp(4) == null ? null : resultSet.getTimestamp(4).toLocalDateTime())
+                .targetHost(host)
+                .clickStats(new ArrayList<>())
+                .build(), host, afterId, limit);
+    }
+
+    /**
+     * Fills in missing hosts on every shard, then resets the summary to the database's counts
+     *
+     * @return Number of links whose host was filled in
+     */
+    public synchronized long refresh() {
+        long filled = 0;
+        Map<String, Long> counts = new HashMap<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            filled += ShardContext.callOn(shard, this::backfill);
+            List<Map.Entry<String, Long>> rows = ShardContext.callOn(shard, () -> jdbcTemplate.query(COUNT_SQL,
+                    (resultSet, row) -> Map.entry(resultSet.getString(1), resultSet.getLong(2))));
+            rows.forEach(entry -> counts.merge(entry.getKey(), entry.getValue(), Long::sum));
+        }
+        summary.reset(counts);
+        return filled;
+    }
+
+    /**
+     * Computes the host of every link on the caller's shard that has none, a batch at a time
+     */
+    private long backfill() {
+        long afterId = 0;
+        long filled = 0;
+        while (true) {
+            List<Object[]> updates = jdbcTemplate.query(MISSING_SQL, (resultSet, row) -> new Object[] {
+                ReferrerDomain.of(resultSet.getString(2)), resultSet.getLong(1)}, afterId, batchSize);
+            if (updates.isEmpty()) {
+                return filled;
+            }
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+            filled += updates.size();
+            if (updates.size() < batchSize) {
+                return filled;
+            }
+            afterId = (Long) updates.get(updates.size() - 1)[1];
+        }
+    }
+
+    private void refreshSafely() {
+        long start = System.nanoTime();
+        try {
+            long filled = refresh();
+            if (filled > 0) {
+                log.info("Filled in the target host of {} links in {} ms", filled,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh the target host index", e);
+        }
+    }
+
+    /**
+     * Stops the timer, waiting for a running refresh
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
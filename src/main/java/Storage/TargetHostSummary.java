@@ -0,0 +1,56 @@
+package Storage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory count of links per target host
+ *
+ * Answers "how many links point at this host?" without a query. The in-memory store keeps the
+ * counts exact; the JPA store counts the links it creates and is reset from the database by
+ * {@link TargetHostIndex}, so between two refreshes links created on other nodes are missing.
+ */
+public class TargetHostSummary {
+    private volatile Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+
+    /**
+     * Counts a new link
+     *
+     * @param host The link's normalized target host
+     */
+    public void add(String host) {
+        counts.computeIfAbsent(host, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * @param host A normalized target host
+     * @return Number of links pointing at the host
+     */
+    public long count(String host) {
+        LongAdder count = counts.get(host);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * @return Number of distinct hosts
+     */
+    public int size() {
+        return counts.size();
+    }
+
+    /**
+     * Replaces every count, e.g. with the counts read from the database
+     *
+     * @param hostCounts Number of links per host
+     */
+    public void reset(Map<String, Long> hostCounts) {
+        Map<String, LongAdder> fresh = new ConcurrentHashMap<>(Math.max(16, hostCounts.size() * 4 / 3));
+        hostCounts.forEach((host, count) -> {
+            LongAdder adder = new LongAdder();
+            adder.add(count);
+            fresh.put(host, adder);
+        });
+        counts = fresh;
+    }
+}
@@ -1,28 +1,32 @@
 package com.urlshorteneanalyser.urlshortenerandanalyzer;
 
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.boot.autoconfigure.domain.EntityScan;
-import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import Snapshot.SnapshotCommand;
 
 /**
  * Main Spring Boot Application Class
  * 
  * This is the entry point for the URL Shortener and Analyzer application.
- * It configures Spring Boot to scan for components across multiple packages
- * and sets up JPA repositories and entity scanning.
+ * It configures Spring Boot to scan for components across multiple packages.
  * 
  * Key configurations:
  * - @SpringBootApplication: Enables auto-configuration and component scanning
- * - @EnableJpaRepositories: Configures Spring Data JPA repositories
- * - @EntityScan: Tells Spring where to find JPA entities
+ * - Config.JpaConfig: Configures Spring Data JPA repositories and entity scanning
+ * - --snapshot.export / --snapshot.import: Runs a link-table snapshot command without a web
+ *   server and exits (see {@link SnapshotCommand})
  */
-@SpringBootApplication(scanBasePackages = {"com.urlshorteneanalyser.urlshortenerandanalyzer", "Controller", "Service", "Repository", "Model"})
-@EnableJpaRepositories(basePackages = {"Repository"})
-@EntityScan(basePackages = {"Model"})
+@SpringBootApplication(scanBasePackages = {"com.urlshorteneanalyser.urlshortenerandanalyzer", "Cache", "Config", "Controller", "Service", "Repository", "Model"})
 public class UrlshortenerandanalyzerApplication {
 
 	public static void main(String[] args) {
+		if (SnapshotCommand.isRequested(args)) {
+			SpringApplication application = new SpringApplication(UrlshortenerandanalyzerApplication.class);
+			application.setWebApplicationType(WebApplicationType.NONE);
+			System.exit(SpringApplication.exit(application.run(args)));
+		}
 		SpringApplication.run(UrlshortenerandanalyzerApplication.class, args);
 	}
 
@@ -0,0 +1,5 @@
+-- H2 variant of postgresql/V10__short_url_id_range.sql.
+CREATE TABLE IF NOT EXISTS short_url_id_range (
+    min_id BIGINT NOT NULL,
+    max_id BIGINT NOT NULL
+);
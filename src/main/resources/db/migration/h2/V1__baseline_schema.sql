@@ -0,0 +1,35 @@
+-- Baseline schema (H2 variant of postgresql/V1__baseline_schema.sql).
+
+CREATE TABLE IF NOT EXISTS short_url (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    short_code   VARCHAR(255) NOT NULL,
+    original_url VARCHAR(255) NOT NULL,
+    created_at   TIMESTAMP(6),
+    CONSTRAINT uk_short_url_short_code UNIQUE (short_code)
+);
+
+CREATE TABLE IF NOT EXISTS click_stats (
+    id           BIGINT PRIMARY KEY,
+    clicked_at   TIMESTAMP(6),
+    ip_address   VARCHAR(255),
+    referrer     VARCHAR(255),
+    user_agent   VARCHAR(255),
+    short_url_id BIGINT,
+    CONSTRAINT fk_click_stats_short_url FOREIGN KEY (short_url_id) REFERENCES short_url (id)
+);
+
+CREATE SEQUENCE IF NOT EXISTS click_stats_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS code_range_counter (
+    shard      INTEGER PRIMARY KEY,
+    next_value BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS code_range_lease (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    shard       INTEGER NOT NULL,
+    node_id     VARCHAR(255) NOT NULL,
+    range_start BIGINT NOT NULL,
+    range_end   BIGINT NOT NULL,
+    leased_at   TIMESTAMP(6)
+);
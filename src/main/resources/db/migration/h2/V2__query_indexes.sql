@@ -0,0 +1,11 @@
+-- Query indexes (H2 variant of postgresql/V2__query_indexes.sql).
+-- H2 has no INCLUDE clause, so the covering index lists the payload columns as keys.
+
+CREATE INDEX IF NOT EXISTS idx_click_stats_short_url_clicked_at
+    ON click_stats (short_url_id, clicked_at);
+
+CREATE INDEX IF NOT EXISTS idx_short_url_code_covering
+    ON short_url (short_code, id, original_url, created_at);
+
+CREATE INDEX IF NOT EXISTS idx_code_range_lease_node_id
+    ON code_range_lease (node_id);
@@ -0,0 +1,9 @@
+-- H2 variant of postgresql/V7__link_health.sql.
+-- Result of the latest probe of each link's original URL, written by Health.LinkHealthCrawler.
+CREATE TABLE IF NOT EXISTS link_health (
+    short_url_id   BIGINT       PRIMARY KEY REFERENCES short_url (id),
+    status_code    INTEGER      NOT NULL,
+    latency_millis INTEGER      NOT NULL,
+    checked_at     TIMESTAMP(6) NOT NULL,
+    error          VARCHAR(255)
+);
@@ -0,0 +1,5 @@
+-- H2 variant of postgresql/V8__short_url_target_host.sql.
+ALTER TABLE short_url ADD COLUMN IF NOT EXISTS target_host VARCHAR(255);
+
+CREATE INDEX IF NOT EXISTS idx_short_url_target_host_id
+    ON short_url (target_host, id);
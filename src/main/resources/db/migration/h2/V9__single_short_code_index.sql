@@ -0,0 +1,6 @@
+-- H2 variant of postgresql/V9__single_short_code_index.sql.
+-- H2 has no INCLUDE clause: its covering index keys on (short_code, id, original_url, created_at)
+-- and cannot be unique on short_code alone, so the unique constraint stays and enforces it.
+-- The statement below only records this version for parity with PostgreSQL.
+CREATE INDEX IF NOT EXISTS idx_short_url_code_covering
+    ON short_url (short_code, id, original_url, created_at);
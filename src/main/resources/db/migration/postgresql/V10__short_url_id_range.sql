@@ -0,0 +1,8 @@
+-- Range of short_url ids this database hands out as a shard, written by Sharding.ShardIdRanges
+-- on the first startup with sharding enabled. That startup also restarts the id column inside
+-- the range and adds ck_short_url_id_range, so no two shards can hand out the same id.
+-- Empty on unsharded databases.
+CREATE TABLE IF NOT EXISTS short_url_id_range (
+    min_id BIGINT NOT NULL,
+    max_id BIGINT NOT NULL
+);
@@ -0,0 +1,11 @@
+-- Per-link click statistics: equality on the link, range/order on the click time.
+CREATE INDEX IF NOT EXISTS idx_click_stats_short_url_clicked_at
+    ON click_stats (short_url_id, clicked_at);
+
+-- Code -> URL resolution answered from the index alone (index-only scan).
+CREATE UNIQUE INDEX IF NOT EXISTS idx_short_url_code_covering
+    ON short_url (short_code) INCLUDE (id, original_url, created_at);
+
+-- Lease lookups by node.
+CREATE INDEX IF NOT EXISTS idx_code_range_lease_node_id
+    ON code_range_lease (node_id);
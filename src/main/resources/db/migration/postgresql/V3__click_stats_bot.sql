@@ -0,0 +1,3 @@
+-- Clicks classified as bot traffic (crawlers, link previews, health checkers).
+-- Existing clicks were never classified and count as human.
+ALTER TABLE click_stats ADD COLUMN IF NOT EXISTS bot BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,18 @@
+-- User-agent dimensions parsed at ingestion (ordinals of Analytics.BrowserFamily,
+-- OsFamily and DeviceClass). Older clicks keep NULL.
+ALTER TABLE click_stats ADD COLUMN IF NOT EXISTS browser SMALLINT;
+ALTER TABLE click_stats ADD COLUMN IF NOT EXISTS os SMALLINT;
+ALTER TABLE click_stats ADD COLUMN IF NOT EXISTS device SMALLINT;
+
+-- Hourly click counts per link and dimension combination, maintained by Storage.ClickAggregator.
+-- The primary key leads with the link, so a link's breakdown is a single index range.
+CREATE TABLE IF NOT EXISTS click_aggregate (
+    short_url_id BIGINT       NOT NULL REFERENCES short_url (id),
+    bucket_start TIMESTAMP(6) NOT NULL,
+    browser      SMALLINT     NOT NULL,
+    os           SMALLINT     NOT NULL,
+    device       SMALLINT     NOT NULL,
+    bot          BOOLEAN      NOT NULL,
+    clicks       BIGINT       NOT NULL,
+    PRIMARY KEY (short_url_id, bucket_start, browser, os, device, bot)
+);
@@ -0,0 +1,7 @@
+-- Country resolved from the visitor's IP address at ingestion (ISO 3166 alpha-2, ZZ = unknown).
+ALTER TABLE click_stats ADD COLUMN IF NOT EXISTS country VARCHAR(2);
+
+-- Country becomes a dimension of the hourly aggregates; existing rows were never resolved.
+ALTER TABLE click_aggregate ADD COLUMN IF NOT EXISTS country VARCHAR(2) NOT NULL DEFAULT 'ZZ';
+ALTER TABLE click_aggregate DROP CONSTRAINT IF EXISTS click_aggregate_pkey;
+ALTER TABLE click_aggregate ADD PRIMARY KEY (short_url_id, bucket_start, browser, os, device, country, bot);
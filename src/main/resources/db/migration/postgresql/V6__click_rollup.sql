@@ -0,0 +1,18 @@
+-- Hourly human clicks per link, referrer domain, country and device class, with a
+-- HyperLogLog sketch of the distinct visitors (Analytics.HyperLogLog), maintained by
+-- Storage.ClickAggregator and read by POST /api/analytics/query. The primary key leads with
+-- the hour, so a time slice of all links is one index range; the second index serves
+-- queries on a few links.
+CREATE TABLE IF NOT EXISTS click_rollup (
+    bucket_start    TIMESTAMP(6) NOT NULL,
+    short_url_id    BIGINT       NOT NULL REFERENCES short_url (id),
+    referrer_domain VARCHAR(255) NOT NULL,
+    country         VARCHAR(2)   NOT NULL,
+    device          SMALLINT     NOT NULL,
+    clicks          BIGINT       NOT NULL,
+    visitors        BYTEA        NOT NULL,
+    PRIMARY KEY (bucket_start, short_url_id, referrer_domain, country, device)
+);
+
+CREATE INDEX IF NOT EXISTS idx_click_rollup_short_url_bucket
+    ON click_rollup (short_url_id, bucket_start);
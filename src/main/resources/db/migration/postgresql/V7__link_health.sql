@@ -0,0 +1,10 @@
+-- Result of the latest probe of each link's original URL, written by Health.LinkHealthCrawler.
+-- status_code is 0 when no response was received (connection error, timeout, invalid URL);
+-- error then says why.
+CREATE TABLE IF NOT EXISTS link_health (
+    short_url_id   BIGINT       PRIMARY KEY REFERENCES short_url (id),
+    status_code    INTEGER      NOT NULL,
+    latency_millis INTEGER      NOT NULL,
+    checked_at     TIMESTAMP(6) NOT NULL,
+    error          VARCHAR(255)
+);
@@ -0,0 +1,8 @@
+-- Normalized host of each link's original URL (lowercase, without "www.", port or user info),
+-- written when the link is created. Links created before this column existed are filled in
+-- by Storage.TargetHostIndex, so NULL means "not computed yet", never "no host".
+ALTER TABLE short_url ADD COLUMN IF NOT EXISTS target_host VARCHAR(255);
+
+-- Reverse lookup host -> links, read in id order by keyset pages.
+CREATE INDEX IF NOT EXISTS idx_short_url_target_host_id
+    ON short_url (target_host, id);
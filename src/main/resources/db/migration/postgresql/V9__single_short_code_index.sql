@@ -0,0 +1,21 @@
+-- short_code was unique twice: through the V1 constraint (uk_short_url_short_code, or the
+-- name ddl-auto=update gave it) and through the V2 covering index, so every insert
+-- maintained two unique indexes and original_url was stored in both the table and the
+-- covering index next to a second copy of every code. The covering index alone enforces
+-- uniqueness and serves code lookups; the constraint and its index are dropped.
+DO $$
+DECLARE
+    constraint_name TEXT;
+BEGIN
+    FOR constraint_name IN
+        SELECT con.conname
+        FROM pg_constraint con
+        JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = ANY (con.conkey)
+        WHERE con.conrelid = 'short_url'::regclass
+          AND con.contype = 'u'
+          AND cardinality(con.conkey) = 1
+          AND att.attname = 'short_code'
+    LOOP
+        EXECUTE format('ALTER TABLE short_url DROP CONSTRAINT %I', constraint_name);
+    END LOOP;
+END $$;
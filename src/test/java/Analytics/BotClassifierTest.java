@@ -0,0 +1,97 @@
+package Analytics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for BotClassifier and its SignatureMatcher
+ *
+ * This test class covers signature matching (overlapping signatures, case, non-ASCII
+ * input), the verdict cache and the handling of missing User-Agents.
+ */
+class BotClassifierTest {
+    private static final List<String> SIGNATURES = List.of("bot", "crawler", "facebookexternalhit", "curl/", "he", "she", "hers");
+
+    /**
+     * Test typical bot and browser User-Agents
+     */
+    @Test
+    void isBot_ShouldRecognizeCommonBots() {
+        BotClassifier classifier = new BotClassifier(BotAction.TAG, SIGNATURES, 100, false);
+
+        assertTrue(classifier.isBot("Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)"));
+        assertTrue(classifier.isBot("facebookexternalhit/1.1 (+http://www.facebook.com/externalhit_uatext.php)"));
+        assertTrue(classifier.isBot("curl/8.5.0"));
+        assertFalse(new BotClassifier(BotAction.TAG, List.of("bot", "curl/"), 100, false)
+                .isBot("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 Chrome/126.0 Safari/537.36"));
+    }
+
+    /**
+     * Test that matching ignores case and tolerates characters outside ASCII
+     */
+    @Test
+    void matches_ShouldIgnoreCaseAndNonAscii() {
+        SignatureMatcher matcher = new SignatureMatcher(List.of("Crawler"));
+
+        assertTrue(matcher.matches("Ünïcödé CRAWLER ✓"));
+        assertTrue(matcher.matches("crawLer"));
+        assertFalse(matcher.matches("crawl-er"));
+        assertFalse(matcher.matches(null));
+        assertFalse(new SignatureMatcher(List.of()).matches("anything"));
+    }
+
+    /**
+     * Test that the automaton agrees with a naive substring search, including signatures
+     * that overlap or are suffixes of one another
+     */
+    @Test
+    void matches_ShouldAgreeWithNaiveSearch() {
+        SignatureMatcher matcher = new SignatureMatcher(SIGNATURES);
+        Random random = new Random(42);
+        String alphabet = "abcehorstbwlr/ ";
+
+        for (int i = 0; i < 10_000; i++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                char c = alphabet.charAt(random.nextInt(alphabet.length()));
+                text.append(random.nextBoolean() ? Character.toUpperCase(c) : c);
+            }
+            String lower = text.toString().toLowerCase(Locale.ROOT);
+            boolean expected = SIGNATURES.stream().anyMatch(lower::contains);
+            assertEquals(expected, matcher.matches(text), text.toString());
+        }
+    }
+
+    /**
+     * Test that repeated lookups return the cached verdict, with and without the cache
+     */
+    @Test
+    void isBot_ShouldGiveSameVerdictWithAndWithoutCache() {
+        BotClassifier cached = new BotClassifier(BotAction.TAG, SIGNATURES, 2, false);
+        BotClassifier uncached = new BotClassifier(BotAction.TAG, SIGNATURES, 0, false);
+        List<String> userAgents = List.of("Twitterbot/1.0", "Mozilla/5.0", "Wget/1.21", "curl/7.1",
+                "x".repeat(BotClassifier.MAX_CACHED_LENGTH) + "bot");
+
+        for (int round = 0; round < 3; round++) {
+            for (String userAgent : userAgents) {
+                assertEquals(uncached.isBot(userAgent), cached.isBot(userAgent), userAgent);
+            }
+        }
+    }
+
+    /**
+     * Test missing User-Agents and the OFF action
+     */
+    @Test
+    void isBot_ShouldHandleMissingUserAgentAndOff() {
+        assertFalse(new BotClassifier(BotAction.TAG, SIGNATURES, 10, false).isBot(null));
+        assertTrue(new BotClassifier(BotAction.DROP, SIGNATURES, 10, true).isBot(" "));
+        assertFalse(new BotClassifier(BotAction.OFF, SIGNATURES, 10, true).isBot("Googlebot"));
+    }
+}
@@ -0,0 +1,146 @@
+package Analytics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for DuplicateClickFilter
+ *
+ * This test class drives the timing wheel with a manual clock to check the window
+ * boundaries to the millisecond, expiry after idle periods and a full wheel, and checks
+ * that millions of distinct visitors neither allocate nor grow the tables.
+ */
+class DuplicateClickFilterTest {
+    private static final String UA = "Mozilla/5.0 (iPhone; CPU iPhone OS 17_5 like Mac OS X)";
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    /**
+     * Test that a repeat is suppressed until exactly one window after the counted click
+     */
+    @Test
+    void isDuplicate_ShouldSuppressRepeatsUntilWindowEnds() {
+        // Given: 8 ticks of 625 ms; the first click lands 300 ms into a tick
+        DuplicateClickFilter filter = new DuplicateClickFilter(Duration.ofSeconds(5), 8, 1000, now::get);
+        advanceMillis(300);
+
+        // Then
+        assertFalse(filter.isDuplicate("abc123", "10.0.0.1", UA));
+        advanceMillis(1);
+        assertTrue(filter.isDuplicate("abc123", "10.0.0.1", UA));
+        advanceMillis(4_998);
+        assertTrue(filter.isDuplicate("abc123", "10.0.0.1", UA), "4.999 s after the counted click");
+        advanceMillis(1);
+        assertFalse(filter.isDuplicate("abc123", "10.0.0.1", UA), "5.000 s after the counted click");
+
+        // The suppressed repeats did not extend the window; the new one starts at 5.300 s
+        advanceMillis(4_999);
+        assertTrue(filter.isDuplicate("abc123", "10.0.0.1", UA));
+        advanceMillis(1);
+        assertFalse(filter.isDuplicate("abc123", "10.0.0.1", UA));
+        assertEquals(3, filter.suppressedCount());
+    }
+
+    /**
+     * Test that another link, address or User-Agent is a different visitor
+     */
+    @Test
+    void isDuplicate_ShouldKeepVisitorsAndLinksApart() {
+        DuplicateClickFilter filter = new DuplicateClickFilter(Duration.ofSeconds(5), 8, 1000, now::get);
+
+        assertFalse(filter.isDuplicate("abc123", "10.0.0.1", UA));
+        assertFalse(filter.isDuplicate("abc124", "10.0.0.1", UA));
+        assertFalse(filter.isDuplicate("abc123", "10.0.0.2", UA));
+        assertFalse(filter.isDuplicate("abc123", "10.0.0.1", "curl/8.5.0"));
+        assertFalse(filter.isDuplicate("abc123", "10.0.0.1", null));
+        assertFalse(filter.isDuplicate("abc123", null, null));
+        assertTrue(filter.isDuplicate("abc123", "10.0.0.1", null));
+        assertTrue(filter.isDuplicate("abc123", null, null));
+        assertFalse(DuplicateClickFilter.disabled().isDuplicate("abc123", "10.0.0.1", UA));
+    }
+
+    /**
+     * Test that entries of ticks the wheel has passed several times over are not matched
+     */
+    @Test
+    void isDuplicate_ShouldForgetClicksAfterIdlePeriod() {
+        DuplicateClickFilter filter = new DuplicateClickFilter(Duration.ofSeconds(5), 8, 1000, now::get);
+        assertFalse(filter.isDuplicate("abc123", "10.0.0.1", UA));
+
+        // 9 ticks = one full turn of the wheel; the entry's table is not reused until then
+        advanceMillis(9 * 625);
+        assertFalse(filter.isDuplicate("abc123", "10.0.0.1", UA));
+        advanceMillis(3_600_000);
+        assertFalse(filter.isDuplicate("abc123", "10.0.0.1", UA));
+        assertTrue(filter.isDuplicate("abc123", "10.0.0.1", UA));
+    }
+
+    /**
+     * Test that clicks beyond a full tick are counted and not remembered
+     */
+    @Test
+    void isDuplicate_ShouldCountClicksWhenTickIsFull() {
+        // Given: 1 key per stripe and tick, a table of 2 slots holding at most 1
+        DuplicateClickFilter filter = new DuplicateClickFilter(Duration.ofSeconds(1), 1, 1, now::get);
+
+        // When
+        int counted = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (!filter.isDuplicate("abc123", "10.0." + (i / 256) + "." + (i % 256), UA)) {
+                counted++;
+            }
+        }
+
+        // Then
+        assertEquals(1000, counted);
+        assertTrue(filter.overflowCount() >= 1000 - DuplicateClickFilter.STRIPES);
+    }
+
+    /**
+     * Test that two million distinct visitors neither allocate per click nor grow the tables
+     */
+    @Test
+    void isDuplicate_ShouldKeepMemoryFixedUnderMillionsOfKeys() {
+        // Given: 200 links x 10,000 addresses, one click every 5 microseconds (10 s in total)
+        DuplicateClickFilter filter = new DuplicateClickFilter(Duration.ofSeconds(5), 8, 1_000_000, now::get);
+        long tables = filter.memoryBytes();
+        String[] codes = new String[200];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = "code" + i;
+        }
+        String[] addresses = new String[10_000];
+        for (int i = 0; i < addresses.length; i++) {
+            addresses[i] = "10." + (i >> 16) + "." + ((i >> 8) & 255) + "." + (i & 255);
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // When
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        for (String address : addresses) {
+            for (String code : codes) {
+                now.addAndGet(TimeUnit.MICROSECONDS.toNanos(5));
+                if (filter.isDuplicate(code, address, UA)) {
+                    fail("Distinct visitor suppressed: " + code + " " + address);
+                }
+            }
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        // Then
+        assertEquals(0, filter.overflowCount());
+        assertEquals(tables, filter.memoryBytes());
+        assertTrue(tables < 24L << 20, "Tables take " + tables + " bytes");
+        assertTrue(allocated < 1L << 20, "Allocated " + allocated + " bytes for 2,000,000 clicks");
+    }
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
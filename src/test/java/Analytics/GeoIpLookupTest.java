@@ -0,0 +1,80 @@
+package Analytics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for GeoIpLookup
+ *
+ * This test class loads a small range file (unsorted, with quoted fields, an IPv6 row and a
+ * malformed row) and checks lookups at range boundaries, in gaps, and for addresses whose
+ * first octet is above 127, which are negative as signed ints.
+ */
+class GeoIpLookupTest {
+    private static GeoIpLookup lookup;
+
+    @BeforeAll
+    static void load() throws IOException {
+        try (InputStream in = GeoIpLookupTest.class.getResourceAsStream("/geoip/sample-ranges.csv")) {
+            lookup = GeoIpLookup.load(in);
+        }
+    }
+
+    /**
+     * Test that IPv6 and malformed rows are skipped
+     */
+    @Test
+    void load_ShouldKeepValidIpv4RowsOnly() {
+        assertEquals(7, lookup.size());
+    }
+
+    /**
+     * Test lookups at the first and last address of ranges and in the gaps between them
+     */
+    @Test
+    void country_ShouldResolveRangeBoundaries() {
+        assertEquals("AU", lookup.country("1.0.0.0"));
+        assertEquals("AU", lookup.country("1.0.0.255"));
+        assertEquals("CN", lookup.country("1.0.1.0"));
+        assertEquals("CN", lookup.country("1.0.3.255"));
+        assertEquals(GeoIpLookup.UNKNOWN, lookup.country("1.0.4.0"));
+        assertEquals(GeoIpLookup.UNKNOWN, lookup.country("0.255.255.255"));
+        assertEquals("US", lookup.country("8.8.8.8"));
+        assertEquals(GeoIpLookup.UNKNOWN, lookup.country("8.8.9.0"));
+    }
+
+    /**
+     * Test addresses from 128.0.0.0 upwards, which compare as unsigned values
+     */
+    @Test
+    void country_ShouldCompareAddressesUnsigned() {
+        assertEquals("FR", lookup.country("81.200.1.1"));
+        assertEquals("DE", lookup.country("128.0.0.1"));
+        assertEquals(GeoIpLookup.UNKNOWN, lookup.country("127.255.255.255"));
+        assertEquals("BR", lookup.country("200.10.20.30"));
+        assertEquals(GeoIpLookup.UNKNOWN, lookup.country("254.0.0.1"));
+        assertEquals("ZZ", lookup.country("255.255.255.255"));
+    }
+
+    /**
+     * Test that anything but a dotted IPv4 address resolves to unknown
+     */
+    @Test
+    void country_ShouldRejectInvalidAddresses() {
+        assertEquals(GeoIpLookup.UNKNOWN, lookup.country(null));
+        assertEquals(GeoIpLookup.UNKNOWN, lookup.country(""));
+        assertEquals(GeoIpLookup.UNKNOWN, lookup.country("2001:200::1"));
+        assertEquals(GeoIpLookup.UNKNOWN, lookup.country("8.8.8"));
+        assertEquals(GeoIpLookup.UNKNOWN, lookup.country("8.8.8.256"));
+        assertEquals(GeoIpLookup.UNKNOWN, lookup.country("8..8.8"));
+        assertEquals(GeoIpLookup.UNKNOWN, lookup.country("8.8.8.8."));
+        assertEquals(GeoIpLookup.UNKNOWN, GeoIpLookup.empty().country("8.8.8.8"));
+        assertEquals(0x08080808L, GeoIpLookup.parseIpv4("8.8.8.8"));
+        assertEquals(0xFFFFFFFFL, GeoIpLookup.parseIpv4("255.255.255.255"));
+    }
+}
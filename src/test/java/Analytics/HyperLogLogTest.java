@@ -0,0 +1,104 @@
+package Analytics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for HyperLogLog and ReferrerDomain
+ *
+ * This test class checks the estimate against exact counts from a handful to a million
+ * visitors, that merging sketches counts shared visitors once, and that the sparse and
+ * dense serialized forms read back to the same registers.
+ */
+class HyperLogLogTest {
+    private static final String UA = "Mozilla/5.0 (Windows NT 10.0; Win64; x64)";
+
+    /**
+     * Test that the estimate stays within 5% of the exact count (standard error about 2.3%)
+     */
+    @Test
+    void estimate_ShouldStayCloseToExactCount() {
+        for (int visitors : new int[] {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000}) {
+            // Given
+            HyperLogLog sketch = new HyperLogLog();
+
+            // When: every visitor clicks twice
+            for (int i = 0; i < visitors; i++) {
+                sketch.addHash(HyperLogLog.hash(address(i), UA));
+                sketch.addHash(HyperLogLog.hash(address(i), UA));
+            }
+
+            // Then
+            assertEquals(visitors, sketch.estimate(), Math.max(1, visitors * 0.05), visitors + " visitors");
+        }
+    }
+
+    /**
+     * Test that merged sketches count visitors present in both once
+     */
+    @Test
+    void merge_ShouldCountSharedVisitorsOnce() {
+        // Given: visitors 0-59,999 and 40,000-99,999
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (int i = 0; i < 60_000; i++) {
+            first.addHash(HyperLogLog.hash(address(i), UA));
+            second.addHash(HyperLogLog.hash(address(i + 40_000), UA));
+        }
+
+        // When
+        first.merge(second);
+
+        // Then
+        assertEquals(100_000, first.estimate(), 5_000);
+    }
+
+    /**
+     * Test that small sketches serialize sparsely, large ones densely, and both read back unchanged
+     */
+    @Test
+    void toBytes_ShouldRoundTripSparseAndDenseSketches() {
+        // Given
+        HyperLogLog small = new HyperLogLog();
+        HyperLogLog large = new HyperLogLog();
+        for (int i = 0; i < 20_000; i++) {
+            large.addHash(HyperLogLog.hash(address(i), UA));
+            if (i < 5) {
+                small.addHash(HyperLogLog.hash(address(i), UA));
+            }
+        }
+
+        // When
+        byte[] smallBytes = small.toBytes();
+        byte[] largeBytes = large.toBytes();
+        HyperLogLog smallCopy = new HyperLogLog();
+        smallCopy.merge(smallBytes);
+        HyperLogLog largeCopy = new HyperLogLog();
+        largeCopy.merge(largeBytes);
+
+        // Then
+        assertTrue(smallBytes.length <= 3 + 5 * 3, "Sparse form holds only the set registers");
+        assertEquals(1 + (1 << HyperLogLog.PRECISION), largeBytes.length);
+        assertArrayEquals(smallBytes, smallCopy.toBytes());
+        assertArrayEquals(largeBytes, largeCopy.toBytes());
+        assertEquals(small.estimate(), smallCopy.estimate());
+        assertEquals(large.estimate(), largeCopy.estimate());
+    }
+
+    /**
+     * Test that referrers are reduced to their lowercase host without "www."
+     */
+    @Test
+    void referrerDomain_ShouldExtractHost() {
+        assertEquals("google.com", ReferrerDomain.of("https://www.Google.com/search?q=x"));
+        assertEquals("news.ycombinator.com", ReferrerDomain.of("http://user:pw@news.ycombinator.com:8080/item"));
+        assertEquals("t.co", ReferrerDomain.of("t.co/abc"));
+        assertEquals(ReferrerDomain.DIRECT, ReferrerDomain.of(null));
+        assertEquals(ReferrerDomain.DIRECT, ReferrerDomain.of(""));
+    }
+
+    private static String address(int i) {
+        return "10." + (i >>> 16 & 0xFF) + "." + (i >>> 8 & 0xFF) + "." + (i & 0xFF);
+    }
+}
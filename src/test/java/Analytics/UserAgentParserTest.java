@@ -0,0 +1,61 @@
+package Analytics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for UserAgentParser
+ *
+ * This test class checks the dimensions derived from real-world User-Agents, in particular
+ * browsers whose User-Agent also names the browsers they are based on.
+ */
+class UserAgentParserTest {
+    private final UserAgentParser parser = new UserAgentParser(100);
+
+    /**
+     * Test desktop browsers
+     */
+    @Test
+    void parse_ShouldRecognizeDesktopBrowsers() {
+        assertEquals(new UserAgentInfo(BrowserFamily.CHROME, OsFamily.WINDOWS, DeviceClass.DESKTOP), parser.parse(
+                "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0.0.0 Safari/537.36"));
+        assertEquals(new UserAgentInfo(BrowserFamily.EDGE, OsFamily.WINDOWS, DeviceClass.DESKTOP), parser.parse(
+                "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0.0.0 Safari/537.36 Edg/126.0.2592.68"));
+        assertEquals(new UserAgentInfo(BrowserFamily.FIREFOX, OsFamily.MACOS, DeviceClass.DESKTOP), parser.parse(
+                "Mozilla/5.0 (Macintosh; Intel Mac OS X 10.15; rv:127.0) Gecko/20100101 Firefox/127.0"));
+        assertEquals(new UserAgentInfo(BrowserFamily.SAFARI, OsFamily.MACOS, DeviceClass.DESKTOP), parser.parse(
+                "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.5 Safari/605.1.15"));
+        assertEquals(new UserAgentInfo(BrowserFamily.OPERA, OsFamily.LINUX, DeviceClass.DESKTOP), parser.parse(
+                "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/125.0.0.0 Safari/537.36 OPR/111.0.0.0"));
+    }
+
+    /**
+     * Test phones and tablets
+     */
+    @Test
+    void parse_ShouldRecognizeMobileDevices() {
+        assertEquals(new UserAgentInfo(BrowserFamily.CHROME, OsFamily.ANDROID, DeviceClass.MOBILE), parser.parse(
+                "Mozilla/5.0 (Linux; Android 14; SM-S918B) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/125.0.6422.165 Mobile Safari/537.36"));
+        assertEquals(new UserAgentInfo(BrowserFamily.SAMSUNG_INTERNET, OsFamily.ANDROID, DeviceClass.TABLET), parser.parse(
+                "Mozilla/5.0 (Linux; Android 13; SM-X710) AppleWebKit/537.36 (KHTML, like Gecko) SamsungBrowser/25.0 Chrome/121.0.0.0 Safari/537.36"));
+        assertEquals(new UserAgentInfo(BrowserFamily.CHROME, OsFamily.IOS, DeviceClass.TABLET), parser.parse(
+                "Mozilla/5.0 (iPad; CPU OS 17_5 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) CriOS/126.0.6478.54 Mobile/15E148 Safari/604.1"));
+    }
+
+    /**
+     * Test missing and unrecognized User-Agents, and that cached results match fresh ones
+     */
+    @Test
+    void parse_ShouldFallBackToOtherAndCacheResults() {
+        assertSame(UserAgentInfo.UNKNOWN, parser.parse(null));
+        assertSame(UserAgentInfo.UNKNOWN, parser.parse(""));
+        assertEquals(UserAgentInfo.UNKNOWN, parser.parse("curl/8.5.0"));
+
+        String userAgent = "Mozilla/5.0 (X11; CrOS x86_64 14541.0.0) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0.0.0 Safari/537.36";
+        UserAgentInfo first = parser.parse(userAgent);
+        assertSame(first, parser.parse(new String(userAgent)));
+        assertEquals(UserAgentParser.parseUncached(userAgent), first);
+        assertEquals(OsFamily.CHROME_OS, first.os());
+    }
+}
@@ -0,0 +1,152 @@
+package Archive;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Analytics.BrowserFamily;
+import Analytics.DeviceClass;
+import Analytics.OsFamily;
+
+/**
+ * Unit tests for ClickArchive and its segment format
+ *
+ * This test class writes clicks to a temporary directory and checks that every value,
+ * including nulls and sub-second times, survives the round trip, that scans skip segments
+ * by their zone maps and that a reopened archive finds its segments.
+ */
+class ClickArchiveTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Test that every column is read back as written, in short code and time order
+     */
+    @Test
+    void scan_ShouldReturnWrittenClicks() throws IOException {
+        // Given
+        ClickArchive archive = new ClickArchive(directory, 1000);
+        List<ArchivedClick> clicks = List.of(
+                new ArchivedClick(7, "bbb", 2, START.plusNanos(123_456_000), "10.0.0.1", "https://ref.example",
+                        "Mozilla/5.0", BrowserFamily.FIREFOX, OsFamily.LINUX, DeviceClass.DESKTOP, "DE", false),
+                new ArchivedClick(3, "aaa", 1, START.plusDays(1), null, null, null, null, null, null, null, true),
+                new ArchivedClick(5, "aaa", 1, START.minusYears(60), "10.0.0.1", "", "curl/8.5.0",
+                        BrowserFamily.OTHER, OsFamily.OTHER, DeviceClass.OTHER, "ZZ", true),
+                new ArchivedClick(1, "", 9, START, "2001:db8::1", null, "Mozilla/5.0", BrowserFamily.CHROME,
+                        OsFamily.ANDROID, DeviceClass.MOBILE, "FR", false));
+
+        // When
+        archive.write(0, clicks);
+        List<ArchivedClick> read = new ArrayList<>();
+        ClickArchive.ScanResult result = archive.scan(ArchiveQuery.all(), read::add);
+
+        // Then
+        List<ArchivedClick> expected = new ArrayList<>(clicks);
+        expected.sort(Comparator.comparing(ArchivedClick::shortCode).thenComparing(ArchivedClick::clickedAt));
+        assertEquals(expected, read);
+        assertEquals(new ClickArchive.ScanResult(1, 1, 4), result);
+        assertEquals(4, archive.rowCount());
+    }
+
+    /**
+     * Test that short code and time queries skip segments that cannot match
+     */
+    @Test
+    void scan_ShouldPruneSegmentsByZoneMaps() throws IOException {
+        // Given: 10 segments of 100 clicks, each on its own day and its own 10 links
+        ClickArchive archive = new ClickArchive(directory, 100);
+        for (int day = 0; day < 10; day++) {
+            List<ArchivedClick> clicks = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                clicks.add(click(day * 100 + i, "code" + day + (i % 10), START.plusDays(day).plusMinutes(i)));
+            }
+            archive.write(0, clicks);
+        }
+
+        // When
+        List<ArchivedClick> link = new ArrayList<>();
+        ClickArchive.ScanResult byCode = archive.scan(new ArchiveQuery("code37", null, null), link::add);
+        ClickArchive.ScanResult byTime = archive.scan(
+                new ArchiveQuery(null, START.plusDays(4).plusMinutes(50), START.plusDays(6)), click -> { });
+        ClickArchive.ScanResult missing = archive.scan(new ArchiveQuery("code37x", null, null), click -> { });
+
+        // Then
+        assertEquals(new ClickArchive.ScanResult(10, 1, 10), byCode);
+        assertTrue(link.stream().allMatch(click -> click.shortCode().equals("code37")));
+        assertEquals(new ClickArchive.ScanResult(10, 2, 150), byTime);
+        assertEquals(0, missing.rows());
+    }
+
+    /**
+     * Test that a reopened archive lists its segments and drops unfinished ones
+     */
+    @Test
+    void open_ShouldReadExistingSegments() throws IOException {
+        // Given
+        ClickArchive archive = new ClickArchive(directory, 10);
+        List<ArchivedClick> clicks = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            clicks.add(click(i, "link" + (i % 3), START.plusSeconds(i)));
+        }
+        archive.write(1, clicks);
+        Path unfinished = directory.resolve("shard-1").resolve("seg-000000000003.seg.tmp");
+        Files.write(unfinished, new byte[] {1, 2, 3});
+
+        // When
+        ClickArchive reopened = new ClickArchive(directory, 10);
+
+        // Then
+        assertEquals(3, reopened.segments().size());
+        assertEquals(25, reopened.rowCount());
+        assertEquals(archive.sizeBytes(), reopened.sizeBytes());
+        assertEquals(archive.newestSegment(1), reopened.newestSegment(1));
+        assertTrue(reopened.newestSegment(0).isEmpty());
+        assertFalse(Files.exists(unfinished));
+    }
+
+    /**
+     * Test that repetitive click data compresses well below its row size
+     */
+    @Test
+    void write_ShouldCompressRepetitiveColumns() throws IOException {
+        // Given: 10,000 clicks on 50 links, one every 3 seconds, from 200 addresses
+        ClickArchive archive = new ClickArchive(directory, 10_000);
+        List<ArchivedClick> clicks = new ArrayList<>();
+        long rawBytes = 0;
+        for (int i = 0; i < 10_000; i++) {
+            ArchivedClick click = click(1_000 + i, "link" + (i % 50), START.plusSeconds(3L * i));
+            clicks.add(click);
+            rawBytes += 8 + 8 + 8 + click.shortCode().length() + click.ipAddress().length()
+                    + click.userAgent().length() + click.referrer().length() + 3 * 2 + 2 + 1;
+        }
+
+        // When
+        SegmentHeader segment = archive.write(0, clicks).get(0);
+
+        // Then
+        assertEquals(10_000, segment.rows());
+        assertEquals(START, segment.minClickedAt());
+        assertEquals("link0", segment.minShortCode());
+        assertEquals("link9", segment.maxShortCode());
+        assertEquals(1_000, segment.minId());
+        assertEquals(10_999, segment.maxId());
+        assertTrue(segment.bytes() * 10 < rawBytes, "Segment of " + segment.bytes() + " bytes for " + rawBytes);
+    }
+
+    private static ArchivedClick click(long id, String shortCode, LocalDateTime clickedAt) {
+        return new ArchivedClick(id, shortCode, shortCode.hashCode() & 0xffff, clickedAt, "10.0.0." + (id % 200),
+                "https://news.example.com/", "Mozilla/5.0 (iPhone; CPU iPhone OS 17_5 like Mac OS X)",
+                BrowserFamily.SAFARI, OsFamily.IOS, DeviceClass.MOBILE, "US", id % 17 == 0);
+    }
+}
@@ -0,0 +1,155 @@
+package Archive;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import Analytics.BrowserFamily;
+import Model.ShortUrl;
+import Repository.ShortUrlRepository;
+
+/**
+ * Integration tests for ClickArchiver
+ *
+ * This test class moves clicks from the migrated H2 schema into an archive in a temporary
+ * directory: aged clicks must end up in the archive exactly once and recent clicks must stay
+ * in the table, also when a previous run stopped between writing a segment and deleting
+ * its rows.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = {com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication.class, Config.JpaConfig.class})
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:archivedb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class ClickArchiverTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+    private static final Clock CLOCK = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneId.of("UTC"));
+
+    @Autowired
+    private ShortUrlRepository shortUrlRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @TempDir
+    Path directory;
+
+    private JdbcTemplate jdbcTemplate;
+    private ShortUrl link;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM click_stats");
+        link = shortUrlRepository.findByShortCode("arc123").orElseGet(() -> shortUrlRepository.save(ShortUrl.builder()
+                .shortCode("arc123")
+                .originalUrl("https://www.example.com")
+                .createdAt(NOW.minusDays(90))
+                .clickStats(new ArrayList<>())
+                .build()));
+    }
+
+    /**
+     * Test that clicks past the retention period are moved and recent ones stay
+     */
+    @Test
+    void archive_ShouldMoveAgedClicks() {
+        // Given: 25 clicks 40 days old, 5 from yesterday
+        for (int i = 0; i < 25; i++) {
+            insertClick(i + 1, NOW.minusDays(40).plusMinutes(i));
+        }
+        for (int i = 0; i < 5; i++) {
+            insertClick(100 + i, NOW.minusDays(1));
+        }
+        ClickArchive archive = new ClickArchive(directory, 10);
+
+        // When
+        long moved;
+        try (ClickArchiver archiver = archiver(archive)) {
+            moved = archiver.archive();
+        }
+
+        // Then
+        assertEquals(25, moved);
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM click_stats", Integer.class));
+        assertEquals(3, archive.segments().size());
+        List<ArchivedClick> archived = new ArrayList<>();
+        archive.scan(new ArchiveQuery("arc123", null, null), archived::add);
+        assertEquals(25, archived.size());
+        ArchivedClick first = archived.get(0);
+        assertEquals(1, first.id());
+        assertEquals(link.getId(), first.shortUrlId());
+        assertEquals(NOW.minusDays(40), first.clickedAt());
+        assertEquals("10.0.0.1", first.ipAddress());
+        assertEquals(BrowserFamily.FIREFOX, first.browser());
+        assertNull(first.os());
+        assertEquals("DE", first.country());
+    }
+
+    /**
+     * Test that rows of a segment written before a crash are deleted, not archived again
+     */
+    @Test
+    void archive_ShouldCompleteInterruptedMove() throws IOException {
+        // Given: a segment holding clicks 1-3 whose rows were never deleted
+        for (int i = 0; i < 4; i++) {
+            insertClick(i + 1, NOW.minusDays(40).plusMinutes(i));
+        }
+        ClickArchive archive = new ClickArchive(directory, 10);
+        List<ArchivedClick> written = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            written.add(new ArchivedClick(i + 1, "arc123", link.getId(), NOW.minusDays(40).plusMinutes(i),
+                    "10.0.0.1", null, null, BrowserFamily.FIREFOX, null, null, "DE", false));
+        }
+        archive.write(0, written);
+
+        // When
+        try (ClickArchiver archiver = archiver(new ClickArchive(directory, 10))) {
+            archiver.archive();
+        }
+
+        // Then
+        ClickArchive reopened = new ClickArchive(directory, 10);
+        assertEquals(4, reopened.rowCount());
+        assertEquals(2, reopened.segments().size());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM click_stats", Integer.class));
+    }
+
+    private ClickArchiver archiver(ClickArchive archive) {
+        return new ClickArchiver(jdbcTemplate, archive, 1, Duration.ofDays(30), 10, Duration.ZERO, CLOCK);
+    }
+
+    private void insertClick(long id, LocalDateTime clickedAt) {
+        jdbcTemplate.update("INSERT INTO click_stats (id, clicked_at, ip_address, browser, country, bot, short_url_id) "
+                + "VALUES (?, ?, '10.0.0.1', ?, 'DE', FALSE, ?)", id, Timestamp.valueOf(clickedAt),
+                BrowserFamily.FIREFOX.ordinal(), link.getId());
+    }
+}
@@ -0,0 +1,169 @@
+package Benchmark;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import Analytics.HyperLogLog;
+import DTO.AnalyticsQuery;
+import DTO.AnalyticsQuery.Dimension;
+import DTO.AnalyticsQuery.Metric;
+import DTO.AnalyticsQuery.TimeBucket;
+import DTO.AnalyticsResult;
+import Storage.ClickRollupReader;
+
+/**
+ * Latency of analytics queries over the rollups of 100 million clicks
+ *
+ * The setup migrates an in-memory H2 database and fills 'click_rollup' directly with
+ * {@value #LINKS} links over {@value #HOURS} hours, {@value #COMBINATIONS} referrer, country
+ * and device combinations per link and hour (about 430,000 rows), adding up to roughly
+ * 100 million clicks by 2 million distinct visitors; each row carries the sketch of up to
+ * {@value #VISITORS_PER_ROW} of them. Raw clicks are never created. Queries are split into
+ * daily partitions, four at a time:
+ * - clicksPerDay: all links, 30 days, click counts per day (target &lt; 500 ms)
+ * - uniquesPerCountryAndDevice: all links, 30 days, clicks and unique visitors per country
+ *   and device, merging every sketch (target &lt; 1 s)
+ * - oneLinkPerReferrer: one link, 30 days, unique visitors per referrer domain (target &lt; 50 ms)
+ * - tenLinksPerHour: ten links, 7 days, clicks per hour (target &lt; 100 ms)
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=AnalyticsQuery
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class AnalyticsQueryBenchmark {
+    private static final int LINKS = 100;
+    private static final int HOURS = 30 * 24;
+    private static final int COMBINATIONS = 6;
+    private static final int VISITORS = 2_000_000;
+    private static final int VISITORS_PER_ROW = 40;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 1, 0, 0);
+
+    private static final String[] REFERRERS = {"", "google.com", "t.co", "news.ycombinator.com", "reddit.com"};
+    private static final String[] COUNTRIES = {"US", "DE", "FR", "GB", "IN", "ZZ"};
+
+    private HikariDataSource dataSource;
+    private ClickRollupReader reader;
+    private List<Long> linkIds;
+
+    @Setup
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:analytics-query;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(8);
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2").load().migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        linkIds = new ArrayList<>();
+        for (int link = 0; link < LINKS; link++) {
+            jdbcTemplate.update("INSERT INTO short_url (short_code, original_url, created_at) VALUES (?, ?, ?)",
+                    "bench" + link, "https://example.com/" + link, Timestamp.valueOf(START));
+        }
+        linkIds.addAll(jdbcTemplate.queryForList("SELECT id FROM short_url ORDER BY id", Long.class));
+
+        Random random = new Random(17);
+        long clicks = 0;
+        List<Object[]> batch = new ArrayList<>();
+        HyperLogLog sketch = new HyperLogLog();
+        for (int hour = 0; hour < HOURS; hour++) {
+            Timestamp bucket = Timestamp.valueOf(START.plusHours(hour));
+            for (long linkId : linkIds) {
+                for (int combination = 0; combination < COMBINATIONS; combination++) {
+                    long rowClicks = 1 + random.nextInt(462);
+                    sketch.clear();
+                    for (int visitor = 0; visitor < Math.min(rowClicks, VISITORS_PER_ROW); visitor++) {
+                        int id = random.nextInt(VISITORS);
+                        sketch.addHash(HyperLogLog.hash("10." + (id >>> 16) + "." + (id >>> 8 & 0xFF) + "." + (id & 0xFF),
+                                "Mozilla/5.0"));
+                    }
+                    clicks += rowClicks;
+                    batch.add(new Object[] {bucket, linkId, REFERRERS[(int) (linkId + combination) % REFERRERS.length],
+                        COUNTRIES[combination], (short) (1 + combination % 3), rowClicks, sketch.toBytes()});
+                }
+            }
+            if (batch.size() >= 10_000 || hour == HOURS - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO click_rollup (bucket_start, short_url_id, referrer_domain, "
+                        + "country, device, clicks, visitors) VALUES (?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        System.out.printf("%n%,d rollup rows for %,d clicks%n",
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM click_rollup", Long.class), clicks);
+
+        reader = new ClickRollupReader(jdbcTemplate, 1, 4, Duration.ofDays(1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        reader.close();
+        dataSource.close();
+    }
+
+    @Benchmark
+    public AnalyticsResult clicksPerDay() {
+        return reader.query(query(30, TimeBucket.DAY, List.of(Dimension.TIME), Metric.CLICKS), null);
+    }
+
+    @Benchmark
+    public AnalyticsResult uniquesPerCountryAndDevice() {
+        return reader.query(query(30, TimeBucket.DAY, List.of(Dimension.COUNTRY, Dimension.DEVICE),
+                Metric.CLICKS, Metric.UNIQUE_VISITORS), null);
+    }
+
+    @Benchmark
+    public AnalyticsResult oneLinkPerReferrer() {
+        return reader.query(query(30, TimeBucket.DAY, List.of(Dimension.REFERRER_DOMAIN), Metric.UNIQUE_VISITORS),
+                Map.of(0, linkIds.subList(0, 1)));
+    }
+
+    @Benchmark
+    public AnalyticsResult tenLinksPerHour() {
+        return reader.query(query(7, TimeBucket.HOUR, List.of(Dimension.TIME), Metric.CLICKS),
+                Map.of(0, linkIds.subList(0, 10)));
+    }
+
+    private static AnalyticsQuery query(int days, TimeBucket bucket, List<Dimension> groupBy, Metric... metrics) {
+        AnalyticsQuery query = new AnalyticsQuery();
+        query.setFrom(START);
+        query.setTo(START.plusDays(days));
+        query.setBucket(bucket);
+        query.setGroupBy(groupBy);
+        query.setMetrics(List.of(metrics));
+        return query;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AnalyticsQueryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,131 @@
+package Benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication;
+
+/**
+ * Compares POST /api/stats/batch with one GET /api/stats/{code} per link
+ *
+ * This benchmark boots the full application on a random port against an in-memory H2
+ * database with SQL logging off, creates {@code links} short links with a few clicks each
+ * and measures the time to fetch the statistics of all of them: once with a single batch
+ * request, once the way reporting jobs used to, with one request per link.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=BatchStats
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class BatchStatsBenchmark {
+    private static final int CLICKS_PER_LINK = 3;
+
+    /** Number of links whose statistics are fetched */
+    @Param({"100", "1000"})
+    public int links;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI[] stats;
+    private HttpRequest batch;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws Exception {
+        context = new SpringApplication(UrlshortenerandanalyzerApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:batch-stats-" + links + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--urlshortener.rate-limit.enabled=false",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=false");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        String base = "http://localhost:" + port + "/api/";
+
+        client = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+        stats = new URI[links];
+        StringBuilder codes = new StringBuilder();
+        for (int i = 0; i < links; i++) {
+            HttpRequest shorten = HttpRequest.newBuilder(URI.create(base + "shorten"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"originalUrl\":\"https://example.com/" + i + "\"}"))
+                    .build();
+            String body = client.send(shorten, HttpResponse.BodyHandlers.ofString()).body();
+            String code = body.replaceAll(".*\"shortCode\":\"([^\"]+)\".*", "$1");
+            for (int click = 0; click < CLICKS_PER_LINK; click++) {
+                client.send(HttpRequest.newBuilder(URI.create(base + code)).build(),
+                        HttpResponse.BodyHandlers.discarding());
+            }
+            stats[i] = URI.create(base + "stats/" + code);
+            codes.append(i == 0 ? "" : ",").append('"').append(code).append('"');
+        }
+        batch = HttpRequest.newBuilder(URI.create(base + "stats/batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"shortCodes\":[" + codes + "]}"))
+                .build();
+        // let the click buffer write the clicks
+        Thread.sleep(2000);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public int batchRequest() throws Exception {
+        return send(batch).length();
+    }
+
+    @Benchmark
+    public int individualRequests() throws Exception {
+        int length = 0;
+        for (URI uri : stats) {
+            length += send(HttpRequest.newBuilder(uri).build()).length();
+        }
+        return length;
+    }
+
+    private String send(HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode() + " for " + request.uri());
+        }
+        return response.body();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BatchStatsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,95 @@
+package Benchmark;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import Analytics.BotAction;
+import Analytics.BotClassifier;
+import Config.BotFilterProperties;
+
+/**
+ * Cost of classifying a click's User-Agent on the redirect path
+ *
+ * Classifies a rotating mix of browser and bot User-Agents with the default signature list,
+ * with the verdict cache enabled and disabled, next to a naive lower-case-and-contains loop
+ * over the signatures as a baseline. Results are in nanoseconds per User-Agent.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=BotClassifier
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BotClassifierBenchmark {
+    private static final String[] USER_AGENTS = {
+        "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0.0.0 Safari/537.36",
+        "Mozilla/5.0 (iPhone; CPU iPhone OS 17_5 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.5 Mobile/15E148 Safari/604.1",
+        "Mozilla/5.0 (Macintosh; Intel Mac OS X 10.15; rv:127.0) Gecko/20100101 Firefox/127.0",
+        "Mozilla/5.0 (Linux; Android 14; SM-S918B) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/125.0.6422.165 Mobile Safari/537.36",
+        "Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)",
+        "facebookexternalhit/1.1 (+http://www.facebook.com/externalhit_uatext.php)",
+        "Slackbot-LinkExpanding 1.0 (+https://api.slack.com/robots)",
+        "curl/8.5.0",
+    };
+
+    /** Verdict cache size; 0 matches every User-Agent */
+    @Param({"0", "10000"})
+    public int cacheSize;
+
+    private BotClassifier classifier;
+    private List<String> signatures;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        signatures = new BotFilterProperties().getSignatures();
+        classifier = new BotClassifier(BotAction.TAG, signatures, cacheSize, false);
+    }
+
+    /**
+     * Header values arrive as fresh strings, so their hash codes are not cached between requests
+     */
+    private String nextUserAgent() {
+        return new String(USER_AGENTS[next++ & (USER_AGENTS.length - 1)]);
+    }
+
+    @Benchmark
+    public boolean classifier() {
+        return classifier.isBot(nextUserAgent());
+    }
+
+    @Benchmark
+    public boolean naiveContains() {
+        String userAgent = nextUserAgent().toLowerCase(Locale.ROOT);
+        for (String signature : signatures) {
+            if (userAgent.contains(signature)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BotClassifierBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,126 @@
+package Benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import Analytics.BrowserFamily;
+import Analytics.DeviceClass;
+import Analytics.OsFamily;
+import Archive.ArchiveQuery;
+import Archive.ArchivedClick;
+import Archive.ClickArchive;
+
+/**
+ * Compression and scan speed of the click archive
+ *
+ * Archives {@value #CLICKS} synthetic clicks spread over 30 days on {@value #LINKS} links,
+ * in daily batches as the archiver would, into segments of 100,000 clicks. The setup prints
+ * the archive size against the bytes of the same values in table columns (without tuple
+ * headers or indexes). The benchmarks scan:
+ * - scanAll: every click (full decode)
+ * - scanOneLink: one link's clicks, pruned by the short code zone maps
+ * - scanOneDay: one day, pruned by the time zone maps
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ClickArchive
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClickArchiveBenchmark {
+    private static final int CLICKS = 1_000_000;
+    private static final int LINKS = 10_000;
+    private static final int DAYS = 30;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private Path directory;
+    private ClickArchive archive;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("click-archive-benchmark");
+        archive = new ClickArchive(directory, 100_000);
+        Random random = new Random(11);
+        String[] userAgents = new String[50];
+        for (int i = 0; i < userAgents.length; i++) {
+            userAgents[i] = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/"
+                    + (100 + i) + ".0.0.0 Safari/537.36";
+        }
+        String[] countries = {"US", "DE", "FR", "GB", "IN", "BR", "JP", "CA", "AU", "ZZ"};
+        long rawBytes = 0;
+        long id = 1;
+        long microsPerClick = DAYS * 86_400_000_000L / CLICKS;
+        for (int day = 0; day < DAYS; day++) {
+            List<ArchivedClick> batch = new ArrayList<>();
+            for (int i = 0; i < CLICKS / DAYS; i++, id++) {
+                int link = (int) Math.min(LINKS - 1, Math.abs(random.nextGaussian()) * LINKS / 3);
+                ArchivedClick click = new ArchivedClick(id, "c" + Integer.toString(link, 36), link + 1,
+                        START.plusNanos(id * microsPerClick * 1_000 + random.nextInt(1_000) * 1_000L),
+                        "203.0." + random.nextInt(256) + "." + random.nextInt(256),
+                        random.nextInt(3) == 0 ? null : "https://ref" + random.nextInt(200) + ".example.com/",
+                        userAgents[random.nextInt(userAgents.length)],
+                        BrowserFamily.values()[random.nextInt(BrowserFamily.values().length)],
+                        OsFamily.values()[random.nextInt(OsFamily.values().length)],
+                        DeviceClass.values()[random.nextInt(DeviceClass.values().length)],
+                        countries[random.nextInt(countries.length)], random.nextInt(20) == 0);
+                batch.add(click);
+                rawBytes += 8 + 8 + 8 + 3 * 2 + 1 + click.ipAddress().length() + click.userAgent().length()
+                        + click.country().length() + (click.referrer() == null ? 0 : click.referrer().length());
+            }
+            archive.write(0, batch);
+        }
+        System.out.printf("%n%d clicks in %d segments: %,d bytes archived vs %,d bytes of column values (%.1fx)%n",
+                archive.rowCount(), archive.segments().size(), archive.sizeBytes(), rawBytes,
+                (double) rawBytes / archive.sizeBytes());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (var files = Files.walk(directory)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long scanAll(Blackhole blackhole) {
+        return archive.scan(ArchiveQuery.all(), blackhole::consume).rows();
+    }
+
+    @Benchmark
+    public long scanOneLink(Blackhole blackhole) {
+        return archive.scan(new ArchiveQuery("c" + Integer.toString(42, 36), null, null), blackhole::consume).rows();
+    }
+
+    @Benchmark
+    public long scanOneDay(Blackhole blackhole) {
+        return archive.scan(new ArchiveQuery(null, START.plusDays(12), START.plusDays(13)), blackhole::consume).rows();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ClickArchiveBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,178 @@
+package Benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Dashboard polling of GET /api/stats/{code} and GET /api/urls, with and without If-None-Match
+ *
+ * This benchmark boots the full application on a random port against an in-memory H2
+ * database with Hibernate statistics on, creates {@value #LINKS} short links with a few
+ * clicks each, and then polls like a dashboard: every operation fetches the statistics of
+ * {@value #WATCHED} links and the listing, and every {@value #CLICK_EVERY}th operation a
+ * visitor clicks one of the watched links first. With {@code conditional} the client sends
+ * the last ETag of each URL back as If-None-Match.
+ *
+ * Besides the time per poll, the JDBC statements prepared and the response body bytes
+ * received per poll are printed at the end of each trial.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ConditionalGet
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ConditionalGetBenchmark {
+    private static final int LINKS = 200;
+    private static final int WATCHED = 20;
+    private static final int CLICKS_PER_LINK = 3;
+    private static final int CLICK_EVERY = 10;
+
+    /** Whether the client revalidates with If-None-Match */
+    @Param({"false", "true"})
+    public boolean conditional;
+
+    private ConfigurableApplicationContext context;
+    private Statistics statistics;
+    private HttpClient client;
+    private URI listing;
+    private URI[] stats;
+    private URI[] redirects;
+    private final Map<URI, String> etags = new HashMap<>();
+    private long polls;
+    private long bytes;
+    private long notModified;
+    private long statementsBefore;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws Exception {
+        context = new SpringApplication(UrlshortenerandanalyzerApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:conditional-get-" + conditional + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--urlshortener.rate-limit.enabled=false",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=true",
+                "--logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN");
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        String base = "http://localhost:" + port + "/api/";
+
+        client = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+        listing = URI.create(base + "urls");
+        stats = new URI[WATCHED];
+        redirects = new URI[WATCHED];
+        for (int i = 0; i < LINKS; i++) {
+            HttpRequest shorten = HttpRequest.newBuilder(URI.create(base + "shorten"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"originalUrl\":\"https://example.com/" + i + "\"}"))
+                    .build();
+            String body = client.send(shorten, HttpResponse.BodyHandlers.ofString()).body();
+            String code = body.replaceAll(".*\"shortCode\":\"([^\"]+)\".*", "$1");
+            URI redirect = URI.create(base + code);
+            for (int click = 0; click < CLICKS_PER_LINK; click++) {
+                client.send(HttpRequest.newBuilder(redirect).build(), HttpResponse.BodyHandlers.discarding());
+            }
+            if (i < WATCHED) {
+                stats[i] = URI.create(base + "stats/" + code);
+                redirects[i] = redirect;
+            }
+        }
+        // let the click buffer write the clicks
+        Thread.sleep(2000);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        polls = 0;
+        bytes = 0;
+        notModified = 0;
+        statementsBefore = statistics.getPrepareStatementCount();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printCounters() {
+        long statements = statistics.getPrepareStatementCount() - statementsBefore;
+        System.out.printf("%n%,d polls: %.1f statements, %,d body bytes, %.1f%% not modified per poll%n",
+                polls, (double) statements / polls, bytes / polls,
+                100.0 * notModified / (polls * (WATCHED + 1)));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public long poll() throws Exception {
+        if (polls % CLICK_EVERY == 0) {
+            client.send(HttpRequest.newBuilder(redirects[(int) (polls / CLICK_EVERY % WATCHED)]).build(),
+                    HttpResponse.BodyHandlers.discarding());
+        }
+        polls++;
+        long received = 0;
+        for (URI uri : stats) {
+            received += fetch(uri);
+        }
+        return received + fetch(listing);
+    }
+
+    private long fetch(URI uri) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri);
+        String etag = etags.get(uri);
+        if (conditional && etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() == 304) {
+            notModified++;
+        } else if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode() + " for " + uri);
+        }
+        response.headers().firstValue("ETag").ifPresent(value -> etags.put(uri, value));
+        bytes += response.body().length;
+        return response.body().length;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ConditionalGetBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
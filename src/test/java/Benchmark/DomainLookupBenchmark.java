@@ -0,0 +1,165 @@
+package Benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import Analytics.ReferrerDomain;
+import Model.ShortUrl;
+import Storage.TargetHostIndex;
+import Storage.TargetHostSummary;
+
+/**
+ * Links of one domain through the target host index against a LIKE scan of original_url
+ *
+ * The setup stores {@value #LINKS} links spread over {@value #HOSTS} hosts (a few hosts have
+ * many links, most have few) with their target host, and loads the host summary. The
+ * benchmarks read the first page of {@value #PAGE} links of a host, and count its links:
+ * - indexPage / indexCount: the TargetHostIndex page query and the in-memory summary
+ * - likeScanPage / likeScanCount: the same through "original_url LIKE '%://host/%'"
+ * {@code host} picks a host with few links (the scan reads the whole table) or many (the
+ * scan can stop at the page's last link).
+ *
+ * The database is in-memory H2 unless {@code database} is a PostgreSQL JDBC URL; the schema
+ * "domain_lookup" is then dropped and recreated.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=DomainLookup
+ * Against PostgreSQL: -Dbenchmark="DomainLookup -p database=jdbc:postgresql://localhost:5432/postgres?user=postgres"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class DomainLookupBenchmark {
+    private static final int LINKS = 2_000_000;
+    private static final int HOSTS = 50_000;
+    private static final int PAGE = 100;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    /** "h2", or the JDBC URL of a PostgreSQL database */
+    @Param({"h2"})
+    public String database;
+
+    /** "rare": a host with a handful of links; "popular": the host with the most links */
+    @Param({"rare", "popular"})
+    public String host;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TargetHostIndex index;
+    private String targetHost;
+    private String pattern;
+
+    @Setup
+    public void setUp() throws Exception {
+        dataSource = new HikariDataSource();
+        if ("h2".equals(database)) {
+            dataSource.setJdbcUrl("jdbc:h2:mem:domain_lookup;DB_CLOSE_DELAY=-1");
+            dataSource.setUsername("sa");
+            dataSource.setPassword("");
+            new JdbcTemplate(dataSource).execute("DROP ALL OBJECTS");
+        } else {
+            dataSource.setJdbcUrl(database + (database.contains("?") ? "&" : "?") + "currentSchema=domain_lookup");
+            new JdbcTemplate(dataSource).execute("DROP SCHEMA IF EXISTS domain_lookup CASCADE");
+        }
+        FluentConfiguration flyway = Flyway.configure().dataSource(dataSource);
+        if ("h2".equals(database)) {
+            flyway.locations("classpath:db/migration/h2");
+        } else {
+            flyway.schemas("domain_lookup").locations("classpath:db/migration/postgresql");
+        }
+        flyway.load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // host ranks drawn from a power law, so host 0 is the most popular
+        Random random = new Random(49);
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement insert = connection.prepareStatement("INSERT INTO short_url "
+                        + "(short_code, original_url, created_at, target_host) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < LINKS; i++) {
+                int rank = (int) (HOSTS * Math.pow(random.nextDouble(), 3));
+                String url = "https://" + (rank % 3 == 0 ? "www." : "") + "site" + rank + ".example/articles/"
+                        + random.nextInt(1_000_000) + "?utm_source=newsletter";
+                insert.setString(1, Long.toString(100_000_000L + i * 7_919L, 36));
+                insert.setString(2, url);
+                insert.setTimestamp(3, Timestamp.valueOf(START.plusSeconds(i * 30L)));
+                insert.setString(4, ReferrerDomain.of(url));
+                insert.addBatch();
+                if (i % 10_000 == 9_999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        if (!"h2".equals(database)) {
+            jdbcTemplate.execute("ANALYZE short_url");
+        }
+        index = new TargetHostIndex(jdbcTemplate, 1, 1_000, new TargetHostSummary(), Duration.ZERO);
+        index.refresh();
+        targetHost = "rare".equals(host) ? "site" + (HOSTS - 2) + ".example" : "site1.example";
+        pattern = "%://%" + targetHost + "/%";
+        System.out.printf("%n%s: %,d of %,d links%n", targetHost, index.summary().count(targetHost), LINKS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        index.close();
+        dataSource.close();
+    }
+
+    @Benchmark
+    public List<ShortUrl> indexPage() {
+        return index.page(targetHost, 0, PAGE);
+    }
+
+    @Benchmark
+    public long indexCount() {
+        return index.summary().count(targetHost);
+    }
+
+    @Benchmark
+    public List<Long> likeScanPage() {
+        return jdbcTemplate.queryForList("SELECT id FROM short_url WHERE original_url LIKE ? ORDER BY id LIMIT ?",
+                Long.class, pattern, PAGE);
+    }
+
+    @Benchmark
+    public Long likeScanCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM short_url WHERE original_url LIKE ?", Long.class,
+                pattern);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DomainLookupBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,92 @@
+package Benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import Analytics.GeoIpLookup;
+
+/**
+ * Throughput of IP-to-country lookups
+ *
+ * Builds a synthetic database of 300,000 IPv4 ranges, about the size of a full country
+ * database, and resolves random addresses, both from dotted strings as they arrive with a
+ * request and from already parsed ints. Results are lookups per second and thread.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=GeoIpLookup
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeoIpLookupBenchmark {
+    private static final int RANGES = 300_000;
+    private static final int ADDRESSES = 4096;
+    private static final String[] COUNTRIES = {"US", "DE", "FR", "GB", "CN", "JP", "BR", "IN", "AU", "CA"};
+
+    private GeoIpLookup lookup;
+    private String[] dottedAddresses;
+    private int[] addresses;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(7);
+        StringBuilder csv = new StringBuilder();
+        long step = (1L << 32) / RANGES;
+        for (int i = 0; i < RANGES; i++) {
+            long first = i * step;
+            // leave a gap at the end of every fourth range
+            long last = first + step - 1 - (i % 4 == 0 ? step / 2 : 0);
+            csv.append(dotted((int) first)).append(',').append(dotted((int) last)).append(',')
+                    .append(COUNTRIES[random.nextInt(COUNTRIES.length)]).append('\n');
+        }
+        lookup = GeoIpLookup.load(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.US_ASCII)));
+
+        dottedAddresses = new String[ADDRESSES];
+        addresses = new int[ADDRESSES];
+        for (int i = 0; i < ADDRESSES; i++) {
+            addresses[i] = random.nextInt();
+            dottedAddresses[i] = dotted(addresses[i]);
+        }
+    }
+
+    @Benchmark
+    public String lookupDotted() {
+        return lookup.country(dottedAddresses[next++ & (ADDRESSES - 1)]);
+    }
+
+    @Benchmark
+    public String lookupParsed() {
+        return lookup.country(addresses[next++ & (ADDRESSES - 1)]);
+    }
+
+    private static String dotted(int address) {
+        return (address >>> 24) + "." + ((address >>> 16) & 0xFF) + "." + ((address >>> 8) & 0xFF) + "."
+                + (address & 0xFF);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GeoIpLookupBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
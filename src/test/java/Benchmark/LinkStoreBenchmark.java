@@ -0,0 +1,112 @@
+package Benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.FileSystemUtils;
+
+import Model.ShortUrl;
+import Service.UrlService;
+import com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication;
+
+/**
+ * Redirect throughput of the JPA storage backend versus the in-memory store
+ *
+ * Boots the application without a web server in either storage mode ("jpa" against an
+ * in-memory H2 database, "memory" with the snapshot and journal in a temporary directory),
+ * creates a set of links and then resolves them through {@link UrlService#getOriginalUrl}
+ * from 16 threads, click recording included. HTTP handling is left out so that the numbers
+ * reflect the storage path.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=LinkStore
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(16)
+public class LinkStoreBenchmark {
+    private static final int LINK_COUNT = 1000;
+
+    /** Value of urlshortener.storage.mode */
+    @Param({"jpa", "memory"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private Path dataDir;
+    private UrlService urlService;
+    private MockHttpServletRequest request;
+    private String[] codes;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void startApplication() throws IOException {
+        dataDir = Files.createTempDirectory("link-store-benchmark");
+        SpringApplication application = new SpringApplication(UrlshortenerandanalyzerApplication.class);
+        if ("memory".equals(mode)) {
+            application.setAdditionalProfiles("memory");
+        }
+        context = application.run(
+                "--spring.main.web-application-type=none",
+                "--spring.jpa.show-sql=false",
+                "--urlshortener.storage.data-dir=" + dataDir,
+                "--spring.datasource.url=jdbc:h2:mem:link-store;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop");
+        urlService = context.getBean(UrlService.class);
+
+        codes = new String[LINK_COUNT];
+        for (int i = 0; i < LINK_COUNT; i++) {
+            codes[i] = urlService.createShortUrl("https://example.com/" + i).getShortCode();
+        }
+        request = new MockHttpServletRequest();
+        request.setRemoteAddr("203.0.113.7");
+        request.addHeader("User-Agent", "Mozilla/5.0");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(dataDir);
+    }
+
+    @Benchmark
+    public ShortUrl resolve() {
+        String code = codes[Math.floorMod(next.getAndIncrement(), LINK_COUNT)];
+        return urlService.getOriginalUrl(code, request).orElseThrow();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LinkStoreBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,124 @@
+package Benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication;
+
+import Live.LiveClickStream;
+
+/**
+ * Load-test scenario for redirects under live click stream subscribers
+ *
+ * This benchmark boots the full application on a random port against an in-memory H2
+ * database, creates one short link and opens {@code subscribers} concurrent
+ * GET /api/stats/{code}/live streams on it. It then samples the latency of redirects to that
+ * link, each of which publishes a click every stream receives. Compare the percentiles of
+ * {@code subscribers=0} and {@code subscribers=1000}: the redirect path only publishes into
+ * the ring buffer, so they should stay close.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=LiveClickStream
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class LiveClickStreamBenchmark {
+
+    /** Number of open live streams on the redirected link */
+    @Param({"0", "1000"})
+    public int subscribers;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest redirect;
+    private final List<CompletableFuture<HttpResponse<Void>>> streams = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void startApplication() throws Exception {
+        context = new SpringApplication(UrlshortenerandanalyzerApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:live-" + subscribers + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--urlshortener.rate-limit.enabled=false",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=false");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        String base = "http://localhost:" + port + "/api/";
+
+        client = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+        HttpRequest shorten = HttpRequest.newBuilder(URI.create(base + "shorten"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"originalUrl\":\"https://example.com/live\"}"))
+                .build();
+        String body = client.send(shorten, HttpResponse.BodyHandlers.ofString()).body();
+        String code = body.replaceAll(".*\"shortCode\":\"([^\"]+)\".*", "$1");
+        redirect = HttpRequest.newBuilder(URI.create(base + code)).GET().build();
+
+        HttpClient streamClient = HttpClient.newHttpClient();
+        HttpRequest live = HttpRequest.newBuilder(URI.create(base + "stats/" + code + "/live")).build();
+        for (int i = 0; i < subscribers; i++) {
+            streams.add(streamClient.sendAsync(live, HttpResponse.BodyHandlers.discarding()));
+        }
+        LiveClickStream liveClickStream = context.getBean(LiveClickStream.class);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (liveClickStream.subscriberCount() < subscribers) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Only " + liveClickStream.subscriberCount() + " streams opened");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        streams.forEach(stream -> stream.cancel(true));
+        context.close();
+    }
+
+    @Benchmark
+    public int redirect() throws Exception {
+        HttpResponse<Void> response = client.send(redirect, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 302) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LiveClickStreamBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
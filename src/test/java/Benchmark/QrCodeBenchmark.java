@@ -0,0 +1,97 @@
+package Benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import Qr.QrCodeCache;
+import Qr.QrFormat;
+import Qr.QrRenderer;
+
+/**
+ * QR code images rendered per request against served from the QrCodeCache
+ *
+ * The setup fills a cache with the images of {@value #LINKS} short URLs. The benchmarks
+ * return the image of one of them, cycling through the links:
+ * - render: encodes and writes the image on every call, as without a cache
+ * - cached: a cache hit, returning the cached array
+ * The number of renders during the trial is printed at its end; for cached it is zero.
+ * With "-prof gc" the allocation per operation (gc.alloc.rate.norm) shows that a hit
+ * allocates only its cache key, no image buffer.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark="QrCode -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class QrCodeBenchmark {
+    private static final int LINKS = 256;
+
+    @Param({"PNG", "SVG"})
+    public QrFormat format;
+
+    @Param({"300", "1024"})
+    public int size;
+
+    private String[] urls;
+    private QrCodeCache cache;
+    private long rendersBefore;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        urls = new String[LINKS];
+        cache = new QrCodeCache(256L * 1024 * 1024);
+        for (int i = 0; i < LINKS; i++) {
+            urls[i] = "https://sho.rt/api/" + Long.toString(100_000_000L + i * 7_919L, 36);
+            cache.get(urls[i], size, format);
+        }
+        rendersBefore = cache.renderCount();
+        System.out.printf("%n%s %dpx: %,d bytes per image%n", format, size,
+                cache.weightedSize() / LINKS - 2 * urls[0].length());
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%nImages rendered by the cache during the trial: %d%n",
+                cache.renderCount() - rendersBefore);
+    }
+
+    @Benchmark
+    public byte[] render() {
+        return QrRenderer.render(nextUrl(), size, format);
+    }
+
+    @Benchmark
+    public byte[] cached() {
+        return cache.get(nextUrl(), size, format);
+    }
+
+    private String nextUrl() {
+        next = (next + 1) & (LINKS - 1);
+        return urls[next];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(QrCodeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
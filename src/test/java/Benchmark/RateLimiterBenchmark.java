@@ -0,0 +1,88 @@
+package Benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import Limiter.ClientRateLimiter;
+import Limiter.EndpointClass;
+
+/**
+ * Cost of the per-client rate limit check on the redirect path
+ *
+ * Eight threads check the same limiter concurrently: once all as one client, so every check
+ * contends on the same bucket's compare-and-set, and once spread over 50,000 client addresses,
+ * whose buckets refill so fast that the sweeper drops them every second and checks keep
+ * creating new ones. The limit is high enough that checks are admitted. Results are in nanoseconds per check; the target is under
+ * one microsecond.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=RateLimiter
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class RateLimiterBenchmark {
+    private static final int CLIENTS = 50_000;
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        ClientRateLimiter limiter;
+        String[] clients;
+
+        @TearDown
+        public void tearDown() {
+            limiter.close();
+        }
+
+        @Setup
+        public void setUp() {
+            limiter = new ClientRateLimiter(
+                    Map.of(EndpointClass.REDIRECT, new ClientRateLimiter.Limit(1e9, 1_000_000)),
+                    CLIENTS * 2);
+            clients = new String[CLIENTS];
+            for (int i = 0; i < CLIENTS; i++) {
+                clients[i] = "10." + (i >> 16 & 0xff) + "." + (i >> 8 & 0xff) + "." + (i & 0xff);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public long sameClient(Shared shared) {
+        return shared.limiter.tryAcquire(EndpointClass.REDIRECT, "10.0.0.1");
+    }
+
+    @Benchmark
+    public long manyClients(Shared shared, Cursor cursor) {
+        cursor.next = cursor.next + 7919 < CLIENTS ? cursor.next + 7919 : cursor.next + 7919 - CLIENTS;
+        return shared.limiter.tryAcquire(EndpointClass.REDIRECT, shared.clients[cursor.next]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RateLimiterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
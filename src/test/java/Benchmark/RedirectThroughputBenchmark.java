@@ -0,0 +1,118 @@
+package Benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication;
+
+/**
+ * Load-test scenario for the redirect endpoint
+ *
+ * This benchmark boots the full application on a random port against an in-memory H2
+ * database, creates a set of short links and then hammers {@code GET /api/{code}} from
+ * 16 concurrent clients. Every request resolves the link and records a click, so the
+ * scenario covers both the cached read path and the click insert.
+ *
+ * The {@code profile} parameter runs the scenario once with the default configuration and
+ * once with the {@code perf} profile, so the report shows redirect throughput before and after
+ * the tuning side by side.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=RedirectThroughput
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(16)
+public class RedirectThroughputBenchmark {
+    private static final int LINK_COUNT = 1000;
+
+    /** Spring profile under test; "default" means no extra profile */
+    @Param({"default", "perf"})
+    public String profile;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI[] redirects;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void startApplication() throws Exception {
+        SpringApplication application = new SpringApplication(UrlshortenerandanalyzerApplication.class);
+        if (!"default".equals(profile)) {
+            application.setAdditionalProfiles(profile);
+        }
+        context = application.run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:redirect-" + profile + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--urlshortener.rate-limit.enabled=false",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        String base = "http://localhost:" + port + "/api/";
+
+        client = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+        redirects = new URI[LINK_COUNT];
+        for (int i = 0; i < LINK_COUNT; i++) {
+            HttpRequest shorten = HttpRequest.newBuilder(URI.create(base + "shorten"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"originalUrl\":\"https://example.com/" + i + "\"}"))
+                    .build();
+            String body = client.send(shorten, HttpResponse.BodyHandlers.ofString()).body();
+            String code = body.replaceAll(".*\"shortCode\":\"([^\"]+)\".*", "$1");
+            redirects[i] = URI.create(base + code);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public int redirect() throws Exception {
+        URI uri = redirects[Math.floorMod(next.getAndIncrement(), LINK_COUNT)];
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri).GET().build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 302) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode() + " for " + uri);
+        }
+        return response.statusCode();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RedirectThroughputBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,197 @@
+package Benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import Cache.LinkVersions;
+import Cache.LocalInvalidationBus;
+import Snapshot.LinkSnapshotExporter;
+import Snapshot.LinkSnapshotImporter;
+import Snapshot.LinkSnapshotReader;
+
+/**
+ * Bootstrapping a link table from a snapshot against replaying it link by link
+ *
+ * The setup fills a source database with {@value #LINKS} links and exports them once; the
+ * snapshot size per link is printed. Each invocation then starts from an empty, migrated
+ * target database:
+ * - importSnapshot: the LinkSnapshotImporter (batched staging on H2, COPY on PostgreSQL)
+ * - insertOneByOne: one autocommitted INSERT per link, as replaying the links through the
+ *   application would
+ * The format's own cost is measured by decodeSnapshot (read and checksum, no database) and
+ * exportSnapshot (keyset pages into a discarding stream).
+ *
+ * The databases are in-memory H2 ones unless {@code database} is a PostgreSQL JDBC URL; source
+ * and target are then the schemas "snapshot_source" and "snapshot_target", dropped and recreated.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=Snapshot
+ * Against PostgreSQL: -Dbenchmark="Snapshot -p database=jdbc:postgresql://localhost:5432/postgres?user=postgres"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class SnapshotBenchmark {
+    private static final int LINKS = 1_000_000;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    /** "h2", or the JDBC URL of a PostgreSQL database */
+    @Param({"h2"})
+    public String database;
+
+    private HikariDataSource source;
+    private LinkSnapshotExporter exporter;
+    private byte[] snapshot;
+
+    /** An empty target database per invocation */
+    @State(Scope.Thread)
+    public static class Target {
+        HikariDataSource dataSource;
+        LinkSnapshotImporter importer;
+
+        @Setup(Level.Invocation)
+        public void migrate(SnapshotBenchmark benchmark) {
+            dataSource = benchmark.emptyDatabase("snapshot_target");
+            importer = new LinkSnapshotImporter(new JdbcTemplate(dataSource), benchmark.isH2(), 1, 5_000,
+                    new LinkVersions(new LocalInvalidationBus(), LinkVersions.DEFAULT_STRIPES));
+        }
+
+        @TearDown(Level.Invocation)
+        public void close() {
+            dataSource.close();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        source = emptyDatabase("snapshot_source");
+        Random random = new Random(5);
+        try (Connection connection = source.getConnection();
+                PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO short_url (short_code, original_url, created_at) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < LINKS; i++) {
+                insert.setString(1, Long.toString(100_000_000L + i * 7_919L, 36));
+                insert.setString(2, "https://example.com/articles/" + random.nextInt(1_000_000) + "?utm_source=newsletter");
+                insert.setTimestamp(3, Timestamp.valueOf(START.plusSeconds(i * 30L + random.nextInt(30))));
+                insert.addBatch();
+                if (i % 10_000 == 9_999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        exporter = new LinkSnapshotExporter(new JdbcTemplate(source), 1, 10_000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * LINKS);
+        exporter.export(0, 0, out);
+        snapshot = out.toByteArray();
+        System.out.printf("%n%,d links: %,d snapshot bytes, %.1f bytes per link%n", LINKS, snapshot.length,
+                (double) snapshot.length / LINKS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        source.close();
+    }
+
+    @Benchmark
+    public long importSnapshot(Target target) throws IOException {
+        return target.importer.importFrom(new ByteArrayInputStream(snapshot)).imported();
+    }
+
+    @Benchmark
+    public long insertOneByOne(Target target) throws IOException, SQLException {
+        long inserted = 0;
+        LinkSnapshotReader reader = new LinkSnapshotReader(new ByteArrayInputStream(snapshot));
+        try (Connection connection = target.dataSource.getConnection();
+                PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO short_url (id, short_code, original_url, created_at) VALUES (?, ?, ?, ?)")) {
+            while (reader.next()) {
+                insert.setLong(1, reader.id());
+                insert.setString(2, reader.shortCode());
+                insert.setString(3, reader.originalUrl());
+                insert.setTimestamp(4, Timestamp.valueOf(reader.createdAt()));
+                inserted += insert.executeUpdate();
+            }
+        }
+        return inserted;
+    }
+
+    @Benchmark
+    public long decodeSnapshot() throws IOException {
+        LinkSnapshotReader reader = new LinkSnapshotReader(new ByteArrayInputStream(snapshot));
+        long checksum = 0;
+        while (reader.next()) {
+            checksum += reader.id() + reader.shortCode().length() + reader.originalUrl().length();
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public long exportSnapshot() throws IOException {
+        return exporter.export(0, 0, OutputStream.nullOutputStream()).links();
+    }
+
+    private boolean isH2() {
+        return "h2".equals(database);
+    }
+
+    private HikariDataSource emptyDatabase(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        if (isH2()) {
+            dataSource.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+            dataSource.setUsername("sa");
+            dataSource.setPassword("");
+            new JdbcTemplate(dataSource).execute("DROP ALL OBJECTS");
+        } else {
+            dataSource.setJdbcUrl(database + (database.contains("?") ? "&" : "?") + "currentSchema=" + name);
+            new JdbcTemplate(dataSource).execute("DROP SCHEMA IF EXISTS " + name + " CASCADE");
+        }
+        FluentConfiguration flyway = Flyway.configure().dataSource(dataSource);
+        if (isH2()) {
+            flyway.locations("classpath:db/migration/h2");
+        } else {
+            flyway.schemas(name).locations("classpath:db/migration/postgresql");
+        }
+        flyway.load().migrate();
+        return dataSource;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SnapshotBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
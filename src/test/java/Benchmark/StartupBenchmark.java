@@ -0,0 +1,262 @@
+package Benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures how soon a freshly started node serves its first redirect
+ *
+ * Every invocation starts the application in a new JVM from the jar extracted by the
+ * fast-start profile, against an H2 file database holding {@value #LINKS} links whose hourly
+ * aggregates make {@value #HOT_LINKS} of them the most clicked. Like a load balancer, the
+ * benchmark waits for /actuator/health/readiness before it sends traffic, then resolves
+ * the least clicked of the hot links.
+ *
+ * - timeToFirstRedirect: from launching the JVM to the first 302 (the autoscaling delay)
+ * - firstRedirect: the first redirect alone, once the node is ready (the cold path)
+ *
+ * Modes: "jit" is a plain JVM start; "cds" adds a class-data sharing archive recorded by a
+ * training run in the setup; "aot" uses the AOT-processed bean definitions
+ * (-Dspring.aot.enabled=true); "aot-cds" combines both. "preload" is the number of
+ * most-clicked links loaded before the node reports ready.
+ *
+ * Run with: mvn -Pfast-start package -DskipTests && mvn -Pbenchmark test-compile exec:exec -Dbenchmark=Startup
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+    private static final int LINKS = 10_000;
+    private static final int HOT_LINKS = 1_000;
+    private static final String MAIN_CLASS = "com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication";
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(2);
+
+    @State(Scope.Benchmark)
+    public static class Node {
+        /** JVM start mode: jit, cds, aot or aot-cds */
+        @Param({"jit", "cds", "aot", "aot-cds"})
+        public String mode;
+
+        /** Number of most-clicked links preloaded before readiness */
+        @Param({"0", "1000"})
+        public int preload;
+
+        Path directory;
+        String classPath;
+        String databaseUrl;
+        HttpClient client = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+
+        @Setup(Level.Trial)
+        public void prepare() throws Exception {
+            Path jar = Path.of("target", "fast-start", "urlshortenerandanalyzer-0.0.1-SNAPSHOT.jar");
+            if (!Files.exists(jar)) {
+                throw new IllegalStateException("Build the fast-start layout first: mvn -Pfast-start package -DskipTests");
+            }
+            directory = Files.createTempDirectory("startup-benchmark");
+            String h2 = Path.of(org.h2.Driver.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+            classPath = jar.toAbsolutePath() + File.pathSeparator + h2;
+            databaseUrl = "jdbc:h2:file:" + directory.resolve("links").toAbsolutePath();
+            seed(databaseUrl);
+            if (mode.endsWith("cds")) {
+                List<String> training = command(0);
+                training.add(1, "-XX:ArchiveClassesAtExit=" + directory.resolve("app.jsa"));
+                training.add(2, "-Dspring.context.exit=onRefresh");
+                Process process = start(training);
+                if (!process.waitFor(START_TIMEOUT.toSeconds(), TimeUnit.SECONDS) || process.exitValue() != 0) {
+                    process.destroyForcibly();
+                    throw new IllegalStateException("Class-data sharing training run failed, see " + directory);
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void cleanUp() throws IOException {
+            try (var files = Files.walk(directory)) {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+
+        /**
+         * Launches the application and waits until it reports ready
+         *
+         * @return The running process and its port
+         */
+        Started launch() throws Exception {
+            int port;
+            try (ServerSocket socket = new ServerSocket(0)) {
+                port = socket.getLocalPort();
+            }
+            Process process = start(command(port));
+            URI readiness = URI.create("http://localhost:" + port + "/api/actuator/health/readiness");
+            long deadline = System.nanoTime() + START_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited, see " + directory);
+                }
+                try {
+                    if (client.send(HttpRequest.newBuilder(readiness).build(),
+                            HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return new Started(process, port);
+                    }
+                } catch (IOException notListeningYet) {
+                    // retry
+                }
+                Thread.sleep(5);
+            }
+            process.destroyForcibly();
+            throw new IllegalStateException("Application did not become ready, see " + directory);
+        }
+
+        int redirect(Started node) throws Exception {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + node.port() + "/api/hot" + (HOT_LINKS - 1))).build();
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status != 302) {
+                throw new IllegalStateException("Unexpected status " + status);
+            }
+            return status;
+        }
+
+        private List<String> command(int port) {
+            List<String> command = new ArrayList<>(List.of(
+                    Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+            if (mode.endsWith("cds") && port != 0) {
+                command.add("-XX:SharedArchiveFile=" + directory.resolve("app.jsa"));
+            }
+            if (mode.startsWith("aot")) {
+                command.add("-Dspring.aot.enabled=true");
+            }
+            command.addAll(List.of("-cp", classPath, MAIN_CLASS,
+                    "--server.port=" + port,
+                    "--spring.datasource.url=" + databaseUrl,
+                    "--spring.datasource.driver-class-name=org.h2.Driver",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                    "--spring.jpa.show-sql=false",
+                    "--urlshortener.rate-limit.enabled=false",
+                    "--urlshortener.storage.preload-top-links=" + preload,
+                    "--logging.level.root=WARN"));
+            return command;
+        }
+
+        private Process start(List<String> command) throws IOException {
+            return new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.appendTo(directory.resolve("app.log").toFile()))
+                    .start();
+        }
+    }
+
+    /**
+     * A running application, stopped after each invocation
+     */
+    record Started(Process process, int port) {
+        void stop() throws InterruptedException {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ReadyNode {
+        Started started;
+
+        @Setup(Level.Invocation)
+        public void launch(Node node) throws Exception {
+            started = node.launch();
+        }
+
+        @TearDown(Level.Invocation)
+        public void stop() throws InterruptedException {
+            started.stop();
+        }
+    }
+
+    @Benchmark
+    public int timeToFirstRedirect(Node node) throws Exception {
+        Started started = node.launch();
+        try {
+            return node.redirect(started);
+        } finally {
+            started.stop();
+        }
+    }
+
+    @Benchmark
+    public int firstRedirect(Node node, ReadyNode ready) throws Exception {
+        return node.redirect(ready.started);
+    }
+
+    /**
+     * Migrates the schema and stores the links with hourly aggregates over the last day
+     */
+    private static void seed(String databaseUrl) throws SQLException {
+        Flyway.configure().dataSource(databaseUrl, "sa", "").locations("classpath:db/migration/h2").load().migrate();
+        LocalDateTime hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(1);
+        try (Connection connection = DriverManager.getConnection(databaseUrl, "sa", "");
+                PreparedStatement link = connection.prepareStatement(
+                        "INSERT INTO short_url (id, short_code, original_url, created_at) VALUES (?, ?, ?, ?)");
+                PreparedStatement aggregate = connection.prepareStatement("INSERT INTO click_aggregate "
+                        + "(short_url_id, bucket_start, browser, os, device, country, bot, clicks) "
+                        + "VALUES (?, ?, 0, 0, 0, 'ZZ', FALSE, ?)")) {
+            for (int i = 0; i < LINKS; i++) {
+                boolean hot = i < HOT_LINKS;
+                link.setLong(1, i + 1);
+                link.setString(2, (hot ? "hot" : "cold") + i);
+                link.setString(3, "https://example.com/" + i);
+                link.setTimestamp(4, Timestamp.valueOf(hour));
+                link.addBatch();
+                aggregate.setLong(1, i + 1);
+                aggregate.setTimestamp(2, Timestamp.valueOf(hour));
+                aggregate.setLong(3, hot ? 1_000 - i % 1_000 : 1);
+                aggregate.addBatch();
+            }
+            link.executeBatch();
+            aggregate.executeBatch();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StartupBenchmark.class.getSimpleName()).build()).run();
+    }
+}
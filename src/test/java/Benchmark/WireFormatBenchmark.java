@@ -0,0 +1,175 @@
+package Benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import Analytics.BrowserFamily;
+import Analytics.DeviceClass;
+import Analytics.OsFamily;
+import Controller.WireFormats;
+import Model.ClickStats;
+import Model.ShortUrl;
+
+/**
+ * Encode and decode throughput of click exports and link listings in JSON, CBOR and Smile
+ *
+ * The setup builds {@value #RECORDS} clicks with realistic visitor fields and as many links,
+ * and the benchmarks stream them the way the export endpoints do: one array, each record
+ * written with the format's generator, and read back record by record. Bytes per record of
+ * each format are printed once per trial.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=WireFormat
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class WireFormatBenchmark {
+    private static final int RECORDS = 10_000;
+    private static final String[] REFERRERS = {null, "https://www.google.com/", "https://t.co/abc",
+        "https://news.ycombinator.com/item?id=1"};
+    private static final String[] AGENTS = {
+        "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0 Safari/537.36",
+        "Mozilla/5.0 (iPhone; CPU iPhone OS 17_5 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Mobile/15E148",
+        "Mozilla/5.0 (X11; Linux x86_64; rv:127.0) Gecko/20100101 Firefox/127.0"};
+
+    /** Media type of the format under test */
+    @Param({"application/json", "application/cbor", "application/x-jackson-smile"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private ObjectWriter clickWriter;
+    private ObjectWriter linkWriter;
+    private ObjectReader clickReader;
+    private ObjectReader linkReader;
+    private List<ClickStats> clicks;
+    private List<ShortUrl> links;
+    private byte[] encodedClicks;
+    private byte[] encodedLinks;
+
+    @Setup
+    public void setUp() throws IOException {
+        WireFormats formats = new WireFormats(Jackson2ObjectMapperBuilder.json().build());
+        mapper = formats.mapper(MediaType.parseMediaType(format));
+        clickWriter = mapper.writerFor(ClickStats.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        linkWriter = mapper.writerFor(ShortUrl.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        clickReader = mapper.readerFor(ClickStats.class);
+        linkReader = mapper.readerFor(ShortUrl.class);
+
+        Random random = new Random(7);
+        LocalDateTime start = LocalDateTime.of(2025, 6, 1, 0, 0);
+        clicks = new ArrayList<>(RECORDS);
+        links = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            clicks.add(ClickStats.builder()
+                    .id(1_000_000L + i)
+                    .clickedAt(start.plusSeconds(random.nextInt(30 * 86_400)))
+                    .ipAddress("10." + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256))
+                    .referrer(REFERRERS[random.nextInt(REFERRERS.length)])
+                    .userAgent(AGENTS[random.nextInt(AGENTS.length)])
+                    .browser(BrowserFamily.values()[random.nextInt(BrowserFamily.values().length)])
+                    .os(OsFamily.values()[random.nextInt(OsFamily.values().length)])
+                    .device(DeviceClass.values()[random.nextInt(DeviceClass.values().length)])
+                    .country(random.nextBoolean() ? "US" : "DE")
+                    .bot(random.nextInt(10) == 0)
+                    .shortUrlId(42L)
+                    .build());
+            links.add(ShortUrl.builder()
+                    .id(10_000L + i)
+                    .shortCode(Long.toString(100_000_000L + random.nextInt(900_000_000), 36))
+                    .originalUrl("https://example.com/articles/" + random.nextInt(1_000_000) + "?utm_source=newsletter")
+                    .createdAt(start.plusSeconds(random.nextInt(86_400)))
+                    .clickStats(new ArrayList<>())
+                    .build());
+        }
+        encodedClicks = encodeClicks();
+        encodedLinks = encodeLinks();
+        System.out.printf("%n%s: %.1f bytes per click, %.1f bytes per link%n", format,
+                (double) encodedClicks.length / RECORDS, (double) encodedLinks.length / RECORDS);
+    }
+
+    @Benchmark
+    public byte[] encodeClicks() throws IOException {
+        return encode(clicks, clickWriter);
+    }
+
+    @Benchmark
+    public long decodeClicks() throws IOException {
+        return decode(encodedClicks, clickReader);
+    }
+
+    @Benchmark
+    public byte[] encodeLinks() throws IOException {
+        return encode(links, linkWriter);
+    }
+
+    @Benchmark
+    public long decodeLinks() throws IOException {
+        return decode(encodedLinks, linkReader);
+    }
+
+    private byte[] encode(List<?> records, ObjectWriter writer) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 * RECORDS);
+        try (JsonGenerator generator = mapper.createGenerator(out)) {
+            generator.writeStartArray();
+            for (Object record : records) {
+                writer.writeValue(generator, record);
+            }
+            generator.writeEndArray();
+        }
+        return out.toByteArray();
+    }
+
+    private long decode(byte[] encoded, ObjectReader reader) throws IOException {
+        long count = 0;
+        try (JsonParser parser = mapper.createParser(encoded)) {
+            parser.nextToken();
+            parser.nextToken();
+            try (MappingIterator<Object> records = reader.readValues(parser)) {
+                while (records.hasNext()) {
+                    records.next();
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WireFormatBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,180 @@
+package Cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for LinkVersions
+ *
+ * This test class connects two instances by an in-JVM bus to stand in for two nodes
+ * sharing a PostgreSQL LISTEN/NOTIFY channel, and checks that ETags change on every node
+ * when links change, stay put otherwise, and that large changes are split into payloads.
+ */
+class LinkVersionsTest {
+
+    private LocalInvalidationBus bus;
+    private List<String> published;
+    private LinkVersions localNode;
+    private LinkVersions remoteNode;
+
+    @BeforeEach
+    void setUp() {
+        bus = new LocalInvalidationBus();
+        published = new CopyOnWriteArrayList<>();
+        bus.subscribe(published::add);
+        localNode = new LinkVersions(bus, 1024);
+        remoteNode = new LinkVersions(bus, 1024);
+    }
+
+    /**
+     * Test that a change of a link changes its tag and the listing tag on every node, but no other link's tag
+     */
+    @Test
+    void changed_ShouldChangeTagsOnAllNodes() {
+        // Given
+        String localTag = localNode.linkTag(1);
+        String remoteTag = remoteNode.linkTag(1);
+        String otherTag = remoteNode.linkTag(2);
+        String listingTag = remoteNode.listingTag();
+
+        // When
+        localNode.changed(1L);
+
+        // Then
+        assertNotEquals(localTag, localNode.linkTag(1));
+        assertNotEquals(remoteTag, remoteNode.linkTag(1));
+        assertEquals(otherTag, remoteNode.linkTag(2));
+        assertNotEquals(listingTag, remoteNode.listingTag());
+        assertEquals(1, published.size());
+    }
+
+    /**
+     * Test that the time a tag last changed is kept per link and for the listing, on every node
+     */
+    @Test
+    void changedAt_ShouldFollowTagChanges() {
+        // Given
+        long before = System.currentTimeMillis();
+        assertEquals(0, remoteNode.changedAt(1));
+        assertEquals(0, remoteNode.listingChangedAt());
+
+        // When
+        localNode.changed(1L);
+
+        // Then
+        assertTrue(remoteNode.changedAt(1) >= before);
+        assertEquals(0, remoteNode.changedAt(2));
+        assertTrue(remoteNode.listingChangedAt() >= before);
+        remoteNode.invalidateAll();
+        assertTrue(remoteNode.changedAt(2) >= before, "a new epoch changes every tag");
+    }
+
+    /**
+     * Test that a single link's change, as per click in memory mode, is one stripe number and
+     * matches the bulk path, and that malformed tokens of a payload are skipped
+     */
+    @Test
+    void changed_ShouldPublishSingleStripeForOneLink() {
+        // Given
+        String before = remoteNode.linkTag(7);
+
+        // When
+        localNode.changed(7L);
+        localNode.changed(List.of(7L, 8L));
+        bus.publish("x," + published.get(0));
+
+        // Then
+        assertTrue(published.get(0).matches("\\d+"), published.get(0));
+        assertTrue(published.get(1).contains(published.get(0)), published.get(1));
+        assertEquals(before.substring(0, before.lastIndexOf('-')) + "-3\"", remoteNode.linkTag(7));
+    }
+
+    /**
+     * Test that tags are quoted, stable without changes and differ between nodes' epochs
+     */
+    @Test
+    void linkTag_ShouldBeStableQuotedAndPerEpoch() {
+        // When
+        String tag = localNode.linkTag(42);
+
+        // Then
+        assertTrue(tag.startsWith("\"") && tag.endsWith("\""), tag);
+        assertEquals(tag, localNode.linkTag(42));
+        assertNotEquals(tag, remoteNode.linkTag(42));
+    }
+
+    /**
+     * Test that changes of many links are broadcast in bounded payloads and applied in full
+     */
+    @Test
+    void changed_ShouldSplitLargeChangesIntoPayloads() {
+        // Given
+        List<Long> ids = LongStream.range(0, 5_000).boxed().collect(Collectors.toList());
+        List<String> before = ids.stream().map(remoteNode::linkTag).toList();
+
+        // When
+        localNode.changed(ids);
+
+        // Then: all 1024 stripes are hit once, in two payloads
+        assertEquals(2, published.size());
+        assertEquals(LinkVersions.MAX_STRIPES_PER_PAYLOAD, published.get(0).split(",").length);
+        for (int i = 0; i < ids.size(); i++) {
+            assertNotEquals(before.get(i), remoteNode.linkTag(ids.get(i)));
+        }
+    }
+
+    /**
+     * Test that a change of all links is one broadcast that changes every tag on every node
+     */
+    @Test
+    void changedAll_ShouldChangeEveryTagOnAllNodes() {
+        // Given
+        String linkTag = remoteNode.linkTag(3);
+        String listingTag = localNode.listingTag();
+
+        // When
+        localNode.changedAll();
+
+        // Then
+        assertEquals(List.of(InvalidationBus.INVALIDATE_ALL), published);
+        assertNotEquals(linkTag, remoteNode.linkTag(3));
+        assertNotEquals(listingTag, localNode.listingTag());
+    }
+
+    /**
+     * Test that an invalidate-all signal starts a new epoch and a link invalidation bumps its stripe
+     */
+    @Test
+    void invalidations_ShouldChangeTags() {
+        // Given
+        String linkTag = remoteNode.linkTag(7);
+        String listingTag = remoteNode.listingTag();
+
+        // When
+        bus.publish(InvalidationBus.INVALIDATE_ALL);
+
+        // Then
+        assertNotEquals(linkTag, remoteNode.linkTag(7));
+        assertNotEquals(listingTag, remoteNode.listingTag());
+
+        // A link invalidation from the ShortCodeInvalidator changes the link's tag too
+        linkTag = remoteNode.linkTag(7);
+        remoteNode.invalidate(List.of(new ShortCodeInvalidation(7L, "abc123")));
+        assertNotEquals(linkTag, remoteNode.linkTag(7));
+    }
+
+    /**
+     * Test that a stripe count other than a power of two is rejected
+     */
+    @Test
+    void constructor_ShouldRejectStripesNotPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new LinkVersions(new LocalInvalidationBus(), 1000));
+    }
+}
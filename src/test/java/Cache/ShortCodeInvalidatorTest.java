@@ -0,0 +1,166 @@
+package Cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import Model.ShortUrl;
+
+/**
+ * Unit tests for ShortCodeInvalidator
+ * 
+ * This test class uses two invalidators connected by an in-JVM bus to stand in
+ * for two nodes sharing a PostgreSQL LISTEN/NOTIFY channel, and checks batching,
+ * debouncing and delivery of invalidations.
+ */
+class ShortCodeInvalidatorTest {
+
+    private LocalInvalidationBus bus;
+    private List<String> published;
+    private RecordingHandler remoteHandler;
+    private ShortCodeInvalidator localNode;
+    private ShortCodeInvalidator remoteNode;
+
+    @BeforeEach
+    void setUp() {
+        bus = new LocalInvalidationBus();
+        published = new CopyOnWriteArrayList<>();
+        bus.subscribe(published::add);
+        remoteHandler = new RecordingHandler();
+        localNode = new ShortCodeInvalidator(bus, List.of(), 50, 3);
+        remoteNode = new ShortCodeInvalidator(bus, List.of(remoteHandler), 50, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        localNode.close();
+        remoteNode.close();
+    }
+
+    /**
+     * Test that invalidations within one debounce window are broadcast together
+     */
+    @Test
+    void invalidate_ShouldBatchInvalidationsWithinDebounceWindow() throws Exception {
+        // Given
+        remoteHandler.expect(1);
+
+        // When
+        localNode.invalidate(shortUrl(1L, "abc123"));
+        localNode.invalidate(shortUrl(2L, "def456"));
+
+        // Then
+        assertTrue(remoteHandler.await());
+        assertEquals(1, published.size());
+        assertEquals(2, remoteHandler.received.size());
+        assertTrue(remoteHandler.received.contains(new ShortCodeInvalidation(1L, "abc123")));
+        assertTrue(remoteHandler.received.contains(new ShortCodeInvalidation(2L, "def456")));
+    }
+
+    /**
+     * Test that repeated changes to the same link collapse into one token
+     */
+    @Test
+    void invalidate_ShouldCollapseDuplicateInvalidations() throws Exception {
+        // Given
+        remoteHandler.expect(1);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            localNode.invalidate(shortUrl(1L, "abc123"));
+        }
+
+        // Then
+        assertTrue(remoteHandler.await());
+        assertEquals(List.of("1:abc123"), published);
+    }
+
+    /**
+     * Test that large batches are split by the maximum batch size
+     */
+    @Test
+    void flush_ShouldSplitBatchesByMaxBatchSize() {
+        // Given
+        for (long id = 1; id <= 7; id++) {
+            localNode.enqueue(new ShortCodeInvalidation(id, "code" + id));
+        }
+
+        // When
+        localNode.flush();
+
+        // Then
+        assertEquals(3, published.size());
+        assertEquals(7, remoteHandler.received.size());
+        assertTrue(published.stream().allMatch(payload -> payload.split(",").length <= 3));
+    }
+
+    /**
+     * Test that an invalidate-all payload is dispatched to handlers
+     */
+    @Test
+    void onPayload_ShouldDispatchInvalidateAll() {
+        // When
+        bus.publish(InvalidationBus.INVALIDATE_ALL);
+
+        // Then
+        assertEquals(1, remoteHandler.invalidateAllCount.get());
+        assertTrue(remoteHandler.received.isEmpty());
+    }
+
+    /**
+     * Test that invalidation tokens round-trip through their wire form
+     */
+    @Test
+    void decode_ShouldRoundTripEncodedToken() {
+        // Given
+        ShortCodeInvalidation invalidation = new ShortCodeInvalidation(42L, "xY9zQ1");
+
+        // When & Then
+        assertEquals(invalidation, ShortCodeInvalidation.decode(invalidation.encode()));
+        assertThrows(IllegalArgumentException.class, () -> ShortCodeInvalidation.decode("abc123"));
+    }
+
+    private static ShortUrl shortUrl(Long id, String shortCode) {
+        return ShortUrl.builder()
+                .id(id)
+                .shortCode(shortCode)
+                .originalUrl("https://www.example.com")
+                .clickStats(new ArrayList<>())
+                .build();
+    }
+
+    private static class RecordingHandler implements ShortCodeInvalidationHandler {
+        private final List<ShortCodeInvalidation> received = new CopyOnWriteArrayList<>();
+        private final AtomicInteger invalidateAllCount = new AtomicInteger();
+        private volatile CountDownLatch latch = new CountDownLatch(0);
+
+        void expect(int batches) {
+            latch = new CountDownLatch(batches);
+        }
+
+        boolean await() throws InterruptedException {
+            return latch.await(5, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public void invalidate(Collection<ShortCodeInvalidation> invalidations) {
+            received.addAll(invalidations);
+            latch.countDown();
+        }
+
+        @Override
+        public void invalidateAll() {
+            invalidateAllCount.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package Controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import Config.QrConfig;
+import Qr.QrCodeCache;
+import Service.UrlService;
+
+/**
+ * Integration tests for QrController without a configured base URL
+ *
+ * This test class checks that images built from the request's Host header are not offered
+ * to shared caches, and that a Host too long for a QR code gets 400 rather than 500.
+ */
+@WebMvcTest(QrController.class)
+@ContextConfiguration(classes = {com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication.class})
+@Import(QrConfig.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "urlshortener.qr.base-url="
+})
+class QrControllerRequestHostTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QrCodeCache qrCodeCache;
+
+    @MockBean
+    private UrlService urlService;
+
+    /**
+     * Test that an image built from the Host header varies by Host and is cached privately
+     */
+    @Test
+    void qrCode_ShouldVaryByHost_WhenNoBaseUrl() throws Exception {
+        // Given
+        when(urlService.exists("abc123")).thenReturn(true);
+        long renders = qrCodeCache.renderCount();
+
+        // When & Then
+        mockMvc.perform(get("/abc123/qr").header("Host", "sho.rt"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Vary", "Host"))
+                .andExpect(header().string("Cache-Control", "max-age=86400, private"));
+        mockMvc.perform(get("/abc123/qr").header("Host", "evil.example"))
+                .andExpect(status().isOk());
+        assertEquals(renders + 2, qrCodeCache.renderCount());
+    }
+
+    /**
+     * Test that a Host header too long for a QR code gets 400
+     */
+    @Test
+    void qrCode_ShouldReturn400_WhenHostDoesNotFit() throws Exception {
+        // Given
+        when(urlService.exists("abc123")).thenReturn(true);
+
+        // When & Then
+        mockMvc.perform(get("/abc123/qr").header("Host", "h".repeat(3000) + ".example"))
+                .andExpect(status().isBadRequest());
+    }
+}
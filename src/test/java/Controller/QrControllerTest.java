@@ -0,0 +1,146 @@
+package Controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import Config.QrConfig;
+import Qr.QrCodeCache;
+import Qr.QrFormat;
+import Service.UrlService;
+
+/**
+ * Integration tests for QrController
+ *
+ * This test class requests QR codes through MockMvc and checks the status codes, headers
+ * and that repeated requests are served from the cache.
+ */
+@WebMvcTest(QrController.class)
+@ContextConfiguration(classes = {com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication.class})
+@Import(QrConfig.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "urlshortener.qr.base-url=https://sho.rt/api"
+})
+class QrControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QrCodeCache qrCodeCache;
+
+    @MockBean
+    private UrlService urlService;
+
+    /**
+     * Test that a PNG of the requested size is returned and cached
+     */
+    @Test
+    void qrCode_ShouldReturnCachedPng() throws Exception {
+        // Given
+        when(urlService.exists("abc123")).thenReturn(true);
+        long renders = qrCodeCache.renderCount();
+
+        // When
+        MvcResult first = mockMvc.perform(get("/abc123/qr").param("size", "256"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(header().string("Cache-Control", "max-age=86400, public"))
+                .andReturn();
+        MvcResult second = mockMvc.perform(get("/abc123/qr").param("size", "256"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Then
+        byte[] expected = qrCodeCache.get("https://sho.rt/api/abc123", 256, QrFormat.PNG);
+        assertEquals(expected.length, first.getResponse().getContentLength());
+        assertEquals(expected.length, second.getResponse().getContentAsByteArray().length);
+        assertEquals(renders + 1, qrCodeCache.renderCount());
+    }
+
+    /**
+     * Test that an SVG is returned with the default size
+     */
+    @Test
+    void qrCode_ShouldReturnSvg() throws Exception {
+        // Given
+        when(urlService.exists("abc123")).thenReturn(true);
+
+        // When
+        MvcResult result = mockMvc.perform(get("/abc123/qr").param("format", "svg"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/svg+xml"))
+                .andReturn();
+
+        // Then
+        String svg = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertEquals(true, svg.contains("width=\"300\" height=\"300\""));
+    }
+
+    /**
+     * Test that an unknown short code gets 404 and nothing is rendered
+     */
+    @Test
+    void qrCode_ShouldReturn404_WhenCodeNotFound() throws Exception {
+        // Given
+        when(urlService.exists("nonexistent")).thenReturn(false);
+        long renders = qrCodeCache.renderCount();
+
+        // When & Then
+        mockMvc.perform(get("/nonexistent/qr"))
+                .andExpect(status().isNotFound());
+        assertEquals(renders, qrCodeCache.renderCount());
+    }
+
+    /**
+     * Test that an out-of-range size or an unknown format gets 400
+     */
+    @Test
+    void qrCode_ShouldReturn400_WhenSizeOrFormatInvalid() throws Exception {
+        // Given
+        when(urlService.exists("abc123")).thenReturn(true);
+
+        // When & Then
+        mockMvc.perform(get("/abc123/qr").param("size", "10"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/abc123/qr").param("size", "100000"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/abc123/qr").param("format", "gif"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Test that a short URL too long for a QR code gets 400
+     */
+    @Test
+    void qrCode_ShouldReturn400_WhenUrlDoesNotFit() throws Exception {
+        // Given
+        String code = "a".repeat(3000);
+        when(urlService.exists(code)).thenReturn(true);
+
+        // When & Then
+        mockMvc.perform(get("/" + code + "/qr"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -1,19 +1,30 @@
 package Controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -24,11 +35,26 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import Analytics.BrowserFamily;
+import Analytics.DeviceClass;
+import Analytics.OsFamily;
+import DTO.AnalyticsQuery;
+import DTO.AnalyticsResult;
+import DTO.ClickBreakdown;
+import DTO.DomainLinks;
+import DTO.LinkSummary;
+import Limiter.ClientRateLimiter;
+import Limiter.EndpointClass;
+import Limiter.RateLimitFilter;
+import Live.LiveClickStream;
 import Model.ClickStats;
 import Model.ShortUrl;
 import Service.UrlService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 
 /**
  * Integration tests for UrlController
@@ -53,6 +79,9 @@ class UrlControllerTest {
     @MockBean
     private UrlService urlService;
 
+    @MockBean
+    private LiveClickStream liveClickStream;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -206,6 +235,388 @@ class UrlControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    /**
+     * Test that statistics carry an ETag and a matching If-None-Match gets 304 without loading them
+     */
+    @Test
+    void getStats_ShouldReturnNotModifiedForCurrentETag() throws Exception {
+        // Given
+        when(urlService.statsETag("abc123")).thenReturn(Optional.of("\"e1-1-7\""));
+        when(urlService.getStats("abc123")).thenReturn(Optional.of(testShortUrl));
+
+        // When & Then
+        mockMvc.perform(get("/stats/abc123"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"e1-1-7\""));
+        mockMvc.perform(get("/stats/abc123").header("If-None-Match", "\"e1-1-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"e1-1-7\""))
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/stats/abc123").header("If-None-Match", "\"e1-1-6\""))
+                .andExpect(status().isOk());
+        verify(urlService, times(2)).getStats("abc123");
+    }
+
+    /**
+     * Test that the listing gets 304 for its current ETag without being loaded
+     */
+    @Test
+    void getAllUrls_ShouldReturnNotModifiedForCurrentETag() throws Exception {
+        // Given
+        when(urlService.listingETag()).thenReturn("\"e1-42\"");
+
+        // When & Then
+        mockMvc.perform(get("/urls").header("If-None-Match", "\"e1-42\""))
+                .andExpect(status().isNotModified());
+        verify(urlService, never()).getAllUrls();
+    }
+
+    /**
+     * Test retrieval of the click breakdown
+     */
+    @Test
+    void getBreakdown_ShouldReturnCountsPerDimension() throws Exception {
+        // Given
+        ClickBreakdown breakdown = new ClickBreakdown("abc123");
+        breakdown.add(BrowserFamily.CHROME, OsFamily.ANDROID, DeviceClass.MOBILE, "DE", false, 5);
+        breakdown.add(BrowserFamily.OTHER, OsFamily.OTHER, DeviceClass.OTHER, "US", true, 2);
+        when(urlService.getClickBreakdown("abc123")).thenReturn(Optional.of(breakdown));
+
+        // When & Then
+        mockMvc.perform(get("/stats/abc123/breakdown"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalClicks").value(7))
+                .andExpect(jsonPath("$.botClicks").value(2))
+                .andExpect(jsonPath("$.browsers.CHROME").value(5))
+                .andExpect(jsonPath("$.operatingSystems.ANDROID").value(5))
+                .andExpect(jsonPath("$.devices.MOBILE").value(5))
+                .andExpect(jsonPath("$.countries.DE").value(5))
+                .andExpect(jsonPath("$.countries.US").value(2));
+    }
+
+    /**
+     * Test retrieval of the click breakdown when not found
+     */
+    @Test
+    void getBreakdown_ShouldReturnNotFoundForInvalidCode() throws Exception {
+        // Given
+        when(urlService.getClickBreakdown("nonexistent")).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/stats/nonexistent/breakdown"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Test that batch statistics are streamed as one JSON array
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void getBatchStats_ShouldStreamSummaries() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            Consumer<LinkSummary> action = invocation.getArgument(1);
+            action.accept(LinkSummary.builder().shortCode("abc123").originalUrl("https://www.example.com")
+                    .totalClicks(7).botClicks(2).build());
+            action.accept(LinkSummary.builder().shortCode("def456").originalUrl("https://www.example.org").build());
+            return null;
+        }).when(urlService).forEachLinkSummary(eq(List.of("abc123", "def456", "nope")), any(Consumer.class));
+
+        // When
+        MvcResult result = mockMvc.perform(post("/stats/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"shortCodes\": [\"abc123\", \"def456\", \"nope\"]}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].shortCode").value("abc123"))
+                .andExpect(jsonPath("$[0].totalClicks").value(7))
+                .andExpect(jsonPath("$[0].botClicks").value(2))
+                .andExpect(jsonPath("$[1].shortCode").value("def456"));
+    }
+
+    /**
+     * Test that a batch request without short codes is rejected
+     */
+    @Test
+    void getBatchStats_ShouldReturnBadRequestForEmptyList() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/stats/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"shortCodes\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Test that batch statistics are read from and streamed as CBOR when the client asks for it
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void getBatchStats_ShouldStreamCborWhenAccepted() throws Exception {
+        // Given
+        ObjectMapper cbor = objectMapper.copyWith(new CBORFactory());
+        doAnswer(invocation -> {
+            Consumer<LinkSummary> action = invocation.getArgument(1);
+            action.accept(LinkSummary.builder().shortCode("abc123").originalUrl("https://www.example.com")
+                    .totalClicks(7).build());
+            return null;
+        }).when(urlService).forEachLinkSummary(eq(List.of("abc123")), any(Consumer.class));
+
+        // When
+        MvcResult result = mockMvc.perform(post("/stats/batch")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .content(cbor.writeValueAsBytes(Map.of("shortCodes", List.of("abc123")))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        LinkSummary[] summaries = cbor.readValue(body, LinkSummary[].class);
+        assertEquals(1, summaries.length);
+        assertEquals("abc123", summaries[0].getShortCode());
+        assertEquals(7, summaries[0].getTotalClicks());
+    }
+
+    /**
+     * Test that statistics are sent as Smile on request, with an ETag of their own
+     */
+    @Test
+    void getStats_ShouldReturnSmileWithOwnETag() throws Exception {
+        // Given
+        ObjectMapper smile = objectMapper.copyWith(new SmileFactory());
+        when(urlService.statsETag("abc123")).thenReturn(Optional.of("\"e1-1-7\""));
+        when(urlService.getStats("abc123")).thenReturn(Optional.of(testShortUrl));
+
+        // When
+        byte[] body = mockMvc.perform(get("/stats/abc123").accept(WireFormats.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(WireFormats.APPLICATION_SMILE))
+                .andExpect(header().string("ETag", "\"e1-1-7-smile\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        ShortUrl decoded = smile.readValue(body, ShortUrl.class);
+        assertEquals("abc123", decoded.getShortCode());
+        assertEquals(testShortUrl.getCreatedAt(), decoded.getCreatedAt());
+        mockMvc.perform(get("/stats/abc123").header("If-None-Match", "\"e1-1-7\""))
+                .andExpect(status().isNotModified());
+    }
+
+    /**
+     * Test that a bulk shorten request creates every URL and streams the created links
+     */
+    @Test
+    void shortenBulk_ShouldCreateEachUrl() throws Exception {
+        // Given
+        when(urlService.createShortUrl(any(String.class))).thenAnswer(invocation -> ShortUrl.builder()
+                .shortCode("c" + invocation.getArgument(0, String.class).length())
+                .originalUrl(invocation.getArgument(0))
+                .build());
+
+        // When
+        MvcResult result = mockMvc.perform(post("/shorten/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"originalUrls\": [\"https://a.example\", \"https://bb.example\"]}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].originalUrl").value("https://a.example"))
+                .andExpect(jsonPath("$[1].shortCode").value("c18"));
+        verify(urlService, times(2)).createShortUrl(any(String.class));
+    }
+
+    /**
+     * Test that a bulk shorten request costs one shorten token per URL
+     */
+    @Test
+    void shortenBulk_ShouldChargeOneShortenTokenPerUrl() throws Exception {
+        // Given
+        when(urlService.createShortUrl(any(String.class))).thenAnswer(invocation -> ShortUrl.builder()
+                .shortCode("abc123")
+                .originalUrl(invocation.getArgument(0))
+                .build());
+        ClientRateLimiter limiter = new ClientRateLimiter(
+                Map.of(EndpointClass.CREATE, new ClientRateLimiter.Limit(1, 3)), 100);
+        RateLimitFilter.Charge charge = new RateLimitFilter.Charge(limiter, "192.0.2.7");
+        String body = "{\"originalUrls\": [\"https://a.example\", \"https://b.example\", \"https://c.example\","
+                + " \"https://d.example\", \"https://e.example\"]}";
+
+        // When
+        mockMvc.perform(post("/shorten/bulk")
+                .requestAttr(RateLimitFilter.CHARGE_ATTRIBUTE, charge)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(request().asyncStarted());
+
+        // Then: the five URLs borrowed two tokens beyond the burst of three
+        mockMvc.perform(post("/shorten/bulk")
+                .requestAttr(RateLimitFilter.CHARGE_ATTRIBUTE, charge)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"originalUrls\": [\"https://f.example\"]}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "3"));
+        assertTrue(limiter.tryAcquire(EndpointClass.CREATE, "192.0.2.7") > 0);
+        limiter.close();
+    }
+
+    /**
+     * Test that a bulk shorten request with a blank URL is rejected before any link is created
+     */
+    @Test
+    void shortenBulk_ShouldRejectBlankUrl() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/shorten/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"originalUrls\": [\"https://a.example\", \" \"]}"))
+                .andExpect(status().isBadRequest());
+        verify(urlService, never()).createShortUrl(any(String.class));
+    }
+
+    /**
+     * Test that a link's clicks are exported as a stream, and unknown codes get 404
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportClicks_ShouldStreamClicks() throws Exception {
+        // Given
+        when(urlService.exists("abc123")).thenReturn(true);
+        doAnswer(invocation -> {
+            Consumer<ClickStats> action = invocation.getArgument(1);
+            action.accept(testClickStats);
+            action.accept(ClickStats.builder().id(2L).country("DE").build());
+            return true;
+        }).when(urlService).forEachClick(eq("abc123"), any(Consumer.class));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/stats/abc123/clicks"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].ipAddress").value("192.168.1.1"))
+                .andExpect(jsonPath("$[1].country").value("DE"));
+        mockMvc.perform(get("/stats/nope/clicks"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Test that an analytics query returns only the grouped dimensions and requested metrics
+     */
+    @Test
+    void queryAnalytics_ShouldReturnGroupedRows() throws Exception {
+        // Given
+        LocalDateTime day = LocalDateTime.of(2025, 6, 1, 0, 0);
+        when(urlService.queryAnalytics(any(AnalyticsQuery.class))).thenReturn(new AnalyticsResult(List.of(
+                new AnalyticsResult.Row(day, null, "DE", null, 12L, null)), 3, 2));
+
+        // When & Then
+        mockMvc.perform(post("/analytics/query")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"from\": \"2025-06-01T00:00:00\", \"to\": \"2025-06-02T00:00:00\", "
+                        + "\"groupBy\": [\"TIME\", \"COUNTRY\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows[0].country").value("DE"))
+                .andExpect(jsonPath("$.rows[0].clicks").value(12))
+                .andExpect(jsonPath("$.rows[0].referrerDomain").doesNotExist())
+                .andExpect(jsonPath("$.rows[0].uniqueVisitors").doesNotExist())
+                .andExpect(jsonPath("$.rollupRowsRead").value(3));
+    }
+
+    /**
+     * Test that an analytics query without a period or with an invalid one is rejected
+     */
+    @Test
+    void queryAnalytics_ShouldReturnBadRequestForInvalidPeriod() throws Exception {
+        // Given
+        when(urlService.queryAnalytics(any(AnalyticsQuery.class)))
+                .thenThrow(new IllegalArgumentException("'to' must be after 'from'"));
+
+        // When & Then
+        mockMvc.perform(post("/analytics/query")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"groupBy\": [\"COUNTRY\"]}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/analytics/query")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"from\": \"2025-06-02T00:00:00\", \"to\": \"2025-06-01T00:00:00\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Test that the links of a domain are returned as a page with the cursor of the next one
+     */
+    @Test
+    void getByDomain_ShouldReturnPage() throws Exception {
+        // Given
+        when(urlService.findByDomain("www.example.com", "0:4", 2))
+                .thenReturn(new DomainLinks("example.com", 7, List.of(testShortUrl), "0:9"));
+
+        // When & Then
+        mockMvc.perform(get("/urls/by-domain/www.example.com").param("after", "0:4").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.host").value("example.com"))
+                .andExpect(jsonPath("$.linkCount").value(7))
+                .andExpect(jsonPath("$.links[0].shortCode").value("abc123"))
+                .andExpect(jsonPath("$.next").value("0:9"));
+    }
+
+    /**
+     * Test that an invalid limit or cursor is rejected
+     */
+    @Test
+    void getByDomain_ShouldReturnBadRequestForInvalidCursor() throws Exception {
+        // Given
+        when(urlService.findByDomain("example.com", "garbage", 100))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: garbage"));
+
+        // When & Then
+        mockMvc.perform(get("/urls/by-domain/example.com").param("after", "garbage"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Test that the live stream is refused for an unknown short code
+     */
+    @Test
+    void live_ShouldReturnNotFoundForInvalidCode() throws Exception {
+        // Given
+        when(urlService.exists("nonexistent")).thenReturn(false);
+
+        // When & Then
+        mockMvc.perform(get("/stats/nonexistent/live"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Test that the live stream is refused when the subscriber limit is reached
+     */
+    @Test
+    void live_ShouldReturnServiceUnavailableWhenFull() throws Exception {
+        // Given
+        when(urlService.exists("abc123")).thenReturn(true);
+        when(liveClickStream.subscribe("abc123")).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/stats/abc123/live"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
     /**
      * Test URL shortening with empty request body
      */
@@ -0,0 +1,113 @@
+package Health;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for HostThrottle
+ *
+ * This test class completes tasks by hand to check the per-host concurrency limit, measures
+ * task starts against the politeness delay, and checks that idle hosts are forgotten.
+ */
+class HostThrottleTest {
+
+    /**
+     * Test that a host runs at most perHost tasks and starts the next when one completes
+     */
+    @Test
+    void submit_ShouldLimitRunningTasksPerHost() {
+        try (HostThrottle throttle = new HostThrottle(2, 0, 10)) {
+            // Given
+            List<CompletableFuture<Void>> started = new CopyOnWriteArrayList<>();
+
+            // When
+            for (int i = 0; i < 4; i++) {
+                assertTrue(throttle.submit("a.example", () -> track(started)));
+            }
+            assertTrue(throttle.submit("b.example", () -> track(started)));
+
+            // Then: two of a.example and one of b.example
+            assertEquals(3, started.size());
+            started.get(0).complete(null);
+            assertEquals(4, started.size());
+            started.get(1).complete(null);
+            started.get(2).complete(null);
+            assertEquals(5, started.size());
+        }
+    }
+
+    /**
+     * Test that task starts on a host are at least the delay apart, while other hosts are not held up
+     */
+    @Test
+    void submit_ShouldSpaceStartsByDelay() throws Exception {
+        try (HostThrottle throttle = new HostThrottle(4, TimeUnit.MILLISECONDS.toNanos(50), 10)) {
+            // Given
+            List<Long> starts = new CopyOnWriteArrayList<>();
+            CompletableFuture<Void> done = new CompletableFuture<>();
+
+            // When
+            for (int i = 0; i < 4; i++) {
+                throttle.submit("a.example", () -> {
+                    starts.add(System.nanoTime());
+                    if (starts.size() == 4) {
+                        done.complete(null);
+                    }
+                    return CompletableFuture.completedFuture(null);
+                });
+            }
+            long other = System.nanoTime();
+            throttle.submit("b.example", () -> CompletableFuture.completedFuture(null));
+
+            // Then
+            done.get(5, TimeUnit.SECONDS);
+            assertTrue(System.nanoTime() - other < TimeUnit.MILLISECONDS.toNanos(1_000));
+            for (int i = 1; i < starts.size(); i++) {
+                assertTrue(starts.get(i) - starts.get(i - 1) >= TimeUnit.MILLISECONDS.toNanos(50),
+                        "Tasks " + (i - 1) + " and " + i + " started less than the delay apart");
+            }
+        }
+    }
+
+    /**
+     * Test that a full queue refuses tasks and idle hosts are dropped once their delay has passed
+     */
+    @Test
+    void submit_ShouldRefuseWhenQueueFullAndForgetIdleHosts() throws Exception {
+        try (HostThrottle throttle = new HostThrottle(1, TimeUnit.MILLISECONDS.toNanos(20), 1)) {
+            // Given
+            List<CompletableFuture<Void>> started = new CopyOnWriteArrayList<>();
+
+            // When / Then: one running, one waiting, the third refused
+            assertTrue(throttle.submit("a.example", () -> track(started)));
+            assertTrue(throttle.submit("a.example", () -> track(started)));
+            assertFalse(throttle.submit("a.example", () -> track(started)));
+
+            started.get(0).complete(null);
+            waitFor(() -> started.size() == 2);
+            started.get(1).complete(null);
+            waitFor(() -> throttle.hostCount() == 0);
+        }
+    }
+
+    private static CompletableFuture<Void> track(List<CompletableFuture<Void>> started) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        started.add(future);
+        return future;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.sleep(5);
+        }
+    }
+}
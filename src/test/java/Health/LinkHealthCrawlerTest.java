@@ -0,0 +1,254 @@
+package Health;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.http.HttpClient;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import Model.ShortUrl;
+import Repository.ShortUrlRepository;
+
+/**
+ * Integration tests for LinkHealthCrawler
+ *
+ * This test class crawls links of the migrated H2 schema against a local stub HTTP server:
+ * statuses, redirects, HEAD fallbacks, timeouts and connection failures must be recorded per
+ * link, recently checked links skipped, and the per-host concurrency limit and queue cap
+ * respected.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = {com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication.class, Config.JpaConfig.class})
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:healthdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class LinkHealthCrawlerTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+    private static final Clock CLOCK = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneId.of("UTC"));
+
+    @Autowired
+    private ShortUrlRepository shortUrlRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private String base;
+    private HttpClient httpClient;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+    private final Map<String, String> methods = new ConcurrentHashMap<>();
+    private final AtomicInteger links = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM link_health");
+        jdbcTemplate.update("DELETE FROM short_url");
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.createContext("/ok", exchange -> respond(exchange, 200));
+        server.createContext("/missing", exchange -> respond(exchange, 404));
+        server.createContext("/moved", exchange -> {
+            exchange.getResponseHeaders().add("Location", "/ok");
+            respond(exchange, 301);
+        });
+        server.createContext("/no-head", exchange -> {
+            methods.merge("/no-head", exchange.getRequestMethod(), (a, b) -> a + "," + b);
+            respond(exchange, "HEAD".equals(exchange.getRequestMethod()) ? 405 : 200);
+        });
+        server.createContext("/slow", exchange -> {
+            sleep(2_000);
+            respond(exchange, 200);
+        });
+        server.createContext("/busy", exchange -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            sleep(100);
+            active.decrementAndGet();
+            respond(exchange, 200);
+        });
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(1))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    /**
+     * Test that each link's final status, latency and failure reason are recorded
+     */
+    @Test
+    void crawl_ShouldRecordStatusLatencyAndErrors() throws IOException {
+        // Given
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        long ok = link(base + "/ok");
+        long missing = link(base + "/missing");
+        long moved = link(base + "/moved");
+        long noHead = link(base + "/no-head");
+        long slow = link(base + "/slow");
+        long refused = link("http://127.0.0.1:" + closedPort + "/gone");
+        long invalid = link("ftp://example.com/file");
+
+        try (LinkHealthCrawler crawler = crawler(10, 4, Duration.ZERO, 100)) {
+            // When
+            long probed = crawler.crawl();
+
+            // Then
+            assertEquals(7, probed);
+            assertEquals(7, crawler.checkedCount());
+            assertEquals(4, crawler.brokenCount());
+            assertEquals(200, status(ok));
+            assertEquals(404, status(missing));
+            assertEquals(200, status(moved));
+            assertEquals(200, status(noHead));
+            assertEquals("HEAD,GET", methods.get("/no-head"));
+            assertEquals(0, status(slow));
+            assertTrue(error(slow).startsWith("HttpTimeoutException"), error(slow));
+            assertTrue(jdbcTemplate.queryForObject("SELECT latency_millis FROM link_health WHERE short_url_id = ?",
+                    Integer.class, slow) >= 500);
+            assertEquals(0, status(refused));
+            assertNotNull(error(refused));
+            assertEquals(0, status(invalid));
+            assertEquals("Invalid URL", error(invalid));
+            assertNull(error(ok));
+            assertEquals(NOW, jdbcTemplate.queryForObject("SELECT checked_at FROM link_health WHERE short_url_id = ?",
+                    LocalDateTime.class, ok));
+
+            // Links checked within the interval are skipped
+            assertEquals(0, crawler.crawl());
+        }
+    }
+
+    /**
+     * Test that probes of one host respect the concurrency limit across pages
+     */
+    @Test
+    void crawl_ShouldLimitConcurrencyPerHost() {
+        // Given: 6 links on one host, read in pages of 2
+        for (int i = 0; i < 6; i++) {
+            link(base + "/busy?n=" + i);
+        }
+
+        try (LinkHealthCrawler crawler = crawler(2, 2, Duration.ofMillis(30), 100)) {
+            // When
+            long probed = crawler.crawl();
+
+            // Then
+            assertEquals(6, probed);
+            assertEquals(6, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM link_health WHERE status_code = 200",
+                    Integer.class));
+            assertEquals(2, maxActive.get());
+        }
+    }
+
+    /**
+     * Test that links of a host with a full queue are deferred to the next crawl
+     */
+    @Test
+    void crawl_ShouldDeferLinksOfBusyHost() {
+        // Given: one probe at a time, one waiting, 200 ms apart
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(link(base + "/ok?n=" + i));
+        }
+
+        try (LinkHealthCrawler crawler = crawler(10, 1, Duration.ofMillis(200), 1)) {
+            // When / Then: the first probe starts, the second waits for the delay, the rest are deferred
+            assertEquals(2, crawler.crawl());
+            assertEquals(3, crawler.deferredCount());
+            assertEquals(200, status(ids.get(1)));
+            assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM link_health WHERE short_url_id = ?",
+                    Integer.class, ids.get(2)));
+
+            // The next crawl picks up the deferred links only
+            assertEquals(1, crawler.crawl());
+            assertEquals(5, crawler.deferredCount());
+            assertEquals(200, status(ids.get(2)));
+        }
+    }
+
+    private LinkHealthCrawler crawler(int pageSize, int perHost, Duration delay, int maxQueuedPerHost) {
+        return new LinkHealthCrawler(jdbcTemplate, httpClient, 1, pageSize, 50, perHost, delay, maxQueuedPerHost,
+                Duration.ofMillis(500), Duration.ofHours(1), CLOCK);
+    }
+
+    private long link(String originalUrl) {
+        return shortUrlRepository.save(ShortUrl.builder()
+                .shortCode("hl" + links.incrementAndGet() + System.nanoTime() % 100_000)
+                .originalUrl(originalUrl)
+                .createdAt(NOW)
+                .clickStats(new ArrayList<>())
+                .build()).getId();
+    }
+
+    private int status(long id) {
+        return jdbcTemplate.queryForObject("SELECT status_code FROM link_health WHERE short_url_id = ?",
+                Integer.class, id);
+    }
+
+    private String error(long id) {
+        return jdbcTemplate.queryForObject("SELECT error FROM link_health WHERE short_url_id = ?", String.class, id);
+    }
+
+    private static void respond(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package Limiter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for AdaptiveConcurrencyLimiter and EndpointClass
+ *
+ * This test class covers endpoint classification, admission by endpoint class share and
+ * the AIMD adjustment of the limit.
+ */
+class AdaptiveConcurrencyLimiterTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final AtomicLong now = new AtomicLong();
+
+    /**
+     * Test that requests are classified by method and path
+     */
+    @Test
+    void of_ShouldClassifyEndpoints() {
+        assertEquals(EndpointClass.REDIRECT, EndpointClass.of("GET", "/abc123"));
+        assertEquals(EndpointClass.CREATE, EndpointClass.of("POST", "/shorten"));
+        assertEquals(EndpointClass.BULK, EndpointClass.of("POST", "/shorten/bulk"));
+        assertEquals(EndpointClass.ANALYTICS, EndpointClass.of("GET", "/stats/abc123"));
+        assertEquals(EndpointClass.ANALYTICS, EndpointClass.of("GET", "/stats/abc123/breakdown"));
+        assertEquals(EndpointClass.ANALYTICS, EndpointClass.of("GET", "/urls/by-domain/example.com"));
+        assertEquals(EndpointClass.ANALYTICS, EndpointClass.of("GET", "/abc123/qr"));
+        assertEquals(EndpointClass.BULK, EndpointClass.of("GET", "/urls"));
+        assertEquals(EndpointClass.BULK, EndpointClass.of("POST", "/stats/batch"));
+        assertEquals(EndpointClass.BULK, EndpointClass.of("GET", "/stats/abc123/clicks"));
+        assertNull(EndpointClass.of("GET", "/stats/abc123/live"));
+        assertNull(EndpointClass.of("GET", "/actuator/metrics"));
+        assertNull(EndpointClass.of("POST", "/admin/snapshots/links"));
+    }
+
+    /**
+     * Test that low-priority classes are refused first while redirects are still admitted
+     */
+    @Test
+    void tryAcquire_ShouldShedLowPriorityClassesFirst() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 8, 8, 0.9, 100, Map.of());
+
+        // When: 2 bulk calls use the bulk share (8 * 0.25), 2 analytics calls bring the total to 4 (8 * 0.5)
+        assertTrue(limiter.tryAcquire(EndpointClass.BULK));
+        assertTrue(limiter.tryAcquire(EndpointClass.BULK));
+        assertFalse(limiter.tryAcquire(EndpointClass.BULK));
+        assertTrue(limiter.tryAcquire(EndpointClass.ANALYTICS));
+        assertTrue(limiter.tryAcquire(EndpointClass.ANALYTICS));
+
+        // Then
+        assertFalse(limiter.tryAcquire(EndpointClass.ANALYTICS));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire(EndpointClass.REDIRECT));
+        }
+        assertFalse(limiter.tryAcquire(EndpointClass.REDIRECT));
+        assertEquals(8, limiter.inflight());
+        assertEquals(1, limiter.rejectedCount(EndpointClass.BULK));
+        assertEquals(1, limiter.rejectedCount(EndpointClass.ANALYTICS));
+        assertEquals(1, limiter.rejectedCount(EndpointClass.REDIRECT));
+    }
+
+    /**
+     * Test that slow redirects shrink the limit multiplicatively and fast ones grow it by one
+     */
+    @Test
+    void release_ShouldAdjustLimitAdditivelyUpAndMultiplicativelyDown() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 10, 200, 0.5, 100,
+                Map.of(EndpointClass.ANALYTICS, 0.1), now::get);
+
+        // When
+        limiter.tryAcquire(EndpointClass.REDIRECT);
+        now.addAndGet(SLOW);
+        limiter.release(EndpointClass.REDIRECT, SLOW);
+
+        // Then
+        assertEquals(50, limiter.limit());
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire(EndpointClass.ANALYTICS);
+        }
+        assertEquals(5, limiter.inflight());
+        for (int i = 0; i < 5; i++) {
+            limiter.release(EndpointClass.ANALYTICS, SLOW);
+        }
+        assertEquals(50, limiter.limit(), "analytics latency is not a congestion signal");
+
+        for (int i = 0; i < 30; i++) {
+            limiter.tryAcquire(EndpointClass.REDIRECT);
+        }
+        limiter.release(EndpointClass.REDIRECT, FAST);
+        assertEquals(51, limiter.limit());
+        limiter.tryAcquire(EndpointClass.REDIRECT);
+        for (int i = 0; i < 10; i++) {
+            // each admitted after the previous decrease
+            now.addAndGet(SLOW);
+            limiter.release(EndpointClass.REDIRECT, SLOW);
+        }
+        assertEquals(10, limiter.limit(), "never below the minimum");
+    }
+
+    /**
+     * Test that a burst of slow responses to requests in flight together cuts the limit once
+     */
+    @Test
+    void release_ShouldDecreaseAtMostOncePerRoundTrip() {
+        // Given: 20 redirects admitted together
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 10, 200, 0.5, 100,
+                Map.of(), now::get);
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire(EndpointClass.REDIRECT);
+        }
+
+        // When: all of them complete slowly
+        now.addAndGet(SLOW);
+        for (int i = 0; i < 20; i++) {
+            limiter.release(EndpointClass.REDIRECT, SLOW);
+            now.addAndGet(1);
+        }
+
+        // Then: one cut, then one more for a slow request admitted after it
+        assertEquals(50, limiter.limit());
+        limiter.tryAcquire(EndpointClass.REDIRECT);
+        now.addAndGet(SLOW);
+        limiter.release(EndpointClass.REDIRECT, SLOW);
+        assertEquals(25, limiter.limit());
+    }
+}
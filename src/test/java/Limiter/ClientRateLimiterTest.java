@@ -0,0 +1,164 @@
+package Limiter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for ClientRateLimiter and RateLimitFilter
+ *
+ * This test class covers bursts, refill, per-client isolation and the 429 response,
+ * including clients identified by API key.
+ */
+class ClientRateLimiterTest {
+
+    /**
+     * Test that a client may use its burst, is then refused, and gets tokens back over time
+     */
+    @Test
+    void tryAcquire_ShouldAllowBurstThenRefill() throws InterruptedException {
+        // Given
+        ClientRateLimiter limiter = new ClientRateLimiter(
+                Map.of(EndpointClass.CREATE, new ClientRateLimiter.Limit(100, 5)), 100);
+
+        // When & Then
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire(EndpointClass.CREATE, "10.0.0.1"), "request " + i);
+        }
+        long wait = limiter.tryAcquire(EndpointClass.CREATE, "10.0.0.1");
+        assertTrue(wait > 0 && wait <= 10_000_000, "wait " + wait);
+        assertEquals(0, limiter.tryAcquire(EndpointClass.CREATE, "10.0.0.2"), "other clients have their own bucket");
+        assertEquals(0, limiter.tryAcquire(EndpointClass.REDIRECT, "10.0.0.1"), "classes without a limit pass");
+
+        Thread.sleep(25);
+        assertEquals(0, limiter.tryAcquire(EndpointClass.CREATE, "10.0.0.1"));
+        assertEquals(0, limiter.tryAcquire(EndpointClass.CREATE, "10.0.0.1"));
+        limiter.close();
+    }
+
+    /**
+     * Test that refilled buckets are swept and that clients beyond the cap share one bucket
+     */
+    @Test
+    void sweep_ShouldDropRefilledBucketsAndCapTrackedClients() throws InterruptedException {
+        // Given
+        ClientRateLimiter limiter = new ClientRateLimiter(
+                Map.of(EndpointClass.REDIRECT, new ClientRateLimiter.Limit(1000, 2)), 2);
+        limiter.tryAcquire(EndpointClass.REDIRECT, "10.0.0.1");
+        limiter.tryAcquire(EndpointClass.REDIRECT, "10.0.0.2");
+
+        // When: the overflow bucket has room for 2
+        assertEquals(0, limiter.tryAcquire(EndpointClass.REDIRECT, "10.0.0.3"));
+        assertEquals(0, limiter.tryAcquire(EndpointClass.REDIRECT, "10.0.0.4"));
+
+        // Then
+        assertTrue(limiter.tryAcquire(EndpointClass.REDIRECT, "10.0.0.5") > 0);
+        assertEquals(2, limiter.trackedClients(EndpointClass.REDIRECT));
+        Thread.sleep(5);
+        limiter.sweep();
+        assertEquals(0, limiter.trackedClients(EndpointClass.REDIRECT));
+        limiter.close();
+    }
+
+    /**
+     * Test that the filter answers 429 with Retry-After and gives known API keys their own bucket
+     */
+    @Test
+    void filter_ShouldRefuseWithTooManyRequestsPerClient() throws Exception {
+        // Given
+        ClientRateLimiter limiter = new ClientRateLimiter(
+                Map.of(EndpointClass.CREATE, new ClientRateLimiter.Limit(0.5, 1)), 100);
+        RateLimitFilter filter = new RateLimitFilter(limiter, "X-API-Key", Set.of("partner-key"));
+
+        // When
+        MockHttpServletResponse first = shorten(filter, null);
+        MockHttpServletResponse second = shorten(filter, null);
+        MockHttpServletResponse unknownKey = shorten(filter, "made-up-key");
+        MockHttpServletResponse knownKey = shorten(filter, "partner-key");
+
+        // Then
+        assertEquals(200, first.getStatus());
+        assertEquals(429, second.getStatus());
+        assertEquals("2", second.getHeader("Retry-After"));
+        assertEquals(429, unknownKey.getStatus());
+        assertEquals(200, knownKey.getStatus());
+    }
+
+    /**
+     * Test that a request taking several tokens is admitted with one available and borrows the rest
+     */
+    @Test
+    void tryAcquire_ShouldBorrowPermitsBeyondTheBurst() {
+        // Given
+        ClientRateLimiter limiter = new ClientRateLimiter(
+                Map.of(EndpointClass.CREATE, new ClientRateLimiter.Limit(1, 5)), 100);
+
+        // When
+        long bulk = limiter.tryAcquire(EndpointClass.CREATE, "10.0.0.1", 20);
+        long next = limiter.tryAcquire(EndpointClass.CREATE, "10.0.0.1");
+
+        // Then: 15 tokens were borrowed, so the next one is about 16 seconds away
+        assertEquals(0, bulk);
+        assertTrue(next > 15_000_000_000L && next <= 16_000_000_000L, "wait " + next);
+        assertTrue(limiter.tryAcquire(EndpointClass.CREATE, "10.0.0.1", 3) > 0, "refused requests borrow nothing");
+        limiter.close();
+    }
+
+    /**
+     * Test that bulk shortening and the click export are charged to the bulk bucket, and that
+     * the URLs of a bulk shorten are charged to the shorten bucket afterwards
+     */
+    @Test
+    void filter_ShouldChargeBulkShortenAndClickExport() throws Exception {
+        // Given
+        ClientRateLimiter limiter = new ClientRateLimiter(Map.of(
+                EndpointClass.CREATE, new ClientRateLimiter.Limit(0.5, 2),
+                EndpointClass.BULK, new ClientRateLimiter.Limit(0.5, 2)), 100);
+        RateLimitFilter filter = new RateLimitFilter(limiter, "X-API-Key", Set.of());
+
+        // When
+        MockHttpServletRequest bulkShorten = new MockHttpServletRequest("POST", "/api/shorten/bulk");
+        MockHttpServletResponse bulkShortenResponse = send(filter, bulkShorten);
+        long urls = RateLimitFilter.charge(bulkShorten, EndpointClass.CREATE, 100);
+        MockHttpServletResponse shorten = shorten(filter, null);
+        MockHttpServletResponse firstExport = send(filter, new MockHttpServletRequest("GET", "/api/stats/abc123/clicks"));
+        MockHttpServletResponse secondExport = send(filter, new MockHttpServletRequest("GET", "/api/stats/abc123/clicks"));
+
+        // Then
+        assertEquals(200, bulkShortenResponse.getStatus());
+        assertEquals(0, urls);
+        assertEquals(429, shorten.getStatus());
+        assertEquals(200, firstExport.getStatus());
+        assertEquals(429, secondExport.getStatus());
+        assertEquals(0, RateLimitFilter.charge(new MockHttpServletRequest(), EndpointClass.CREATE, 100),
+                "requests that did not pass the filter are not charged");
+        limiter.close();
+    }
+
+    private static MockHttpServletResponse send(RateLimitFilter filter, MockHttpServletRequest request)
+            throws Exception {
+        request.setContextPath("/api");
+        request.setRemoteAddr("192.0.2.7");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletResponse shorten(RateLimitFilter filter, String apiKey) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/shorten");
+        request.setContextPath("/api");
+        request.setRemoteAddr("192.0.2.7");
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
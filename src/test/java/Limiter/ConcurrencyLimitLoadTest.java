@@ -0,0 +1,137 @@
+package Limiter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Load test for adaptive load shedding
+ *
+ * This test class boots the application on a random port and floods it with bulk and
+ * analytics calls from many clients while one client measures redirect latency. The limit
+ * is pinned at 8 so the shares are deterministic: bulk and analytics calls beyond their
+ * share must be refused with 503, while no redirect is refused and redirect p99 stays low.
+ * Refused clients pause briefly, as Retry-After asks, so the load generator running in the
+ * same JVM does not itself starve the server of CPU.
+ */
+@SpringBootTest(classes = com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:limiterdb;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.generate_statistics=false",
+    "urlshortener.rate-limit.enabled=false",
+    "urlshortener.limiter.initial-limit=8",
+    "urlshortener.limiter.min-limit=8",
+    "urlshortener.limiter.max-limit=8"
+})
+class ConcurrencyLimitLoadTest {
+    private static final int LINKS = 100;
+    private static final int OVERLOAD_CLIENTS = 32;
+    private static final int REDIRECTS = 500;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter limiter;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
+    /**
+     * Test that analytics overload is shed while redirects keep being served quickly
+     */
+    @Test
+    void analyticsOverload_ShouldBeShedWithoutSlowingRedirects() throws Exception {
+        // Given
+        String[] codes = new String[LINKS];
+        for (int i = 0; i < LINKS; i++) {
+            codes[i] = shorten("https://www.example.com/" + i);
+            for (int click = 0; click < 3; click++) {
+                get("/" + codes[i]);
+            }
+        }
+        Thread.sleep(500);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger shed = new AtomicInteger();
+        ExecutorService overload = Executors.newFixedThreadPool(OVERLOAD_CLIENTS);
+        try {
+            for (int i = 0; i < OVERLOAD_CLIENTS; i++) {
+                String path = i % 2 == 0 ? "/urls" : "/stats/" + codes[i % LINKS];
+                overload.execute(() -> {
+                    while (running.get()) {
+                        try {
+                            if (get(path) == 503) {
+                                shed.incrementAndGet();
+                                Thread.sleep(20);
+                            }
+                        } catch (Exception e) {
+                            return;
+                        }
+                    }
+                });
+            }
+            Thread.sleep(500);
+
+            // When
+            long[] latencies = new long[REDIRECTS];
+            for (int i = 0; i < REDIRECTS; i++) {
+                long start = System.nanoTime();
+                int status = get("/" + codes[i % LINKS]);
+                latencies[i] = System.nanoTime() - start;
+                assertEquals(302, status, "redirect " + i);
+            }
+
+            // Then
+            Arrays.sort(latencies);
+            long p99 = latencies[REDIRECTS * 99 / 100];
+            assertTrue(shed.get() > 0, "no analytics or bulk call was shed");
+            assertEquals(0, limiter.rejectedCount(EndpointClass.REDIRECT));
+            assertTrue(p99 < TimeUnit.MILLISECONDS.toNanos(250), "redirect p99 was " + p99 / 1_000_000 + " ms");
+        } finally {
+            running.set(false);
+            overload.shutdown();
+            overload.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private String shorten(String url) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/shorten"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"originalUrl\":\"" + url + "\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        return response.body().replaceAll(".*\"shortCode\":\"([^\"]+)\".*", "$1");
+    }
+
+    private int get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.discarding())
+                .statusCode();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + "/api" + path);
+    }
+}
@@ -0,0 +1,64 @@
+package Live;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import Analytics.BrowserFamily;
+import Analytics.DeviceClass;
+import Model.ClickStats;
+
+/**
+ * Unit tests for ClickEventHub
+ *
+ * This test class covers capacity rounding and what readers see for slots that are
+ * unpublished, current or already overwritten.
+ */
+class ClickEventHubTest {
+
+    /**
+     * Test that the capacity is rounded up to a power of two
+     */
+    @Test
+    void capacity_ShouldRoundUpToPowerOfTwo() {
+        assertEquals(1, new ClickEventHub(1).capacity());
+        assertEquals(8, new ClickEventHub(8).capacity());
+        assertEquals(16, new ClickEventHub(9).capacity());
+    }
+
+    /**
+     * Test that published events are readable by sequence and overwritten after one lap
+     */
+    @Test
+    void get_ShouldReturnEventUntilOverwritten() {
+        // Given
+        ClickEventHub hub = new ClickEventHub(4);
+        assertNull(hub.get(0));
+
+        // When
+        for (int i = 0; i < 6; i++) {
+            hub.publish("code" + i, click());
+        }
+
+        // Then
+        assertEquals(6, hub.head());
+        assertEquals("code5", hub.get(5).shortCode());
+        assertEquals(BrowserFamily.FIREFOX, hub.get(5).browser());
+        // sequence 1 shares slot 1 with sequence 5
+        assertEquals(5, hub.get(1).sequence());
+        assertEquals("code2", hub.get(2).shortCode());
+        // sequence 9 shares slot 1 too but has not been published
+        assertNull(hub.get(9));
+    }
+
+    private static ClickStats click() {
+        return ClickStats.builder()
+                .clickedAt(LocalDateTime.of(2025, 6, 1, 10, 0))
+                .browser(BrowserFamily.FIREFOX)
+                .device(DeviceClass.DESKTOP)
+                .country("DE")
+                .build();
+    }
+}
@@ -0,0 +1,204 @@
+package Live;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+import Analytics.BrowserFamily;
+import Analytics.DeviceClass;
+import Model.ClickStats;
+
+/**
+ * Integration tests for the live click stream
+ *
+ * This test class boots the application on a random port, opens 1,000 concurrent
+ * GET /api/stats/{code}/live streams on one link and checks that every stream receives the
+ * clicks, and that publishing a click costs the redirect path the same small allocation
+ * whatever the number of subscribers. Redirect latency under subscribers is measured by
+ * LiveClickStreamBenchmark, not here: wall-clock bounds are not reliable inside the test suite.
+ */
+@SpringBootTest(classes = com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:livedb;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "urlshortener.rate-limit.enabled=false",
+    "urlshortener.live.tick-millis=50",
+    "urlshortener.live.delta-interval-millis=1000"
+})
+class LiveClickStreamTest {
+    private static final int SUBSCRIBERS = 1000;
+    private static final int REDIRECTS = 20;
+    private static final int PUBLISHES = 10_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LiveClickStream liveClickStream;
+
+    @Autowired
+    private ClickEventHub clickEventHub;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    /**
+     * Test that 1,000 subscribers all receive clicks and publishing does not allocate per subscriber
+     */
+    @Test
+    void subscribers_ShouldAllReceiveClicksWithoutBurdeningPublish() throws Exception {
+        // Given
+        String code = shorten("https://www.example.com/live");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        CountDownLatch received = new CountDownLatch(SUBSCRIBERS);
+        List<EventCounter> counters = new ArrayList<>();
+        HttpClient streamClient = HttpClient.newHttpClient();
+        try {
+            for (int batch = 0; batch < SUBSCRIBERS; batch += 100) {
+                List<EventCounter> opened = new ArrayList<>();
+                for (int i = 0; i < 100; i++) {
+                    EventCounter counter = new EventCounter(received);
+                    opened.add(counter);
+                    streamClient.sendAsync(HttpRequest.newBuilder(uri("/stats/" + code + "/live")).build(),
+                            counter::handle);
+                }
+                for (EventCounter counter : opened) {
+                    // the response future itself only completes when the stream ends
+                    assertEquals(200, counter.status.get(30, TimeUnit.SECONDS));
+                }
+                counters.addAll(opened);
+            }
+            assertEquals(SUBSCRIBERS, liveClickStream.subscriberCount());
+
+            // When
+            redirect(code);
+            assertTrue(received.await(30, TimeUnit.SECONDS),
+                    received.getCount() + " subscribers received no click event");
+            assertEquals(0, liveClickStream.lostEventCount());
+            ClickStats click = ClickStats.builder()
+                    .clickedAt(LocalDateTime.now())
+                    .browser(BrowserFamily.FIREFOX)
+                    .device(DeviceClass.DESKTOP)
+                    .country("DE")
+                    .build();
+            long head = clickEventHub.head();
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < PUBLISHES; i++) {
+                clickEventHub.publish(code, click);
+            }
+            long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+            // Then: one event per click; anything per subscriber would take 1,000 times that
+            assertEquals(head + PUBLISHES, clickEventHub.head());
+            assertTrue(allocated < PUBLISHES * 256L, "Allocated " + allocated + " bytes for " + PUBLISHES
+                    + " clicks with " + SUBSCRIBERS + " subscribers");
+        } finally {
+            counters.forEach(EventCounter::cancel);
+        }
+    }
+
+    /**
+     * Test that the stream of an unknown short code is refused
+     */
+    @Test
+    void subscribe_ShouldReturnNotFoundForUnknownCode() throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/stats/nope123/live")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(404, response.statusCode());
+    }
+
+    private String shorten(String url) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/shorten"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"originalUrl\":\"" + url + "\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        return response.body().replaceAll(".*\"shortCode\":\"([^\"]+)\".*", "$1");
+    }
+
+    private void redirect(String code) throws Exception {
+        HttpRequest redirect = HttpRequest.newBuilder(uri("/" + code)).build();
+        for (int i = 0; i < REDIRECTS; i++) {
+            HttpResponse<Void> response = client.send(redirect, HttpResponse.BodyHandlers.discarding());
+            assertEquals(302, response.statusCode());
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + "/api" + path);
+    }
+
+    /**
+     * Reports the status of its stream and counts down once when the stream delivers the
+     * first "clicks" event
+     */
+    private static final class EventCounter implements Flow.Subscriber<String> {
+        private final CompletableFuture<Integer> status = new CompletableFuture<>();
+        private final CountDownLatch received;
+        private volatile Flow.Subscription subscription;
+        private boolean seen;
+
+        EventCounter(CountDownLatch received) {
+            this.received = received;
+        }
+
+        HttpResponse.BodySubscriber<Void> handle(HttpResponse.ResponseInfo response) {
+            status.complete(response.statusCode());
+            return HttpResponse.BodySubscribers.fromLineSubscriber(this);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (!seen && line.equals("event:clicks")) {
+                seen = true;
+                received.countDown();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        void cancel() {
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package Qr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.RGBLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+
+/**
+ * Unit tests for QrRenderer and QrCodeCache
+ *
+ * This test class decodes rendered PNGs back with ZXing's reader, checks the SVG output,
+ * and verifies that the cache renders an image once however many callers ask for it and
+ * stays within its byte budget.
+ */
+class QrCodeCacheTest {
+
+    private static final String URL = "https://sho.rt/api/abc123";
+
+    /**
+     * Test that a rendered PNG is a square of the requested size that decodes to the content
+     */
+    @Test
+    void render_ShouldWriteDecodablePng() throws Exception {
+        // When
+        byte[] png = QrRenderer.render(URL, 300, QrFormat.PNG);
+
+        // Then
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        assertEquals(300, image.getWidth());
+        assertEquals(300, image.getHeight());
+        assertEquals(URL, decode(image));
+    }
+
+    /**
+     * Test that a size too small for one pixel per module gives one pixel per module
+     */
+    @Test
+    void render_ShouldGrowImageBelowOnePixelPerModule() throws Exception {
+        // When
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(QrRenderer.render(URL, 10, QrFormat.PNG)));
+
+        // Then
+        // Version 2 (25 modules) plus the quiet zone on both sides
+        assertEquals(33, image.getWidth());
+        assertEquals(33, image.getHeight());
+        assertEquals(0xFFFFFFFF, image.getRGB(3, 4));
+        assertEquals(0xFF000000, image.getRGB(4, 4));
+    }
+
+    /**
+     * Test that an SVG has the requested size and one path in module units
+     */
+    @Test
+    void render_ShouldWriteSvgPath() {
+        // When
+        String svg = new String(QrRenderer.render(URL, 512, QrFormat.SVG), StandardCharsets.UTF_8);
+
+        // Then
+        assertTrue(svg.startsWith("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"512\" height=\"512\""));
+        // Version 2 (25 modules) plus the quiet zone on both sides; the top-left finder starts at (4, 4)
+        assertTrue(svg.contains("viewBox=\"0 0 33 33\""));
+        assertTrue(svg.contains("<path d=\"M4 4h7v1h-7z"));
+        assertTrue(svg.endsWith("</svg>\n"));
+    }
+
+    /**
+     * Test that an unsupported format name is rejected
+     */
+    @Test
+    void formatOf_ShouldRejectUnknownFormat() {
+        assertEquals(QrFormat.SVG, QrFormat.of("Svg"));
+        assertThrows(IllegalArgumentException.class, () -> QrFormat.of("gif"));
+    }
+
+    /**
+     * Test that concurrent requests for an uncached image share a single render
+     */
+    @Test
+    void get_ShouldRenderOnceForConcurrentCallers() throws Exception {
+        // Given
+        QrCodeCache cache = new QrCodeCache(1024 * 1024);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<byte[]>> results = new ArrayList<>();
+
+        // When
+        try {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get(URL, 1024, QrFormat.PNG);
+                }));
+            }
+            start.countDown();
+            byte[] first = results.get(0).get();
+
+            // Then
+            for (Future<byte[]> result : results) {
+                assertSame(first, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, cache.renderCount());
+        assertSame(cache.get(URL, 1024, QrFormat.PNG), cache.get(URL, 1024, QrFormat.PNG));
+        assertEquals(1, cache.renderCount());
+        cache.get(URL, 1024, QrFormat.SVG);
+        assertEquals(2, cache.renderCount());
+    }
+
+    /**
+     * Test that the cached images never weigh more than the byte budget
+     */
+    @Test
+    void get_ShouldEvictBeyondMaxBytes() {
+        // Given
+        int imageBytes = QrRenderer.render(URL + "/0", 400, QrFormat.SVG).length;
+        long maxBytes = 10L * (imageBytes + 128);
+        QrCodeCache cache = new QrCodeCache(maxBytes);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            cache.get(URL + "/" + i, 400, QrFormat.SVG);
+        }
+        cache.cache().cleanUp();
+
+        // Then
+        assertTrue(cache.weightedSize() <= maxBytes);
+        assertTrue(cache.cache().estimatedSize() < 100);
+        assertEquals(100, cache.renderCount());
+    }
+
+    private static String decode(BufferedImage image) throws Exception {
+        int[] pixels = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+        RGBLuminanceSource source = new RGBLuminanceSource(image.getWidth(), image.getHeight(), pixels);
+        return new QRCodeReader().decode(new BinaryBitmap(new HybridBinarizer(source))).getText();
+    }
+}
@@ -0,0 +1,222 @@
+package Replica;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for read-replica routing
+ * 
+ * This test class runs two embedded H2 databases standing in for a primary and
+ * a replica. Each holds a marker row naming itself, so a query reveals where a
+ * transaction was routed.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private SwitchableDataSource replicaEndpoint;
+    private ReplicaPoolDataSource replicaPool;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        replicaEndpoint = new SwitchableDataSource(replica);
+        replicaPool = new ReplicaPoolDataSource(primary, List.of(replicaEndpoint), 0, 1);
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(primary, replicaPool);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replicaPool.close();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    /**
+     * Test that read-only transactions are served by the replica
+     */
+    @Test
+    void readOnlyTransaction_ShouldUseReplica() {
+        assertEquals("replica", readOnly.execute(status -> marker()));
+    }
+
+    /**
+     * Test that read-write transactions go to the primary
+     */
+    @Test
+    void readWriteTransaction_ShouldUsePrimary() {
+        assertEquals("primary", readWrite.execute(status -> marker()));
+    }
+
+    /**
+     * Test that reads fall back to the primary when the replica is down
+     */
+    @Test
+    void readOnlyTransaction_ShouldFallBackToPrimaryWhenReplicaIsUnhealthy() {
+        // Given
+        replicaEndpoint.down = true;
+        replicaPool.checkHealth();
+
+        // When & Then
+        assertFalse(replicaPool.isHealthy(0));
+        assertEquals("primary", readOnly.execute(status -> marker()));
+    }
+
+    /**
+     * Test that pinned reads use the primary
+     */
+    @Test
+    void readOnlyTransaction_ShouldUsePrimaryWhenPinned() {
+        assertEquals("primary", ReplicaContext.callOnPrimary(() -> readOnly.execute(status -> marker())));
+    }
+
+    /**
+     * Test that a code written by this node is read from the primary within the lag tolerance
+     */
+    @Test
+    void lagGuard_ShouldReadRecentWritesFromPrimary() {
+        // Given
+        ReplicaLagGuard guard = new ReplicaLagGuard(true, Duration.ofSeconds(5), 100);
+        guard.markWritten("abc123");
+
+        // When
+        Optional<String> source = guard.read("abc123", () -> Optional.of(readOnly.execute(status -> marker())));
+
+        // Then
+        assertEquals(Optional.of("primary"), source);
+    }
+
+    /**
+     * Test that versioned data is read from the primary while its version changed within the lag tolerance
+     */
+    @Test
+    void lagGuard_ShouldReadRecentlyChangedVersionsFromPrimary() {
+        // Given
+        ReplicaLagGuard guard = new ReplicaLagGuard(true, Duration.ofSeconds(5), 100);
+        long justNow = System.currentTimeMillis();
+        long longAgo = justNow - 60_000;
+
+        // When & Then
+        assertEquals(Optional.of("primary"), guard.readChanged("abc123", () -> justNow,
+                () -> Optional.of(readOnly.execute(status -> marker()))));
+        assertEquals(Optional.of("replica"), guard.readChanged("abc123", () -> longAgo,
+                () -> Optional.of(readOnly.execute(status -> marker()))));
+        assertEquals("primary", guard.readChanged(() -> justNow, () -> readOnly.execute(status -> marker())));
+        assertEquals("replica", guard.readChanged(() -> 0, () -> readOnly.execute(status -> marker())));
+        assertEquals("replica", new ReplicaLagGuard(false, Duration.ofSeconds(5), 100)
+                .readChanged(() -> justNow, () -> readOnly.execute(status -> marker())));
+    }
+
+    /**
+     * Test that a code missing on a lagging replica is found on the primary
+     */
+    @Test
+    void lagGuard_ShouldRetryMissesOnPrimary() {
+        // Given
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("INSERT INTO link (code) VALUES ('fresh1')"));
+        ReplicaLagGuard guard = new ReplicaLagGuard(true, Duration.ofSeconds(5), 100);
+
+        // When
+        Optional<String> found = guard.read("fresh1", () -> readOnly.execute(status -> jdbcTemplate
+                .queryForList("SELECT code FROM link WHERE code = 'fresh1'", String.class)
+                .stream().findFirst()));
+
+        // Then
+        assertEquals(Optional.of("fresh1"), found);
+    }
+
+    /**
+     * Test that a replica is used again once its health check passes
+     */
+    @Test
+    void checkHealth_ShouldRestoreRecoveredReplica() {
+        // Given
+        replicaEndpoint.down = true;
+        replicaPool.checkHealth();
+
+        // When
+        replicaEndpoint.down = false;
+        replicaPool.checkHealth();
+
+        // Then
+        assertTrue(replicaPool.isHealthy(0));
+        assertEquals("replica", readOnly.execute(status -> marker()));
+    }
+
+    /**
+     * Test that connections with explicit credentials come from the primary
+     */
+    @Test
+    void getConnectionWithCredentials_ShouldUsePrimary() throws SQLException {
+        // When
+        try (Connection connection = replicaPool.getConnection("sa", "");
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT name FROM marker")) {
+            // Then
+            assertTrue(resultSet.next());
+            assertEquals("primary", resultSet.getString(1));
+        }
+    }
+
+    private String marker() {
+        return jdbcTemplate.queryForObject("SELECT name FROM marker", String.class);
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE marker (name VARCHAR(20))");
+        jdbcTemplate.execute("CREATE TABLE link (code VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO marker (name) VALUES (?)", name);
+        return database;
+    }
+
+    /**
+     * Replica endpoint that can be taken down to simulate an outage
+     */
+    private static class SwitchableDataSource extends DelegatingDataSource {
+        private volatile boolean down;
+
+        SwitchableDataSource(EmbeddedDatabase target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("Replica is down");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package Repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Query plan tests for the migrated schema
+ *
+ * The schema is created by the Flyway migrations (db/migration/h2) and only validated
+ * by Hibernate, so this test class also proves the migrations match the entities.
+ * Each main repository query is run through EXPLAIN and must be answered by an index
+ * rather than a table scan.
+ */
+@DataJpaTest
+@ContextConfiguration(classes = {com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication.class, Config.JpaConfig.class})
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:plandb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class QueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Test that code to URL resolution uses the covering index
+     */
+    @Test
+    void findByShortCode_ShouldUseCoveringIndex() {
+        String plan = explain("SELECT id, created_at, original_url, short_code FROM short_url WHERE short_code = 'abc123'");
+
+        assertIndexed(plan, "SHORT_URL");
+        assertTrue(plan.contains("IDX_SHORT_URL_CODE_COVERING"), plan);
+    }
+
+    /**
+     * Test that per-link click statistics use the composite (short_url_id, clicked_at) index
+     */
+    @Test
+    void clickStatsByLink_ShouldUseCompositeIndex() {
+        String plan = explain("SELECT id, clicked_at, ip_address, referrer, user_agent FROM click_stats "
+                + "WHERE short_url_id = 1 AND clicked_at >= TIMESTAMP '2025-01-01 00:00:00' ORDER BY clicked_at");
+
+        assertIndexed(plan, "CLICK_STATS");
+        assertTrue(plan.contains("IDX_CLICK_STATS_SHORT_URL_CLICKED_AT"), plan);
+    }
+
+    /**
+     * Test that loading a link with its clicks joins through indexes on both tables
+     */
+    @Test
+    void findWithClickStatsByShortCode_ShouldJoinThroughIndexes() {
+        String plan = explain("SELECT s.id, s.original_url, c.id, c.clicked_at FROM short_url s "
+                + "LEFT JOIN click_stats c ON c.short_url_id = s.id WHERE s.short_code = 'abc123'");
+
+        assertIndexed(plan, "SHORT_URL");
+        assertIndexed(plan, "CLICK_STATS");
+    }
+
+    /**
+     * Test that lease lookups by node use the node_id index
+     */
+    @Test
+    void findLeasesByNodeId_ShouldUseIndex() {
+        String plan = explain("SELECT id, shard, range_start, range_end FROM code_range_lease WHERE node_id = 'node-a'");
+
+        assertIndexed(plan, "CODE_RANGE_LEASE");
+        assertTrue(plan.contains("IDX_CODE_RANGE_LEASE_NODE_ID"), plan);
+    }
+
+    /**
+     * Test that links are looked up by target host through the (target_host, id) index, also
+     * when the backfill looks for links without a host
+     */
+    @Test
+    void findByTargetHost_ShouldUseHostIndex() {
+        String page = explain("SELECT id, short_code, original_url, created_at FROM short_url "
+                + "WHERE target_host = 'example.com' AND id > 0 ORDER BY id LIMIT 100");
+        String missing = explain("SELECT id, original_url FROM short_url "
+                + "WHERE target_host IS NULL AND id > 0 ORDER BY id LIMIT 1000");
+
+        assertIndexed(page, "SHORT_URL");
+        assertTrue(page.contains("IDX_SHORT_URL_TARGET_HOST_ID"), page);
+        assertIndexed(missing, "SHORT_URL");
+        assertTrue(missing.contains("IDX_SHORT_URL_TARGET_HOST_ID"), missing);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+
+    /**
+     * H2 annotates each table access with the index it uses, or with "tableScan"
+     */
+    private static void assertIndexed(String plan, String table) {
+        assertFalse(plan.contains("PUBLIC." + table + ".tableScan"), plan);
+    }
+}
@@ -0,0 +1,131 @@
+package Repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import Cache.ShortCodeInvalidation;
+import Cache.ShortUrlCacheEvictor;
+import Model.ShortUrl;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Integration tests for the ShortUrl second-level cache
+ * 
+ * This test class verifies that short code resolution is served from the
+ * natural-id and entity cache regions once warm, without issuing any SQL.
+ * Tests run outside a test-managed transaction so every repository call
+ * commits and populates the shared cache like it would in production.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = {com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication.class, Config.JpaConfig.class})
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:cachetestdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class ShortUrlRepositoryCacheTest {
+
+    @Autowired
+    private ShortUrlRepository shortUrlRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        shortUrlRepository.deleteAll();
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    /**
+     * Test that repeated resolutions of the same short code issue no SQL
+     */
+    @Test
+    void findByShortCode_ShouldNotIssueSqlWhenCacheIsWarm() {
+        // Given
+        shortUrlRepository.save(ShortUrl.builder()
+                .originalUrl("https://www.example.com")
+                .shortCode("abc123")
+                .createdAt(LocalDateTime.now())
+                .clickStats(new ArrayList<>())
+                .build());
+        shortUrlRepository.findByShortCode("abc123");
+        statistics.clear();
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            Optional<ShortUrl> found = shortUrlRepository.findByShortCode("abc123");
+            assertTrue(found.isPresent());
+            assertEquals("https://www.example.com", found.get().getOriginalUrl());
+        }
+
+        // Then
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(10, statistics.getNaturalIdCacheHitCount());
+        assertEquals(10, statistics.getSecondLevelCacheHitCount());
+    }
+
+    /**
+     * Test that an invalidation evicts both the entity and the short code's natural-id entry
+     */
+    @Test
+    void invalidate_ShouldEvictEntityAndNaturalId() {
+        // Given
+        ShortUrl saved = shortUrlRepository.save(ShortUrl.builder()
+                .originalUrl("https://www.example.com")
+                .shortCode("abc123")
+                .createdAt(LocalDateTime.now())
+                .clickStats(new ArrayList<>())
+                .build());
+        shortUrlRepository.findByShortCode("abc123");
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        assertTrue(sessionFactory.getCache().containsEntity(ShortUrl.class, saved.getId()));
+        statistics.clear();
+
+        // When
+        new ShortUrlCacheEvictor(entityManagerFactory)
+                .invalidate(List.of(new ShortCodeInvalidation(saved.getId(), "abc123")));
+
+        // Then
+        assertFalse(sessionFactory.getCache().containsEntity(ShortUrl.class, saved.getId()));
+        assertTrue(shortUrlRepository.findByShortCode("abc123").isPresent());
+        assertEquals(0, statistics.getNaturalIdCacheHitCount());
+        assertEquals(1, statistics.getNaturalIdCacheMissCount());
+    }
+
+    /**
+     * Test that an unknown short code still falls through to the database
+     */
+    @Test
+    void findByShortCode_ShouldQueryDatabaseForUnknownCode() {
+        // When
+        Optional<ShortUrl> found = shortUrlRepository.findByShortCode("missing");
+
+        // Then
+        assertFalse(found.isPresent());
+        assertTrue(statistics.getPrepareStatementCount() > 0);
+    }
+}
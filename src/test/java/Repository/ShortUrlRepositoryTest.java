@@ -15,6 +15,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
 
+import Model.ClickStats;
 import Model.ShortUrl;
 
 /**
@@ -24,7 +25,7 @@ import Model.ShortUrl;
  * including CRUD operations and custom finder methods.
  */
 @DataJpaTest
-@ContextConfiguration(classes = {com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication.class})
+@ContextConfiguration(classes = {com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication.class, Config.JpaConfig.class})
 @TestPropertySource(properties = {
     "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
     "spring.datasource.driver-class-name=org.h2.Driver",
@@ -129,6 +130,44 @@ class ShortUrlRepositoryTest {
         assertTrue(allUrls.stream().anyMatch(url -> url.getShortCode().equals("def456")));
     }
 
+    /**
+     * Test the batch lookup: links by code in one query, click totals in one grouped query
+     */
+    @Test
+    void findByShortCodeIn_ShouldReturnLinksAndGroupedClickTotals() {
+        // Given
+        ShortUrl url1 = entityManager.persistAndFlush(ShortUrl.builder()
+                .originalUrl("https://www.example1.com")
+                .shortCode("abc123")
+                .createdAt(LocalDateTime.now())
+                .clickStats(new ArrayList<>())
+                .build());
+        ShortUrl url2 = entityManager.persistAndFlush(ShortUrl.builder()
+                .originalUrl("https://www.example2.com")
+                .shortCode("def456")
+                .createdAt(LocalDateTime.now())
+                .clickStats(new ArrayList<>())
+                .build());
+        LocalDateTime lastClick = LocalDateTime.of(2025, 6, 1, 12, 0);
+        entityManager.persist(ClickStats.builder().shortUrlId(url1.getId()).clickedAt(lastClick.minusHours(1)).build());
+        entityManager.persist(ClickStats.builder().shortUrlId(url1.getId()).clickedAt(lastClick).bot(true).build());
+        entityManager.flush();
+
+        // When
+        List<LinkHeader> links = shortUrlRepository.findByShortCodeIn(List.of("abc123", "def456", "missing"));
+        List<ClickTotals> totals = shortUrlRepository.countClicksByShortUrlIdIn(List.of(url1.getId(), url2.getId()));
+
+        // Then
+        assertEquals(2, links.size());
+        assertTrue(links.stream().anyMatch(link -> link.getShortCode().equals("def456")
+                && link.getOriginalUrl().equals("https://www.example2.com")));
+        assertEquals(1, totals.size());
+        assertEquals(url1.getId(), totals.get(0).getShortUrlId());
+        assertEquals(2, totals.get(0).getClicks());
+        assertEquals(1, totals.get(0).getBotClicks());
+        assertEquals(lastClick, totals.get(0).getLastClickedAt());
+    }
+
     /**
      * Test updating an existing ShortUrl
      */
@@ -2,8 +2,14 @@ package Service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -13,14 +19,34 @@ import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import Analytics.BotAction;
+import Analytics.BotClassifier;
+import Analytics.DuplicateClickFilter;
+import Analytics.BrowserFamily;
+import Analytics.DeviceClass;
+import Analytics.GeoIpLookup;
+import Analytics.OsFamily;
+import Analytics.UserAgentParser;
+import Cache.LinkVersions;
+import Cache.LocalInvalidationBus;
+import DTO.DomainLinks;
+import DTO.LinkSummary;
+import Live.ClickEvent;
+import Live.ClickEventHub;
 import Model.ClickStats;
 import Model.ShortUrl;
-import Repository.ClickStatsRepository;
+import Replica.ReplicaLagGuard;
+import Repository.ClickTotals;
+import Repository.LinkHeader;
 import Repository.ShortUrlRepository;
+import Sharding.ShardRouter;
+import Storage.ClickBuffer;
+import Storage.JpaLinkStore;
 import jakarta.servlet.http.HttpServletRequest;
 
 /**
@@ -36,19 +62,44 @@ class UrlServiceTest {
     private ShortUrlRepository shortUrlRepo;
 
     @Mock
-    private ClickStatsRepository clickStatsRepo;
+    private ClickBuffer clickBuffer;
 
     @Mock
     private HttpServletRequest request;
 
-    @InjectMocks
+    @Spy
+    private ShortCodeGenerator codeGenerator = new RandomShortCodeGenerator();
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(1);
+
+    @Spy
+    private ReplicaLagGuard replicaLagGuard = new ReplicaLagGuard(false, Duration.ofSeconds(5), 100);
+
+    private final BotClassifier botClassifier =
+            new BotClassifier(BotAction.TAG, List.of("bot", "curl/"), 100, false);
+
+    private GeoIpLookup geoIpLookup;
+
+    private ClickEventHub clickEventHub;
+
+    private final LinkVersions linkVersions = new LinkVersions(new LocalInvalidationBus(), 16);
+
     private UrlService urlService;
 
     private ShortUrl testShortUrl;
     private ClickStats testClickStats;
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws IOException {
+        geoIpLookup = GeoIpLookup.load(new ByteArrayInputStream(
+                "192.168.0.0,192.168.255.255,DE\n".getBytes(StandardCharsets.US_ASCII)));
+        clickEventHub = new ClickEventHub(16);
+        urlService = new UrlService(
+                linkStore(), codeGenerator,
+                botClassifier, new UserAgentParser(100), geoIpLookup, DuplicateClickFilter.disabled(), clickEventHub,
+                linkVersions);
+
         // Create test data
         testShortUrl = ShortUrl.builder()
                 .id(1L)
@@ -107,6 +158,62 @@ class UrlServiceTest {
         verify(shortUrlRepo).save(any(ShortUrl.class));
     }
 
+    /**
+     * Test that creating a link changes the listing and statistics ETags, which are computed without loading stats
+     */
+    @Test
+    void createShortUrl_ShouldChangeETags() {
+        // Given
+        when(shortUrlRepo.findByShortCode(any())).thenReturn(Optional.empty());
+        when(shortUrlRepo.findByShortCode("abc123")).thenReturn(Optional.of(testShortUrl));
+        when(shortUrlRepo.save(any(ShortUrl.class))).thenReturn(testShortUrl);
+        String listingBefore = urlService.listingETag();
+        String statsBefore = urlService.statsETag("abc123").orElseThrow();
+
+        // When
+        urlService.createShortUrl("https://www.example.com");
+
+        // Then
+        assertNotEquals(listingBefore, urlService.listingETag());
+        assertNotEquals(statsBefore, urlService.statsETag("abc123").orElseThrow());
+        assertTrue(urlService.statsETag("missing").isEmpty());
+        verify(shortUrlRepo, never()).findWithClickStatsByShortCode(any());
+    }
+
+    /**
+     * Test that a new link is stored with the normalized host of its URL
+     */
+    @Test
+    void createShortUrl_ShouldStoreNormalizedTargetHost() {
+        // Given
+        when(shortUrlRepo.findByShortCode(any())).thenReturn(Optional.empty());
+        when(shortUrlRepo.save(any(ShortUrl.class))).thenReturn(testShortUrl);
+        ArgumentCaptor<ShortUrl> saved = ArgumentCaptor.forClass(ShortUrl.class);
+
+        // When
+        urlService.createShortUrl("https://WWW.Example.com:443/path?q=1");
+
+        // Then
+        verify(shortUrlRepo).save(saved.capture());
+        assertEquals("example.com", saved.getValue().getTargetHost());
+    }
+
+    /**
+     * Test that lookups by domain are normalized and reject an empty domain or a limit out of range
+     */
+    @Test
+    void findByDomain_ShouldValidateDomainAndLimit() {
+        // When
+        DomainLinks page = urlService.findByDomain("WWW.Example.com", null, 10);
+
+        // Then: the store has no host index here, but the host was normalized
+        assertEquals("example.com", page.getHost());
+        assertThrows(IllegalArgumentException.class, () -> urlService.findByDomain(" ", null, 10));
+        assertThrows(IllegalArgumentException.class, () -> urlService.findByDomain("example.com", null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> urlService.findByDomain("example.com", null, UrlService.MAX_DOMAIN_PAGE_SIZE + 1));
+    }
+
     /**
      * Test successful URL retrieval and click tracking
      */
@@ -118,7 +225,6 @@ class UrlServiceTest {
         when(request.getRemoteAddr()).thenReturn("192.168.1.1");
         when(request.getHeader("Referer")).thenReturn("https://google.com");
         when(request.getHeader("User-Agent")).thenReturn("Mozilla/5.0");
-        when(clickStatsRepo.save(any(ClickStats.class))).thenReturn(testClickStats);
 
         // When
         Optional<ShortUrl> result = urlService.getOriginalUrl(shortCode, request);
@@ -126,7 +232,131 @@ class UrlServiceTest {
         // Then
         assertTrue(result.isPresent());
         assertEquals(testShortUrl, result.get());
-        verify(clickStatsRepo).save(any(ClickStats.class));
+        ArgumentCaptor<ClickStats> click = ArgumentCaptor.forClass(ClickStats.class);
+        verify(clickBuffer).add(eq(0), click.capture());
+        assertEquals(testShortUrl.getId(), click.getValue().getShortUrlId());
+        assertNull(click.getValue().getShortUrl());
+        assertEquals("192.168.1.1", click.getValue().getIpAddress());
+        assertFalse(click.getValue().isBot());
+        assertEquals("DE", click.getValue().getCountry());
+        ClickEvent event = clickEventHub.get(0);
+        assertEquals(shortCode, event.shortCode());
+        assertEquals("DE", event.country());
+        assertEquals(1, clickEventHub.head());
+    }
+
+    /**
+     * Test that a recorded click carries the dimensions parsed from its User-Agent
+     */
+    @Test
+    void getOriginalUrl_ShouldRecordUserAgentDimensions() {
+        // Given
+        String shortCode = "abc123";
+        when(shortUrlRepo.findByShortCode(shortCode)).thenReturn(Optional.of(testShortUrl));
+        when(request.getHeader("User-Agent")).thenReturn("Mozilla/5.0 (iPhone; CPU iPhone OS 17_5 like Mac OS X) "
+                + "AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.5 Mobile/15E148 Safari/604.1");
+
+        // When
+        urlService.getOriginalUrl(shortCode, request);
+
+        // Then
+        ArgumentCaptor<ClickStats> click = ArgumentCaptor.forClass(ClickStats.class);
+        verify(clickBuffer).add(eq(0), click.capture());
+        assertEquals(BrowserFamily.SAFARI, click.getValue().getBrowser());
+        assertEquals(OsFamily.IOS, click.getValue().getOs());
+        assertEquals(DeviceClass.MOBILE, click.getValue().getDevice());
+    }
+
+    /**
+     * Test that a click from a bot User-Agent is recorded with the bot flag set
+     */
+    @Test
+    void getOriginalUrl_ShouldTagBotClick() {
+        // Given
+        String shortCode = "abc123";
+        when(shortUrlRepo.findByShortCode(shortCode)).thenReturn(Optional.of(testShortUrl));
+        when(request.getHeader("User-Agent")).thenReturn("Slackbot-LinkExpanding 1.0 (+https://api.slack.com/robots)");
+
+        // When
+        Optional<ShortUrl> result = urlService.getOriginalUrl(shortCode, request);
+
+        // Then
+        assertTrue(result.isPresent());
+        ArgumentCaptor<ClickStats> click = ArgumentCaptor.forClass(ClickStats.class);
+        verify(clickBuffer).add(eq(0), click.capture());
+        assertTrue(click.getValue().isBot());
+    }
+
+    /**
+     * Test that a bot click is not recorded when bot clicks are dropped, while the redirect still resolves
+     */
+    @Test
+    void getOriginalUrl_ShouldDropBotClickWhenConfigured() {
+        // Given
+        UrlService droppingService = new UrlService(
+                linkStore(), codeGenerator,
+                new BotClassifier(BotAction.DROP, List.of("bot", "curl/"), 100, false), new UserAgentParser(100),
+                geoIpLookup, DuplicateClickFilter.disabled(), new ClickEventHub(16), linkVersions);
+        String shortCode = "abc123";
+        when(shortUrlRepo.findByShortCode(shortCode)).thenReturn(Optional.of(testShortUrl));
+        when(request.getHeader("User-Agent")).thenReturn("curl/8.5.0");
+
+        // When
+        Optional<ShortUrl> result = droppingService.getOriginalUrl(shortCode, request);
+
+        // Then
+        assertTrue(result.isPresent());
+        verify(clickBuffer, never()).add(anyInt(), any(ClickStats.class));
+    }
+
+    /**
+     * Test that a repeated click by the same visitor is not recorded, while the redirect still resolves
+     */
+    @Test
+    void getOriginalUrl_ShouldNotRecordRepeatedClick() {
+        // Given
+        UrlService dedupingService = new UrlService(
+                linkStore(), codeGenerator,
+                botClassifier, new UserAgentParser(100), geoIpLookup,
+                new DuplicateClickFilter(Duration.ofMinutes(1), 4, 1000), new ClickEventHub(16), linkVersions);
+        String shortCode = "abc123";
+        when(shortUrlRepo.findByShortCode(shortCode)).thenReturn(Optional.of(testShortUrl));
+        when(request.getHeader("User-Agent")).thenReturn("Mozilla/5.0");
+        when(request.getRemoteAddr()).thenReturn("192.168.1.1", "192.168.1.1", "192.168.1.2");
+
+        // When
+        dedupingService.getOriginalUrl(shortCode, request);
+        Optional<ShortUrl> repeat = dedupingService.getOriginalUrl(shortCode, request);
+        dedupingService.getOriginalUrl(shortCode, request);
+
+        // Then
+        assertTrue(repeat.isPresent());
+        verify(clickBuffer, times(2)).add(anyInt(), any(ClickStats.class));
+    }
+
+    /**
+     * Test that batch summaries come back in request order, without duplicates or unknown codes
+     */
+    @Test
+    void forEachLinkSummary_ShouldReturnKnownCodesInRequestOrder() {
+        // Given
+        LinkHeader first = linkHeader(1L, "abc123");
+        LinkHeader second = linkHeader(2L, "def456");
+        when(shortUrlRepo.findByShortCodeIn(List.of("def456", "abc123", "nope"))).thenReturn(List.of(first, second));
+        ClickTotals totals = mock(ClickTotals.class);
+        when(totals.getShortUrlId()).thenReturn(1L);
+        when(totals.getClicks()).thenReturn(3L);
+        when(shortUrlRepo.countClicksByShortUrlIdIn(List.of(1L, 2L))).thenReturn(List.of(totals));
+
+        // When
+        List<LinkSummary> summaries = new ArrayList<>();
+        urlService.forEachLinkSummary(List.of("def456", "abc123", "def456", "nope"), summaries::add);
+
+        // Then
+        assertEquals(List.of("def456", "abc123"), summaries.stream().map(LinkSummary::getShortCode).toList());
+        assertEquals(0, summaries.get(0).getTotalClicks());
+        assertEquals(3, summaries.get(1).getTotalClicks());
+        verify(shortUrlRepo, never()).findWithClickStatsByShortCode(any());
     }
 
     /**
@@ -143,7 +373,7 @@ class UrlServiceTest {
 
         // Then
         assertFalse(result.isPresent());
-        verify(clickStatsRepo, never()).save(any(ClickStats.class));
+        verify(clickBuffer, never()).add(anyInt(), any(ClickStats.class));
     }
 
     /**
@@ -172,7 +402,7 @@ class UrlServiceTest {
     void getStats_ShouldReturnUrlWhenFound() {
         // Given
         String shortCode = "abc123";
-        when(shortUrlRepo.findByShortCode(shortCode)).thenReturn(Optional.of(testShortUrl));
+        when(shortUrlRepo.findWithClickStatsByShortCode(shortCode)).thenReturn(Optional.of(testShortUrl));
 
         // When
         Optional<ShortUrl> result = urlService.getStats(shortCode);
@@ -180,7 +410,7 @@ class UrlServiceTest {
         // Then
         assertTrue(result.isPresent());
         assertEquals(testShortUrl, result.get());
-        verify(shortUrlRepo).findByShortCode(shortCode);
+        verify(shortUrlRepo).findWithClickStatsByShortCode(shortCode);
     }
 
     /**
@@ -190,14 +420,14 @@ class UrlServiceTest {
     void getStats_ShouldReturnEmptyWhenNotFound() {
         // Given
         String shortCode = "nonexistent";
-        when(shortUrlRepo.findByShortCode(shortCode)).thenReturn(Optional.empty());
+        when(shortUrlRepo.findWithClickStatsByShortCode(shortCode)).thenReturn(Optional.empty());
 
         // When
         Optional<ShortUrl> result = urlService.getStats(shortCode);
 
         // Then
         assertFalse(result.isPresent());
-        verify(shortUrlRepo).findByShortCode(shortCode);
+        verify(shortUrlRepo).findWithClickStatsByShortCode(shortCode);
     }
 
     /**
@@ -213,6 +443,7 @@ class UrlServiceTest {
         when(shortUrlRepo.findByShortCode(any())).thenReturn(Optional.empty());
         when(shortUrlRepo.save(any(ShortUrl.class))).thenAnswer(invocation -> {
             ShortUrl savedUrl = invocation.getArgument(0);
+            savedUrl.setId(2L);
             return savedUrl;
         });
 
@@ -224,4 +455,20 @@ class UrlServiceTest {
         assertEquals(6, result.getShortCode().length());
         assertTrue(result.getShortCode().matches("[a-zA-Z0-9]{6}"));
     }
-} 
\ No newline at end of file
+
+    private JpaLinkStore linkStore() {
+        return JpaLinkStore.builder()
+                .shortUrlRepo(shortUrlRepo)
+                .clickBuffer(clickBuffer)
+                .shardRouter(shardRouter)
+                .replicaLagGuard(replicaLagGuard)
+                .build();
+    }
+
+    private static LinkHeader linkHeader(long id, String shortCode) {
+        LinkHeader link = mock(LinkHeader.class);
+        when(link.getId()).thenReturn(id);
+        when(link.getShortCode()).thenReturn(shortCode);
+        return link;
+    }
+}
@@ -0,0 +1,67 @@
+package Sharding;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+import Model.CodeRangeLease;
+import Repository.CodeRangeCounterRepository;
+import Repository.CodeRangeLeaseRepository;
+
+/**
+ * Integration tests for CodeRangeAllocator
+ * 
+ * This test class checks that leases taken through the coordination tables
+ * are disjoint per shard and recorded per node.
+ */
+@DataJpaTest
+@Import(CodeRangeAllocatorTest.AllocatorConfig.class)
+@ContextConfiguration(classes = {com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication.class, Config.JpaConfig.class})
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class CodeRangeAllocatorTest {
+
+    @Autowired
+    private CodeRangeAllocator allocator;
+
+    @Autowired
+    private CodeRangeLeaseRepository leaseRepo;
+
+    /**
+     * Test that consecutive leases of a shard do not overlap
+     */
+    @Test
+    void lease_ShouldHandOutDisjointRangesPerShard() {
+        // When
+        CodeRangeLease first = allocator.lease(0, "node-a", 100);
+        CodeRangeLease second = allocator.lease(0, "node-b", 100);
+        CodeRangeLease otherShard = allocator.lease(1, "node-a", 100);
+
+        // Then
+        assertEquals(0, first.getRangeStart());
+        assertEquals(100, first.getRangeEnd());
+        assertEquals(100, second.getRangeStart());
+        assertEquals(200, second.getRangeEnd());
+        assertEquals(0, otherShard.getRangeStart());
+        assertEquals(2, leaseRepo.findByNodeId("node-a").size());
+    }
+
+    static class AllocatorConfig {
+        @Bean
+        CodeRangeAllocator codeRangeAllocator(CodeRangeCounterRepository counterRepo, CodeRangeLeaseRepository leaseRepo) {
+            return new CodeRangeAllocator(counterRepo, leaseRepo);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package Sharding;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import Model.CodeRangeLease;
+
+/**
+ * Unit tests for LeasedRangeShortCodeGenerator
+ * 
+ * This test class checks that codes are generated locally from leased blocks,
+ * that a new block is leased only when the current one runs out, and that
+ * concurrent generation never hands out the same code twice.
+ */
+@ExtendWith(MockitoExtension.class)
+class LeasedRangeShortCodeGeneratorTest {
+
+    @Mock
+    private CodeRangeAllocator allocator;
+
+    private final AtomicLong nextStart = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        when(allocator.lease(anyInt(), anyString(), anyInt())).thenAnswer(invocation -> {
+            int blockSize = invocation.getArgument(2);
+            long start = nextStart.getAndAdd(blockSize);
+            return CodeRangeLease.builder().rangeStart(start).rangeEnd(start + blockSize).build();
+        });
+    }
+
+    /**
+     * Test that a block is leased once and then consumed locally
+     */
+    @Test
+    void nextCode_ShouldLeaseOnlyWhenBlockIsExhausted() {
+        // Given
+        LeasedRangeShortCodeGenerator generator = new LeasedRangeShortCodeGenerator(
+                allocator, new ShardRouter(2), 1, "node-a", 10);
+
+        // When
+        for (int i = 0; i < 25; i++) {
+            generator.nextCode();
+        }
+
+        // Then
+        verify(allocator, times(3)).lease(eq(1), eq("node-a"), eq(10));
+    }
+
+    /**
+     * Test that concurrent callers never receive duplicate codes
+     */
+    @Test
+    void nextCode_ShouldNotDuplicateCodesUnderConcurrency() throws Exception {
+        // Given
+        ShardRouter router = new ShardRouter(2);
+        LeasedRangeShortCodeGenerator generator = new LeasedRangeShortCodeGenerator(allocator, router, 0, "node-a", 100);
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    codes.add(generator.nextCode());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(8000, codes.size());
+        assertTrue(codes.stream().allMatch(code -> router.shardOf(code) == 0));
+    }
+}
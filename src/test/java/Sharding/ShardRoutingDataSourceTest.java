@@ -0,0 +1,205 @@
+package Sharding;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import Model.CodeRangeLease;
+
+/**
+ * Multi-datasource tests for short_url sharding
+ * 
+ * This test class runs two embedded H2 databases, migrated like real shards, behind a
+ * ShardRoutingDataSource and checks that links generated for each shard are
+ * written to, and found on, the database that owns their short code, with ids from
+ * the shard's own range.
+ */
+class ShardRoutingDataSourceTest {
+
+    private final ShardIdRanges idRanges = new ShardIdRanges(1_000_000);
+    private EmbeddedDatabase shard0;
+    private EmbeddedDatabase shard1;
+    private JdbcTemplate routed;
+    private ShardRouter router;
+
+    @BeforeEach
+    void setUp() {
+        shard0 = shard("shard0", 0);
+        shard1 = shard("shard1", 1);
+        routed = new JdbcTemplate(new ShardRoutingDataSource(List.of(shard0, shard1)));
+        router = new ShardRouter(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shard0.shutdown();
+        shard1.shutdown();
+    }
+
+    /**
+     * Test that generated codes are stored on their own shard only
+     */
+    @Test
+    void insert_ShouldWriteEachCodeToItsShard() {
+        // Given
+        LeasedRangeShortCodeGenerator node0 = generator(0);
+        LeasedRangeShortCodeGenerator node1 = generator(1);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            insert(node0.nextCode());
+            insert(node1.nextCode());
+        }
+
+        // Then
+        List<String> onShard0 = new JdbcTemplate(shard0).queryForList("SELECT short_code FROM short_url", String.class);
+        List<String> onShard1 = new JdbcTemplate(shard1).queryForList("SELECT short_code FROM short_url", String.class);
+        assertEquals(50, onShard0.size());
+        assertEquals(50, onShard1.size());
+        assertTrue(onShard0.stream().allMatch(code -> router.shardOf(code) == 0));
+        assertTrue(onShard1.stream().allMatch(code -> router.shardOf(code) == 1));
+    }
+
+    /**
+     * Test that lookups are routed to the shard owning the code
+     */
+    @Test
+    void select_ShouldFindCodeOnlyThroughItsShard() {
+        // Given
+        String code = generator(1).nextCode();
+        insert(code);
+
+        // When
+        Integer routedCount = ShardContext.callOn(router.shardOf(code), () -> routed.queryForObject(
+                "SELECT COUNT(*) FROM short_url WHERE short_code = ?", Integer.class, code));
+        Integer defaultCount = routed.queryForObject(
+                "SELECT COUNT(*) FROM short_url WHERE short_code = ?", Integer.class, code);
+
+        // Then
+        assertEquals(1, routedCount);
+        assertEquals(0, defaultCount);
+    }
+
+    /**
+     * Test that each shard hands out ids from its own range only and rejects others
+     */
+    @Test
+    void claim_ShouldKeepShortUrlIdsDisjoint() {
+        // Given
+        String code0 = generator(0).nextCode();
+        String code1 = generator(1).nextCode();
+
+        // When
+        insert(code0);
+        insert(code1);
+
+        // Then
+        assertEquals(1L, new JdbcTemplate(shard0).queryForObject("SELECT id FROM short_url", Long.class));
+        assertEquals(1_000_001L, new JdbcTemplate(shard1).queryForObject("SELECT id FROM short_url", Long.class));
+        assertThrows(DataIntegrityViolationException.class, () -> new JdbcTemplate(shard1).update(
+                "INSERT INTO short_url (id, short_code, original_url) VALUES (2, 'zzzzzz', 'https://example.com')"));
+    }
+
+    /**
+     * Test that a claimed range is kept on restart and a different range fails startup
+     */
+    @Test
+    void claim_ShouldRejectDifferentRangeOfClaimedShard() {
+        // Given
+        insert(generator(1).nextCode());
+        JdbcTemplate shard1Jdbc = new JdbcTemplate(shard1);
+
+        // When & Then
+        idRanges.claim(1, shard1Jdbc);
+        IllegalStateException reordered = assertThrows(IllegalStateException.class,
+                () -> idRanges.claim(0, shard1Jdbc));
+        assertTrue(reordered.getMessage().contains("claimed 1000001 to 2000000"), reordered.getMessage());
+        assertThrows(IllegalStateException.class, () -> new ShardIdRanges(500_000).claim(1, shard1Jdbc));
+    }
+
+    /**
+     * Test that a database holding ids outside a shard's range cannot claim it
+     */
+    @Test
+    void claim_ShouldRejectDatabaseWithIdsOutsideRange() {
+        // Given
+        EmbeddedDatabase unsharded = migrated("unsharded");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(unsharded);
+        jdbcTemplate.update("INSERT INTO short_url (short_code, original_url) VALUES ('aaaaaa', 'https://example.com')");
+
+        // When & Then
+        try {
+            IllegalStateException outside = assertThrows(IllegalStateException.class,
+                    () -> idRanges.claim(1, jdbcTemplate));
+            assertTrue(outside.getMessage().contains("1 short_url ids outside"), outside.getMessage());
+            idRanges.claim(0, jdbcTemplate);
+            jdbcTemplate.update("INSERT INTO short_url (short_code, original_url) VALUES ('aaaaab', 'https://example.com')");
+            assertEquals(2L, jdbcTemplate.queryForObject("SELECT MAX(id) FROM short_url", Long.class));
+        } finally {
+            unsharded.shutdown();
+        }
+    }
+
+    /**
+     * Test that shard prefixes and sequence values encode into distinct routed codes
+     */
+    @Test
+    void encode_ShouldProduceCodesRoutedToTheirShard() {
+        // Given
+        ShardRouter fourShards = new ShardRouter(4);
+
+        // When & Then
+        assertEquals("aaaaaa", fourShards.encode(0, 0));
+        assertEquals("daaaab", fourShards.encode(3, 1));
+        assertEquals(3, fourShards.shardOf(fourShards.encode(3, 123456789L)));
+        assertNotEquals(fourShards.encode(2, 61), fourShards.encode(2, 62));
+        assertThrows(IllegalArgumentException.class, () -> fourShards.encode(4, 0));
+    }
+
+    private void insert(String code) {
+        ShardContext.callOn(router.shardOf(code), () -> routed.update(
+                "INSERT INTO short_url (short_code, original_url) VALUES (?, ?)", code, "https://example.com/" + code));
+    }
+
+    private LeasedRangeShortCodeGenerator generator(int shard) {
+        AtomicLong next = new AtomicLong();
+        CodeRangeAllocator allocator = mock(CodeRangeAllocator.class);
+        when(allocator.lease(anyInt(), anyString(), anyInt())).thenAnswer(invocation -> {
+            int blockSize = invocation.getArgument(2);
+            long start = next.getAndAdd(blockSize);
+            return CodeRangeLease.builder().rangeStart(start).rangeEnd(start + blockSize).build();
+        });
+        return new LeasedRangeShortCodeGenerator(allocator, router, shard, "node" + shard, 16);
+    }
+
+    private EmbeddedDatabase shard(String name, int shard) {
+        EmbeddedDatabase database = migrated(name);
+        idRanges.claim(shard, new JdbcTemplate(database));
+        return database;
+    }
+
+    private static EmbeddedDatabase migrated(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(name)
+                .generateUniqueName(true)
+                .build();
+        Flyway.configure().dataSource(database).locations("classpath:db/migration/h2").load().migrate();
+        return database;
+    }
+}
@@ -0,0 +1,99 @@
+package Sharding;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import Model.ShortUrl;
+import Service.UrlService;
+import Storage.LinkStore;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Service-level tests for short_url sharding
+ *
+ * This test class starts the application over two H2 shards, migrated and given their id
+ * ranges on startup. It creates links on both shards through UrlService and JpaLinkStore and
+ * resolves them again, the second time through the second-level and natural-id caches, which
+ * key links by id alone.
+ */
+@SpringBootTest(classes = com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:sharded0;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "urlshortener.sharding.enabled=true",
+    "urlshortener.sharding.node-id=node-a",
+    "urlshortener.sharding.home-shard=0",
+    "urlshortener.sharding.short-url-id-range=1000000",
+    "urlshortener.sharding.shards[0].url=jdbc:h2:mem:sharded0;DB_CLOSE_DELAY=-1",
+    "urlshortener.sharding.shards[0].username=sa",
+    "urlshortener.sharding.shards[0].password=",
+    "urlshortener.sharding.shards[1].url=jdbc:h2:mem:sharded1;DB_CLOSE_DELAY=-1",
+    "urlshortener.sharding.shards[1].username=sa",
+    "urlshortener.sharding.shards[1].password="
+})
+class ShardedUrlServiceTest {
+
+    @Autowired
+    private UrlService urlService;
+
+    @Autowired
+    private LinkStore linkStore;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        // The JCache regions outlive the application contexts of other test classes
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    /**
+     * Test that links of different shards get distinct ids and each code resolves to its own link
+     */
+    @Test
+    void getOriginalUrl_ShouldResolveEachShardsOwnLink() {
+        // Given: one link created by this node on its home shard, one stored on the other shard
+        ShortUrl onShard0 = urlService.createShortUrl("https://shard0.example/");
+        ShortUrl onShard1 = linkStore.save(ShortUrl.builder()
+                .shortCode(shardRouter.encode(1, 7))
+                .originalUrl("https://shard1.example/")
+                .createdAt(LocalDateTime.now())
+                .clickStats(new ArrayList<>())
+                .build());
+
+        // When & Then: the second round is answered from the caches
+        assertEquals(0, shardRouter.shardOf(onShard0.getShortCode()));
+        assertEquals(1, onShard0.getId());
+        assertEquals(1_000_001, onShard1.getId());
+        for (int round = 0; round < 2; round++) {
+            assertEquals("https://shard0.example/", originalUrl(onShard0.getShortCode()));
+            assertEquals("https://shard1.example/", originalUrl(onShard1.getShortCode()));
+            assertEquals("https://shard1.example/", urlService.getStats(onShard1.getShortCode())
+                    .map(ShortUrl::getOriginalUrl).orElseThrow());
+        }
+    }
+
+    private String originalUrl(String shortCode) {
+        return urlService.getOriginalUrl(shortCode, new MockHttpServletRequest())
+                .map(ShortUrl::getOriginalUrl)
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,207 @@
+package Snapshot;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import Cache.LinkVersions;
+import Cache.LocalInvalidationBus;
+import Model.ShortUrl;
+import Repository.ShortUrlRepository;
+
+/**
+ * Integration tests for link-table snapshots
+ *
+ * This test class saves links into the migrated H2 schema, exports them with the
+ * LinkSnapshotExporter and imports the snapshot into a second, freshly migrated H2 database
+ * with the LinkSnapshotImporter: links must arrive unchanged, incremental snapshots must only
+ * hold links above their watermark, imports must skip links already present, and a damaged
+ * snapshot must be rejected without importing anything.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = {com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication.class, Config.JpaConfig.class})
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:snapshotdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class LinkSnapshotTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0, 0, 123_456_000);
+
+    @Autowired
+    private ShortUrlRepository shortUrlRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private LinkSnapshotExporter exporter;
+    private JdbcTemplate target;
+    private LinkVersions targetVersions;
+    private LinkSnapshotImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        new JdbcTemplate(dataSource).update("DELETE FROM short_url");
+        exporter = new LinkSnapshotExporter(new JdbcTemplate(dataSource), 1, 2);
+
+        DriverManagerDataSource targetDataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:snapshot-target-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(targetDataSource).locations("classpath:db/migration/h2").load().migrate();
+        target = new JdbcTemplate(targetDataSource);
+        targetVersions = new LinkVersions(new LocalInvalidationBus(), 16);
+        importer = new LinkSnapshotImporter(target, true, 1, 2, targetVersions);
+    }
+
+    /**
+     * Test that exported links are imported unchanged and new links get ids above them
+     */
+    @Test
+    void importFrom_ShouldLoadExportedLinksUnchanged() throws IOException {
+        // Given: more links than fit into a page, one without a creation time
+        link("snap001", "https://example.com/a", NOW);
+        link("snap002", "https://example.com/ä?q=1\tx", NOW.minusDays(3));
+        link("snap003", "https://example.com/c", null);
+        long lastId = link("snap004", "https://example.com/d", NOW.plusSeconds(1));
+        String listingTag = targetVersions.listingTag();
+
+        // When
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        SnapshotSummary exported = exporter.export(0, 0, snapshot);
+        SnapshotImport result = importer.importFrom(new ByteArrayInputStream(snapshot.toByteArray()));
+
+        // Then
+        assertEquals(new SnapshotSummary(0, 0, 4, lastId), exported);
+        assertEquals(new SnapshotImport(exported, 4), result);
+        assertEquals(rows(new JdbcTemplate(dataSource)), rows(target));
+        assertNotEquals(listingTag, targetVersions.listingTag());
+        assertEquals("example.com", target.queryForObject(
+                "SELECT target_host FROM short_url WHERE short_code = 'snap002'", String.class));
+
+        target.update("INSERT INTO short_url (short_code, original_url) VALUES ('new001', 'https://example.com/new')");
+        assertTrue(target.queryForObject("SELECT id FROM short_url WHERE short_code = 'new001'", Long.class) > lastId);
+    }
+
+    /**
+     * Test that an incremental snapshot only holds the links above its watermark
+     */
+    @Test
+    void export_ShouldOnlyIncludeLinksAboveWatermark() throws IOException {
+        // Given
+        long first = link("snap011", "https://example.com/1", NOW);
+        link("snap012", "https://example.com/2", NOW);
+        long last = link("snap013", "https://example.com/3", NOW);
+
+        // When
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        SnapshotSummary summary = exporter.export(0, first, snapshot);
+
+        // Then
+        assertEquals(new SnapshotSummary(0, first, 2, last), summary);
+        LinkSnapshotReader reader = new LinkSnapshotReader(new ByteArrayInputStream(snapshot.toByteArray()));
+        List<String> codes = new ArrayList<>();
+        while (reader.next()) {
+            codes.add(reader.shortCode());
+        }
+        assertEquals(List.of("snap012", "snap013"), codes);
+        assertEquals(summary, reader.summary());
+    }
+
+    /**
+     * Test that links whose id or short code already exist are skipped, so imports can be repeated
+     */
+    @Test
+    void importFrom_ShouldSkipLinksAlreadyPresent() throws IOException {
+        // Given
+        link("snap021", "https://example.com/1", NOW);
+        link("snap022", "https://example.com/2", NOW);
+        byte[] snapshot = export();
+        importer.importFrom(new ByteArrayInputStream(snapshot));
+        String listingTag = targetVersions.listingTag();
+
+        // When
+        SnapshotImport again = importer.importFrom(new ByteArrayInputStream(snapshot));
+
+        // Then
+        assertEquals(2, again.snapshot().links());
+        assertEquals(0, again.imported());
+        assertEquals(2, target.queryForObject("SELECT COUNT(*) FROM short_url", Long.class));
+        assertEquals(listingTag, targetVersions.listingTag());
+    }
+
+    /**
+     * Test that damaged or truncated snapshots are rejected and nothing of them is imported
+     */
+    @Test
+    void importFrom_ShouldRejectDamagedSnapshot() throws IOException {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            link("snap03" + i, "https://example.com/" + i, NOW);
+        }
+        byte[] snapshot = export();
+        byte[] flipped = snapshot.clone();
+        flipped[snapshot.length / 2] ^= 0x01;
+        byte[] truncated = Arrays.copyOf(snapshot, snapshot.length - 1);
+
+        // When / Then
+        assertThrows(CorruptSnapshotException.class, () -> importer.importFrom(new ByteArrayInputStream(flipped)));
+        assertThrows(CorruptSnapshotException.class, () -> importer.importFrom(new ByteArrayInputStream(truncated)));
+        assertThrows(CorruptSnapshotException.class,
+                () -> importer.importFrom(new ByteArrayInputStream("not a snapshot at all".getBytes())));
+        assertEquals(0, target.queryForObject("SELECT COUNT(*) FROM short_url", Long.class));
+    }
+
+    /**
+     * Test that links must be written in ascending id order above the watermark
+     */
+    @Test
+    void write_ShouldRejectLinksOutOfOrder() throws IOException {
+        LinkSnapshotWriter writer = new LinkSnapshotWriter(new ByteArrayOutputStream(), 0, 10);
+        assertThrows(IllegalArgumentException.class, () -> writer.write(10, "abc", "https://example.com", NOW));
+        writer.write(11, "abc", "https://example.com", NOW);
+        assertThrows(IllegalArgumentException.class, () -> writer.write(11, "abd", "https://example.com", NOW));
+    }
+
+    private byte[] export() throws IOException {
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        exporter.export(0, 0, snapshot);
+        return snapshot.toByteArray();
+    }
+
+    private long link(String shortCode, String originalUrl, LocalDateTime createdAt) {
+        return shortUrlRepository.save(ShortUrl.builder()
+                .shortCode(shortCode)
+                .originalUrl(originalUrl)
+                .createdAt(createdAt)
+                .clickStats(new ArrayList<>())
+                .build()).getId();
+    }
+
+    private static List<Map<String, Object>> rows(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForList("SELECT id, short_code, original_url, created_at FROM short_url ORDER BY id");
+    }
+}
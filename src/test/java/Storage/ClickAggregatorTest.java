@@ -0,0 +1,114 @@
+package Storage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import Analytics.BrowserFamily;
+import Analytics.DeviceClass;
+import Analytics.GeoIpLookup;
+import Analytics.OsFamily;
+import DTO.ClickBreakdown;
+import Model.ClickStats;
+import Model.ShortUrl;
+import Repository.ShortUrlRepository;
+
+/**
+ * Integration tests for ClickAggregator
+ *
+ * This test class runs the aggregate upsert against the migrated H2 schema: counts of
+ * several flushes must add up in the same aggregate rows, and the breakdown must sum them
+ * per dimension.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = {com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication.class, Config.JpaConfig.class})
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:aggregatedb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class ClickAggregatorTest {
+
+    @Autowired
+    private ShortUrlRepository shortUrlRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * Test that repeated flushes add to existing aggregate rows and the breakdown sums them
+     */
+    @Test
+    void flush_ShouldAccumulateHourlyCountsPerDimension() {
+        // Given
+        ShortUrl link = shortUrlRepository.save(ShortUrl.builder()
+                .shortCode("agg123")
+                .originalUrl("https://www.example.com")
+                .createdAt(LocalDateTime.now())
+                .clickStats(new ArrayList<>())
+                .build());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        ClickAggregator aggregator = new ClickAggregator(jdbcTemplate, true, 0);
+        LocalDateTime hour = LocalDateTime.of(2025, 6, 1, 10, 0);
+
+        // When
+        aggregator.add(0, List.of(
+                click(link, hour.plusMinutes(1), BrowserFamily.CHROME, OsFamily.ANDROID, DeviceClass.MOBILE, "DE", false),
+                click(link, hour.plusMinutes(2), BrowserFamily.CHROME, OsFamily.ANDROID, DeviceClass.MOBILE, "DE", false),
+                click(link, hour.plusMinutes(3), BrowserFamily.SAFARI, OsFamily.IOS, DeviceClass.MOBILE, "FR", false)));
+        aggregator.flush();
+        aggregator.add(0, List.of(
+                click(link, hour.plusMinutes(59), BrowserFamily.CHROME, OsFamily.ANDROID, DeviceClass.MOBILE, "DE", false),
+                click(link, hour.plusHours(1), BrowserFamily.FIREFOX, OsFamily.WINDOWS, DeviceClass.DESKTOP, "FR", false),
+                click(link, hour.plusHours(1), null, null, null, null, true)));
+        aggregator.close();
+
+        // Then
+        assertEquals(4, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM click_aggregate WHERE short_url_id = ?", Integer.class, link.getId()));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT clicks FROM click_aggregate "
+                + "WHERE short_url_id = ? AND browser = ?", Long.class, link.getId(), BrowserFamily.CHROME.ordinal()));
+
+        ClickBreakdown breakdown = aggregator.breakdown("agg123", link.getId());
+        assertEquals(6, breakdown.getTotalClicks());
+        assertEquals(1, breakdown.getBotClicks());
+        assertEquals(3, breakdown.getBrowsers().get(BrowserFamily.CHROME));
+        assertEquals(1, breakdown.getBrowsers().get(BrowserFamily.OTHER));
+        assertEquals(4, breakdown.getOperatingSystems().get(OsFamily.ANDROID) + breakdown.getOperatingSystems().get(OsFamily.IOS));
+        assertEquals(4, breakdown.getDevices().get(DeviceClass.MOBILE));
+        assertFalse(breakdown.getDevices().containsKey(DeviceClass.TABLET));
+        assertEquals(3, breakdown.getCountries().get("DE"));
+        assertEquals(2, breakdown.getCountries().get("FR"));
+        assertEquals(1, breakdown.getCountries().get(GeoIpLookup.UNKNOWN));
+    }
+
+    private static ClickStats click(ShortUrl link, LocalDateTime clickedAt, BrowserFamily browser, OsFamily os,
+            DeviceClass device, String country, boolean bot) {
+        return ClickStats.builder()
+                .shortUrlId(link.getId())
+                .clickedAt(clickedAt)
+                .browser(browser)
+                .os(os)
+                .device(device)
+                .country(country)
+                .bot(bot)
+                .build();
+    }
+}
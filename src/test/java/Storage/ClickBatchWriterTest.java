@@ -0,0 +1,267 @@
+package Storage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.support.incrementer.H2SequenceMaxValueIncrementer;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import Analytics.BrowserFamily;
+import Model.ClickStats;
+import Model.ShortUrl;
+import Replica.ReplicaLagGuard;
+import Repository.ClickStatsRepository;
+import Repository.ShortUrlRepository;
+import Sharding.ShardRouter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Integration tests for the batched JDBC click path
+ *
+ * This test class records 10,000 clicks through JpaLinkStore and checks the cost:
+ * the number of JDBC statement executions (counted by wrapping the datasource) and
+ * the size of the persistence context the clicks are recorded in. Tests run outside
+ * a test-managed transaction because the buffer writes from its own thread.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(ClickBatchWriterTest.CountingConfig.class)
+@ContextConfiguration(classes = {com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication.class, Config.JpaConfig.class})
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:clickbatchdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class ClickBatchWriterTest {
+    private static final int CLICKS = 10_000;
+
+    @Autowired
+    private ShortUrlRepository shortUrlRepository;
+
+    @Autowired
+    private ClickStatsRepository clickStatsRepository;
+
+    @Autowired
+    private ClickBatchWriter writer;
+
+    @Autowired
+    private AtomicInteger statementCount;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Test that 10k clicks cost one batch and one sequence call per 50 clicks and
+     * leave nothing but the resolved link in the persistence context
+     */
+    @Test
+    void recordClick_ShouldBatchInsertsWithoutManagingEntities() {
+        // Given
+        ShortUrl link = shortUrlRepository.save(ShortUrl.builder()
+                .shortCode("abc123")
+                .originalUrl("https://www.example.com")
+                .createdAt(LocalDateTime.now())
+                .clickStats(new ArrayList<>())
+                .build());
+        ClickBuffer buffer = ClickBuffer.builder()
+                .writer(writer)
+                .batchSize(ClickStats.ID_ALLOCATION_SIZE)
+                .maxPending(CLICKS)
+                .build();
+        JpaLinkStore store = JpaLinkStore.builder()
+                .shortUrlRepo(shortUrlRepository)
+                .clickBuffer(buffer)
+                .shardRouter(new ShardRouter(1))
+                .replicaLagGuard(new ReplicaLagGuard(false, Duration.ofSeconds(5), 100))
+                .build();
+        statementCount.set(0);
+
+        // When
+        int managedEntities = transactionTemplate.execute(status -> {
+            ShortUrl resolved = store.findByShortCode("abc123").orElseThrow();
+            for (int i = 0; i < CLICKS; i++) {
+                store.recordClick(resolved, ClickStats.builder()
+                        .ipAddress("192.168.1." + (i % 256))
+                        .userAgent("Mozilla/5.0")
+                        .browser(BrowserFamily.FIREFOX)
+                        .build());
+            }
+            return entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+        });
+        buffer.close();
+
+        // Then
+        int batches = CLICKS / ClickStats.ID_ALLOCATION_SIZE;
+        assertEquals(1, managedEntities);
+        assertTrue(statementCount.get() <= 2 * batches + 1,
+                "expected at most " + (2 * batches + 1) + " statements, got " + statementCount.get());
+        assertEquals(CLICKS, clickStatsRepository.count());
+        assertEquals(CLICKS, new JdbcTemplate(dataSource).queryForObject(
+                "SELECT COUNT(*) FROM click_stats WHERE short_url_id = ? AND browser = ?", Integer.class,
+                link.getId(), BrowserFamily.FIREFOX.ordinal()));
+    }
+
+    /**
+     * Test that a click with headers longer than their columns is stored truncated, and the
+     * rest of its batch with it
+     */
+    @Test
+    void insert_ShouldTruncateLongHeadersInsteadOfFailingBatch() {
+        // Given
+        ShortUrl link = shortUrlRepository.save(ShortUrl.builder()
+                .shortCode("long01")
+                .originalUrl("https://www.example.com/long")
+                .createdAt(LocalDateTime.now())
+                .clickStats(new ArrayList<>())
+                .build());
+        String longUserAgent = "Mozilla/5.0 (iPhone) FBAN/FBIOS;" + "x".repeat(1_000);
+        String longReferrer = "https://l.example.com/?u=" + "y".repeat(400);
+        List<ClickStats> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            batch.add(ClickStats.builder()
+                    .shortUrlId(link.getId())
+                    .ipAddress("10.0.0." + i)
+                    .userAgent(i == 5 ? longUserAgent : "Mozilla/5.0")
+                    .referrer(i == 5 ? longReferrer : null)
+                    .build());
+        }
+
+        // When
+        writer.insert(0, batch);
+
+        // Then
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        assertEquals(10, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM click_stats WHERE short_url_id = ?", Integer.class, link.getId()));
+        assertEquals(longUserAgent.substring(0, ClickBatchWriter.MAX_HEADER_LENGTH), jdbcTemplate.queryForObject(
+                "SELECT user_agent FROM click_stats WHERE short_url_id = ? AND ip_address = '10.0.0.5'",
+                String.class, link.getId()));
+        assertEquals(ClickBatchWriter.MAX_HEADER_LENGTH, jdbcTemplate.queryForObject(
+                "SELECT LENGTH(referrer) FROM click_stats WHERE short_url_id = ? AND ip_address = '10.0.0.5'",
+                Integer.class, link.getId()));
+    }
+
+    /**
+     * Wraps the datasource to count statement executions, and provides the JDBC click writer
+     */
+    @TestConfiguration
+    static class CountingConfig {
+
+        @Bean
+        AtomicInteger statementCount() {
+            return new AtomicInteger();
+        }
+
+        @Bean
+        static BeanPostProcessor countingDataSourcePostProcessor(AtomicInteger statementCount) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+                        return new CountingDataSource(dataSource, statementCount);
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        @Bean
+        ClickBatchWriter clickBatchWriter(DataSource dataSource) {
+            return new ClickBatchWriter(new JdbcTemplate(dataSource),
+                    new H2SequenceMaxValueIncrementer(dataSource, ClickStats.ID_SEQUENCE));
+        }
+    }
+
+    /**
+     * Counts execute/executeQuery/executeUpdate/executeBatch calls on every statement
+     */
+    static class CountingDataSource extends DelegatingDataSource {
+        private final AtomicInteger statementCount;
+
+        CountingDataSource(DataSource target, AtomicInteger statementCount) {
+            super(target);
+            this.statementCount = statementCount;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return countingConnection(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return countingConnection(super.getConnection(username, password));
+        }
+
+        private Connection countingConnection(Connection connection) {
+            return proxy(Connection.class, connection, (target, method, args) -> {
+                Object result = invoke(target, method, args);
+                if (result instanceof Statement statement) {
+                    Class<? extends Statement> type = method.getReturnType().asSubclass(Statement.class);
+                    return proxy(type, statement, (statementTarget, statementMethod, statementArgs) -> {
+                        if (statementMethod.getName().startsWith("execute")) {
+                            statementCount.incrementAndGet();
+                        }
+                        return invoke(statementTarget, statementMethod, statementArgs);
+                    });
+                }
+                return result;
+            });
+        }
+
+        private interface Handler {
+            Object handle(Object target, Method method, Object[] args) throws Throwable;
+        }
+
+        private static <T> T proxy(Class<T> type, Object target, Handler handler) {
+            InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, invocationHandler));
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
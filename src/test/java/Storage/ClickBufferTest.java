@@ -0,0 +1,89 @@
+package Storage;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import Model.ClickStats;
+
+/**
+ * Unit tests for ClickBuffer
+ *
+ * This test class replaces the batch writer with a mock that fails once and checks that the
+ * failed batch is written by the next flush, and that clicks which no longer fit in the
+ * buffer are counted as dropped.
+ */
+class ClickBufferTest {
+
+    /**
+     * Test that a batch whose write fails once is written by the next flush
+     */
+    @Test
+    void flush_ShouldRetryBatchAfterWriteFailure() {
+        // Given
+        ClickBatchWriter writer = mock(ClickBatchWriter.class);
+        List<List<ClickStats>> written = new ArrayList<>();
+        doThrow(new DataAccessResourceFailureException("connection refused"))
+                .doAnswer(invocation -> written.add(List.copyOf(invocation.getArgument(1))))
+                .when(writer).insert(anyInt(), anyList());
+        try (ClickBuffer buffer = ClickBuffer.builder().writer(writer).batchSize(50).maxPending(100).build()) {
+            for (int i = 0; i < 3; i++) {
+                buffer.add(0, click(i));
+            }
+
+            // When
+            buffer.flush();
+            buffer.flush();
+
+            // Then
+            assertEquals(1, written.size());
+            assertEquals(List.of(0L, 1L, 2L), written.get(0).stream().map(ClickStats::getShortUrlId).toList());
+            assertEquals(0, buffer.droppedCount());
+            buffer.flush();
+            verify(writer, times(2)).insert(anyInt(), anyList());
+        }
+    }
+
+    /**
+     * Test that a failed batch is put back only as far as the buffer has room, and the rest is counted
+     */
+    @Test
+    void flush_ShouldCountClicksThatNoLongerFitAfterWriteFailure() {
+        // Given: a full batch of 4 fails while 3 more clicks arrive
+        ClickBatchWriter writer = mock(ClickBatchWriter.class);
+        try (ClickBuffer buffer = ClickBuffer.builder().writer(writer).batchSize(4).maxPending(6).build()) {
+            doAnswer(invocation -> {
+                for (int i = 4; i < 7; i++) {
+                    buffer.add(1, click(i));
+                }
+                throw new DataAccessResourceFailureException("connection refused");
+            }).doNothing().when(writer).insert(anyInt(), anyList());
+            for (int i = 0; i < 4; i++) {
+                buffer.add(1, click(i));
+            }
+
+            // When
+            buffer.flush();
+            buffer.flush();
+
+            // Then: 3 of the 4 failed clicks fit back next to the 3 new ones
+            assertEquals(1, buffer.droppedCount());
+            verify(writer, times(3)).insert(anyInt(), anyList());
+        }
+    }
+
+    private static ClickStats click(long shortUrlId) {
+        return ClickStats.builder()
+                .shortUrlId(shortUrlId)
+                .clickedAt(LocalDateTime.of(2025, 6, 1, 10, 0))
+                .build();
+    }
+}
@@ -0,0 +1,178 @@
+package Storage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.incrementer.H2SequenceMaxValueIncrementer;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import Analytics.BrowserFamily;
+import Analytics.DeviceClass;
+import Archive.ArchivedClick;
+import Archive.ClickArchive;
+import Model.ClickStats;
+import Model.ShortUrl;
+import Repository.ShortUrlRepository;
+
+/**
+ * Integration tests for ClickExportReader
+ *
+ * This test class writes clicks with the ClickBatchWriter into the migrated H2 schema and
+ * exports them in small pages: every click of the link must be read exactly once, oldest
+ * first, also when clicks share a timestamp across a page boundary, and archived clicks
+ * must come before those in the table.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = {com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication.class, Config.JpaConfig.class})
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:exportdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class ClickExportReaderTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    @Autowired
+    private ShortUrlRepository shortUrlRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @TempDir
+    Path archiveDirectory;
+
+    private JdbcTemplate jdbcTemplate;
+    private ClickBatchWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM click_stats");
+        writer = new ClickBatchWriter(jdbcTemplate, new H2SequenceMaxValueIncrementer(dataSource, ClickStats.ID_SEQUENCE));
+    }
+
+    /**
+     * Test that all clicks of a link are read once, oldest first, across pages with equal timestamps
+     */
+    @Test
+    void forEach_ShouldReadEveryClickOnceInOrder() {
+        // Given: 5 clicks, 3 of them at the same time, and a click on another link
+        long linkId = link("exp001");
+        long otherId = link("exp002");
+        writer.insert(0, List.of(
+                click(linkId, NOW.plusMinutes(5), "10.0.0.5"),
+                click(linkId, NOW, "10.0.0.1"),
+                click(linkId, NOW, "10.0.0.2"),
+                click(linkId, NOW, "10.0.0.3"),
+                click(linkId, NOW.plusMinutes(1), "10.0.0.4"),
+                click(otherId, NOW, "10.0.0.9")));
+        ClickExportReader reader = new ClickExportReader(jdbcTemplate, 2, null);
+        List<ClickStats> clicks = new ArrayList<>();
+
+        // When
+        long count = reader.forEach("exp001", linkId, clicks::add);
+
+        // Then
+        assertEquals(5, count);
+        assertEquals(List.of("10.0.0.1", "10.0.0.2", "10.0.0.3", "10.0.0.4", "10.0.0.5"),
+                clicks.stream().map(ClickStats::getIpAddress).toList());
+        ClickStats first = clicks.get(0);
+        assertEquals(NOW, first.getClickedAt());
+        assertEquals(BrowserFamily.FIREFOX, first.getBrowser());
+        assertNull(first.getOs());
+        assertEquals(DeviceClass.MOBILE, first.getDevice());
+        assertEquals("DE", first.getCountry());
+        assertTrue(first.isBot());
+        assertEquals(linkId, first.getShortUrlId());
+    }
+
+    /**
+     * Test that a link without clicks is read with a single query and nothing is exported
+     */
+    @Test
+    void forEach_ShouldExportNothingForLinkWithoutClicks() {
+        // Given
+        long linkId = link("exp003");
+        ClickExportReader reader = new ClickExportReader(jdbcTemplate, 100, null);
+
+        // When / Then
+        assertEquals(0, reader.forEach("exp003", linkId, click -> fail("No click expected")));
+    }
+
+    /**
+     * Test that the link's archived clicks are exported before the clicks in the table
+     */
+    @Test
+    void forEach_ShouldExportArchivedClicksFirst() throws IOException {
+        // Given: two archived clicks of the link and one of another link
+        long linkId = link("exp004");
+        ClickArchive archive = new ClickArchive(archiveDirectory, 100);
+        archive.write(0, List.of(
+                archived(900, "exp004", linkId, NOW.minusDays(40), "10.0.1.2"),
+                archived(902, "exp005", linkId + 1, NOW.minusDays(45), "10.0.1.8"),
+                archived(899, "exp004", linkId, NOW.minusDays(41), "10.0.1.1")));
+        writer.insert(0, List.of(click(linkId, NOW, "10.0.0.1")));
+        ClickExportReader reader = new ClickExportReader(jdbcTemplate, 100, archive);
+        List<ClickStats> clicks = new ArrayList<>();
+
+        // When
+        long count = reader.forEach("exp004", linkId, clicks::add);
+
+        // Then
+        assertEquals(3, count);
+        assertEquals(List.of("10.0.1.1", "10.0.1.2", "10.0.0.1"),
+                clicks.stream().map(ClickStats::getIpAddress).toList());
+        assertEquals(899L, clicks.get(0).getId());
+        assertEquals(NOW.minusDays(41), clicks.get(0).getClickedAt());
+        assertEquals(BrowserFamily.CHROME, clicks.get(0).getBrowser());
+        assertEquals(linkId, clicks.get(0).getShortUrlId());
+    }
+
+    private static ArchivedClick archived(long id, String shortCode, long linkId, LocalDateTime clickedAt,
+            String ipAddress) {
+        return new ArchivedClick(id, shortCode, linkId, clickedAt, ipAddress, null, "Mozilla/5.0",
+                BrowserFamily.CHROME, null, DeviceClass.DESKTOP, "FR", false);
+    }
+
+    private long link(String shortCode) {
+        return shortUrlRepository.save(ShortUrl.builder()
+                .shortCode(shortCode)
+                .originalUrl("https://example.com/" + shortCode)
+                .createdAt(NOW)
+                .clickStats(new ArrayList<>())
+                .build()).getId();
+    }
+
+    private static ClickStats click(long linkId, LocalDateTime clickedAt, String ipAddress) {
+        return ClickStats.builder()
+                .shortUrlId(linkId)
+                .clickedAt(clickedAt)
+                .ipAddress(ipAddress)
+                .userAgent("Mozilla/5.0")
+                .browser(BrowserFamily.FIREFOX)
+                .device(DeviceClass.MOBILE)
+                .country("DE")
+                .bot(true)
+                .build();
+    }
+}
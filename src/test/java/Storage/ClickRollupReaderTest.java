@@ -0,0 +1,202 @@
+package Storage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import Analytics.DeviceClass;
+import DTO.AnalyticsQuery;
+import DTO.AnalyticsQuery.Dimension;
+import DTO.AnalyticsQuery.Metric;
+import DTO.AnalyticsQuery.TimeBucket;
+import DTO.AnalyticsResult;
+import Model.ClickStats;
+import Model.ShortUrl;
+import Repository.ShortUrlRepository;
+
+/**
+ * Integration tests for ClickRollupReader
+ *
+ * This test class writes clicks through the ClickAggregator into the migrated H2 schema and
+ * queries the rollups: sketches of several flushes must merge in the same rows, groups must
+ * be summed across hours and partitions, and visitors counted once across them.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = {com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication.class, Config.JpaConfig.class})
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:rollupdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class ClickRollupReaderTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 6, 1, 0, 0);
+
+    @Autowired
+    private ShortUrlRepository shortUrlRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private ClickRollupReader reader;
+    private ShortUrl first;
+    private ShortUrl second;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM click_rollup");
+        first = link("rol001");
+        second = link("rol002");
+        // Slices of 5 hours, so a day is read in 5 partitions
+        reader = new ClickRollupReader(jdbcTemplate, 1, 2, Duration.ofHours(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        reader.close();
+    }
+
+    /**
+     * Test that a second flush merges its clicks and visitors into the existing rollup row
+     */
+    @Test
+    void flush_ShouldMergeSketchesIntoExistingRollupRows() {
+        // Given
+        ClickAggregator aggregator = new ClickAggregator(jdbcTemplate, true, 0);
+
+        // When: visitors 1-3 in the first flush, 3-4 in the second, all in the same hour
+        aggregator.add(0, List.of(click(first, DAY.plusHours(9), "1", "https://www.google.com/", "DE", DeviceClass.MOBILE),
+                click(first, DAY.plusHours(9).plusMinutes(1), "2", "https://google.com/x", "DE", DeviceClass.MOBILE),
+                click(first, DAY.plusHours(9).plusMinutes(2), "3", "https://google.com/", "DE", DeviceClass.MOBILE)));
+        aggregator.flush();
+        aggregator.add(0, List.of(click(first, DAY.plusHours(9).plusMinutes(30), "3", "https://google.com/", "DE", DeviceClass.MOBILE),
+                click(first, DAY.plusHours(9).plusMinutes(40), "4", "https://google.com/", "DE", DeviceClass.MOBILE)));
+        aggregator.close();
+
+        // Then
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM click_rollup", Integer.class));
+        AnalyticsResult result = reader.query(query(List.of(), Metric.CLICKS, Metric.UNIQUE_VISITORS), null);
+        assertEquals(1, result.getRows().size());
+        assertEquals(5, result.getRows().get(0).getClicks());
+        assertEquals(4, result.getRows().get(0).getUniqueVisitors());
+    }
+
+    /**
+     * Test that groups sum clicks across hours and partitions and count visitors once
+     */
+    @Test
+    void query_ShouldGroupAcrossHoursAndPartitions() {
+        // Given: visitor 1 clicks both links in different hours, bots are left out
+        ClickAggregator aggregator = new ClickAggregator(jdbcTemplate, true, 0);
+        ClickStats bot = click(second, DAY.plusHours(20), "9", null, "US", DeviceClass.DESKTOP);
+        bot.setBot(true);
+        aggregator.add(0, List.of(
+                click(first, DAY.plusHours(1), "1", "https://google.com/", "DE", DeviceClass.MOBILE),
+                click(first, DAY.plusHours(12), "2", null, "DE", DeviceClass.DESKTOP),
+                click(second, DAY.plusHours(23), "1", "https://google.com/", "FR", DeviceClass.MOBILE),
+                click(second, DAY.plusDays(1).plusHours(2), "3", null, "FR", DeviceClass.TABLET),
+                bot));
+        aggregator.close();
+
+        // When
+        AnalyticsResult byCountry = reader.query(query(List.of(Dimension.COUNTRY), Metric.CLICKS, Metric.UNIQUE_VISITORS), null);
+        AnalyticsResult byTimeAndDevice = reader.query(query(List.of(Dimension.TIME, Dimension.DEVICE), Metric.CLICKS), null);
+        AnalyticsResult firstByReferrer = reader.query(query(List.of(Dimension.REFERRER_DOMAIN), Metric.UNIQUE_VISITORS),
+                Map.of(0, List.of(first.getId())));
+
+        // Then
+        assertEquals(10, byCountry.getPartitions());
+        assertEquals(4, byCountry.getRollupRowsRead());
+        assertEquals(List.of("DE", "FR"), byCountry.getRows().stream().map(AnalyticsResult.Row::getCountry).toList());
+        assertEquals(2, byCountry.getRows().get(1).getClicks());
+        assertEquals(2, byCountry.getRows().get(1).getUniqueVisitors());
+        assertNull(byCountry.getRows().get(0).getTime());
+
+        assertEquals(3, byTimeAndDevice.getRows().size());
+        AnalyticsResult.Row mobile = byTimeAndDevice.getRows().get(1);
+        assertEquals(DAY, mobile.getTime());
+        assertEquals(DeviceClass.MOBILE, mobile.getDevice());
+        assertEquals(2, mobile.getClicks());
+        assertNull(mobile.getUniqueVisitors());
+        assertEquals(DAY.plusDays(1), byTimeAndDevice.getRows().get(2).getTime());
+
+        assertEquals(2, firstByReferrer.getRows().size());
+        assertEquals("", firstByReferrer.getRows().get(0).getReferrerDomain());
+        assertEquals("google.com", firstByReferrer.getRows().get(1).getReferrerDomain());
+        assertNull(firstByReferrer.getRows().get(1).getClicks());
+        assertEquals(1, firstByReferrer.getRows().get(1).getUniqueVisitors());
+    }
+
+    /**
+     * Test that a query producing too many groups is rejected
+     */
+    @Test
+    void query_ShouldRejectTooManyGroups() {
+        // Given
+        ClickAggregator aggregator = new ClickAggregator(jdbcTemplate, true, 0);
+        List<ClickStats> clicks = new ArrayList<>();
+        for (int i = 0; i <= ClickRollupReader.MAX_GROUPS; i++) {
+            clicks.add(click(first, DAY, "1", "https://host" + i + ".example.com/", "DE", DeviceClass.MOBILE));
+        }
+        aggregator.add(0, clicks);
+        aggregator.close();
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class,
+                () -> reader.query(query(List.of(Dimension.REFERRER_DOMAIN), Metric.CLICKS), null));
+    }
+
+    private ShortUrl link(String shortCode) {
+        return shortUrlRepository.findByShortCode(shortCode).orElseGet(() -> shortUrlRepository.save(ShortUrl.builder()
+                .shortCode(shortCode)
+                .originalUrl("https://www.example.com/" + shortCode)
+                .createdAt(DAY.minusDays(1))
+                .clickStats(new ArrayList<>())
+                .build()));
+    }
+
+    private static AnalyticsQuery query(List<Dimension> groupBy, Metric... metrics) {
+        AnalyticsQuery query = new AnalyticsQuery();
+        query.setFrom(DAY);
+        query.setTo(DAY.plusDays(2));
+        query.setGroupBy(groupBy);
+        query.setBucket(TimeBucket.DAY);
+        query.setMetrics(List.of(metrics));
+        return query;
+    }
+
+    private static ClickStats click(ShortUrl link, LocalDateTime clickedAt, String visitor, String referrer,
+            String country, DeviceClass device) {
+        return ClickStats.builder()
+                .shortUrlId(link.getId())
+                .clickedAt(clickedAt)
+                .ipAddress("10.0.0." + visitor)
+                .userAgent("Mozilla/5.0")
+                .referrer(referrer)
+                .country(country)
+                .device(device)
+                .build();
+    }
+}
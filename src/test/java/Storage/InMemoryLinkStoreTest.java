@@ -0,0 +1,254 @@
+package Storage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import DTO.DomainLinks;
+import Model.ClickStats;
+import Model.ShortUrl;
+
+/**
+ * Crash-recovery tests for InMemoryLinkStore
+ *
+ * A crash is simulated by abandoning a store without closing it: records it already
+ * handed to the operating system are on disk, buffered ones are lost, and no final
+ * snapshot is written. A second store is then opened on the same directory.
+ */
+class InMemoryLinkStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversLinksAndClicksFromJournalAfterCrash() {
+        InMemoryLinkStore crashed = open();
+        ShortUrl first = crashed.save(link("abc123", "https://example.com/1"));
+        crashed.save(link("def456", "https://example.com/2"));
+        click(crashed, "abc123", 3);
+        crashed.flush();
+
+        InMemoryLinkStore recovered = open();
+
+        assertEquals(2, recovered.size());
+        ShortUrl found = recovered.findByShortCode("abc123").orElseThrow();
+        assertEquals(first.getId(), found.getId());
+        assertEquals("https://example.com/1", found.getOriginalUrl());
+        assertEquals(first.getCreatedAt(), found.getCreatedAt());
+        assertEquals(3L, found.getClickCount());
+        assertEquals(0L, recovered.findByShortCode("def456").orElseThrow().getClickCount());
+    }
+
+    @Test
+    void linksAreDurableWithoutFlushButUnflushedClicksAreLost() {
+        InMemoryLinkStore crashed = open();
+        crashed.save(link("abc123", "https://example.com"));
+        click(crashed, "abc123", 5);
+
+        InMemoryLinkStore recovered = open();
+
+        assertEquals(0L, recovered.findByShortCode("abc123").orElseThrow().getClickCount());
+    }
+
+    @Test
+    void ignoresTornRecordAtEndOfJournal() throws IOException {
+        InMemoryLinkStore crashed = open();
+        crashed.save(link("abc123", "https://example.com/1"));
+        crashed.save(link("def456", "https://example.com/2"));
+        Path journal = latestJournal();
+        // Cut the last record in half, as a crash during the write would
+        long size = Files.size(journal);
+        try (var channel = Files.newByteChannel(journal, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 10);
+        }
+
+        InMemoryLinkStore recovered = open();
+
+        assertTrue(recovered.exists("abc123"));
+        assertFalse(recovered.exists("def456"));
+    }
+
+    @Test
+    void ignoresRecordWithBadChecksum() throws IOException {
+        InMemoryLinkStore crashed = open();
+        crashed.save(link("abc123", "https://example.com/1"));
+        crashed.save(link("def456", "https://example.com/2"));
+        Path journal = latestJournal();
+        byte[] bytes = Files.readAllBytes(journal);
+        bytes[bytes.length - 6] ^= 0x7F;
+        Files.write(journal, bytes);
+
+        InMemoryLinkStore recovered = open();
+
+        assertTrue(recovered.exists("abc123"));
+        assertFalse(recovered.exists("def456"));
+    }
+
+    @Test
+    void recoversFromSnapshotPlusNewerJournal() throws IOException {
+        InMemoryLinkStore crashed = open();
+        crashed.save(link("abc123", "https://example.com/1"));
+        click(crashed, "abc123", 2);
+        crashed.snapshot();
+        crashed.save(link("def456", "https://example.com/2"));
+        click(crashed, "abc123", 1);
+        crashed.flush();
+
+        InMemoryLinkStore recovered = open();
+
+        assertEquals(3L, recovered.findByShortCode("abc123").orElseThrow().getClickCount());
+        assertTrue(recovered.exists("def456"));
+        // Recovery compacts into a fresh snapshot and a single, empty journal
+        assertEquals(1, StoreJournal.generations(directory).size());
+    }
+
+    @Test
+    void cleanShutdownDoesNotReplayClicksTwice() throws IOException {
+        InMemoryLinkStore store = open();
+        store.save(link("abc123", "https://example.com"));
+        click(store, "abc123", 4);
+        store.close();
+
+        InMemoryLinkStore reopened = open();
+        reopened.close();
+        InMemoryLinkStore again = open();
+
+        assertEquals(4L, again.findByShortCode("abc123").orElseThrow().getClickCount());
+    }
+
+    @Test
+    void countsEveryClickOnceAcrossConcurrentSnapshotsAndFlushes() throws Exception {
+        InMemoryLinkStore store = open();
+        store.save(link("abc123", "https://example.com"));
+        ShortUrl shortUrl = store.findByShortCode("abc123").orElseThrow();
+        ExecutorService clickers = Executors.newFixedThreadPool(4);
+        List<Future<?>> done = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+            done.add(clickers.submit(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    store.recordClick(shortUrl, ClickStats.builder().build());
+                }
+            }));
+        }
+        while (!done.stream().allMatch(Future::isDone)) {
+            store.snapshot();
+            store.flush();
+        }
+        clickers.shutdown();
+        for (Future<?> future : done) {
+            future.get();
+        }
+        store.flush();
+
+        InMemoryLinkStore recovered = open();
+
+        assertEquals(20_000L, recovered.findByShortCode("abc123").orElseThrow().getClickCount());
+    }
+
+    @Test
+    void recordClickDoesNotAllocatePerClick() {
+        InMemoryLinkStore store = open();
+        store.save(link("abc123", "https://example.com"));
+        ShortUrl shortUrl = store.findByShortCode("abc123").orElseThrow();
+        ClickStats click = ClickStats.builder().build();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            store.recordClick(shortUrl, click);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        store.flush();
+
+        assertTrue(allocated < 64 * 1024, "Allocated " + allocated + " bytes for 100,000 clicks");
+        assertEquals(100_000L, open().findByShortCode("abc123").orElseThrow().getClickCount());
+    }
+
+    @Test
+    void continuesIdSequenceAfterRecovery() {
+        InMemoryLinkStore crashed = open();
+        crashed.save(link("abc123", "https://example.com/1"));
+        ShortUrl second = crashed.save(link("def456", "https://example.com/2"));
+
+        InMemoryLinkStore recovered = open();
+        ShortUrl third = recovered.save(link("ghi789", "https://example.com/3"));
+
+        assertEquals(second.getId() + 1, third.getId());
+        List<String> codes = new ArrayList<>();
+        recovered.findAll().forEach(url -> codes.add(url.getShortCode()));
+        assertEquals(List.of("abc123", "def456", "ghi789"), codes);
+    }
+
+    @Test
+    void indexesRecoveredLinksByTargetHost() {
+        InMemoryLinkStore crashed = open();
+        crashed.save(link("abc123", "https://www.example.com/1"));
+        crashed.snapshot();
+        crashed.save(link("def456", "https://example.org/2"));
+        crashed.save(link("ghi789", "http://Example.com:8080/3"));
+
+        InMemoryLinkStore recovered = open();
+        DomainLinks first = recovered.findByTargetHost("example.com", null, 1);
+        DomainLinks second = recovered.findByTargetHost("example.com", first.getNext(), 1);
+
+        assertEquals(2, first.getLinkCount());
+        assertEquals("abc123", first.getLinks().get(0).getShortCode());
+        assertEquals("ghi789", second.getLinks().get(0).getShortCode());
+        assertTrue(recovered.findByTargetHost("example.com", second.getNext(), 1).getLinks().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> recovered.findByTargetHost("example.com", "x", 1));
+    }
+
+    @Test
+    void refusesToStartFromCorruptSnapshot() throws IOException {
+        InMemoryLinkStore store = open();
+        store.save(link("abc123", "https://example.com"));
+        store.close();
+        Path snapshot = directory.resolve(StoreSnapshot.FILE_NAME);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length / 2] ^= 0x7F;
+        Files.write(snapshot, bytes);
+
+        assertThrows(UncheckedIOException.class, this::open);
+    }
+
+    private InMemoryLinkStore open() {
+        return new InMemoryLinkStore(directory, Duration.ZERO, Duration.ZERO);
+    }
+
+    private Path latestJournal() throws IOException {
+        List<Long> generations = StoreJournal.generations(directory);
+        return StoreJournal.file(directory, generations.get(generations.size() - 1));
+    }
+
+    private static ShortUrl link(String shortCode, String originalUrl) {
+        return ShortUrl.builder()
+                .shortCode(shortCode)
+                .originalUrl(originalUrl)
+                .createdAt(LocalDateTime.now())
+                .clickStats(new ArrayList<>())
+                .build();
+    }
+
+    private static void click(InMemoryLinkStore store, String shortCode, int times) {
+        ShortUrl shortUrl = store.findByShortCode(shortCode).orElseThrow();
+        for (int i = 0; i < times; i++) {
+            store.recordClick(shortUrl, ClickStats.builder().ipAddress("127.0.0.1").build());
+        }
+    }
+}
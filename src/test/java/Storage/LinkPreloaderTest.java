@@ -0,0 +1,119 @@
+package Storage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import Model.ClickStats;
+import Model.ShortUrl;
+import Replica.ReplicaLagGuard;
+import Repository.ShortUrlRepository;
+import Sharding.ShardRouter;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Integration tests for LinkPreloader
+ *
+ * This test class checks that the links with the most human clicks in the hourly aggregates
+ * end up in the second-level cache, so resolving them afterwards issues no SQL, while other
+ * links are left to be loaded on demand.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = {com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication.class, Config.JpaConfig.class})
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:preloaddb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class LinkPreloaderTest {
+
+    @Autowired
+    private ShortUrlRepository shortUrlRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Test that only the most-clicked links are cached and bot clicks do not count
+     */
+    @Test
+    void run_ShouldCacheMostClickedLinks() {
+        // Given
+        ShortUrl hot = save("hot123");
+        ShortUrl warm = save("warm12");
+        ShortUrl crawled = save("bot123");
+        save("cold12");
+        ClickAggregator aggregator = new ClickAggregator(new JdbcTemplate(dataSource), true, 0);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        aggregator.add(0, List.of(click(hot, now, false), click(hot, now, false), click(hot, now, false),
+                click(warm, now, false), click(warm, now, false),
+                click(crawled, now, true), click(crawled, now, true), click(crawled, now, true),
+                click(crawled, now, true)));
+        aggregator.flush();
+        JpaLinkStore store = JpaLinkStore.builder()
+                .shortUrlRepo(shortUrlRepository)
+                .shardRouter(new ShardRouter(1))
+                .replicaLagGuard(new ReplicaLagGuard(false, Duration.ZERO, 0))
+                .clickAggregator(aggregator)
+                .build();
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+
+        // When
+        new LinkPreloader(store, 2, Duration.ofDays(1)).run(new DefaultApplicationArguments());
+
+        // Then
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        assertEquals("https://hot123.example.com", store.findByShortCode("hot123").orElseThrow().getOriginalUrl());
+        assertTrue(store.findByShortCode("warm12").isPresent());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        assertTrue(store.findByShortCode("bot123").isPresent());
+        assertTrue(store.findByShortCode("cold12").isPresent());
+        assertTrue(statistics.getPrepareStatementCount() > 0);
+        aggregator.close();
+    }
+
+    private ShortUrl save(String shortCode) {
+        return shortUrlRepository.save(ShortUrl.builder()
+                .shortCode(shortCode)
+                .originalUrl("https://" + shortCode + ".example.com")
+                .createdAt(LocalDateTime.now())
+                .clickStats(new ArrayList<>())
+                .build());
+    }
+
+    private static ClickStats click(ShortUrl link, LocalDateTime clickedAt, boolean bot) {
+        return ClickStats.builder()
+                .shortUrlId(link.getId())
+                .clickedAt(clickedAt)
+                .bot(bot)
+                .build();
+    }
+}
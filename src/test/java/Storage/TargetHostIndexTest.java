@@ -0,0 +1,153 @@
+package Storage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import DTO.DomainLinks;
+import Model.ShortUrl;
+import Replica.ReplicaLagGuard;
+import Repository.ShortUrlRepository;
+import Sharding.ShardRouter;
+
+/**
+ * Integration tests for TargetHostIndex
+ *
+ * This test class stores links in the migrated H2 schema, with and without a target host,
+ * and reads them back by host through the JpaLinkStore: missing hosts must be filled in by
+ * a refresh, the per-host counts must follow new links, and keyset pages must return every
+ * link of the host once, in id order.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = {com.urlshorteneanalyser.urlshortenerandanalyzer.UrlshortenerandanalyzerApplication.class, Config.JpaConfig.class})
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:hostdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "urlshortener.storage.target-host-refresh-interval=0"
+})
+class TargetHostIndexTest {
+
+    @Autowired
+    private ShortUrlRepository shortUrlRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private TargetHostIndex index;
+    private JpaLinkStore store;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM short_url");
+        index = new TargetHostIndex(jdbcTemplate, 1, 2, new TargetHostSummary(), Duration.ZERO);
+        store = JpaLinkStore.builder()
+                .shortUrlRepo(shortUrlRepository)
+                .shardRouter(new ShardRouter(1))
+                .replicaLagGuard(new ReplicaLagGuard(false, Duration.ZERO, 0))
+                .targetHostIndex(index)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.close();
+    }
+
+    /**
+     * Test that a refresh fills in the hosts of links stored without one and counts the links per host
+     */
+    @Test
+    void refresh_ShouldFillMissingHostsAndCountLinks() {
+        // Given: links stored without a target host, more than one backfill batch
+        save("host001", "https://WWW.Example.com/a", null);
+        save("host002", "http://example.com:8080/b", null);
+        save("host003", "https://other.example.org/c", null);
+        save("host004", "example.com/d", "example.com");
+
+        // When
+        long filled = index.refresh();
+
+        // Then
+        assertEquals(3, filled);
+        assertEquals(List.of("example.com", "example.com", "other.example.org", "example.com"),
+                jdbcTemplate.queryForList("SELECT target_host FROM short_url ORDER BY id", String.class));
+        assertEquals(3, index.summary().count("example.com"));
+        assertEquals(1, index.summary().count("other.example.org"));
+        assertEquals(0, index.refresh());
+    }
+
+    /**
+     * Test that keyset pages return every link of the host once, in id order, and new links are counted
+     */
+    @Test
+    void findByTargetHost_ShouldPageInIdOrder() {
+        // Given
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(store.save(link("page00" + i, "https://example.com/" + i, "example.com")).getId());
+            store.save(link("else00" + i, "https://example.org/" + i, "example.org"));
+        }
+
+        // When
+        DomainLinks first = store.findByTargetHost("example.com", null, 2);
+        DomainLinks second = store.findByTargetHost("example.com", first.getNext(), 2);
+        DomainLinks last = store.findByTargetHost("example.com", second.getNext(), 2);
+
+        // Then
+        assertEquals(5, first.getLinkCount());
+        assertEquals(ids.subList(0, 2), first.getLinks().stream().map(ShortUrl::getId).toList());
+        assertEquals(ids.subList(2, 4), second.getLinks().stream().map(ShortUrl::getId).toList());
+        assertEquals(ids.subList(4, 5), last.getLinks().stream().map(ShortUrl::getId).toList());
+        assertEquals("0:" + ids.get(1), first.getNext());
+        assertNull(last.getNext());
+        assertEquals("https://example.com/0", first.getLinks().get(0).getOriginalUrl());
+        assertTrue(store.findByTargetHost("unknown.example", null, 2).getLinks().isEmpty());
+    }
+
+    /**
+     * Test that a cursor not issued by the store is rejected
+     */
+    @Test
+    void findByTargetHost_ShouldRejectInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> store.findByTargetHost("example.com", "abc", 2));
+        assertThrows(IllegalArgumentException.class, () -> store.findByTargetHost("example.com", "1:5", 2));
+        assertThrows(IllegalArgumentException.class, () -> store.findByTargetHost("example.com", "12", 2));
+    }
+
+    private void save(String shortCode, String originalUrl, String targetHost) {
+        shortUrlRepository.save(link(shortCode, originalUrl, targetHost));
+    }
+
+    private static ShortUrl link(String shortCode, String originalUrl, String targetHost) {
+        return ShortUrl.builder()
+                .shortCode(shortCode)
+                .originalUrl(originalUrl)
+                .targetHost(targetHost)
+                .createdAt(LocalDateTime.now())
+                .clickStats(new ArrayList<>())
+                .build();
+    }
+}